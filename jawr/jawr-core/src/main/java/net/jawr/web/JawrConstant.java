@@ -121,6 +121,12 @@ public class JawrConstant {
 	/** The smartsprites temporary directory */
 	public static final String CSS_SMARTSPRITES_TMP_DIR = "/cssSprites/src/";
 
+	/**
+	 * The directory where the classes generated for the Javascript tool
+	 * scripts are stored
+	 */
+	public static final String JS_ENGINE_SCRIPT_CLASS_DIR = "/jsEngine/classes/";
+
 	/** The ID of the CSS sprite global preprocessor */
 	public static final String GLOBAL_CSS_SMARTSPRITES_PREPROCESSOR_ID = "smartsprites";
 
@@ -193,6 +199,21 @@ public class JawrConstant {
 	/** The "locale_skin" type for the skin resource mapping */
 	public static final String SKIN_TYPE_MAPPING_LOCALE_SKIN = "locale_skin";
 
+	/**
+	 * The property name which defines if the skin variants of the CSS bundles
+	 * are generated on their first request instead of at startup. The default
+	 * skin variant is always generated at startup. This property is ignored if
+	 * the bundle mapping is used.
+	 */
+	public static final String JAWR_CSS_SKIN_LAZY_VARIANTS = "jawr.css.skin.lazy.variants";
+
+	/**
+	 * The property name which defines if the lazy skin variants which have
+	 * been requested in the previous runs are generated in background after
+	 * the bundling process
+	 */
+	public static final String JAWR_CSS_SKIN_LAZY_VARIANTS_PREWARM = "jawr.css.skin.lazy.variants.prewarm";
+
 	/** The variant separator character */
 	public static final char VARIANT_SEPARATOR_CHAR = '@';
 
@@ -243,6 +264,15 @@ public class JawrConstant {
 
 	public static final String BASE64_ENCODE_SPRITE = "jawr.css.postprocessor.base64ImageEncoder.encode.sprite";
 
+	/**
+	 * The property name which defines the maximum number of characters of
+	 * base64 encoded images kept in memory. A value of 0 disables the cache.
+	 */
+	public static final String BASE64_CACHE_MAX_SIZE = "jawr.css.postprocessor.base64ImageEncoder.cache.max.size";
+
+	/** The default maximum number of characters of base64 encoded images kept in memory */
+	public static final long DEFAULT_BASE64_CACHE_MAX_SIZE = 4 * 1024 * 1024;
+
 	public static final String POST_PROCESSING_CTX_JAWR_BINARY_MAPPING = "jawrBinaryMapping";
 
 	public static final String BASE64_ENCODED_RESOURCES = "BASE64_ENCODED_RESOURCES";
@@ -287,6 +317,14 @@ public class JawrConstant {
 	/** The ResourceBundle charset. The default one is "ISO-8859-1" */
 	public static final String JAWR_LOCALE_GENERATOR_RESOURCE_BUNDLE_CHARSET = "jawr.locale.generator.resourceBundle.charset";
 
+	/**
+	 * The Jawr config property which defines the number of threads used by
+	 * the locale generator to generate the locale variants of a message bundle
+	 * during the bundling process. A value of 1 disables the parallel
+	 * generation. The default value is the number of available processors.
+	 */
+	public static final String JAWR_LOCALE_GENERATOR_THREADS = "jawr.locale.generator.threads";
+
 	/** The default resource extensions */
 	public static final List<String> DEFAULT_RESOURCE_EXTENSIONS = Arrays.asList("sorting", "license", "eot", "svg",
 			"ttf", "woff");
@@ -328,6 +366,20 @@ public class JawrConstant {
 	/** The default Javascript engine */
 	public static final String DEFAULT_JS_ENGINE = "mozilla.rhino";
 
+	/**
+	 * The property name of the maximum number of Javascript engines created
+	 * for a tool. A value lower than 1 means the number of available
+	 * processors.
+	 */
+	public static final String JS_ENGINE_POOL_SIZE = "jawr.js.engine.pool.size";
+
+	/**
+	 * The property name of the Rhino optimization level used to generate the
+	 * classes of the Javascript tool scripts, which are stored in the working
+	 * directory. A negative value means that the classes are not generated.
+	 */
+	public static final String JS_ENGINE_OPTIMIZATION_LEVEL = "jawr.js.engine.optimization.level";
+
 	/** The performance processing logger */
 	public static final String PERF_PROCESSING_LOGGER = "net.jawr.perf.processing";
 
@@ -337,6 +389,12 @@ public class JawrConstant {
 	/** The JAWR config hashcode property name */
 	public static final String JAWR_CONFIG_HASHCODE = "jawr.config.hashcode";
 
+	/**
+	 * The property name of the hashcode of the JAWR config properties which
+	 * are shared by all the bundles
+	 */
+	public static final String JAWR_SHARED_CONFIG_HASHCODE = "jawr.config.shared.hashcode";
+
 	/** The Sass generator property name. */
 	public static final String SASS_GENERATOR_TYPE = "jawr.css.sass.generator";
 
@@ -358,6 +416,12 @@ public class JawrConstant {
 	/** The mixed URL mode */
 	public static final String SASS_GENERATOR_MIXED_URL_MODE = "mixed";
 
+	/**
+	 * The property name of the maximum number of JRuby runtimes used by the
+	 * Sass Ruby generator to compile Sass resources in parallel
+	 */
+	public static final String SASS_GENERATOR_RUBY_RUNTIMES = "jawr.css.sass.generator.ruby.runtimes";
+
 	/**
 	 * The delay after last event, this is used to to ensure that a batch
 	 * modification is ended before starting the build
@@ -370,6 +434,101 @@ public class JawrConstant {
 	 */
 	public static final String JAWR_SMART_BUNDLING_DELAY_AFTER_LAST_EVENT = "jawr.smart.bundling.delay.after.last.event";
 
+	/**
+	 * The default size threshold (in bytes) above which the resource files are
+	 * read through a file channel
+	 */
+	public static final long DEFAULT_CHANNEL_READ_THRESHOLD = 512 * 1024;
+
+	/**
+	 * The property name which defines the size threshold (in bytes) above
+	 * which the resource files are read through a file channel. A negative
+	 * value disables this mode.
+	 */
+	public static final String JAWR_RESOURCE_CHANNEL_READ_THRESHOLD = "jawr.resource.channel.read.threshold";
+
+	/**
+	 * The property name which defines the comma separated list of path
+	 * prefixes of the resources which never change during a bundling process,
+	 * like the vendor libraries. Their decoded content is shared between the
+	 * bundles and the variants, so it must not depend on them.
+	 */
+	public static final String JAWR_RESOURCE_IMMUTABLE_PATHS = "jawr.resource.immutable.paths";
+
+	/**
+	 * The default maximum number of characters of decoded resource content
+	 * kept during a bundling process
+	 */
+	public static final long DEFAULT_DECODED_CONTENT_CACHE_MAX_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * The property name which defines the maximum number of characters of
+	 * decoded resource content kept during a bundling process. A value of 0
+	 * disables the cache.
+	 */
+	public static final String JAWR_RESOURCE_DECODED_CONTENT_CACHE_MAX_SIZE = "jawr.resource.decoded.content.cache.max.size";
+
+	/**
+	 * The property name which defines how the generator cache checks that the
+	 * resources linked to a generated resource have not been modified. The
+	 * possible values are "timestamp" and "content".
+	 */
+	public static final String JAWR_GENERATOR_CACHE_VALIDATION = "jawr.generator.cache.validation";
+
+	/**
+	 * The generator cache validation mode which compares the last modified
+	 * dates of the linked resources
+	 */
+	public static final String GENERATOR_CACHE_VALIDATION_TIMESTAMP = "timestamp";
+
+	/**
+	 * The generator cache validation mode which compares the content hash of
+	 * the linked resources when their last modified date has changed
+	 */
+	public static final String GENERATOR_CACHE_VALIDATION_CONTENT = "content";
+
+	/**
+	 * The default maximum number of characters of generated content kept in
+	 * memory by each cached generator
+	 */
+	public static final long DEFAULT_GENERATOR_CACHE_MEMORY_MAX_SIZE = 2 * 1024 * 1024;
+
+	/**
+	 * The property name which defines the maximum number of characters of
+	 * generated content kept in memory by each cached generator. A value of 0
+	 * disables the in-memory cache.
+	 */
+	public static final String JAWR_GENERATOR_CACHE_MEMORY_MAX_SIZE = "jawr.generator.cache.memory.max.size";
+
+	/**
+	 * The default maximum number of characters of minified content kept in
+	 * memory by each YUI compressor
+	 */
+	public static final long DEFAULT_YUI_COMPRESSOR_CACHE_MAX_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * The property name which defines the maximum number of characters of
+	 * minified content kept in memory by each YUI compressor. A value of 0
+	 * disables the cache.
+	 */
+	public static final String JAWR_YUI_COMPRESSOR_CACHE_MAX_SIZE = "jawr.yui.compressor.cache.max.size";
+
+	/**
+	 * The property name which defines the regular expression of the paths of
+	 * the resources already minified, which are not processed by the
+	 * minifiers. An empty value disables the path matching.
+	 */
+	public static final String JAWR_MINIFIED_RESOURCES_PATTERN = "jawr.postprocessing.minified.resources.pattern";
+
+	/** The default regular expression of the paths of the minified resources */
+	public static final String DEFAULT_MINIFIED_RESOURCES_PATTERN = ".*[.-]min\\.(js|css)";
+
+	/**
+	 * The property name which defines if the resources already minified are
+	 * detected from their content
+	 */
+	public static final String JAWR_MINIFIED_RESOURCES_DETECTION = "jawr.postprocessing.minified.resources.detection";
+
 	/** URL prefix for jar file */
 	public static final String JAR_URL_PREFIX = "jar:";
 
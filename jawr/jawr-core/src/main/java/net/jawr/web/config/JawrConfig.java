@@ -348,6 +348,60 @@ public class JawrConfig implements Serializable {
 	 */
 	private int delayAfterLastEvent = JawrConstant.DEFAULT_DELAY_AFTER_LAST_EVENT;
 
+	/**
+	 * The size threshold above which the resource files are read through a
+	 * file channel
+	 */
+	private long channelReadThreshold = JawrConstant.DEFAULT_CHANNEL_READ_THRESHOLD;
+
+	/**
+	 * The maximum number of characters of decoded resource content kept
+	 * during a bundling process
+	 */
+	private long decodedContentCacheMaxSize = JawrConstant.DEFAULT_DECODED_CONTENT_CACHE_MAX_SIZE;
+
+	/**
+	 * The maximum number of Javascript engines created for a tool, a value
+	 * lower than 1 means the number of available processors
+	 */
+	private int javascriptEnginePoolSize = 0;
+
+	/**
+	 * The Rhino optimization level used to generate the classes of the
+	 * Javascript tool scripts, a negative value means that the classes are not
+	 * generated
+	 */
+	private int javascriptEngineOptimizationLevel = -1;
+
+	/**
+	 * The validation mode of the generator cache, "timestamp" or "content"
+	 */
+	private String generatorCacheValidation = JawrConstant.GENERATOR_CACHE_VALIDATION_TIMESTAMP;
+
+	/**
+	 * The maximum number of characters of generated content kept in memory by
+	 * each cached generator
+	 */
+	private long generatorCacheMemoryMaxSize = JawrConstant.DEFAULT_GENERATOR_CACHE_MEMORY_MAX_SIZE;
+
+	/**
+	 * The maximum number of characters of minified content kept in memory by
+	 * each YUI compressor
+	 */
+	private long yuiCompressorCacheMaxSize = JawrConstant.DEFAULT_YUI_COMPRESSOR_CACHE_MAX_SIZE;
+
+	/**
+	 * The flag indicating if the CSS skin variants are generated on their
+	 * first request
+	 */
+	private boolean lazyCssSkinVariants = false;
+
+	/**
+	 * The flag indicating if the lazy CSS skin variants are prewarmed in
+	 * background
+	 */
+	private boolean prewarmLazyCssSkinVariants = false;
+
 	/**
 	 * The jawr working directory path
 	 */
@@ -549,6 +603,45 @@ public class JawrConfig implements Serializable {
 			delayAfterLastEvent = Integer.parseInt(value) * 1000;
 		}
 
+		value = getProperty(JawrConstant.JAWR_RESOURCE_CHANNEL_READ_THRESHOLD);
+		if (StringUtils.isNotEmpty(value)) {
+			channelReadThreshold = Long.parseLong(value.trim());
+		}
+
+		value = getProperty(JawrConstant.JAWR_RESOURCE_DECODED_CONTENT_CACHE_MAX_SIZE);
+		if (StringUtils.isNotEmpty(value)) {
+			decodedContentCacheMaxSize = Long.parseLong(value.trim());
+		}
+
+		value = getProperty(JawrConstant.JS_ENGINE_POOL_SIZE);
+		if (StringUtils.isNotEmpty(value)) {
+			javascriptEnginePoolSize = Integer.parseInt(value.trim());
+		}
+
+		value = getProperty(JawrConstant.JS_ENGINE_OPTIMIZATION_LEVEL);
+		if (StringUtils.isNotEmpty(value)) {
+			javascriptEngineOptimizationLevel = Integer.parseInt(value.trim());
+		}
+
+		value = getProperty(JawrConstant.JAWR_GENERATOR_CACHE_VALIDATION);
+		if (StringUtils.isNotEmpty(value)) {
+			generatorCacheValidation = value.trim().toLowerCase();
+		}
+
+		value = getProperty(JawrConstant.JAWR_GENERATOR_CACHE_MEMORY_MAX_SIZE);
+		if (StringUtils.isNotEmpty(value)) {
+			generatorCacheMemoryMaxSize = Long.parseLong(value.trim());
+		}
+
+		value = getProperty(JawrConstant.JAWR_YUI_COMPRESSOR_CACHE_MAX_SIZE);
+		if (StringUtils.isNotEmpty(value)) {
+			yuiCompressorCacheMaxSize = Long.parseLong(value.trim());
+		}
+
+		this.lazyCssSkinVariants = getBooleanProperty(JawrConstant.JAWR_CSS_SKIN_LAZY_VARIANTS, false);
+		this.prewarmLazyCssSkinVariants = getBooleanProperty(JawrConstant.JAWR_CSS_SKIN_LAZY_VARIANTS_PREWARM,
+				false);
+
 		this.jawrWorkingDirectory = getProperty(JAWR_WORKING_DIRECTORY);
 
 		this.gzipResourcesModeOn = getBooleanProperty(JAWR_GZIP_ON, true);
@@ -826,6 +919,202 @@ public class JawrConfig implements Serializable {
 		return delayAfterLastEvent;
 	}
 
+	/**
+	 * Returns the size threshold above which the resource files are read
+	 * through a file channel. A negative value means that this mode is
+	 * disabled.
+	 * 
+	 * @return the size threshold above which the resource files are read
+	 *         through a file channel
+	 */
+	public long getChannelReadThreshold() {
+		return channelReadThreshold;
+	}
+
+	/**
+	 * Sets the size threshold above which the resource files are read through a
+	 * file channel
+	 * 
+	 * @param channelReadThreshold
+	 *            the threshold to set
+	 */
+	public void setChannelReadThreshold(long channelReadThreshold) {
+		this.channelReadThreshold = channelReadThreshold;
+	}
+
+	/**
+	 * Returns the maximum number of characters of decoded resource content
+	 * kept during a bundling process
+	 * 
+	 * @return the maximum size of the decoded content cache
+	 */
+	public long getDecodedContentCacheMaxSize() {
+		return decodedContentCacheMaxSize;
+	}
+
+	/**
+	 * Sets the maximum number of characters of decoded resource content kept
+	 * during a bundling process
+	 * 
+	 * @param decodedContentCacheMaxSize
+	 *            the maximum size to set
+	 */
+	public void setDecodedContentCacheMaxSize(long decodedContentCacheMaxSize) {
+		this.decodedContentCacheMaxSize = decodedContentCacheMaxSize;
+	}
+
+	/**
+	 * Returns the maximum number of Javascript engines created for a tool
+	 * like Uglify or Autoprefixer. A value lower than 1 means the number of
+	 * available processors.
+	 * 
+	 * @return the maximum number of Javascript engines created for a tool
+	 */
+	public int getJavascriptEnginePoolSize() {
+		return javascriptEnginePoolSize;
+	}
+
+	/**
+	 * Sets the maximum number of Javascript engines created for a tool
+	 * 
+	 * @param javascriptEnginePoolSize
+	 *            the maximum number of engines to set
+	 */
+	public void setJavascriptEnginePoolSize(int javascriptEnginePoolSize) {
+		this.javascriptEnginePoolSize = javascriptEnginePoolSize;
+	}
+
+	/**
+	 * Returns the Rhino optimization level used to generate the classes of
+	 * the Javascript tool scripts, which are stored in the working directory
+	 * and reused after a restart. A negative value means that the classes are
+	 * not generated.
+	 * 
+	 * @return the Rhino optimization level of the tool scripts
+	 */
+	public int getJavascriptEngineOptimizationLevel() {
+		return javascriptEngineOptimizationLevel;
+	}
+
+	/**
+	 * Sets the Rhino optimization level used to generate the classes of the
+	 * Javascript tool scripts
+	 * 
+	 * @param javascriptEngineOptimizationLevel
+	 *            the optimization level to set
+	 */
+	public void setJavascriptEngineOptimizationLevel(int javascriptEngineOptimizationLevel) {
+		this.javascriptEngineOptimizationLevel = javascriptEngineOptimizationLevel;
+	}
+
+	/**
+	 * Returns the validation mode of the generator cache. With the
+	 * "timestamp" mode, a generated resource is generated again as soon as the
+	 * last modified date of one of its linked resources changes. With the
+	 * "content" mode, it is only generated again if the content of the linked
+	 * resource has changed.
+	 * 
+	 * @return the validation mode of the generator cache
+	 */
+	public String getGeneratorCacheValidation() {
+		return generatorCacheValidation;
+	}
+
+	/**
+	 * Sets the validation mode of the generator cache
+	 * 
+	 * @param generatorCacheValidation
+	 *            the validation mode to set, "timestamp" or "content"
+	 */
+	public void setGeneratorCacheValidation(String generatorCacheValidation) {
+		this.generatorCacheValidation = generatorCacheValidation;
+	}
+
+	/**
+	 * Returns the maximum number of characters of generated content kept in
+	 * memory by each cached generator
+	 * 
+	 * @return the maximum size of the in-memory generator cache
+	 */
+	public long getGeneratorCacheMemoryMaxSize() {
+		return generatorCacheMemoryMaxSize;
+	}
+
+	/**
+	 * Sets the maximum number of characters of generated content kept in
+	 * memory by each cached generator
+	 * 
+	 * @param generatorCacheMemoryMaxSize
+	 *            the maximum size to set
+	 */
+	public void setGeneratorCacheMemoryMaxSize(long generatorCacheMemoryMaxSize) {
+		this.generatorCacheMemoryMaxSize = generatorCacheMemoryMaxSize;
+	}
+
+	/**
+	 * Returns the maximum number of characters of minified content kept in
+	 * memory by each YUI compressor
+	 * 
+	 * @return the maximum size of the YUI compressor cache
+	 */
+	public long getYuiCompressorCacheMaxSize() {
+		return yuiCompressorCacheMaxSize;
+	}
+
+	/**
+	 * Sets the maximum number of characters of minified content kept in
+	 * memory by each YUI compressor
+	 * 
+	 * @param yuiCompressorCacheMaxSize
+	 *            the maximum size to set
+	 */
+	public void setYuiCompressorCacheMaxSize(long yuiCompressorCacheMaxSize) {
+		this.yuiCompressorCacheMaxSize = yuiCompressorCacheMaxSize;
+	}
+
+	/**
+	 * Returns the flag indicating if the CSS skin variants are generated on
+	 * their first request
+	 *
+	 * @return the flag indicating if the CSS skin variants are generated on
+	 *         their first request
+	 */
+	public boolean isLazyCssSkinVariants() {
+		return lazyCssSkinVariants;
+	}
+
+	/**
+	 * Sets the flag indicating if the CSS skin variants are generated on their
+	 * first request
+	 *
+	 * @param lazyCssSkinVariants
+	 *            the flag to set
+	 */
+	public void setLazyCssSkinVariants(boolean lazyCssSkinVariants) {
+		this.lazyCssSkinVariants = lazyCssSkinVariants;
+	}
+
+	/**
+	 * Returns the flag indicating if the lazy CSS skin variants are prewarmed
+	 * in background
+	 *
+	 * @return the flag indicating if the lazy CSS skin variants are prewarmed
+	 */
+	public boolean isPrewarmLazyCssSkinVariants() {
+		return prewarmLazyCssSkinVariants;
+	}
+
+	/**
+	 * Sets the flag indicating if the lazy CSS skin variants are prewarmed in
+	 * background
+	 *
+	 * @param prewarmLazyCssSkinVariants
+	 *            the flag to set
+	 */
+	public void setPrewarmLazyCssSkinVariants(boolean prewarmLazyCssSkinVariants) {
+		this.prewarmLazyCssSkinVariants = prewarmLazyCssSkinVariants;
+	}
+
 	/**
 	 * Returns the flag indicating if we should use the bundle mapping
 	 * properties file.
@@ -1301,6 +1590,20 @@ public class JawrConfig implements Serializable {
 		return configProperties;
 	}
 
+	/**
+	 * Updates the config properties. This is used when the configuration is
+	 * reloaded and only the properties which are bound to bundles or
+	 * generators have changed, so the settings initialized from the shared
+	 * properties remain valid.
+	 * 
+	 * @param props
+	 *            the new config properties, whose placeholders are already
+	 *            resolved
+	 */
+	public void updateConfigProperties(Properties props) {
+		this.configProperties = props;
+	}
+
 	/**
 	 * Sets the css link flavor
 	 * 
@@ -0,0 +1,854 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.minification;
+
+/**
+ * Minifies CSS files by removing expendable whitespace and comments, in a
+ * single pass over the content.
+ *
+ * The comments are removed in place, then the content is read by a tokenizer,
+ * which returns the licences and the strings as opaque tokens, and the
+ * whitespace is minified while the tokens are read. The result is the same as the one of
+ * the {@link CSSMinifier}, which uses successive regular expressions, without
+ * creating a copy of the content for each step.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class CSSTokenizerMinifier extends CSSMinifier {
+
+	/** The code of the end of the content */
+	private static final int EOF = -1;
+
+	/** The code of a token (a string or a licence) */
+	private static final int TOKEN = -2;
+
+	/** The vertical tab, which is a whitespace but is never replaced */
+	private static final char VERTICAL_TAB = '\u000B';
+
+	/** The flag indicating if the licence info should be kept */
+	private final boolean keepLicence;
+
+	/**
+	 * Constructor
+	 */
+	public CSSTokenizerMinifier() {
+		this(false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param keepLicence
+	 *            the flag indicating if we should kept the licence
+	 */
+	public CSSTokenizerMinifier(boolean keepLicence) {
+		super(keepLicence);
+		this.keepLicence = keepLicence;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * net.jawr.web.minification.CSSMinifier#minifyCSS(java.lang.StringBuffer)
+	 */
+	@Override
+	public StringBuffer minifyCSS(final StringBuffer data) {
+
+		char[] src = new char[data.length()];
+		data.getChars(0, src.length, src, 0);
+		return new StringBuffer(minifyCSS(src));
+	}
+
+	/**
+	 * Minifies the CSS characters. The array is updated in place.
+	 *
+	 * @param src
+	 *            the CSS characters
+	 * @return the minified CSS
+	 */
+	public StringBuilder minifyCSS(final char[] src) {
+
+		int length = removeComments(src);
+		StringBuilder out = new StringBuilder(length);
+		new Minification(new Tokenizer(src, length, 0, keepLicence, new ScanLimits()), out).run();
+		return out;
+	}
+
+	/**
+	 * Removes the comments, which are not licences, from the content. The
+	 * content is updated in place.
+	 *
+	 * @param src
+	 *            the content
+	 * @return the length of the content without comments
+	 */
+	private static int removeComments(char[] src) {
+
+		int length = 0;
+		int i = 0;
+		while (i < src.length) {
+			if (src[i] == '/' && i + 1 < src.length && src[i + 1] == '*'
+					&& (i + 2 >= src.length || src[i + 2] != '!')) {
+				int end = indexOfCommentEnd(src, src.length, i + 2);
+				if (end == -1) {
+					// No other comment can be terminated
+					System.arraycopy(src, i, src, length, src.length - i);
+					return length + src.length - i;
+				}
+				i = end + 2;
+			} else {
+				src[length++] = src[i++];
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the index of the next comment end
+	 *
+	 * @param src
+	 *            the content
+	 * @param length
+	 *            the content length
+	 * @param from
+	 *            the start index
+	 * @return the index of the next comment end, or -1 if there is none
+	 */
+	private static int indexOfCommentEnd(char[] src, int length, int from) {
+
+		for (int i = from; i < length - 1; i++) {
+			if (src[i] == '*' && src[i + 1] == '/') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks if the code is a whitespace code. The new lines, tabs and form
+	 * feeds are returned as spaces by the tokenizer.
+	 *
+	 * @param code
+	 *            the code
+	 * @return true if the code is a whitespace code
+	 */
+	private static boolean isWhitespace(int code) {
+		return code == ' ' || code == VERTICAL_TAB;
+	}
+
+	/**
+	 * Checks if the code is removed when the selector of a rule is trimmed,
+	 * which is the case of the whitespace and of the control characters.
+	 *
+	 * @param code
+	 *            the code
+	 * @return true if the code is removed when the selector of a rule is
+	 *         trimmed
+	 */
+	private static boolean isTrimmable(int code) {
+		return code >= 0 && code <= ' ';
+	}
+
+	/**
+	 * This class holds the positions from which a scan is known to reach the
+	 * end of the content without finding its end. They are used to avoid
+	 * scanning the rest of the content again for each unterminated licence or
+	 * string.
+	 */
+	private static final class ScanLimits {
+
+		/** The position from which no licence end is found */
+		private int licence = Integer.MAX_VALUE;
+
+		/** The position from which no closing single quote is found */
+		private int singleQuote = Integer.MAX_VALUE;
+
+		/** The position from which no closing double quote is found */
+		private int doubleQuote = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * The tokenizer, which reads the content without comments. The new lines,
+	 * tabs and form feeds are returned as spaces, and the strings and the kept
+	 * licences are returned as tokens.
+	 */
+	private static final class Tokenizer {
+
+		/** The content */
+		private final char[] src;
+
+		/** The content length */
+		private final int length;
+
+		/** The flag indicating if we should kept the licence */
+		private final boolean keepLicence;
+
+		/** The scan limits */
+		private final ScanLimits limits;
+
+		/** The current position */
+		private int pos;
+
+		/** The start of the last token */
+		private int tokenStart;
+
+		/** The end of the last token */
+		private int tokenEnd;
+
+		/**
+		 * The content of the last token if some licences have been removed
+		 * from it, null otherwise
+		 */
+		private String tokenContent;
+
+		/** The flag indicating if the last token is a licence */
+		private boolean licenceToken;
+
+		/**
+		 * The flag indicating if a single quoted string has been closed by a
+		 * licence. In this case, the regular expression based minifier opens a
+		 * new string after the licence, because the licence placeholder
+		 * contains single quotes.
+		 */
+		private boolean reopenSingleQuote;
+
+		/**
+		 * Constructor
+		 *
+		 * @param src
+		 *            the content
+		 * @param length
+		 *            the content length
+		 * @param pos
+		 *            the start position
+		 * @param keepLicence
+		 *            the flag indicating if we should kept the licence
+		 * @param limits
+		 *            the scan limits
+		 */
+		private Tokenizer(char[] src, int length, int pos, boolean keepLicence, ScanLimits limits) {
+			this.src = src;
+			this.length = length;
+			this.pos = pos;
+			this.keepLicence = keepLicence;
+			this.limits = limits;
+		}
+
+		/**
+		 * Returns the next code, which is a character, {@link #TOKEN} or
+		 * {@link #EOF}
+		 *
+		 * @return the next code
+		 */
+		private int next() {
+
+			if (reopenSingleQuote && licenceToken) {
+				reopenSingleQuote = false;
+				licenceToken = false;
+				if (scanString('\'', pos, pos)) {
+					return TOKEN;
+				}
+			}
+			licenceToken = false;
+
+			while (pos < length) {
+				char c = src[pos];
+				if (c == '/') {
+					int end = getLicenceEnd(pos);
+					if (end != -1) {
+						if (keepLicence) {
+							setToken(pos, end, null);
+							licenceToken = true;
+							pos = end;
+							return TOKEN;
+						}
+						pos = end;
+						continue;
+					}
+				} else if ((c == '"' || c == '\'') && scanString(c, pos, pos + 1)) {
+					return TOKEN;
+				}
+
+				pos++;
+				if (c == '\n' || c == '\r' || c == '\t' || c == '\f') {
+					return ' ';
+				}
+				return c;
+			}
+			return EOF;
+		}
+
+		/**
+		 * Sets the last token
+		 *
+		 * @param start
+		 *            the token start
+		 * @param end
+		 *            the token end
+		 * @param content
+		 *            the token content if it differs from the source, or null
+		 */
+		private void setToken(int start, int end, String content) {
+			tokenStart = start;
+			tokenEnd = end;
+			tokenContent = content;
+		}
+
+		/**
+		 * Returns the end of the licence starting at the position
+		 *
+		 * @param start
+		 *            the position
+		 * @return the position after the licence, or -1 if no terminated
+		 *         licence starts at the position
+		 */
+		private int getLicenceEnd(int start) {
+
+			if (start + 2 >= length || src[start] != '/' || src[start + 1] != '*' || src[start + 2] != '!'
+					|| start + 2 >= limits.licence) {
+				return -1;
+			}
+			int end = indexOfCommentEnd(src, length, start + 2);
+			if (end == -1) {
+				limits.licence = start + 2;
+				return -1;
+			}
+			return end + 2;
+		}
+
+		/**
+		 * Scans a string. The licences inside the string are removed if they
+		 * are not kept. If the licences are kept, a licence closes a single
+		 * quoted string, as it does for the regular expression based minifier.
+		 *
+		 * @param quote
+		 *            the quote character
+		 * @param start
+		 *            the token start
+		 * @param from
+		 *            the position where the search of the closing quote
+		 *            starts
+		 * @return true if a string has been found, in which case the token
+		 *         and the current position are updated
+		 */
+		private boolean scanString(char quote, int start, int from) {
+
+			boolean singleQuote = quote == '\'';
+			if (from >= (singleQuote ? limits.singleQuote : limits.doubleQuote)) {
+				return false;
+			}
+
+			StringBuilder content = null;
+			int copyStart = start;
+			int i = from;
+			while (i < length) {
+				char c = src[i];
+				if (c == '/') {
+					int end = getLicenceEnd(i);
+					if (end != -1) {
+						if (!keepLicence) {
+							if (content == null) {
+								content = new StringBuilder();
+							}
+							content.append(src, copyStart, i - copyStart);
+							copyStart = end;
+						} else if (singleQuote) {
+							// The string ends before the licence
+							setStringToken(content, start, copyStart, i);
+							reopenSingleQuote = true;
+							pos = i;
+							return true;
+						}
+						i = end;
+						continue;
+					}
+				} else if (c == quote) {
+					setStringToken(content, start, copyStart, i + 1);
+					pos = i + 1;
+					return true;
+				}
+				i++;
+			}
+
+			if (singleQuote) {
+				limits.singleQuote = from;
+			} else {
+				limits.doubleQuote = from;
+			}
+			return false;
+		}
+
+		/**
+		 * Sets the string token
+		 *
+		 * @param content
+		 *            the content already read, or null if no licence has been
+		 *            removed
+		 * @param start
+		 *            the token start
+		 * @param copyStart
+		 *            the start of the content which remains to copy
+		 * @param end
+		 *            the token end
+		 */
+		private void setStringToken(StringBuilder content, int start, int copyStart, int end) {
+			String tokenContent = null;
+			if (content != null) {
+				content.append(src, copyStart, end - copyStart);
+				tokenContent = content.toString();
+			}
+			setToken(start, end, tokenContent);
+		}
+	}
+
+
+	/**
+	 * The minification of the whitespace, which follows the rules of the
+	 * regular expressions of the {@link CSSMinifier}. The codes read from the
+	 * tokenizer are kept in a buffer to allow the lookahead.
+	 */
+	private static final class Minification {
+
+		/** The tokenizer */
+		private final Tokenizer tokenizer;
+
+		/** The output */
+		private final StringBuilder out;
+
+		/** The buffered codes */
+		private int[] codes = new int[64];
+
+		/** The position in the content after each buffered code */
+		private int[] ends = new int[64];
+
+		/** The start of the buffered tokens */
+		private int[] tokenStarts = new int[64];
+
+		/** The end of the buffered tokens */
+		private int[] tokenEnds = new int[64];
+
+		/** The content of the buffered tokens */
+		private String[] tokenContents = new String[64];
+
+		/** The index of the first buffered code */
+		private int head;
+
+		/** The index after the last buffered code */
+		private int tail;
+
+		/** The last 4 consumed codes, the last one being the first */
+		private int previous1, previous2, previous3, previous4;
+
+		/** The number of consumed codes */
+		private int consumed;
+
+		/** The position in the content after the last consumed code */
+		private int consumedEnd;
+
+		/**
+		 * The index of the first whitespace code consumed after the last brace
+		 */
+		private int braceWhitespaceStart;
+
+		/**
+		 * The index after the last whitespace code consumed after the last
+		 * brace
+		 */
+		private int braceWhitespaceEnd;
+
+		/**
+		 * Constructor
+		 *
+		 * @param tokenizer
+		 *            the tokenizer
+		 * @param out
+		 *            the output
+		 */
+		private Minification(Tokenizer tokenizer, StringBuilder out) {
+			this.tokenizer = tokenizer;
+			this.out = out;
+		}
+
+		/**
+		 * Minifies the content
+		 */
+		private void run() {
+
+			// The leading whitespace is trimmed if it belongs to the selector
+			// of a rule
+			if (isTrimmable(peek(0)) && isFirstBraceOpeningRule()) {
+				skip(getTrimmableLength());
+				previous1 = previous2 = previous3 = previous4 = 0;
+			}
+
+			int c;
+			while ((c = peek(0)) != EOF) {
+				if (isTrimmable(c) && !isWhitespace(c) && isTrimmedBeforeRule()) {
+					continue;
+				}
+				if (isWhitespace(c)) {
+					processWhitespace(c);
+				} else {
+					processCharacter(c);
+				}
+			}
+		}
+
+		/**
+		 * Processes a whitespace sequence
+		 *
+		 * @param c
+		 *            the first whitespace code
+		 */
+		private void processWhitespace(int c) {
+
+			int length = 1;
+			while (isWhitespace(peek(length))) {
+				length++;
+			}
+
+			int next = peek(length);
+			if (isTrimmable(next) && isTrimmedBeforeRule()) {
+				return;
+			}
+			switch (next) {
+			case '{':
+			case '}':
+				skip(length);
+				consumeAndWrite();
+				skipWhitespaceAfterBrace();
+				return;
+			case ';':
+			case ':':
+				skip(length);
+				consumeAndWrite();
+				skipWhitespace();
+				return;
+			case ')':
+				skip(length);
+				consumeAndWrite();
+				return;
+			case '(':
+				if (!isPrecededByAnd()) {
+					skip(length);
+					consumeAndWrite();
+					skipWhitespace();
+					return;
+				}
+				break;
+			case '-':
+			case '+':
+			case '*':
+			case '/':
+				// The whitespace before the opening brace of a rule is
+				// trimmed, so the operator is not followed by a whitespace
+				if (isWhitespace(peek(length + 1)) && !isFollowedByRule(length + 1)) {
+					skip(length);
+					out.append(' ').append((char) next).append(' ');
+					consume();
+					skipWhitespace();
+					return;
+				}
+				break;
+			default:
+				break;
+			}
+
+			if (c == ' ') {
+				while (peek(0) == ' ') {
+					consume();
+				}
+				out.append(' ');
+			} else {
+				consumeAndWrite();
+			}
+		}
+
+		/**
+		 * Processes a character which is not a whitespace
+		 *
+		 * @param c
+		 *            the character code
+		 */
+		private void processCharacter(int c) {
+
+			switch (c) {
+			case '{':
+			case '}':
+				consumeAndWrite();
+				skipWhitespaceAfterBrace();
+				break;
+			case ';':
+			case ':':
+				consumeAndWrite();
+				skipWhitespace();
+				break;
+			case '(':
+				boolean precededByAnd = isPrecededByAnd();
+				consumeAndWrite();
+				if (!precededByAnd) {
+					skipWhitespace();
+				}
+				break;
+			default:
+				consumeAndWrite();
+				break;
+			}
+		}
+
+		/**
+		 * Checks if the current position is preceded by a whitespace and the
+		 * "and" keyword, like in
+		 * <code>@media only screen and (max-width:767px)</code>
+		 *
+		 * @return true if the current position is preceded by "and"
+		 */
+		private boolean isPrecededByAnd() {
+
+			boolean precededByAnd = (previous1 == 'd' || previous1 == 'D') && (previous2 == 'n' || previous2 == 'N')
+					&& (previous3 == 'a' || previous3 == 'A') && isWhitespace(previous4);
+
+			// The whitespace following a brace is trimmed if it belongs to the
+			// selector of a rule
+			int whitespaceIdx = consumed - 4;
+			if (precededByAnd && whitespaceIdx >= braceWhitespaceStart && whitespaceIdx < braceWhitespaceEnd) {
+				precededByAnd = !isNextBraceOpeningRule(consumedEnd);
+			}
+			return precededByAnd;
+		}
+
+		/**
+		 * Checks if the whitespace sequence at the offset is followed by the
+		 * opening brace of a rule
+		 *
+		 * @param offset
+		 *            the offset in the buffer
+		 * @return true if the whitespace sequence is followed by the opening
+		 *         brace of a rule
+		 */
+		private boolean isFollowedByRule(int offset) {
+
+			int idx = offset;
+			while (isTrimmable(peek(idx))) {
+				idx++;
+			}
+			return peek(idx) == '{' && isRuleBody(ends[head + idx]);
+		}
+
+		/**
+		 * Returns the number of trimmable codes at the current position
+		 *
+		 * @return the number of trimmable codes at the current position
+		 */
+		private int getTrimmableLength() {
+
+			int length = 0;
+			while (isTrimmable(peek(length))) {
+				length++;
+			}
+			return length;
+		}
+
+		/**
+		 * Consumes the trimmable codes at the current position if they are
+		 * followed by the opening brace of a rule. This is only needed if they
+		 * contain control characters, because the whitespace before an opening
+		 * brace is always removed.
+		 *
+		 * @return true if the trimmable codes have been consumed
+		 */
+		private boolean isTrimmedBeforeRule() {
+
+			if (isFollowedByRule(0)) {
+				skip(getTrimmableLength());
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Checks if the next brace opens a rule
+		 *
+		 * @param start
+		 *            the start position
+		 * @return true if the next brace opens a rule
+		 */
+		private boolean isNextBraceOpeningRule(int start) {
+
+			Tokenizer scanner = new Tokenizer(tokenizer.src, tokenizer.length, start, tokenizer.keepLicence,
+					tokenizer.limits);
+			int code;
+			do {
+				code = scanner.next();
+			} while (code != EOF && code != '{' && code != '}');
+
+			return code == '{' && isRuleBody(scanner.pos);
+		}
+
+		/**
+		 * Checks if the first brace of the content opens a rule
+		 *
+		 * @return true if the first brace of the content opens a rule
+		 */
+		private boolean isFirstBraceOpeningRule() {
+			return isNextBraceOpeningRule(0);
+		}
+
+		/**
+		 * Checks if the content following an opening brace is the body of a
+		 * rule, which means that it doesn't contain any other brace before
+		 * the closing one
+		 *
+		 * @param start
+		 *            the position after the opening brace
+		 * @return true if the content is the body of a rule
+		 */
+		private boolean isRuleBody(int start) {
+
+			Tokenizer scanner = new Tokenizer(tokenizer.src, tokenizer.length, start, tokenizer.keepLicence, tokenizer.limits);
+			int code;
+			do {
+				code = scanner.next();
+			} while (code != EOF && code != '{' && code != '}');
+
+			return code == '}';
+		}
+
+		/**
+		 * Returns the code at the offset in the buffer, reading it from the
+		 * tokenizer if needed
+		 *
+		 * @param offset
+		 *            the offset
+		 * @return the code
+		 */
+		private int peek(int offset) {
+
+			while (tail - head <= offset) {
+				if (tail == codes.length) {
+					grow();
+				}
+				int code = tokenizer.next();
+				codes[tail] = code;
+				ends[tail] = tokenizer.pos;
+				if (code == TOKEN) {
+					tokenStarts[tail] = tokenizer.tokenStart;
+					tokenEnds[tail] = tokenizer.tokenEnd;
+					tokenContents[tail] = tokenizer.tokenContent;
+				}
+				tail++;
+			}
+			return codes[head + offset];
+		}
+
+		/**
+		 * Makes room in the buffer
+		 */
+		private void grow() {
+
+			int size = tail - head;
+			int capacity = size * 2 > codes.length ? codes.length * 2 : codes.length;
+			int[] newCodes = new int[capacity];
+			int[] newEnds = new int[capacity];
+			int[] newTokenStarts = new int[capacity];
+			int[] newTokenEnds = new int[capacity];
+			String[] newTokenContents = new String[capacity];
+			System.arraycopy(codes, head, newCodes, 0, size);
+			System.arraycopy(ends, head, newEnds, 0, size);
+			System.arraycopy(tokenStarts, head, newTokenStarts, 0, size);
+			System.arraycopy(tokenEnds, head, newTokenEnds, 0, size);
+			System.arraycopy(tokenContents, head, newTokenContents, 0, size);
+			codes = newCodes;
+			ends = newEnds;
+			tokenStarts = newTokenStarts;
+			tokenEnds = newTokenEnds;
+			tokenContents = newTokenContents;
+			head = 0;
+			tail = size;
+		}
+
+		/**
+		 * Consumes the first buffered code
+		 *
+		 * @return the index of the consumed code in the buffer
+		 */
+		private int consume() {
+
+			peek(0);
+			int idx = head++;
+			previous4 = previous3;
+			previous3 = previous2;
+			previous2 = previous1;
+			previous1 = codes[idx];
+			consumedEnd = ends[idx];
+			consumed++;
+			return idx;
+		}
+
+		/**
+		 * Consumes the first buffered code and writes it to the output
+		 */
+		private void consumeAndWrite() {
+
+			int idx = consume();
+			int code = codes[idx];
+			if (code == TOKEN) {
+				String content = tokenContents[idx];
+				if (content != null) {
+					out.append(content);
+					tokenContents[idx] = null;
+				} else {
+					out.append(tokenizer.src, tokenStarts[idx], tokenEnds[idx] - tokenStarts[idx]);
+				}
+			} else {
+				out.append((char) code);
+			}
+		}
+
+		/**
+		 * Consumes the codes
+		 *
+		 * @param length
+		 *            the number of codes to consume
+		 */
+		private void skip(int length) {
+			for (int i = 0; i < length; i++) {
+				consume();
+			}
+		}
+
+		/**
+		 * Consumes the following whitespace
+		 */
+		private void skipWhitespace() {
+			while (isWhitespace(peek(0))) {
+				consume();
+			}
+		}
+
+		/**
+		 * Consumes the whitespace following a brace
+		 */
+		private void skipWhitespaceAfterBrace() {
+			braceWhitespaceStart = consumed;
+			skipWhitespace();
+			if (isTrimmable(peek(0)) && isNextBraceOpeningRule(consumedEnd)) {
+				// The control characters are trimmed with the whitespace
+				skip(getTrimmableLength());
+			}
+			braceWhitespaceEnd = consumed;
+		}
+	}
+}
@@ -18,6 +18,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PushbackInputStream;
 
+import net.jawr.web.util.StringUtils;
+
 /* jsmin.c
  2013-03-29
 
@@ -58,12 +60,24 @@ import java.io.PushbackInputStream;
 public class JSMin {
 	private static final int EOF = -1;
 
+	/** The byte order mark character */
+	private static final char BOM = '\uFEFF';
+
 	/** The input stream */
 	private final PushbackInputStream in;
 
 	/** The output stream */
 	private final OutputStream out;
 
+	/** The input characters, if the input is not a stream */
+	private final char[] source;
+
+	/** The number of input characters */
+	private final int sourceLength;
+
+	/** The output builder, if the output is not a stream */
+	private final StringBuilder builder;
+
 	private int theA;
 	private int theB;
 	private int theLookahead = EOF;
@@ -73,7 +87,10 @@ public class JSMin {
 	/** The flag indicating if the first character has been written */
 	private boolean firstCharacterWritten;
 
-	/** The current byte index */
+	/**
+	 * The current byte index, or the current character index if the input is
+	 * not a stream
+	 */
 	private int currentByteIndex;
 
 	/** The current line number */
@@ -91,6 +108,47 @@ public class JSMin {
 	public JSMin(InputStream in, OutputStream out) {
 		this.in = new PushbackInputStream(in);
 		this.out = out;
+		this.source = null;
+		this.sourceLength = 0;
+		this.builder = null;
+		line = 0;
+		column = 0;
+	}
+
+	/**
+	 * Constructor for a minification which reads the characters directly,
+	 * without encoding them. The carriage return line feed sequences are
+	 * handled as line feeds, and the index of the exceptions is a character
+	 * index.
+	 * 
+	 * @param in
+	 *            the content to minify
+	 * @param out
+	 *            the builder where the minified content is written
+	 */
+	public JSMin(CharSequence in, StringBuilder out) {
+		this(StringUtils.toCharArray(in), in.length(), out);
+	}
+
+	/**
+	 * Constructor for a minification which reads the characters directly,
+	 * without encoding them. The carriage return line feed sequences are
+	 * handled as line feeds, and the index of the exceptions is a character
+	 * index.
+	 * 
+	 * @param in
+	 *            the content to minify
+	 * @param length
+	 *            the number of characters to minify
+	 * @param out
+	 *            the builder where the minified content is written
+	 */
+	public JSMin(char[] in, int length, StringBuilder out) {
+		this.in = null;
+		this.out = null;
+		this.source = in;
+		this.sourceLength = length;
+		this.builder = out;
 		line = 0;
 		column = 0;
 	}
@@ -124,10 +182,7 @@ public class JSMin {
 		int c = theLookahead;
 		theLookahead = EOF;
 		if (c == EOF) {
-			c = in.read();
-			if (c != EOF) {
-				currentByteIndex++;
-			}
+			c = read();
 		}
 		if (c == '\n') {
 			line++;
@@ -153,6 +208,34 @@ public class JSMin {
 		return ' ';
 	}
 
+	/**
+	 * Reads the next character from the input
+	 * 
+	 * @return the next character
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private int read() throws IOException {
+
+		int c = EOF;
+		if (source != null) {
+			if (currentByteIndex < sourceLength) {
+				c = source[currentByteIndex++];
+				if (c == '\r' && currentByteIndex < sourceLength && source[currentByteIndex] == '\n') {
+					// The carriage return line feed is read as a line feed
+					c = '\n';
+					currentByteIndex++;
+				}
+			}
+		} else {
+			c = in.read();
+			if (c != EOF) {
+				currentByteIndex++;
+			}
+		}
+		return c;
+	}
+
 	/*
 	 * peek -- get the next character without getting it.
 	 */
@@ -307,10 +390,13 @@ public class JSMin {
 	 */
 	private void write(int c) throws IOException {
 		if (!firstCharacterWritten) {
-			if (c != '\n') {
-				out.write(c);
-				firstCharacterWritten = true;
+			if (c == '\n') {
+				return;
 			}
+			firstCharacterWritten = true;
+		}
+		if (builder != null) {
+			builder.append((char) c);
 		} else {
 			out.write(c);
 		}
@@ -323,7 +409,11 @@ public class JSMin {
 	 * Most spaces and linefeeds will be removed.
 	 */
 	public void jsmin() throws IOException, JSMinException {
-		if (peek() == 0xEF) { // Handle Unicode BOM
+		if (source != null) {
+			if (peek() == BOM) {
+				get();
+			}
+		} else if (peek() == 0xEF) { // Handle Unicode BOM
 			get();
 			get();
 			get();
@@ -381,7 +471,9 @@ public class JSMin {
 			}
 		}
 
-		out.flush();
+		if (out != null) {
+			out.flush();
+		}
 	}
 
 	/**
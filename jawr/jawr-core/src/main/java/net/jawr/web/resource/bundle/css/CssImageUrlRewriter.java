@@ -151,6 +151,25 @@ public class CssImageUrlRewriter {
 		return sb;
 	}
 
+	/**
+	 * Rewrites a single URL function of a CSS content, like
+	 * <code>url('img/logo.png')</code>
+	 * 
+	 * @param urlFunction
+	 *            the URL function, matched by {@link #URL_PATTERN}
+	 * @param originalCssPath
+	 *            the original CSS path
+	 * @param newCssPath
+	 *            the new CSS path
+	 * @return the rewritten URL function
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	public String rewriteUrlFunction(String urlFunction, String originalCssPath, String newCssPath)
+			throws IOException {
+		return getUrlPath(urlFunction, originalCssPath, newCssPath);
+	}
+
 	/**
 	 * Transform a matched url so it points to the proper relative path with
 	 * respect to the given path.
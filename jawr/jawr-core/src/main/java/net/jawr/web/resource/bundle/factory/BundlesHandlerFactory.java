@@ -16,6 +16,7 @@ package net.jawr.web.resource.bundle.factory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -50,6 +51,7 @@ import net.jawr.web.resource.bundle.factory.mapper.ResourceBundleDirMapper;
 import net.jawr.web.resource.bundle.factory.postprocessor.CSSPostProcessorChainFactory;
 import net.jawr.web.resource.bundle.factory.postprocessor.JSPostProcessorChainFactory;
 import net.jawr.web.resource.bundle.factory.postprocessor.PostProcessorChainFactory;
+import net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.factory.util.ResourceBundleDefinition;
 import net.jawr.web.resource.bundle.global.processor.GlobalProcessor;
@@ -57,9 +59,11 @@ import net.jawr.web.resource.bundle.handler.CachedResourceBundlesHandler;
 import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
 import net.jawr.web.resource.bundle.handler.ResourceBundlesHandlerImpl;
 import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
+import net.jawr.web.resource.bundle.mappings.FilePathMapping;
 import net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+import net.jawr.web.util.StringUtils;
 
 /**
  * Factory to create a ResourceBundlesHandler as per configuration options set
@@ -184,21 +188,7 @@ public class BundlesHandlerFactory {
 			LOGGER.info("Building resources handler... ");
 		}
 
-		// Ensure state is correct
-		if (null == jawrConfig) {
-			throw new IllegalStateException(
-					"Must set the JawrConfig for this factory before invoking buildResourceBundlesHandler(). ");
-		}
-
-		if (null == resourceReaderHandler) {
-			throw new IllegalStateException(
-					"Must set the resourceHandler for this factory before invoking buildResourceBundlesHandler(). ");
-		}
-
-		if (useSingleResourceFactory && null == singleFileBundleName) {
-			throw new IllegalStateException(
-					"Must set the singleFileBundleName when useSingleResourceFactory is set to true. Please check the documentation. ");
-		}
+		checkState();
 
 		initCustomPostProcessors();
 
@@ -209,6 +199,9 @@ public class BundlesHandlerFactory {
 			initResourceBundlesFromFullMapping(resourceBundles);
 		} else {
 			initResourceBundles(resourceBundles);
+			if (isProcessingUnchangedBundleFromCacheMapping()) {
+				initUnchangedResourceBundlesFromFullMapping(resourceBundles);
+			}
 		}
 
 		// Build the postprocessor for bundles
@@ -288,6 +281,51 @@ public class BundlesHandlerFactory {
 		return collector;
 	}
 
+	/**
+	 * Build the resource bundles defined in the configuration, without
+	 * building the resource bundles handler. Must be invoked after setting at
+	 * least the ResourceHandler.
+	 * 
+	 * @return the resource bundles
+	 * @throws DuplicateBundlePathException
+	 *             if two bundles are defined with the same path
+	 * @throws BundleDependencyException
+	 *             if an error exists in the dependency definition
+	 */
+	public List<JoinableResourceBundle> buildResourceBundles()
+			throws DuplicateBundlePathException, BundleDependencyException {
+
+		checkState();
+
+		initCustomPostProcessors();
+
+		List<JoinableResourceBundle> resourceBundles = new ArrayList<>();
+		initResourceBundles(resourceBundles);
+		return resourceBundles;
+	}
+
+	/**
+	 * Ensures that the state of the factory is correct
+	 */
+	private void checkState() {
+
+		// Ensure state is correct
+		if (null == jawrConfig) {
+			throw new IllegalStateException(
+					"Must set the JawrConfig for this factory before invoking buildResourceBundlesHandler(). ");
+		}
+
+		if (null == resourceReaderHandler) {
+			throw new IllegalStateException(
+					"Must set the resourceHandler for this factory before invoking buildResourceBundlesHandler(). ");
+		}
+
+		if (useSingleResourceFactory && null == singleFileBundleName) {
+			throw new IllegalStateException(
+					"Must set the singleFileBundleName when useSingleResourceFactory is set to true. Please check the documentation. ");
+		}
+	}
+
 	/**
 	 * Returns true if the bundle should be processed using cache mapping
 	 * information
@@ -313,6 +351,28 @@ public class BundlesHandlerFactory {
 		return processBundleFromCacheMapping;
 	}
 
+	/**
+	 * Returns true if the bundles which are not affected by the configuration
+	 * changes should be processed using cache mapping information. This is
+	 * the case when the configuration properties shared by all the bundles
+	 * have not been modified.
+	 * 
+	 * @return true if the unchanged bundles should be processed using cache
+	 *         mapping information
+	 */
+	protected boolean isProcessingUnchangedBundleFromCacheMapping() {
+		boolean processBundleFromCacheMapping = false;
+		if (jawrConfig.getUseBundleMapping() && jawrConfig.getUseSmartBundling()
+				&& resourceBundleHandler.isExistingMappingFile()) {
+			Properties cachedMappingProperties = resourceBundleHandler.getJawrBundleMapping();
+			String storedHashcode = cachedMappingProperties.getProperty(JawrConstant.JAWR_SHARED_CONFIG_HASHCODE);
+			BundleConfigDependencyHelper helper = new BundleConfigDependencyHelper(
+					jawrConfig.getConfigProperties(), resourceType);
+			processBundleFromCacheMapping = helper.getSharedConfigHashcode().equals(storedHashcode);
+		}
+		return processBundleFromCacheMapping;
+	}
+
 	/**
 	 * Returns the life cycle listeners
 	 * 
@@ -320,6 +380,9 @@ public class BundlesHandlerFactory {
 	 */
 	protected List<BundlingProcessLifeCycleListener> getBundlingProcessLifeCycleListeners() {
 		List<BundlingProcessLifeCycleListener> lifeCycleListeners = new ArrayList<>();
+		if (resourceReaderHandler instanceof BundlingProcessLifeCycleListener) {
+			lifeCycleListeners.add((BundlingProcessLifeCycleListener) resourceReaderHandler);
+		}
 		List<BundlingProcessLifeCycleListener> generatorLifeCycleListeners = jawrConfig.getGeneratorRegistry()
 				.getBundlingProcessLifeCycleListeners();
 		lifeCycleListeners.addAll(generatorLifeCycleListeners);
@@ -355,6 +418,97 @@ public class BundlesHandlerFactory {
 		resourceBundles.addAll(factory.getResourceBundles(mappingProperties));
 	}
 
+	/**
+	 * Initialize the resource bundles, which are not affected by the
+	 * configuration changes, from the mapping file. The bundles whose
+	 * configuration or content have been modified are marked as dirty.
+	 * 
+	 * @param resourceBundles
+	 *            the resource bundles built from the configuration
+	 */
+	private void initUnchangedResourceBundlesFromFullMapping(List<JoinableResourceBundle> resourceBundles) {
+
+		Properties mappingProperties = resourceBundleHandler.getJawrBundleMapping();
+		FullMappingPropertiesBasedBundlesHandlerFactory factory = new FullMappingPropertiesBasedBundlesHandlerFactory(
+				resourceType, resourceReaderHandler, jawrConfig.getGeneratorRegistry(), chainFactory);
+
+		Map<String, JoinableResourceBundle> storedBundles = new HashMap<>();
+		for (JoinableResourceBundle storedBundle : factory.getResourceBundles(mappingProperties)) {
+			storedBundles.put(storedBundle.getName(), storedBundle);
+		}
+
+		BundleConfigDependencyHelper helper = new BundleConfigDependencyHelper(jawrConfig.getConfigProperties(),
+				resourceType);
+		int nbUnchangedBundles = 0;
+		for (JoinableResourceBundle bundle : resourceBundles) {
+			String storedConfigHashcode = mappingProperties
+					.getProperty(BundleConfigDependencyHelper.getBundlePropertyPrefix(resourceType, bundle.getName())
+							+ PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_CONFIG_HASHCODE);
+			JoinableResourceBundle storedBundle = storedBundles.get(bundle.getName());
+			if (storedBundle != null && helper.getBundleConfigHashcode(bundle).equals(storedConfigHashcode)
+					&& restoreBundleFromFullMapping(bundle, storedBundle)) {
+				nbUnchangedBundles++;
+			} else {
+				bundle.setDirty(true);
+			}
+		}
+
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("The Jawr config has changed. " + nbUnchangedBundles + " of the " + resourceBundles.size()
+					+ " bundles are not affected and will not be processed.");
+		}
+	}
+
+	/**
+	 * Restores the bundle hashcodes and linked resources from the bundle
+	 * defined in the mapping file.
+	 * 
+	 * @param bundle
+	 *            the bundle built from the configuration
+	 * @param storedBundle
+	 *            the bundle built from the mapping file
+	 * @return true if the bundle has been restored, false if it has been
+	 *         modified since the last bundling process
+	 */
+	private boolean restoreBundleFromFullMapping(JoinableResourceBundle bundle, JoinableResourceBundle storedBundle) {
+
+		if (storedBundle.isDirty() || bundle.isComposite() != storedBundle.isComposite()
+				|| !new HashSet<>(bundle.getFilePathMappings())
+						.equals(new HashSet<>(storedBundle.getFilePathMappings()))) {
+			return false;
+		}
+
+		if (bundle.isComposite()) {
+			List<JoinableResourceBundle> children = ((CompositeResourceBundle) bundle).getChildBundles();
+			List<JoinableResourceBundle> storedChildren = ((CompositeResourceBundle) storedBundle).getChildBundles();
+			if (children.size() != storedChildren.size()) {
+				return false;
+			}
+			for (int i = 0; i < children.size(); i++) {
+				if (!restoreBundleFromFullMapping(children.get(i), storedChildren.get(i))) {
+					return false;
+				}
+			}
+		}
+
+		List<String> variantKeys = storedBundle.getVariantKeys();
+		if (variantKeys != null) {
+			for (String variantKey : variantKeys) {
+				if (StringUtils.isNotEmpty(variantKey)) {
+					bundle.setBundleDataHashCode(variantKey, storedBundle.getBundleDataHashCode(variantKey));
+				}
+			}
+		}
+		bundle.setBundleDataHashCode(null, storedBundle.getBundleDataHashCode(null));
+
+		for (FilePathMapping linkedMapping : storedBundle.getLinkedFilePathMappings()) {
+			bundle.getLinkedFilePathMappings()
+					.add(new FilePathMapping(bundle, linkedMapping.getPath(), linkedMapping.getLastModified()));
+		}
+
+		return true;
+	}
+
 	/**
 	 * Initialize the resource bundles
 	 * 
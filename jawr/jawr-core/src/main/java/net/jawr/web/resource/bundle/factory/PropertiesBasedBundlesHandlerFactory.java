@@ -59,6 +59,7 @@ import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundleDependencyException;
 import net.jawr.web.exception.DuplicateBundlePathException;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.util.PropertiesConfigHelper;
 import net.jawr.web.resource.bundle.factory.util.ResourceBundleDefinition;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
@@ -106,6 +107,33 @@ public class PropertiesBasedBundlesHandlerFactory {
 	 */
 	public PropertiesBasedBundlesHandlerFactory(Properties properties, String resourceType,
 			ResourceReaderHandler rsHandler, ResourceBundleHandler rsBundleHandler, JawrConfig jawrConfig) {
+		this(properties, resourceType, rsHandler, rsBundleHandler, jawrConfig, true);
+	}
+
+	/**
+	 * Create a PropertiesBasedBundlesHandlerFactory using the specified
+	 * properties.
+	 * 
+	 * @param properties
+	 *            the properties
+	 * @param resourceType
+	 *            js or css
+	 * @param rsHandler
+	 *            ResourceHandler to access files.
+	 * @param rsBundleHandler
+	 *            the bndle handler
+	 * @param jawrConfig
+	 *            the jawr config
+	 * @param initGeneratorRegistry
+	 *            the flag indicating if the custom generators and variant
+	 *            resolvers must be registered in the generator registry of
+	 *            the jawr config. It is set to false when the bundles are
+	 *            rebuilt for a generator registry which is already
+	 *            initialized.
+	 */
+	public PropertiesBasedBundlesHandlerFactory(Properties properties, String resourceType,
+			ResourceReaderHandler rsHandler, ResourceBundleHandler rsBundleHandler, JawrConfig jawrConfig,
+			boolean initGeneratorRegistry) {
 		this.props = new PropertiesConfigHelper(properties, resourceType);
 
 		// Create the BundlesHandlerFactory
@@ -140,19 +168,21 @@ public class PropertiesBasedBundlesHandlerFactory {
 		factory.setUseDirMapperFactory(Boolean.parseBoolean(props.getProperty(FACTORY_USE_DIR_MAPPER, "false")));
 		factory.setExludedDirMapperDirs(props.getPropertyAsSet(FACTORY_DIR_MAPPER_EXCLUSION));
 
-		// Initialize custom generators
-		Iterator<String> generators = props.getCommonPropertyAsSet(CUSTOM_GENERATORS).iterator();
-		GeneratorRegistry generatorRegistry = jawrConfig.getGeneratorRegistry();
-		while (generators.hasNext()) {
-			String generatorClass = (String) generators.next();
-			generatorRegistry.registerGenerator(generatorClass);
-		}
+		if (initGeneratorRegistry) {
+			// Initialize custom generators
+			Iterator<String> generators = props.getCommonPropertyAsSet(CUSTOM_GENERATORS).iterator();
+			GeneratorRegistry generatorRegistry = jawrConfig.getGeneratorRegistry();
+			while (generators.hasNext()) {
+				String generatorClass = (String) generators.next();
+				generatorRegistry.registerGenerator(generatorClass);
+			}
 
-		// Initialize variant resolvers
-		Iterator<String> resolvers = props.getCommonPropertyAsSet(CUSTOM_RESOLVERS).iterator();
-		while (resolvers.hasNext()) {
-			String resolverClass = (String) resolvers.next();
-			generatorRegistry.registerVariantResolver(resolverClass);
+			// Initialize variant resolvers
+			Iterator<String> resolvers = props.getCommonPropertyAsSet(CUSTOM_RESOLVERS).iterator();
+			while (resolvers.hasNext()) {
+				String resolverClass = (String) resolvers.next();
+				generatorRegistry.registerVariantResolver(resolverClass);
+			}
 		}
 
 		// Initialize custom bundles
@@ -198,6 +228,20 @@ public class PropertiesBasedBundlesHandlerFactory {
 		return factory.buildResourceBundlesHandler();
 	}
 
+	/**
+	 * Build the resource bundles defined by the configuration, without
+	 * creating a new resources handler.
+	 * 
+	 * @return the resource bundles
+	 * @throws DuplicateBundlePathException
+	 * @throws BundleDependencyException
+	 *             if an error exists in the dependency definition
+	 */
+	public List<JoinableResourceBundle> buildResourceBundles()
+			throws DuplicateBundlePathException, BundleDependencyException {
+		return factory.buildResourceBundles();
+	}
+
 	/**
 	 * Create a BundleDefinition based on the properties file.
 	 * 
@@ -146,6 +146,9 @@ public class PropertiesBundleConstant {
 	/** The suffix for the property defining the bundle hascode for a bundle with a locale variant */
 	public static final String BUNDLE_FACTORY_CUSTOM_HASHCODE_VARIANT = ".bundleHashcode.";
 	
+	/** The suffix for the property defining the hashcode of the configuration which affects a bundle */
+	public static final String BUNDLE_FACTORY_CUSTOM_CONFIG_HASHCODE = ".configHashcode";
+	
 	/** The suffix for the property defining the licence path list for a bundle */
 	public static final String BUNDLE_FACTORY_CUSTOM_LICENCE_PATH_LIST = ".licencePathList";
 
@@ -0,0 +1,502 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.factory.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.CompositeResourceBundle;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.factory.PropertiesBundleConstant;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolverFactory;
+import net.jawr.web.resource.bundle.iterator.BundlePath;
+import net.jawr.web.resource.bundle.mappings.PathMapping;
+
+/**
+ * This class tracks the dependencies between the bundles and the
+ * configuration properties which influence them.
+ *
+ * The configuration keys are split in the following categories :
+ * <ul>
+ * <li>the bundle keys (jawr.&lt;type&gt;.bundle.&lt;name&gt;.*), which only
+ * affect the bundle they define</li>
+ * <li>the default postprocessor chains and the custom postprocessor
+ * definitions, which only affect the bundles using them</li>
+ * <li>the generator settings, which only affect the bundles whose resources
+ * are handled by the generator</li>
+ * <li>the bundle keys of the other resource types and the configuration reload
+ * keys, which don't affect the bundles of the current resource type</li>
+ * <li>the shared keys, which are all the remaining keys. A modification of one
+ * of them may affect every bundle.</li>
+ * </ul>
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class BundleConfigDependencyHelper {
+
+	/** The prefix of the configuration reload properties */
+	private static final String CONFIG_RELOAD_PREFIX = "jawr.config.reload.";
+
+	/** The prefix of the bundle factory properties */
+	private static final String BUNDLE_FACTORY_PREFIX = "bundle.factory.";
+
+	/** The resource types */
+	private static final String[] RESOURCE_TYPES = new String[] { JawrConstant.JS_TYPE, JawrConstant.CSS_TYPE,
+			JawrConstant.BINARY_TYPE };
+
+	/**
+	 * The resolvers of the generators whose settings are bound to the bundles,
+	 * by configuration key prefix. The generator type of the Sass generator
+	 * (jawr.css.sass.generator) is not bound, as it changes the generators
+	 * registered.
+	 */
+	private static final Map<String, ResourceGeneratorResolver> GENERATOR_CONFIG_RESOLVERS;
+
+	static {
+		Map<String, ResourceGeneratorResolver> resolvers = new LinkedHashMap<>();
+		resolvers.put(JawrConstant.SASS_GENERATOR_TYPE + ".",
+				ResourceGeneratorResolverFactory.createSuffixResolver(GeneratorRegistry.SASS_GENERATOR_SUFFIX));
+		resolvers.put(PropertiesBundleConstant.PROPS_PREFIX + JawrConstant.JS_TYPE + ".generator."
+				+ GeneratorRegistry.COFEESCRIPT_GENERATOR_SUFFIX + ".",
+				ResourceGeneratorResolverFactory.createSuffixResolver(GeneratorRegistry.COFEESCRIPT_GENERATOR_SUFFIX));
+		resolvers.put(PropertiesBundleConstant.PROPS_PREFIX + "locale.generator.",
+				ResourceGeneratorResolverFactory.createPrefixResolver(GeneratorRegistry.MESSAGE_BUNDLE_PREFIX));
+		GENERATOR_CONFIG_RESOLVERS = Collections.unmodifiableMap(resolvers);
+	}
+
+	/** The configuration properties */
+	private final Properties props;
+
+	/** The resource type prefix */
+	private final String typePrefix;
+
+	/** The bundle property prefix */
+	private final String bundlePropertyPrefix;
+
+	/** The map of bundle name to the bundle properties */
+	private final Map<String, SortedMap<String, String>> bundleConfigs = new HashMap<>();
+
+	/** The map of custom postprocessor name to its properties */
+	private final Map<String, SortedMap<String, String>> customPostProcessorConfigs = new HashMap<>();
+
+	/** The map of generator configuration key prefix to its properties */
+	private final Map<String, SortedMap<String, String>> generatorConfigs = new HashMap<>();
+
+	/** The shared properties */
+	private final SortedMap<String, String> sharedConfig = new TreeMap<>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param props
+	 *            the configuration properties
+	 * @param resourceType
+	 *            the resource type
+	 */
+	public BundleConfigDependencyHelper(Properties props, String resourceType) {
+		this.props = props;
+		this.typePrefix = PropertiesBundleConstant.PROPS_PREFIX + resourceType + ".";
+		this.bundlePropertyPrefix = typePrefix + PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_PROPERTY;
+
+		Map<String, Set<String>> bundleNamesByType = new HashMap<>();
+		for (String type : RESOURCE_TYPES) {
+			bundleNamesByType.put(type, new PropertiesConfigHelper(props, type).getPropertyBundleNameSet());
+		}
+
+		Set<String> bundleNames = bundleNamesByType.remove(resourceType);
+		String customPostProcessorPrefix = PropertiesBundleConstant.CUSTOM_POSTPROCESSORS + ".";
+		for (String key : props.stringPropertyNames()) {
+
+			if (isIgnoredKey(key)) {
+				continue;
+			}
+
+			String value = props.getProperty(key);
+			if (key.startsWith(bundlePropertyPrefix)) {
+				String bundleName = getNextSegment(key, bundlePropertyPrefix.length());
+				if (bundleNames != null && bundleNames.contains(bundleName)) {
+					getConfig(bundleConfigs, bundleName).put(key, value);
+					continue;
+				}
+				if (isPostProcessorChainKey(key)) {
+					// The default postprocessor chains are retrieved from the
+					// properties when needed
+					continue;
+				}
+			}
+
+			if (key.startsWith(customPostProcessorPrefix)) {
+				String postProcessorName = getNextSegment(key, customPostProcessorPrefix.length());
+				if (key.length() > customPostProcessorPrefix.length() + postProcessorName.length()) {
+					getConfig(customPostProcessorConfigs, postProcessorName).put(key, value);
+					continue;
+				}
+			}
+
+			String generatorConfigPrefix = getGeneratorConfigPrefix(key);
+			if (generatorConfigPrefix != null) {
+				getConfig(generatorConfigs, generatorConfigPrefix).put(key, value);
+				continue;
+			}
+
+			if (!isOtherResourceTypeBundleKey(key, bundleNamesByType)) {
+				sharedConfig.put(key, value);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the key doesn't have any impact on the generated bundles
+	 *
+	 * @param key
+	 *            the key
+	 * @return true if the key doesn't have any impact on the generated bundles
+	 */
+	private boolean isIgnoredKey(String key) {
+		return key.startsWith(CONFIG_RELOAD_PREFIX) || key.equals(JawrConstant.JAWR_CONFIG_HASHCODE)
+				|| key.equals(JawrConstant.JAWR_SHARED_CONFIG_HASHCODE);
+	}
+
+	/**
+	 * Checks if the key defines a default postprocessor chain of the current
+	 * resource type
+	 *
+	 * @param key
+	 *            the key
+	 * @return true if the key defines a default postprocessor chain
+	 */
+	private boolean isPostProcessorChainKey(String key) {
+		return key.equals(typePrefix + PropertiesBundleConstant.BUNDLE_FACTORY_POSTPROCESSOR)
+				|| key.equals(typePrefix + PropertiesBundleConstant.BUNDLE_FACTORY_FILE_POSTPROCESSOR)
+				|| key.equals(typePrefix + PropertiesBundleConstant.COMPOSITE_BUNDLE_FACTORY_POSTPROCESSOR)
+				|| key.equals(typePrefix + PropertiesBundleConstant.COMPOSITE_BUNDLE_FACTORY_FILE_POSTPROCESSOR);
+	}
+
+	/**
+	 * Returns the prefix of the generator settings which the key belongs to
+	 *
+	 * @param key
+	 *            the key
+	 * @return the prefix of the generator settings, or null if the key is not
+	 *         a generator setting
+	 */
+	private static String getGeneratorConfigPrefix(String key) {
+		for (String prefix : GENERATOR_CONFIG_RESOLVERS.keySet()) {
+			if (key.startsWith(prefix)) {
+				return prefix;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if the key defines a bundle or a bundle factory property of
+	 * another resource type
+	 *
+	 * @param key
+	 *            the key
+	 * @param bundleNamesByType
+	 *            the bundle names of the other resource types
+	 * @return true if the key defines a bundle property of another resource
+	 *         type
+	 */
+	private boolean isOtherResourceTypeBundleKey(String key, Map<String, Set<String>> bundleNamesByType) {
+
+		for (Map.Entry<String, Set<String>> entry : bundleNamesByType.entrySet()) {
+			String prefix = PropertiesBundleConstant.PROPS_PREFIX + entry.getKey() + "."
+					+ PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_PROPERTY;
+			if (key.startsWith(prefix)) {
+				String bundleName = getNextSegment(key, prefix.length());
+				if (entry.getValue().contains(bundleName)
+						|| key.startsWith(PropertiesBundleConstant.PROPS_PREFIX + entry.getKey() + "."
+								+ BUNDLE_FACTORY_PREFIX)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the segment of the key starting at the index given in parameter
+	 * until the next dot
+	 *
+	 * @param key
+	 *            the key
+	 * @param startIdx
+	 *            the start index
+	 * @return the segment
+	 */
+	private static String getNextSegment(String key, int startIdx) {
+		int endIdx = key.indexOf('.', startIdx);
+		if (endIdx == -1) {
+			endIdx = key.length();
+		}
+		return key.substring(startIdx, endIdx);
+	}
+
+	/**
+	 * Returns the configuration map associated to the name, creating it if
+	 * needed
+	 *
+	 * @param configs
+	 *            the configuration maps
+	 * @param name
+	 *            the name
+	 * @return the configuration map
+	 */
+	private static SortedMap<String, String> getConfig(Map<String, SortedMap<String, String>> configs, String name) {
+		SortedMap<String, String> config = configs.get(name);
+		if (config == null) {
+			config = new TreeMap<>();
+			configs.put(name, config);
+		}
+		return config;
+	}
+
+	/**
+	 * Returns the configuration properties which may affect every bundle
+	 *
+	 * @return the shared configuration properties
+	 */
+	public SortedMap<String, String> getSharedConfig() {
+		return sharedConfig;
+	}
+
+	/**
+	 * Returns the configuration properties which influence the bundle
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @return the configuration properties which influence the bundle
+	 */
+	public SortedMap<String, String> getBundleConfig(JoinableResourceBundle bundle) {
+		SortedMap<String, String> bundleConfig = new TreeMap<>();
+		addBundleConfig(bundle, bundleConfig);
+		return bundleConfig;
+	}
+
+	/**
+	 * Adds the configuration properties which influence the bundle
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @param bundleConfig
+	 *            the map to update
+	 */
+	private void addBundleConfig(JoinableResourceBundle bundle, SortedMap<String, String> bundleConfig) {
+
+		SortedMap<String, String> config = bundleConfigs.get(bundle.getName());
+		if (config != null) {
+			bundleConfig.putAll(config);
+		}
+
+		addGeneratorConfig(bundle, bundleConfig);
+
+		String prefix = bundlePropertyPrefix + bundle.getName();
+		if (bundle.isComposite()) {
+			addPostProcessorChainConfig(prefix + PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_POSTPROCESSOR,
+					PropertiesBundleConstant.COMPOSITE_BUNDLE_FACTORY_POSTPROCESSOR, bundleConfig);
+			addPostProcessorChainConfig(prefix + PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_FILE_POSTPROCESSOR,
+					PropertiesBundleConstant.COMPOSITE_BUNDLE_FACTORY_FILE_POSTPROCESSOR, bundleConfig);
+			for (JoinableResourceBundle childBundle : ((CompositeResourceBundle) bundle).getChildBundles()) {
+				addBundleConfig(childBundle, bundleConfig);
+			}
+		} else {
+			addPostProcessorChainConfig(prefix + PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_POSTPROCESSOR,
+					PropertiesBundleConstant.BUNDLE_FACTORY_POSTPROCESSOR, bundleConfig);
+			addPostProcessorChainConfig(prefix + PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_FILE_POSTPROCESSOR,
+					PropertiesBundleConstant.BUNDLE_FACTORY_FILE_POSTPROCESSOR, bundleConfig);
+		}
+	}
+
+	/**
+	 * Adds the settings of the generators which handle the resources of the
+	 * bundle
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @param bundleConfig
+	 *            the map to update
+	 */
+	private void addGeneratorConfig(JoinableResourceBundle bundle, SortedMap<String, String> bundleConfig) {
+
+		if (generatorConfigs.isEmpty()) {
+			return;
+		}
+
+		List<String> paths = new ArrayList<>();
+		if (bundle.getMappings() != null) {
+			for (PathMapping mapping : bundle.getMappings()) {
+				paths.add(mapping.getPath());
+			}
+		}
+		if (bundle.getItemPathList() != null) {
+			for (BundlePath bundlePath : bundle.getItemPathList()) {
+				paths.add(bundlePath.getPath());
+			}
+		}
+
+		for (Map.Entry<String, SortedMap<String, String>> entry : generatorConfigs.entrySet()) {
+			ResourceGeneratorResolver resolver = GENERATOR_CONFIG_RESOLVERS.get(entry.getKey());
+			for (String path : paths) {
+				if (resolver.matchPath(path)) {
+					bundleConfig.putAll(entry.getValue());
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the configuration properties of the postprocessor chain used by a
+	 * bundle
+	 *
+	 * @param bundleChainKey
+	 *            the key of the postprocessor chain defined for the bundle, or
+	 *            null to use the default chain
+	 * @param defaultChainKey
+	 *            the suffix of the key of the default postprocessor chain
+	 * @param bundleConfig
+	 *            the map to update
+	 */
+	private void addPostProcessorChainConfig(String bundleChainKey, String defaultChainKey,
+			SortedMap<String, String> bundleConfig) {
+
+		String chain = bundleChainKey == null ? null : props.getProperty(bundleChainKey);
+		if (chain == null) {
+			String key = typePrefix + defaultChainKey;
+			chain = props.getProperty(key);
+			if (chain != null) {
+				bundleConfig.put(key, chain);
+			}
+		}
+
+		if (chain != null) {
+			StringTokenizer tk = new StringTokenizer(chain, ",");
+			while (tk.hasMoreTokens()) {
+				SortedMap<String, String> config = customPostProcessorConfigs.get(tk.nextToken().trim());
+				if (config != null) {
+					bundleConfig.putAll(config);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the configuration properties of the default postprocessor
+	 * chains, which are used by the bundles handler
+	 *
+	 * @return the configuration properties of the default postprocessor chains
+	 */
+	public SortedMap<String, String> getDefaultPostProcessorConfig() {
+
+		SortedMap<String, String> config = new TreeMap<>();
+		String[] defaultChainKeys = new String[] { PropertiesBundleConstant.BUNDLE_FACTORY_POSTPROCESSOR,
+				PropertiesBundleConstant.BUNDLE_FACTORY_FILE_POSTPROCESSOR,
+				PropertiesBundleConstant.COMPOSITE_BUNDLE_FACTORY_POSTPROCESSOR,
+				PropertiesBundleConstant.COMPOSITE_BUNDLE_FACTORY_FILE_POSTPROCESSOR };
+		for (String defaultChainKey : defaultChainKeys) {
+			addPostProcessorChainConfig(null, defaultChainKey, config);
+		}
+		return config;
+	}
+
+	/**
+	 * Returns the resolvers of the generators whose settings are different
+	 * from the ones of the helper given in parameter
+	 *
+	 * @param previous
+	 *            the helper of the previous configuration
+	 * @return the resolvers of the generators whose settings have changed
+	 */
+	public List<ResourceGeneratorResolver> getModifiedGeneratorResolvers(BundleConfigDependencyHelper previous) {
+
+		List<ResourceGeneratorResolver> resolvers = new ArrayList<>();
+		for (Map.Entry<String, ResourceGeneratorResolver> entry : GENERATOR_CONFIG_RESOLVERS.entrySet()) {
+			SortedMap<String, String> config = generatorConfigs.get(entry.getKey());
+			SortedMap<String, String> previousConfig = previous.generatorConfigs.get(entry.getKey());
+			if (config == null ? previousConfig != null : !config.equals(previousConfig)) {
+				resolvers.add(entry.getValue());
+			}
+		}
+		return resolvers;
+	}
+
+	/**
+	 * Returns the hashcode of the configuration properties which may affect
+	 * every bundle
+	 *
+	 * @return the hashcode of the shared configuration properties
+	 */
+	public String getSharedConfigHashcode() {
+		return getHashcode(sharedConfig);
+	}
+
+	/**
+	 * Returns the hashcode of the configuration properties which influence
+	 * the bundle
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @return the hashcode of the bundle configuration properties
+	 */
+	public String getBundleConfigHashcode(JoinableResourceBundle bundle) {
+		return getHashcode(getBundleConfig(bundle));
+	}
+
+	/**
+	 * Returns the hashcode of the configuration properties
+	 *
+	 * @param config
+	 *            the configuration properties
+	 * @return the hashcode
+	 */
+	private static String getHashcode(SortedMap<String, String> config) {
+		try {
+			return CheckSumUtils.getMD5Checksum(config.toString());
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unable to calculate Jawr config checksum", e);
+		}
+	}
+
+	/**
+	 * Returns the bundle property prefix for a bundle name
+	 *
+	 * @param resourceType
+	 *            the resource type
+	 * @param bundleName
+	 *            the bundle name
+	 * @return the bundle property prefix
+	 */
+	public static String getBundlePropertyPrefix(String resourceType, String bundleName) {
+		return PropertiesBundleConstant.PROPS_PREFIX + resourceType + "."
+				+ PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_PROPERTY + bundleName;
+	}
+}
@@ -38,6 +38,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,7 @@ import org.slf4j.LoggerFactory;
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.generator.CachedGenerator.CacheMode;
@@ -107,6 +109,27 @@ public abstract class AbstractCachedGenerator
 	/** The jawr configuration */
 	protected JawrConfig config;
 
+	/**
+	 * The flag indicating that the linked resources are validated using their
+	 * content hash when their last modified date has changed
+	 */
+	protected boolean contentHashValidation = false;
+
+	/** The in-memory cache of the generated resources, which may be null */
+	protected GeneratedContentCache memoryCache;
+
+	/** The content hashes of the linked files by file path */
+	private final Map<String, FileContentHash> fileContentHashes = new ConcurrentHashMap<>();
+
+	/** The number of resources retrieved from the in-memory cache */
+	private final AtomicLong memoryHitCount = new AtomicLong();
+
+	/** The number of resources retrieved from the cache files */
+	private final AtomicLong diskHitCount = new AtomicLong();
+
+	/** The number of resources generated while the cache is used */
+	private final AtomicLong missCount = new AtomicLong();
+
 	/**
 	 * Constructor
 	 */
@@ -176,6 +199,11 @@ public abstract class AbstractCachedGenerator
 					cacheDirectory = cacheDirectory + URL_SEPARATOR;
 				}
 				cacheMode = annotation.mode();
+				contentHashValidation = JawrConstant.GENERATOR_CACHE_VALIDATION_CONTENT
+						.equals(config.getGeneratorCacheValidation());
+				if (config.getGeneratorCacheMemoryMaxSize() > 0) {
+					memoryCache = new GeneratedContentCache(config.getGeneratorCacheMemoryMaxSize());
+				}
 
 				loadCacheMapping();
 
@@ -274,6 +302,9 @@ public abstract class AbstractCachedGenerator
 
 		if (rd == null) {
 
+			if (useCache) {
+				missCount.incrementAndGet();
+			}
 			rd = generateResource(path, context);
 			if (useCache) {
 
@@ -370,6 +401,11 @@ public abstract class AbstractCachedGenerator
 	 *            the list of mappings linked to the resource
 	 */
 	protected void addLinkedResources(String path, GeneratorContext context, List<FilePathMapping> fMappings) {
+		if (contentHashValidation) {
+			for (FilePathMapping fMapping : fMappings) {
+				fMapping.setContentHash(getContentHash(fMapping.getPath(), fMapping.getLastModified()));
+			}
+		}
 		linkedResourceMap.put(getResourceCacheKey(path, context), new CopyOnWriteArrayList<>(fMappings));
 		JoinableResourceBundle bundle = context.getBundle();
 		if (bundle != null) {
@@ -421,7 +457,9 @@ public abstract class AbstractCachedGenerator
 	}
 
 	/**
-	 * Checks if the resources have been modified
+	 * Checks if the resources have been modified. If the content hash
+	 * validation is used, a resource whose last modified date has changed is
+	 * considered as modified only if its content has changed.
 	 * 
 	 * @param context
 	 *            the generator context
@@ -434,11 +472,72 @@ public abstract class AbstractCachedGenerator
 
 		for (Iterator<FilePathMapping> iter = fMappings.iterator(); iter.hasNext() && !resourceModified;) {
 			FilePathMapping fMapping = iter.next();
-			resourceModified = fMapping.getLastModified() != rsHandler.getLastModified(fMapping.getPath());
+			long lastModified = rsHandler.getLastModified(fMapping.getPath());
+			if (fMapping.getLastModified() != lastModified) {
+				if (isContentUnchanged(fMapping.getPath(), fMapping.getContentHash(), lastModified)) {
+					fMapping.setLastModified(lastModified);
+				} else {
+					resourceModified = true;
+				}
+			}
 		}
 		return resourceModified;
 	}
 
+	/**
+	 * Checks if the content of a file whose last modified date has changed is
+	 * unchanged. This always returns false if the content hash validation is
+	 * not used.
+	 * 
+	 * @param filePath
+	 *            the file path
+	 * @param contentHash
+	 *            the hash of the content when the file has been linked, or
+	 *            null
+	 * @param lastModified
+	 *            the current last modified date of the file
+	 * @return true if the content of the file is unchanged
+	 */
+	protected boolean isContentUnchanged(String filePath, String contentHash, long lastModified) {
+
+		boolean unchanged = contentHashValidation && contentHash != null
+				&& contentHash.equals(getContentHash(filePath, lastModified));
+		if (unchanged && LOGGER.isDebugEnabled()) {
+			LOGGER.debug("The last modified date of '" + filePath + "' has changed but not its content");
+		}
+		return unchanged;
+	}
+
+	/**
+	 * Returns the hash of the content of a file. The hash is only computed
+	 * again if the last modified date of the file has changed.
+	 * 
+	 * @param filePath
+	 *            the file path
+	 * @param lastModified
+	 *            the last modified date of the file
+	 * @return the hash of the content of the file, or null if the file can't
+	 *         be read
+	 */
+	protected String getContentHash(String filePath, long lastModified) {
+
+		FileContentHash contentHash = fileContentHashes.get(filePath);
+		if (contentHash == null || contentHash.lastModified != lastModified) {
+			File f = new File(filePath);
+			if (!f.isFile()) {
+				return null;
+			}
+			try (InputStream is = new FileInputStream(f)) {
+				contentHash = new FileContentHash(lastModified, CheckSumUtils.getMD5Checksum(is));
+			} catch (IOException e) {
+				LOGGER.debug("Unable to compute the content hash of '" + filePath + "'", e);
+				return null;
+			}
+			fileContentHashes.put(filePath, contentHash);
+		}
+		return contentHash.hash;
+	}
+
 	/**
 	 * Retrieves the resource from cache if it exists
 	 * 
@@ -454,6 +553,18 @@ public abstract class AbstractCachedGenerator
 
 		Reader rd = null;
 		String filePath = getTempFilePath(context, cacheMode);
+		if (memoryCache != null) {
+			String content = memoryCache.get(filePath);
+			if (content != null) {
+				memoryHitCount.incrementAndGet();
+				context.setRetrievedFromCache(true);
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug(getName() + " resource '" + path + "' retrieved from memory cache");
+				}
+				return new StringReader(content);
+			}
+		}
+
 		FileInputStream fis = null;
 		File file = new File(filePath);
 		if (file.exists()) {
@@ -465,6 +576,19 @@ public abstract class AbstractCachedGenerator
 			}
 			FileChannel inchannel = fis.getChannel();
 			rd = Channels.newReader(inchannel, context.getConfig().getResourceCharset().newDecoder(), -1);
+			if (memoryCache != null) {
+				try {
+					String content = IOUtils.toString(rd);
+					memoryCache.put(filePath, content);
+					rd = new StringReader(content);
+				} catch (IOException e) {
+					throw new BundlingProcessException("An error occured while reading temporary resource " + filePath,
+							e);
+				} finally {
+					IOUtils.close(fis);
+				}
+			}
+			diskHitCount.incrementAndGet();
 			context.setRetrievedFromCache(true);
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug(getName() + " resource '" + path + "' retrieved from cache");
@@ -498,6 +622,9 @@ public abstract class AbstractCachedGenerator
 			FileChannel channel = fos.getChannel();
 			wr = Channels.newWriter(channel, config.getResourceCharset().newEncoder(), -1);
 			wr.write(content);
+			if (memoryCache != null) {
+				memoryCache.put(filePath, content);
+			}
 
 			rd = new StringReader(content);
 		} catch (IOException e) {
@@ -517,7 +644,21 @@ public abstract class AbstractCachedGenerator
 	protected void resetCache() {
 		cacheProperties.clear();
 		linkedResourceMap.clear();
+		if (memoryCache != null) {
+			memoryCache.clear();
+		}
 		cacheProperties.put(JawrConfig.JAWR_CHARSET_NAME, config.getResourceCharset().name());
+		cacheProperties.put(JawrConstant.JAWR_GENERATOR_CACHE_VALIDATION, getCacheValidationMode());
+	}
+
+	/**
+	 * Returns the validation mode of the cache
+	 * 
+	 * @return the validation mode of the cache
+	 */
+	protected String getCacheValidationMode() {
+		return contentHashValidation ? JawrConstant.GENERATOR_CACHE_VALIDATION_CONTENT
+				: JawrConstant.GENERATOR_CACHE_VALIDATION_TIMESTAMP;
 	}
 
 	/**
@@ -528,7 +669,9 @@ public abstract class AbstractCachedGenerator
 	protected boolean isCacheValid() {
 
 		return StringUtils.equals(cacheProperties.getProperty(JawrConfig.JAWR_CHARSET_NAME),
-				config.getResourceCharset().name());
+				config.getResourceCharset().name())
+				&& StringUtils.equals(cacheProperties.getProperty(JawrConstant.JAWR_GENERATOR_CACHE_VALIDATION,
+						JawrConstant.GENERATOR_CACHE_VALIDATION_TIMESTAMP), getCacheValidationMode());
 
 	}
 
@@ -546,6 +689,9 @@ public abstract class AbstractCachedGenerator
 					FilePathMapping fMapping = iter.next();
 					strb.append(fMapping.getPath()).append(MAPPING_TIMESTAMP_SEPARATOR)
 							.append(fMapping.getLastModified());
+					if (fMapping.getContentHash() != null) {
+						strb.append(MAPPING_TIMESTAMP_SEPARATOR).append(fMapping.getContentHash());
+					}
 					if (iter.hasNext()) {
 						strb.append(SEMICOLON);
 					}
@@ -611,11 +757,17 @@ public abstract class AbstractCachedGenerator
 							String[] mapping = fmapping.split(MAPPING_TIMESTAMP_SEPARATOR);
 							long lastModified = Long.parseLong(mapping[1]);
 							String filePath = mapping[0];
-							if (rsHandler.getLastModified(filePath) != lastModified) {
-								mappingModified = false;
-								break;
+							String contentHash = mapping.length > 2 ? mapping[2] : null;
+							long currentLastModified = rsHandler.getLastModified(filePath);
+							if (currentLastModified != lastModified) {
+								if (!isContentUnchanged(filePath, contentHash, currentLastModified)) {
+									mappingModified = false;
+									break;
+								}
+								lastModified = currentLastModified;
 							}
 							FilePathMapping fmap = new FilePathMapping(filePath, lastModified);
+							fmap.setContentHash(contentHash);
 							fMappings.add(fmap);
 						}
 
@@ -656,6 +808,63 @@ public abstract class AbstractCachedGenerator
 		if (useCache) {
 			// Update the cache
 			serializeCacheMapping();
+
+			if (PERF_LOGGER.isDebugEnabled()) {
+				PERF_LOGGER.debug("Cache of " + getName() + " generator : " + memoryHitCount.get()
+						+ " memory hits, " + diskHitCount.get() + " disk hits, " + missCount.get() + " misses");
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of resources retrieved from the in-memory cache
+	 * 
+	 * @return the number of resources retrieved from the in-memory cache
+	 */
+	public long getMemoryHitCount() {
+		return memoryHitCount.get();
+	}
+
+	/**
+	 * Returns the number of resources retrieved from the cache files
+	 * 
+	 * @return the number of resources retrieved from the cache files
+	 */
+	public long getDiskHitCount() {
+		return diskHitCount.get();
+	}
+
+	/**
+	 * Returns the number of resources generated while the cache is used
+	 * 
+	 * @return the number of resources generated while the cache is used
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * This class defines the content hash of a file
+	 */
+	private static class FileContentHash {
+
+		/** The last modified date of the file when the hash was computed */
+		private final long lastModified;
+
+		/** The hash of the file content */
+		private final String hash;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param lastModified
+		 *            the last modified date of the file
+		 * @param hash
+		 *            the hash of the file content
+		 */
+		public FileContentHash(long lastModified, String hash) {
+			this.lastModified = lastModified;
+			this.hash = hash;
 		}
 	}
 
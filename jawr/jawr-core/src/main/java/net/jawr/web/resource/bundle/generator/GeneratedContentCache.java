@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.generator;
+
+import net.jawr.web.util.LRUCache;
+
+/**
+ * This class defines a bounded in-memory cache of generated resource
+ * contents, which is used in front of the files of the generator cache. When
+ * the total size of the contents exceeds the limit, the least recently used
+ * contents are discarded.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class GeneratedContentCache {
+
+	/** The contents by key */
+	private final LRUCache<String, String> contents;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            the maximum number of characters stored in the cache
+	 */
+	public GeneratedContentCache(long maxSize) {
+		contents = new LRUCache<String, String>(maxSize) {
+
+			@Override
+			protected long getWeight(String value) {
+				return value.length();
+			}
+		};
+	}
+
+	/**
+	 * Returns the content stored for the key
+	 *
+	 * @param key
+	 *            the key
+	 * @return the content, or null if the content is not in the cache
+	 */
+	public String get(String key) {
+		return contents.get(key);
+	}
+
+	/**
+	 * Stores the content for the key. The content is not stored if it is
+	 * larger than the cache.
+	 *
+	 * @param key
+	 *            the key
+	 * @param content
+	 *            the content
+	 */
+	public void put(String key, String content) {
+		contents.put(key, content);
+	}
+
+	/**
+	 * Discards all the contents
+	 */
+	public void clear() {
+		contents.clear();
+	}
+
+	/**
+	 * Returns the number of characters stored in the cache
+	 *
+	 * @return the number of characters stored in the cache
+	 */
+	public long getSize() {
+		return contents.getWeight();
+	}
+}
@@ -42,6 +42,8 @@ import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.generator.classpath.ClassPathBinaryResourceGenerator;
 import net.jawr.web.resource.bundle.generator.classpath.ClassPathCSSGenerator;
 import net.jawr.web.resource.bundle.generator.classpath.ClasspathJSGenerator;
+import net.jawr.web.resource.bundle.generator.classpath.ClassPathResourceCache;
+import net.jawr.web.resource.bundle.generator.classpath.ClassPathResourceCacheAwareResourceGenerator;
 import net.jawr.web.resource.bundle.generator.classpath.webjars.WebJarsBinaryResourceGenerator;
 import net.jawr.web.resource.bundle.generator.classpath.webjars.WebJarsCssGenerator;
 import net.jawr.web.resource.bundle.generator.classpath.webjars.WebJarsJSGenerator;
@@ -67,9 +69,11 @@ import net.jawr.web.resource.bundle.mappings.PathMapping;
 import net.jawr.web.resource.bundle.variant.VariantResolver;
 import net.jawr.web.resource.bundle.variant.VariantSet;
 import net.jawr.web.resource.handler.reader.ResourceReader;
+import net.jawr.web.resource.handler.reader.ResourceReaderDispatchIndex;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import net.jawr.web.resource.handler.reader.WorkingDirectoryLocationAware;
 import net.jawr.web.servlet.JawrRequestHandler;
+import net.jawr.web.util.LRUCache;
 import net.jawr.web.util.StringUtils;
 
 /**
@@ -131,12 +135,41 @@ public class GeneratorRegistry implements Serializable {
 	/** The generator prefix separator */
 	public static final String PREFIX_SEPARATOR = ":";
 
+	/** The maximum number of resolved paths kept in the cache */
+	private static final int MAX_RESOLVED_PATHS = 4096;
+
+	/** The generator stored in the cache for the paths which are not generated */
+	private static final ResourceGenerator NO_GENERATOR = new ResourceGenerator() {
+
+		@Override
+		public ResourceGeneratorResolver getResolver() {
+			return null;
+		}
+
+		@Override
+		public String getDebugModeRequestPath() {
+			return null;
+		}
+	};
+
 	/** The common generators */
 	private final Map<ResourceGeneratorResolver, Class<?>> commonGenerators = new ConcurrentHashMap<>();
 
 	/** The generator resolver registry */
 	private final List<ResourceGeneratorResolverWrapper> resolverRegistry = new ArrayList<>();
 
+	/**
+	 * The index of the registered generators, in the order of the resolver
+	 * registry
+	 */
+	private transient volatile ResourceReaderDispatchIndex<ResourceGenerator> generatorIndex;
+
+	/** The resolved generators by path */
+	private transient LRUCache<String, ResourceGenerator> resolvedGenerators;
+
+	/** The version of the registry, which changes each time a generator is added */
+	private transient volatile int registryVersion;
+
 	/** The CSS image resource prefix registry */
 	private final List<ResourceGenerator> cssImageResourceGeneratorRegistry = new ArrayList<>();
 
@@ -155,6 +188,10 @@ public class GeneratorRegistry implements Serializable {
 	/** The resource handler */
 	private ResourceReaderHandler rsHandler;
 
+	/** The cache of the classpath resources shared by the classpath generators */
+	private final ClassPathResourceCache classPathResourceCache = new ClassPathResourceCache(
+			ClassPathResourceCache.DEFAULT_MAX_SIZE);
+
 	/** The map of variant resolvers */
 	private final Map<String, VariantResolver> variantResolvers = new ConcurrentHashMap<>();
 
@@ -254,6 +291,7 @@ public class GeneratorRegistry implements Serializable {
 	public void setConfig(JawrConfig config) {
 		this.config = config;
 		initCommonGenerators();
+		clearResolvedGenerators();
 	}
 
 	/**
@@ -338,6 +376,84 @@ public class GeneratorRegistry implements Serializable {
 		if (generator instanceof BundlingProcessLifeCycleListener) {
 			bundlingProcesslifeCycleListeners.add((BundlingProcessLifeCycleListener) generator);
 		}
+
+		generatorIndex = null;
+		clearResolvedGenerators();
+	}
+
+	/**
+	 * Returns the index of the registered generators, which is built again
+	 * when a generator is added
+	 * 
+	 * @return the index of the registered generators
+	 */
+	private ResourceReaderDispatchIndex<ResourceGenerator> getGeneratorIndex() {
+
+		ResourceReaderDispatchIndex<ResourceGenerator> index = generatorIndex;
+		if (index == null) {
+			List<ResourceGenerator> generators = new ArrayList<>();
+			for (ResourceGeneratorResolverWrapper resolver : resolverRegistry) {
+				generators.add(resolver.getResourceGenerator());
+			}
+			index = new ResourceReaderDispatchIndex<>(generators);
+			generatorIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the cache of the resolved generators by path
+	 * 
+	 * @return the cache of the resolved generators by path
+	 */
+	private LRUCache<String, ResourceGenerator> getResolvedGenerators() {
+
+		if (resolvedGenerators == null) {
+			resolvedGenerators = new LRUCache<>(MAX_RESOLVED_PATHS);
+		}
+		return resolvedGenerators;
+	}
+
+	/**
+	 * Returns the generator resolved for the path, from the cache
+	 * 
+	 * @param path
+	 *            the path
+	 * @return the resolved generator, NO_GENERATOR if the path is not
+	 *         generated, or null if the path has not been resolved yet
+	 */
+	private synchronized ResourceGenerator getResolvedGenerator(String path) {
+
+		return getResolvedGenerators().get(path);
+	}
+
+	/**
+	 * Stores the generator resolved for the path, if the registry has not
+	 * changed since the resolution started. A generator loaded during the
+	 * resolution, like the generator of the resource path of a prefixed path,
+	 * may have a higher priority than the resolved one.
+	 * 
+	 * @param path
+	 *            the path
+	 * @param generator
+	 *            the resolved generator or null if the path is not generated
+	 * @param version
+	 *            the version of the registry when the resolution started
+	 */
+	private synchronized void putResolvedGenerator(String path, ResourceGenerator generator, int version) {
+
+		if (version == registryVersion && path != null) {
+			getResolvedGenerators().put(path, generator == null ? NO_GENERATOR : generator);
+		}
+	}
+
+	/**
+	 * Clears the cache of the resolved generators
+	 */
+	private synchronized void clearResolvedGenerators() {
+
+		registryVersion++;
+		getResolvedGenerators().clear();
 	}
 
 	/**
@@ -448,12 +564,66 @@ public class GeneratorRegistry implements Serializable {
 			if (generator instanceof WorkingDirectoryLocationAware) {
 				((WorkingDirectoryLocationAware) generator).setWorkingDirectory(rsHandler.getWorkingDirectory());
 			}
+			if (generator instanceof ClassPathResourceCacheAwareResourceGenerator) {
+				((ClassPathResourceCacheAwareResourceGenerator) generator)
+						.setClassPathResourceCache(classPathResourceCache);
+			}
 			if (generator instanceof PostInitializationAwareResourceGenerator) {
 				((PostInitializationAwareResourceGenerator) generator).afterPropertiesSet();
 			}
 		}
 	}
 
+	/**
+	 * Initializes again the properties of the loaded generators, whose
+	 * resolver is one of the resolvers given in parameter. This is used when
+	 * the settings of these generators have been modified in the
+	 * configuration.
+	 *
+	 * @param resolvers
+	 *            the resolvers of the generators to initialize again
+	 */
+	public void reinitializeGenerators(List<ResourceGeneratorResolver> resolvers) {
+
+		if (resolvers.isEmpty()) {
+			return;
+		}
+		for (ResourceGeneratorResolverWrapper wrapper : new ArrayList<>(resolverRegistry)) {
+			for (ResourceGeneratorResolver resolver : resolvers) {
+				if (wrapper.isSameAs(resolver)) {
+					if (LOGGER.isDebugEnabled()) {
+						LOGGER.debug("Reinitializing the generator "
+								+ wrapper.getResourceGenerator().getClass().getName());
+					}
+					initializeGeneratorProperties(wrapper.getResourceGenerator());
+					break;
+				}
+			}
+		}
+		clearResolvedGenerators();
+	}
+
+	/**
+	 * Disposes the registry. The cache of the classpath resources is cleared
+	 * and the generators holding resources, like JRuby runtimes, release
+	 * them. This is called when the registry is replaced,
+	 * for example when the configuration is reloaded, and when the
+	 * application is undeployed.
+	 */
+	public void dispose() {
+
+		classPathResourceCache.clear();
+		for (ResourceGeneratorResolverWrapper wrapper : new ArrayList<>(resolverRegistry)) {
+			ResourceGenerator generator = wrapper.getResourceGenerator();
+			if (generator instanceof DisposableResourceGenerator) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Disposing the generator " + generator.getClass().getName());
+				}
+				((DisposableResourceGenerator) generator).dispose();
+			}
+		}
+	}
+
 	/**
 	 * Determines whether a path is to be handled by a generator.
 	 * 
@@ -521,22 +691,44 @@ public class GeneratorRegistry implements Serializable {
 	 */
 	private ResourceGenerator resolveResourceGenerator(String path) {
 
-		ResourceGenerator resourceGenerator = null;
-		for (ResourceGeneratorResolverWrapper resolver : resolverRegistry) {
-			if (resolver.matchPath(path)) {
-				resourceGenerator = resolver.getResourceGenerator();
-				if (resolver.getType().equals(ResolverType.PREFIXED)) {
-					loadGeneratorIfNeeded(resolver.getResourcePath(path));
-				}
-				break;
-			}
+		ResourceGenerator resourceGenerator = getResolvedGenerator(path);
+		if (resourceGenerator != null) {
+			return resourceGenerator == NO_GENERATOR ? null : resourceGenerator;
 		}
 
+		int version = registryVersion;
+		resourceGenerator = findRegisteredGenerator(path);
+
 		// Lazy load generator
 		if (resourceGenerator == null) {
 			resourceGenerator = loadCommonGenerator(path);
 		}
 
+		putResolvedGenerator(path, resourceGenerator, version);
+		return resourceGenerator;
+	}
+
+	/**
+	 * Finds the first registered generator whose resolver matches the path.
+	 * If the resolver is a prefixed one, the generator of the resource path is
+	 * loaded if needed.
+	 * 
+	 * @param path
+	 *            the resource path
+	 * @return the resource generator or null if there is none
+	 */
+	private ResourceGenerator findRegisteredGenerator(String path) {
+
+		ResourceGenerator resourceGenerator = null;
+		ResourceReaderDispatchIndex<ResourceGenerator> index = getGeneratorIndex();
+		int idx = index.nextGenerator(path, index.getGeneratorCandidates(path), 0);
+		if (idx != -1) {
+			resourceGenerator = index.getReader(idx);
+			ResourceGeneratorResolver resolver = resourceGenerator.getResolver();
+			if (resolver.getType().equals(ResolverType.PREFIXED)) {
+				loadGeneratorIfNeeded(resolver.getResourcePath(path));
+			}
+		}
 		return resourceGenerator;
 	}
 
@@ -549,15 +741,15 @@ public class GeneratorRegistry implements Serializable {
 	 */
 	public ResourceGenerator getResourceGenerator(String path) {
 
-		ResourceGenerator resourceGenerator = null;
-		for (ResourceGeneratorResolverWrapper resolver : resolverRegistry) {
-			if (resolver.matchPath(path)) {
-				resourceGenerator = resolver.getResourceGenerator();
-				if (resolver.getType().equals(ResolverType.PREFIXED)) {
-					loadGeneratorIfNeeded(resolver.getResourcePath(path));
-				}
-				break;
+		ResourceGenerator resourceGenerator = getResolvedGenerator(path);
+		if (resourceGenerator == null) {
+			int version = registryVersion;
+			resourceGenerator = findRegisteredGenerator(path);
+			if (resourceGenerator != null) {
+				putResolvedGenerator(path, resourceGenerator, version);
 			}
+		} else if (resourceGenerator == NO_GENERATOR) {
+			resourceGenerator = null;
 		}
 		if (resourceGenerator == null) {
 			throw new BundlingProcessException("No ResourceGenerator found for the path :" + path);
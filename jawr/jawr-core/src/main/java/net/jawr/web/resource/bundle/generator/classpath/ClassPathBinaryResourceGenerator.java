@@ -32,7 +32,8 @@ import net.jawr.web.resource.handler.reader.ResourceBrowser;
  * @author Ibrahim Chaehoi
  *
  */
-public class ClassPathBinaryResourceGenerator implements ResourceBrowser, StreamResourceGenerator {
+public class ClassPathBinaryResourceGenerator
+		implements ResourceBrowser, StreamResourceGenerator, ClassPathResourceCacheAwareResourceGenerator {
 
 	/** the class path generator helper */
 	private static final String CLASSPATH_GENERATOR_HELPER_PREFIX = "";
@@ -122,6 +123,18 @@ public class ClassPathBinaryResourceGenerator implements ResourceBrowser, Stream
 		return is;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.classpath.
+	 * ClassPathResourceCacheAwareResourceGenerator#setClassPathResourceCache(
+	 * net.jawr.web.resource.bundle.generator.classpath.ClassPathResourceCache)
+	 */
+	@Override
+	public void setClassPathResourceCache(ClassPathResourceCache resourceCache) {
+		helper.setResourceCache(resourceCache);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
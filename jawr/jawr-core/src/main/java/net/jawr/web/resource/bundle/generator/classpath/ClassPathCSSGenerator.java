@@ -40,7 +40,8 @@ import net.jawr.web.resource.handler.reader.ResourceBrowser;
  * @author Ibrahim Chaehoi
  */
 @CachedGenerator(name = "Classpath CSS", cacheDirectory = "cssClasspath", mappingFileName = "cssClasspathMapping.txt")
-public class ClassPathCSSGenerator extends AbstractCSSGenerator implements ResourceBrowser {
+public class ClassPathCSSGenerator extends AbstractCSSGenerator
+		implements ResourceBrowser, ClassPathResourceCacheAwareResourceGenerator {
 
 	/** the class path generator helper */
 	private static final String CLASSPATH_GENERATOR_HELPER_PREFIX = "";
@@ -203,6 +204,18 @@ public class ClassPathCSSGenerator extends AbstractCSSGenerator implements Resou
 
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.classpath.
+	 * ClassPathResourceCacheAwareResourceGenerator#setClassPathResourceCache(
+	 * net.jawr.web.resource.bundle.generator.classpath.ClassPathResourceCache)
+	 */
+	@Override
+	public void setClassPathResourceCache(ClassPathResourceCache resourceCache) {
+		helper.setResourceCache(resourceCache);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
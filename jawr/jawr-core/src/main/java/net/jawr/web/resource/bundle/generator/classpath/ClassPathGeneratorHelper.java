@@ -19,7 +19,6 @@ import static net.jawr.web.JawrConstant.JAR_URL_SEPARATOR;
 import static net.jawr.web.JawrConstant.FILE_URL_PREFIX;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -43,7 +42,6 @@ import org.slf4j.LoggerFactory;
 import net.jawr.web.JawrConstant;
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
-import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.generator.GeneratorContext;
 import net.jawr.web.resource.handler.reader.ResourceBrowser;
@@ -64,6 +62,10 @@ public class ClassPathGeneratorHelper implements ResourceBrowser {
 	/** The prefix to preppend before searching resource in classpath */
 	private final String classpathPrefix;
 
+	/** The cache of the classpath resources */
+	private volatile ClassPathResourceCache resourceCache = new ClassPathResourceCache(
+			ClassPathResourceCache.DEFAULT_MAX_SIZE);
+
 	/**
 	 * Constructor
 	 */
@@ -81,6 +83,17 @@ public class ClassPathGeneratorHelper implements ResourceBrowser {
 		this.classpathPrefix = classpathPrefix;
 	}
 
+	/**
+	 * Sets the cache of the classpath resources, which is shared by the
+	 * classpath generators of a generator registry
+	 * 
+	 * @param resourceCache
+	 *            the cache of the classpath resources
+	 */
+	public void setResourceCache(ClassPathResourceCache resourceCache) {
+		this.resourceCache = resourceCache;
+	}
+
 	/**
 	 * Finds a resource from the classpath and returns a reader on it.
 	 * 
@@ -108,8 +121,8 @@ public class ClassPathGeneratorHelper implements ResourceBrowser {
 
 			String resourcePath = context.getPath();
 			String path = getCompletePath(resourcePath);
-			is = ClassLoaderResourceUtils.getResourceAsStream(path, this);
-		} catch (FileNotFoundException e) {
+			is = resourceCache.getResourceAsStream(path, this);
+		} catch (IOException e) {
 			throw new BundlingProcessException(e);
 		}
 		return is;
@@ -142,9 +155,12 @@ public class ClassPathGeneratorHelper implements ResourceBrowser {
 		URL resourceURL = null;
 
 		try {
-			resourceURL = ClassLoaderResourceUtils.getResourceURL(getCompletePath(path), this);
+			resourceURL = resourceCache.getResourceURL(getCompletePath(path), this);
 			if (resourceURL.toString().startsWith(JAR_URL_PREFIX)) {
-				resources = getResourceNamesFromJar(path, resourceURL);
+				resources = resourceCache.getResourceNames(resourceURL);
+				if (resources == null) {
+					resources = getResourceNamesFromJar(path, resourceURL);
+				}
 			} else if (resourceURL.toString().startsWith(FILE_URL_PREFIX)) {
 
 				String dirPath = resourceURL.getFile();
@@ -313,7 +329,7 @@ public class ClassPathGeneratorHelper implements ResourceBrowser {
 		String path = getCompletePath(resourcePath);
 		URL url = null;
 		try {
-			url = ClassLoaderResourceUtils.getResourceURL(path, this);
+			url = resourceCache.getResourceURL(path, this);
 			String strURL = url.toString();
 			if (strURL.startsWith(JawrConstant.FILE_URL_PREFIX)) {
 				filePath = new File(url.getFile()).getAbsolutePath();
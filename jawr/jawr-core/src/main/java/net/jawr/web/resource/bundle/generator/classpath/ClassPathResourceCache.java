@@ -0,0 +1,353 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.generator.classpath;
+
+import static net.jawr.web.JawrConstant.FILE_URL_PREFIX;
+import static net.jawr.web.JawrConstant.JAR_URL_PREFIX;
+import static net.jawr.web.JawrConstant.JAR_URL_SEPARATOR;
+import static net.jawr.web.JawrConstant.URL_SEPARATOR;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
+import net.jawr.web.util.LRUCache;
+
+/**
+ * This class defines the cache of the classpath resources packaged in jar
+ * files, which is shared by the classpath generators of a generator registry.
+ *
+ * It keeps the URL of the resources, an index of the entries of each jar
+ * file, which is used to list the directories without reading the jar file
+ * again, and a bounded cache of the entry contents. The index of a jar file is
+ * built again when the jar file is modified, and the entry contents are
+ * stored by URL and CRC, so a modified entry is read again. As the cache belongs to the
+ * generator registry, it is discarded with the registry, for example when the
+ * configuration or the web application is reloaded.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ClassPathResourceCache {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClassPathResourceCache.class);
+
+	/** The default maximum number of bytes stored in the cache */
+	public static final long DEFAULT_MAX_SIZE = 4 * 1024 * 1024;
+
+	/** The resource URLs by path */
+	private final ConcurrentMap<String, URL> resourceURLs = new ConcurrentHashMap<>();
+
+	/** The jar indexes by jar file path */
+	private final ConcurrentMap<String, JarIndex> jarIndexes = new ConcurrentHashMap<>();
+
+	/** The entry contents by URL and CRC */
+	private final LRUCache<String, byte[]> contents;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            the maximum number of bytes stored in the cache
+	 */
+	public ClassPathResourceCache(long maxSize) {
+		contents = new LRUCache<String, byte[]>(maxSize) {
+
+			@Override
+			protected long getWeight(byte[] value) {
+				return value.length;
+			}
+		};
+	}
+
+	/**
+	 * Returns the URL of a resource
+	 *
+	 * @param resourcePath
+	 *            the resource path
+	 * @param source
+	 *            the object requesting the resource
+	 * @return the URL of the resource
+	 * @throws ResourceNotFoundException
+	 *             if the resource is not found
+	 */
+	public URL getResourceURL(String resourcePath, Object source) throws ResourceNotFoundException {
+
+		URL url = resourceURLs.get(resourcePath);
+		if (url == null) {
+			url = ClassLoaderResourceUtils.getResourceURL(resourcePath, source);
+			resourceURLs.put(resourcePath, url);
+		}
+		return url;
+	}
+
+	/**
+	 * Returns an input stream on a resource. The content of the resources
+	 * packaged in jar files is cached.
+	 *
+	 * @param resourcePath
+	 *            the resource path
+	 * @param source
+	 *            the object requesting the resource
+	 * @return the input stream
+	 * @throws IOException
+	 *             if the resource can't be read
+	 */
+	public InputStream getResourceAsStream(String resourcePath, Object source) throws IOException {
+
+		URL url = null;
+		try {
+			url = getResourceURL(resourcePath, source);
+		} catch (ResourceNotFoundException e) {
+			// Let the default lookup try the other class loaders
+			return ClassLoaderResourceUtils.getResourceAsStream(resourcePath, source);
+		}
+
+		byte[] content = getEntryContent(url);
+		if (content == null) {
+			return ClassLoaderResourceUtils.getResourceAsStream(resourcePath, source);
+		}
+		return new ByteArrayInputStream(content);
+	}
+
+	/**
+	 * Returns the names of the direct children of a directory packaged in a
+	 * jar file
+	 *
+	 * @param url
+	 *            the URL of the directory
+	 * @return the names of the children, or null if the URL doesn't reference
+	 *         a directory in a jar file
+	 */
+	public Set<String> getResourceNames(URL url) {
+
+		JarIndex index = getJarIndex(url);
+		String rootEntryPath = getEntryName(url);
+		if (index == null || rootEntryPath == null) {
+			return null;
+		}
+
+		if (!rootEntryPath.isEmpty() && !rootEntryPath.endsWith(URL_SEPARATOR)) {
+			rootEntryPath = rootEntryPath + URL_SEPARATOR;
+		}
+		Set<String> children = index.children.get(rootEntryPath);
+		return children == null ? Collections.<String> emptySet() : Collections.unmodifiableSet(children);
+	}
+
+	/**
+	 * Returns the content of a jar entry, which is read again if its CRC has
+	 * changed
+	 *
+	 * @param url
+	 *            the URL of the entry
+	 * @return the content of the entry, or null if the URL doesn't reference
+	 *         an entry in a jar file
+	 * @throws IOException
+	 *             if the entry can't be read
+	 */
+	private byte[] getEntryContent(URL url) throws IOException {
+
+		JarIndex index = getJarIndex(url);
+		String entryName = getEntryName(url);
+		if (index == null || entryName == null) {
+			return null;
+		}
+
+		Long crc = index.crcs.get(entryName);
+		if (crc == null) {
+			return null;
+		}
+
+		String key = url.toString() + "|" + Long.toHexString(crc);
+		byte[] bytes = contents.get(key);
+		if (bytes == null) {
+			try (InputStream is = url.openStream(); ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+				IOUtils.copy(is, os);
+				bytes = os.toByteArray();
+			}
+			contents.put(key, bytes);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Returns the index of the jar file referenced by the URL
+	 *
+	 * @param url
+	 *            the URL
+	 * @return the index of the jar file, or null if the URL doesn't reference
+	 *         a local jar file
+	 */
+	private JarIndex getJarIndex(URL url) {
+
+		String strURL = url.toString();
+		int idx = strURL.indexOf(JAR_URL_SEPARATOR);
+		if (!strURL.startsWith(JAR_URL_PREFIX + FILE_URL_PREFIX) || idx == -1) {
+			return null;
+		}
+
+		File file;
+		try {
+			file = new File(ClassPathGeneratorHelper.toURI(strURL.substring(JAR_URL_PREFIX.length(), idx)));
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+
+		String jarPath = file.getAbsolutePath();
+		long lastModified = file.lastModified();
+		long length = file.length();
+		JarIndex index = jarIndexes.get(jarPath);
+		if (index == null || index.lastModified != lastModified || index.length != length) {
+			try {
+				index = new JarIndex(file, lastModified, length);
+			} catch (IOException e) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Unable to index the jar file '" + jarPath + "'", e);
+				}
+				return null;
+			}
+			jarIndexes.put(jarPath, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the name of the jar entry referenced by the URL
+	 *
+	 * @param url
+	 *            the URL
+	 * @return the name of the jar entry, or null if the URL is not a jar URL
+	 *         or if the name is encoded
+	 */
+	private String getEntryName(URL url) {
+
+		String strURL = url.toString();
+		int idx = strURL.indexOf(JAR_URL_SEPARATOR);
+		if (idx == -1 || strURL.indexOf('%', idx) != -1) {
+			return null;
+		}
+		return strURL.substring(idx + JAR_URL_SEPARATOR.length());
+	}
+
+	/**
+	 * Discards all the cached resources
+	 */
+	public void clear() {
+
+		resourceURLs.clear();
+		jarIndexes.clear();
+		contents.clear();
+	}
+
+	/**
+	 * Returns the number of bytes stored in the cache
+	 *
+	 * @return the number of bytes stored in the cache
+	 */
+	public long getSize() {
+		return contents.getWeight();
+	}
+
+	/**
+	 * Returns the number of content cache hits
+	 *
+	 * @return the number of content cache hits
+	 */
+	public long getHitCount() {
+		return contents.getHitCount();
+	}
+
+	/**
+	 * Returns the number of content cache misses
+	 *
+	 * @return the number of content cache misses
+	 */
+	public long getMissCount() {
+		return contents.getMissCount();
+	}
+
+	/**
+	 * This class defines the index of a jar file
+	 */
+	private static class JarIndex {
+
+		/** The last modified date of the jar file */
+		private final long lastModified;
+
+		/** The length of the jar file */
+		private final long length;
+
+		/** The names of the direct children by directory entry */
+		private final Map<String, Set<String>> children = new HashMap<>();
+
+		/** The CRC of the file entries by name */
+		private final Map<String, Long> crcs = new HashMap<>();
+
+		/**
+		 * Constructor
+		 *
+		 * @param file
+		 *            the jar file
+		 * @param lastModified
+		 *            the last modified date of the jar file
+		 * @param length
+		 *            the length of the jar file
+		 * @throws IOException
+		 *             if the jar file can't be read
+		 */
+		private JarIndex(File file, long lastModified, long length) throws IOException {
+			this.lastModified = lastModified;
+			this.length = length;
+			try (JarFile jarFile = new JarFile(file)) {
+				for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+					JarEntry entry = entries.nextElement();
+					String name = entry.getName();
+					if (!entry.isDirectory() && entry.getCrc() != -1) {
+						crcs.put(name, entry.getCrc());
+					}
+
+					int end = name.endsWith(URL_SEPARATOR) ? name.length() - 1 : name.length();
+					int idx = name.lastIndexOf(URL_SEPARATOR, end - 1);
+					String parent = idx == -1 ? "" : name.substring(0, idx + 1);
+					Set<String> names = children.get(parent);
+					if (names == null) {
+						names = new LinkedHashSet<>();
+						children.put(parent, names);
+					}
+					names.add(name.substring(parent.length()));
+				}
+			}
+		}
+	}
+}
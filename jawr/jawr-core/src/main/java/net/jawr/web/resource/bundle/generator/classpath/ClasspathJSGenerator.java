@@ -35,7 +35,8 @@ import net.jawr.web.resource.handler.reader.ResourceBrowser;
  * @author Ibrahim Chaehoi
  */
 @CachedGenerator(name = "Classpath JS", cacheDirectory = "jsClasspath", mappingFileName = "jsClasspathMapping.txt")
-public class ClasspathJSGenerator extends AbstractJavascriptGenerator implements ResourceBrowser {
+public class ClasspathJSGenerator extends AbstractJavascriptGenerator
+		implements ResourceBrowser, ClassPathResourceCacheAwareResourceGenerator {
 
 	/** the class path generator helper */
 	private static final String CLASSPATH_GENERATOR_HELPER_PREFIX = "";
@@ -117,6 +118,18 @@ public class ClasspathJSGenerator extends AbstractJavascriptGenerator implements
 		return rd;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.classpath.
+	 * ClassPathResourceCacheAwareResourceGenerator#setClassPathResourceCache(
+	 * net.jawr.web.resource.bundle.generator.classpath.ClassPathResourceCache)
+	 */
+	@Override
+	public void setClassPathResourceCache(ClassPathResourceCache resourceCache) {
+		helper.setResourceCache(resourceCache);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -0,0 +1,280 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.generator.classpath.webjars;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.webjars.WebJarAssetLocator;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.handler.reader.FileChannelDecoder;
+import net.jawr.web.util.StopWatch;
+
+/**
+ * This class defines the index of the WebJars assets, which is used to create
+ * the WebJars asset locators without scanning the classpath at each startup.
+ *
+ * The index is identified by a key computed from the list of the jars
+ * containing WebJars, with their size and last modification date. The index
+ * is shared by the locators created for the same key, and it is stored in the
+ * working directory, so the classpath is only scanned again when the set of
+ * WebJars changes. If a WebJar is not packaged in a jar file, like in an
+ * exploded classpath directory, the index is not stored and the classpath is
+ * always scanned.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public final class WebJarsAssetIndex {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(WebJarsAssetIndex.class);
+
+	/** The perf Logger */
+	private static final Logger PERF_LOGGER = LoggerFactory.getLogger(JawrConstant.PERF_PROCESSING_LOGGER);
+
+	/** The name of the index file */
+	public static final String INDEX_FILE_NAME = "webJarsAssetIndex.txt";
+
+	/** The charset of the index file */
+	private static final Charset INDEX_CHARSET = Charset.forName("UTF-8");
+
+	/** The jar URL separator */
+	private static final String JAR_URL_SEPARATOR = "!/";
+
+	/** The pattern of the indexed assets */
+	private static final Pattern ALL_ASSETS_PATTERN = Pattern.compile(".*");
+
+	/** The asset locators by classpath key */
+	private static final ConcurrentMap<String, WebJarAssetLocator> LOCATORS = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor
+	 */
+	private WebJarsAssetIndex() {
+	}
+
+	/**
+	 * Returns the WebJars asset locator for the current classpath
+	 *
+	 * @param workingDirectory
+	 *            the working directory where the index is stored, or null if
+	 *            the index must not be stored
+	 * @return the WebJars asset locator
+	 */
+	public static WebJarAssetLocator getLocator(String workingDirectory) {
+
+		ClassLoader classLoader = WebJarAssetLocator.class.getClassLoader();
+		String classpathKey = getClasspathKey(classLoader);
+		if (classpathKey == null) {
+			return new WebJarAssetLocator(scanAssets(classLoader));
+		}
+
+		WebJarAssetLocator locator = LOCATORS.get(classpathKey);
+		if (locator == null) {
+			File indexFile = workingDirectory == null ? null : new File(workingDirectory, INDEX_FILE_NAME);
+			Set<String> assets = indexFile == null ? null : readIndex(indexFile, classpathKey);
+			if (assets == null) {
+				assets = scanAssets(classLoader);
+				if (indexFile != null) {
+					writeIndex(indexFile, classpathKey, assets);
+				}
+			}
+
+			locator = new WebJarAssetLocator(assets);
+			WebJarAssetLocator existing = LOCATORS.putIfAbsent(classpathKey, locator);
+			if (existing != null) {
+				locator = existing;
+			}
+		}
+		return locator;
+	}
+
+	/**
+	 * Returns the key of the classpath, which is computed from the jars
+	 * containing WebJars
+	 *
+	 * @param classLoader
+	 *            the class loader
+	 * @return the key of the classpath, or null if a WebJar is not packaged
+	 *         in a jar file
+	 */
+	public static String getClasspathKey(ClassLoader classLoader) {
+
+		List<String> entries = new ArrayList<>();
+		try {
+			Enumeration<URL> urls = classLoader.getResources(WebJarAssetLocator.WEBJARS_PATH_PREFIX);
+			while (urls.hasMoreElements()) {
+				File jarFile = getJarFile(urls.nextElement());
+				if (jarFile == null) {
+					return null;
+				}
+				entries.add(jarFile.getAbsolutePath() + "#" + jarFile.length() + "#" + jarFile.lastModified());
+			}
+			Collections.sort(entries);
+			return CheckSumUtils.getMD5Checksum(entries.toString());
+		} catch (IOException e) {
+			LOGGER.warn("Unable to list the WebJars of the classpath", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the jar file of the URL of a WebJars directory
+	 *
+	 * @param url
+	 *            the URL
+	 * @return the jar file, or null if the URL doesn't reference a jar file
+	 */
+	private static File getJarFile(URL url) {
+
+		File jarFile = null;
+		String path = url.getPath();
+		int idx = path.indexOf(JAR_URL_SEPARATOR);
+		if ("jar".equals(url.getProtocol()) && idx != -1) {
+			try {
+				URL jarUrl = new URL(path.substring(0, idx));
+				if ("file".equals(jarUrl.getProtocol())) {
+					jarFile = new File(jarUrl.toURI());
+				}
+			} catch (IOException | URISyntaxException | IllegalArgumentException e) {
+				LOGGER.debug("Unable to retrieve the jar file of " + url, e);
+			}
+		}
+		return jarFile != null && jarFile.isFile() ? jarFile : null;
+	}
+
+	/**
+	 * Scans the classpath to list the WebJars assets
+	 *
+	 * @param classLoader
+	 *            the class loader
+	 * @return the full paths of the assets
+	 */
+	private static Set<String> scanAssets(ClassLoader classLoader) {
+
+		StopWatch stopWatch = new StopWatch("Scanning the WebJars assets");
+		stopWatch.start();
+		Set<String> assets = new HashSet<>(WebJarAssetLocator.getFullPathIndex(ALL_ASSETS_PATTERN, classLoader).values());
+		stopWatch.stop();
+		if (PERF_LOGGER.isDebugEnabled()) {
+			PERF_LOGGER.debug(stopWatch.shortSummary() + " (" + assets.size() + " assets)");
+		}
+		return assets;
+	}
+
+	/**
+	 * Reads the index file through its file channel. The index is only used if
+	 * it has been created for the same classpath key.
+	 *
+	 * @param indexFile
+	 *            the index file
+	 * @param classpathKey
+	 *            the classpath key
+	 * @return the full paths of the assets or null if the index file doesn't
+	 *         exist or is obsolete
+	 */
+	private static Set<String> readIndex(File indexFile, String classpathKey) {
+
+		if (!indexFile.isFile()) {
+			return null;
+		}
+
+		try {
+			String content = FileChannelDecoder.decode(indexFile, INDEX_CHARSET.newDecoder()).getContent();
+			String[] lines = content.split("\n");
+			if (lines.length == 0 || !lines[0].equals(classpathKey)) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("The WebJars have changed, the index '" + indexFile + "' will be created again");
+				}
+				return null;
+			}
+
+			Set<String> assets = new HashSet<>(lines.length);
+			for (int i = 1; i < lines.length; i++) {
+				if (!lines[i].isEmpty()) {
+					assets.add(lines[i]);
+				}
+			}
+			return assets;
+		} catch (IOException e) {
+			LOGGER.warn("Unable to read the WebJars index '" + indexFile + "'", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the index file. The file is written in a temporary file which is
+	 * renamed at the end, so a partially written index is never read.
+	 *
+	 * @param indexFile
+	 *            the index file
+	 * @param classpathKey
+	 *            the classpath key
+	 * @param assets
+	 *            the full paths of the assets
+	 */
+	private static void writeIndex(File indexFile, String classpathKey, Set<String> assets) {
+
+		File dir = indexFile.getParentFile();
+		if (dir != null && !dir.exists() && !dir.mkdirs()) {
+			LOGGER.warn("Unable to create the directory of the WebJars index '" + indexFile + "'");
+			return;
+		}
+
+		File tmpFile = new File(dir, indexFile.getName() + ".tmp");
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmpFile), INDEX_CHARSET)) {
+			writer.write(classpathKey);
+			writer.write('\n');
+			for (String asset : assets) {
+				writer.write(asset);
+				writer.write('\n');
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Unable to write the WebJars index '" + indexFile + "'", e);
+			return;
+		}
+
+		if ((indexFile.exists() && !indexFile.delete()) || !tmpFile.renameTo(indexFile)) {
+			LOGGER.warn("Unable to store the WebJars index '" + indexFile + "'");
+			tmpFile.delete();
+		}
+	}
+
+	/**
+	 * Clears the asset locators shared in memory. This is only used for
+	 * testing purposes.
+	 */
+	public static void clear() {
+		LOCATORS.clear();
+	}
+}
@@ -16,8 +16,10 @@ package net.jawr.web.resource.bundle.generator.classpath.webjars;
 import java.util.Set;
 
 import net.jawr.web.JawrConstant;
+import net.jawr.web.resource.bundle.generator.InitializingResourceGenerator;
 import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
 import net.jawr.web.resource.bundle.generator.resolver.WebJarsLocatorPathResolver;
+import net.jawr.web.resource.handler.reader.WorkingDirectoryLocationAware;
 
 /**
  * This class defines the generator for webjars binary resources (images, fonts,
@@ -33,7 +35,7 @@ import net.jawr.web.resource.bundle.generator.resolver.WebJarsLocatorPathResolve
  * @author Ibrahim Chaehoi
  */
 public class WebJarsLocatorBinaryResourceGenerator extends
-		WebJarsBinaryResourceGenerator {
+		WebJarsBinaryResourceGenerator implements InitializingResourceGenerator, WorkingDirectoryLocationAware {
 
 	/*
 	 * (non-Javadoc)
@@ -61,4 +63,15 @@ public class WebJarsLocatorBinaryResourceGenerator extends
 	public boolean isDirectory(String path) {
 		return path.endsWith(JawrConstant.URL_SEPARATOR);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.reader.WorkingDirectoryLocationAware#
+	 * setWorkingDirectory(java.lang.String)
+	 */
+	@Override
+	public void setWorkingDirectory(String workingDir) {
+		((WebJarsLocatorPathResolver) resolver).setWorkingDirectory(workingDir);
+	}
 }
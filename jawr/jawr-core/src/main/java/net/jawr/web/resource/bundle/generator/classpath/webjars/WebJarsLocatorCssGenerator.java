@@ -62,4 +62,17 @@ public class WebJarsLocatorCssGenerator extends WebJarsCssGenerator {
 	public boolean isDirectory(String path) {
 		return path.endsWith(JawrConstant.URL_SEPARATOR);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * setWorkingDirectory(java.lang.String)
+	 */
+	@Override
+	public void setWorkingDirectory(String workingDir) {
+		super.setWorkingDirectory(workingDir);
+		((WebJarsLocatorPathResolver) resolver).setWorkingDirectory(workingDir);
+	}
 }
@@ -61,4 +61,16 @@ public class WebJarsLocatorJSGenerator extends WebJarsJSGenerator {
 		return path.endsWith(JawrConstant.URL_SEPARATOR);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * setWorkingDirectory(java.lang.String)
+	 */
+	@Override
+	public void setWorkingDirectory(String workingDir) {
+		super.setWorkingDirectory(workingDir);
+		((WebJarsLocatorPathResolver) resolver).setWorkingDirectory(workingDir);
+	}
 }
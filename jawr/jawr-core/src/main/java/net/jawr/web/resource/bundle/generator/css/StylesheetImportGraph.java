@@ -0,0 +1,410 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.generator.css;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+
+/**
+ * This class defines the import graph of the stylesheets compiled by a CSS
+ * preprocessor generator like the Less or the Sass generator.
+ *
+ * The content of the imported stylesheets (the partials) is cached with its
+ * hash, so a partial shared by several stylesheets is only read once. The
+ * compiled content of each root stylesheet is cached with the hashes of its
+ * own content and of all the partials it imports, and each partial keeps the
+ * list of the root stylesheets which depend on it. When a partial is
+ * modified, only the root stylesheets importing it are compiled again, and a
+ * root stylesheet requested for several variants is only compiled once.
+ *
+ * During the bundling process, the partials are checked only once, so an
+ * unchanged partial is never read again in the same build.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class StylesheetImportGraph {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(StylesheetImportGraph.class);
+
+	/** The last modified value of the resources which are not files */
+	private static final long NO_LAST_MODIFIED = -1;
+
+	/** The generators excluded when reading the stylesheets */
+	private final List<Class<?>> excludedGenerators;
+
+	/** The partials by path */
+	private final ConcurrentMap<String, Partial> partials = new ConcurrentHashMap<>();
+
+	/** The compiled root stylesheets by path */
+	private final ConcurrentMap<String, CompiledStylesheet> stylesheets = new ConcurrentHashMap<>();
+
+	/** The paths of the root stylesheets importing a partial */
+	private final ConcurrentMap<String, Set<String>> dependents = new ConcurrentHashMap<>();
+
+	/** The partials already checked during the current bundling process */
+	private final Set<String> checkedPartials = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/** The flag indicating if the bundling process is running */
+	private volatile boolean processingBundle;
+
+	/**
+	 * Constructor
+	 *
+	 * @param generatorType
+	 *            the type of the generators to exclude when reading the
+	 *            stylesheets
+	 */
+	public StylesheetImportGraph(Class<?> generatorType) {
+		this.excludedGenerators = new ArrayList<>();
+		this.excludedGenerators.add(generatorType);
+	}
+
+	/**
+	 * Starts the bundling process. From now, each partial is only checked
+	 * once until the end of the bundling process.
+	 */
+	public void startBundlingProcess() {
+		checkedPartials.clear();
+		processingBundle = true;
+	}
+
+	/**
+	 * Ends the bundling process
+	 */
+	public void endBundlingProcess() {
+		processingBundle = false;
+		checkedPartials.clear();
+	}
+
+	/**
+	 * Returns the content of a partial
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @param path
+	 *            the partial path
+	 * @param rsHandler
+	 *            the resource reader handler
+	 * @return the content of the partial or null if the partial doesn't exist
+	 */
+	public String getContent(JoinableResourceBundle bundle, String path, ResourceReaderHandler rsHandler) {
+
+		Partial partial = getPartial(bundle, path, rsHandler);
+		return partial == null ? null : partial.content;
+	}
+
+	/**
+	 * Returns the compiled content of a root stylesheet, if neither its
+	 * content nor the content of the partials it imports have changed since
+	 * it has been compiled.
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @param path
+	 *            the stylesheet path
+	 * @param content
+	 *            the stylesheet content
+	 * @param rsHandler
+	 *            the resource reader handler
+	 * @return the compiled stylesheet or null if it must be compiled
+	 */
+	public CompiledStylesheet getCompiledStylesheet(JoinableResourceBundle bundle, String path, String content,
+			ResourceReaderHandler rsHandler) {
+
+		CompiledStylesheet compiled = stylesheets.get(path);
+		if (compiled == null || !compiled.sourceHash.equals(getHash(content))) {
+			return null;
+		}
+
+		for (Map.Entry<String, String> entry : compiled.importHashes.entrySet()) {
+			Partial partial = getPartial(bundle, entry.getKey(), rsHandler);
+			if (partial == null || !partial.hash.equals(entry.getValue())) {
+				stylesheets.remove(path, compiled);
+				return null;
+			}
+		}
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("The stylesheet '" + path + "' and its imports are unchanged, it will not be compiled again");
+		}
+		return compiled;
+	}
+
+	/**
+	 * Stores the compiled content of a root stylesheet
+	 *
+	 * @param path
+	 *            the stylesheet path
+	 * @param content
+	 *            the stylesheet content
+	 * @param imports
+	 *            the paths of the partials imported during the compilation,
+	 *            which must have been read from this import graph
+	 * @param compiledContent
+	 *            the compiled content
+	 */
+	public void putCompiledStylesheet(String path, String content, List<String> imports, String compiledContent) {
+
+		Map<String, String> importHashes = new LinkedHashMap<>();
+		for (String importPath : imports) {
+			Partial partial = partials.get(importPath);
+			if (partial == null) {
+				// The partial has been invalidated during the compilation
+				return;
+			}
+			importHashes.put(importPath, partial.hash);
+		}
+
+		stylesheets.put(path, new CompiledStylesheet(getHash(content), importHashes, compiledContent));
+		for (String importPath : importHashes.keySet()) {
+			Set<String> roots = dependents.get(importPath);
+			if (roots == null) {
+				roots = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+				Set<String> existing = dependents.putIfAbsent(importPath, roots);
+				if (existing != null) {
+					roots = existing;
+				}
+			}
+			roots.add(path);
+		}
+	}
+
+	/**
+	 * Returns the paths of the root stylesheets importing a partial
+	 *
+	 * @param path
+	 *            the partial path
+	 * @return the paths of the root stylesheets importing the partial
+	 */
+	public Set<String> getDependents(String path) {
+		Set<String> roots = dependents.get(path);
+		return roots == null ? Collections.<String> emptySet() : Collections.unmodifiableSet(roots);
+	}
+
+	/**
+	 * Returns the partial, which is read again if it has been modified
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @param path
+	 *            the partial path
+	 * @param rsHandler
+	 *            the resource reader handler
+	 * @return the partial or null if it doesn't exist
+	 */
+	private Partial getPartial(JoinableResourceBundle bundle, String path, ResourceReaderHandler rsHandler) {
+
+		Partial partial = partials.get(path);
+		if (partial != null && processingBundle && checkedPartials.contains(path)) {
+			return partial;
+		}
+
+		long lastModified = getLastModified(path, rsHandler);
+		if (partial == null || lastModified == NO_LAST_MODIFIED || partial.lastModified != lastModified) {
+			String content = readContent(bundle, path, rsHandler);
+			if (content == null) {
+				if (partials.remove(path) != null) {
+					invalidateDependents(path);
+				}
+				return null;
+			}
+
+			Partial newPartial = new Partial(content, getHash(content), lastModified);
+			Partial oldPartial = partials.put(path, newPartial);
+			if (oldPartial != null && !oldPartial.hash.equals(newPartial.hash)) {
+				invalidateDependents(path);
+			}
+			partial = newPartial;
+		}
+
+		if (processingBundle) {
+			checkedPartials.add(path);
+		}
+		return partial;
+	}
+
+	/**
+	 * Invalidates the compiled content of the root stylesheets importing a
+	 * partial
+	 *
+	 * @param path
+	 *            the partial path
+	 */
+	private void invalidateDependents(String path) {
+
+		Set<String> roots = dependents.remove(path);
+		if (roots != null) {
+			for (String root : roots) {
+				stylesheets.remove(root);
+			}
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("The partial '" + path + "' has been modified, the stylesheets " + roots
+						+ " will be compiled again");
+			}
+		}
+	}
+
+	/**
+	 * Returns the last modified date of a partial
+	 *
+	 * @param path
+	 *            the partial path
+	 * @param rsHandler
+	 *            the resource reader handler
+	 * @return the last modified date of the partial or NO_LAST_MODIFIED if
+	 *         the partial is not a file
+	 */
+	private long getLastModified(String path, ResourceReaderHandler rsHandler) {
+
+		String filePath = rsHandler.getFilePath(path);
+		return filePath == null ? NO_LAST_MODIFIED : rsHandler.getLastModified(filePath);
+	}
+
+	/**
+	 * Reads the content of a partial
+	 *
+	 * @param bundle
+	 *            the bundle
+	 * @param path
+	 *            the partial path
+	 * @param rsHandler
+	 *            the resource reader handler
+	 * @return the content of the partial or null if the partial doesn't exist
+	 */
+	private String readContent(JoinableResourceBundle bundle, String path, ResourceReaderHandler rsHandler) {
+
+		try (Reader rd = rsHandler.getResource(bundle, path, false, excludedGenerators)) {
+			return rd == null ? null : IOUtils.toString(rd);
+		} catch (ResourceNotFoundException e) {
+			return null;
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unable to read the stylesheet '" + path + "'", e);
+		}
+	}
+
+	/**
+	 * Returns the hash of a content
+	 *
+	 * @param content
+	 *            the content
+	 * @return the hash of the content
+	 */
+	private String getHash(String content) {
+		try {
+			return CheckSumUtils.getMD5Checksum(content);
+		} catch (IOException e) {
+			// Should never happens
+			throw new BundlingProcessException(e);
+		}
+	}
+
+	/**
+	 * This class defines a partial
+	 */
+	private static class Partial {
+
+		/** The content */
+		private final String content;
+
+		/** The hash of the content */
+		private final String hash;
+
+		/** The last modified date */
+		private final long lastModified;
+
+		/**
+		 * Constructor
+		 *
+		 * @param content
+		 *            the content
+		 * @param hash
+		 *            the hash of the content
+		 * @param lastModified
+		 *            the last modified date
+		 */
+		public Partial(String content, String hash, long lastModified) {
+			this.content = content;
+			this.hash = hash;
+			this.lastModified = lastModified;
+		}
+	}
+
+	/**
+	 * This class defines a compiled root stylesheet
+	 */
+	public static class CompiledStylesheet {
+
+		/** The hash of the stylesheet content */
+		private final String sourceHash;
+
+		/** The hashes of the imported partials by path */
+		private final Map<String, String> importHashes;
+
+		/** The compiled content */
+		private final String content;
+
+		/**
+		 * Constructor
+		 *
+		 * @param sourceHash
+		 *            the hash of the stylesheet content
+		 * @param importHashes
+		 *            the hashes of the imported partials by path
+		 * @param content
+		 *            the compiled content
+		 */
+		private CompiledStylesheet(String sourceHash, Map<String, String> importHashes, String content) {
+			this.sourceHash = sourceHash;
+			this.importHashes = importHashes;
+			this.content = content;
+		}
+
+		/**
+		 * Returns the paths of the imported partials
+		 *
+		 * @return the paths of the imported partials
+		 */
+		public List<String> getImports() {
+			return new ArrayList<>(importHashes.keySet());
+		}
+
+		/**
+		 * Returns the compiled content
+		 *
+		 * @return the compiled content
+		 */
+		public String getContent() {
+			return content;
+		}
+	}
+}
@@ -26,6 +26,7 @@ import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
+import net.jawr.web.resource.bundle.generator.css.StylesheetImportGraph;
 import net.jawr.web.resource.bundle.mappings.FilePathMapping;
 import net.jawr.web.resource.bundle.mappings.FilePathMappingUtils;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
@@ -49,6 +50,12 @@ public class JawrLessSource extends StringSource {
 	/** The linked resources */
 	private List<FilePathMapping> linkedResources;
 
+	/** The import graph, which may be null */
+	private StylesheetImportGraph importGraph;
+
+	/** The paths of the imported resources */
+	private List<String> imports;
+
 	/**
 	 * Constructor
 	 * 
@@ -65,6 +72,26 @@ public class JawrLessSource extends StringSource {
 		this(bundle, content, name, null, rsReaderHandler);
 	}
 
+	/**
+	 * Constructor
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param content
+	 *            the content
+	 * @param name
+	 *            the resource name
+	 * @param rsReaderHandler
+	 *            the resource reader handler
+	 * @param importGraph
+	 *            the import graph used to read the imported resources
+	 */
+	public JawrLessSource(JoinableResourceBundle bundle, String content, String name,
+			ResourceReaderHandler rsReaderHandler, StylesheetImportGraph importGraph) {
+		this(bundle, content, name, null, rsReaderHandler);
+		this.importGraph = importGraph;
+	}
+
 	/**
 	 * Constructor
 	 * 
@@ -85,7 +112,11 @@ public class JawrLessSource extends StringSource {
 		this.bundle = bundle;
 		this.parent = parent;
 		this.rsReaderHandler = rsReaderHandler;
+		if (parent != null) {
+			this.importGraph = parent.importGraph;
+		}
 
+		this.imports = new ArrayList<>();
 		this.linkedResources = new ArrayList<>();
 		FilePathMapping fMapping = FilePathMappingUtils.buildFilePathMapping(name, this.rsReaderHandler);
 		if (fMapping != null) {
@@ -107,8 +138,9 @@ public class JawrLessSource extends StringSource {
 		if (!resource.startsWith("/")) { // relative URL
 			resource = PathNormalizer.concatWebPath(getName(), resource);
 		}
-		try (Reader rd = getResourceReader(resource)) {
-			result = IOUtils.toString(rd);
+		try {
+			result = getResourceContent(resource);
+			addImport(resource);
 			FilePathMapping linkedResource = FilePathMappingUtils.buildFilePathMapping(resource, rsReaderHandler);
 			if (linkedResource != null) {
 				addLinkedResource(linkedResource);
@@ -139,18 +171,44 @@ public class JawrLessSource extends StringSource {
 	}
 
 	/**
-	 * Returns the resource reader
+	 * Adds an imported resource to the less source
+	 * 
+	 * @param resource
+	 *            the path of the imported resource
+	 */
+	private void addImport(String resource) {
+		imports.add(resource);
+		if (parent != null) {
+			parent.addImport(resource);
+		}
+	}
+
+	/**
+	 * Returns the content of the resource
 	 * 
 	 * @param resource
 	 *            the resource
-	 * @return the resource reader
+	 * @return the resource content
 	 * @throws ResourceNotFoundException
 	 *             if the resoure is not found
+	 * @throws IOException
+	 *             if an IO exception occurs
 	 */
-	private Reader getResourceReader(String resource) throws ResourceNotFoundException {
+	private String getResourceContent(String resource) throws ResourceNotFoundException, IOException {
+
+		if (importGraph != null) {
+			String content = importGraph.getContent(bundle, resource, rsReaderHandler);
+			if (content == null) {
+				throw new ResourceNotFoundException(resource);
+			}
+			return content;
+		}
+
 		List<Class<?>> excluded = new ArrayList<>();
 		excluded.add(ILessCssResourceGenerator.class);
-		return rsReaderHandler.getResource(bundle, resource, false, excluded);
+		try (Reader rd = rsReaderHandler.getResource(bundle, resource, false, excluded)) {
+			return IOUtils.toString(rd);
+		}
 	}
 
 	/**
@@ -161,4 +219,13 @@ public class JawrLessSource extends StringSource {
 	public List<FilePathMapping> getLinkedResources() {
 		return linkedResources;
 	}
+
+	/**
+	 * Returns the paths of the imported resources
+	 * 
+	 * @return the paths of the imported resources
+	 */
+	public List<String> getImports() {
+		return imports;
+	}
 }
@@ -33,8 +33,12 @@ import net.jawr.web.resource.bundle.generator.AbstractCSSGenerator;
 import net.jawr.web.resource.bundle.generator.CachedGenerator;
 import net.jawr.web.resource.bundle.generator.GeneratorContext;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.generator.css.StylesheetImportGraph;
+import net.jawr.web.resource.bundle.generator.css.StylesheetImportGraph.CompiledStylesheet;
 import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
 import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolverFactory;
+import net.jawr.web.resource.bundle.mappings.FilePathMapping;
+import net.jawr.web.resource.bundle.mappings.FilePathMappingUtils;
 
 /**
  * This class defines the Less CSS generator
@@ -53,11 +57,15 @@ public class LessCssGenerator extends AbstractCSSGenerator implements ILessCssRe
 	/** The Less compiler config */
 	private Configuration lessConfig;
 
+	/** The import graph */
+	private final StylesheetImportGraph importGraph;
+
 	/**
 	 * Constructor
 	 */
 	public LessCssGenerator() {
 		resolver = ResourceGeneratorResolverFactory.createSuffixResolver(GeneratorRegistry.LESS_GENERATOR_SUFFIX);
+		importGraph = new StylesheetImportGraph(ILessCssResourceGenerator.class);
 	}
 
 	/*
@@ -134,10 +142,17 @@ public class LessCssGenerator extends AbstractCSSGenerator implements ILessCssRe
 	 */
 	public String compile(JoinableResourceBundle bundle, String content, String path, GeneratorContext context) {
 
-		JawrLessSource source = new JawrLessSource(bundle, content, path, rsHandler);
+		CompiledStylesheet compiled = importGraph.getCompiledStylesheet(bundle, path, content, rsHandler);
+		if (compiled != null) {
+			addLinkedResources(bundle, path, context, compiled.getImports());
+			return compiled.getContent();
+		}
+
+		JawrLessSource source = new JawrLessSource(bundle, content, path, rsHandler, importGraph);
 		try {
 			CompilationResult result = compiler.compile(source, lessConfig);
 			addLinkedResources(path, context, source.getLinkedResources());
+			importGraph.putCompiledStylesheet(path, content, source.getImports(), result.getCss());
 			return result.getCss();
 		} catch (Less4jException e) {
 			throw new BundlingProcessException("Unable to generate content for resource path : '" + path + "'", e);
@@ -145,4 +160,62 @@ public class LessCssGenerator extends AbstractCSSGenerator implements ILessCssRe
 
 	}
 
+	/**
+	 * Adds the linked resources of a stylesheet which has not been compiled
+	 * again, as it would have been done by its compilation
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param path
+	 *            the stylesheet path
+	 * @param context
+	 *            the generator context
+	 * @param imports
+	 *            the paths of the imported resources
+	 */
+	private void addLinkedResources(JoinableResourceBundle bundle, String path, GeneratorContext context,
+			List<String> imports) {
+
+		List<FilePathMapping> linkedResources = new ArrayList<>();
+		FilePathMapping fMapping = FilePathMappingUtils.buildFilePathMapping(path, rsHandler);
+		if (fMapping != null) {
+			linkedResources.add(fMapping);
+		}
+		for (String importPath : imports) {
+			FilePathMapping linkedResource = FilePathMappingUtils.buildFilePathMapping(importPath, rsHandler);
+			if (linkedResource != null) {
+				linkedResources.add(linkedResource);
+				if (bundle != null) {
+					bundle.getFilePathMappings().add(
+							new FilePathMapping(bundle, linkedResource.getPath(), linkedResource.getLastModified()));
+				}
+			}
+		}
+		addLinkedResources(path, context, linkedResources);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * beforeBundlingProcess()
+	 */
+	@Override
+	public void beforeBundlingProcess() {
+		super.beforeBundlingProcess();
+		importGraph.startBundlingProcess();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * afterBundlingProcess()
+	 */
+	@Override
+	public void afterBundlingProcess() {
+		importGraph.endBundlingProcess();
+		super.afterBundlingProcess();
+	}
+
 }
@@ -25,10 +25,8 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
-import javax.script.SimpleBindings;
+import org.jruby.embed.EvalFailedException;
+import org.jruby.embed.InvokeFailedException;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
@@ -39,6 +37,7 @@ import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.generator.AbstractCSSGenerator;
 import net.jawr.web.resource.bundle.generator.CachedGenerator;
+import net.jawr.web.resource.bundle.generator.DisposableResourceGenerator;
 import net.jawr.web.resource.bundle.generator.GeneratorContext;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
 import net.jawr.web.resource.bundle.generator.css.sass.ISassResourceGenerator;
@@ -52,22 +51,20 @@ import net.jawr.web.util.StringUtils;
  * @author Ibrahim Chaehoi
  */
 @CachedGenerator(name = "sass", cacheDirectory = "sassRubyCss", mappingFileName = "sassGeneratorCache.txt")
-public class SassRubyGenerator extends AbstractCSSGenerator implements ISassResourceGenerator {
+public class SassRubyGenerator extends AbstractCSSGenerator
+		implements ISassResourceGenerator, DisposableResourceGenerator {
 
 	/** The Jawr Importer for the Sass Ruby engine */
 	private static final String JAWR_IMPORTER_RB = "/net/jawr/web/resource/bundle/generator/css/sass/jawr-sass.rb";
 
-	/** The jawr resolver variable */
-	private static final String JAWR_RESOLVER_VAR = "@jawrResolver";
-
 	/** The default Sass Ruby Url mode */
 	public static final String SASS_GENERATOR_DEFAULT_URL_MODE = SASS_GENERATOR_ABSOLUTE_URL_MODE;
 
 	/** The resolver */
 	private final ResourceGeneratorResolver resolver;
 
-	/** The ruby engine */
-	private final ScriptEngine rubyEngine;
+	/** The pool of JRuby runtimes */
+	private volatile SassRubyRuntimePool runtimePool;
 
 	/**
 	 * The flag indicating if we must use absolute URL when referencing binary
@@ -75,14 +72,14 @@ public class SassRubyGenerator extends AbstractCSSGenerator implements ISassReso
 	 */
 	private boolean useAbsoluteURL = false;
 
+	/** The maximum number of JRuby runtimes used to compile in parallel */
+	private int nbRuntimes = 1;
+
 	/**
 	 * Constructor
 	 */
 	public SassRubyGenerator() {
-		System.setProperty("org.jruby.embed.compat.version", "JRuby1.9");
-		System.setProperty("org.jruby.embed.localvariable.behavior", "transient");
 		resolver = ResourceGeneratorResolverFactory.createSuffixResolver(GeneratorRegistry.SASS_GENERATOR_SUFFIX);
-		rubyEngine = new ScriptEngineManager().getEngineByName("jruby");
 	}
 
 	/*
@@ -114,6 +111,49 @@ public class SassRubyGenerator extends AbstractCSSGenerator implements ISassReso
 					+ SASS_GENERATOR_URL_MODE + "' in the Saas Ruby generator");
 		}
 		useAbsoluteURL = value.equalsIgnoreCase(SASS_GENERATOR_ABSOLUTE_URL_MODE);
+
+		value = this.config.getProperty(JawrConstant.SASS_GENERATOR_RUBY_RUNTIMES);
+		if (StringUtils.isNotEmpty(value)) {
+			nbRuntimes = Integer.parseInt(value.trim());
+		}
+
+		// The runtimes are created again with the new configuration
+		dispose();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * afterBundlingProcess()
+	 */
+	@Override
+	public void afterBundlingProcess() {
+
+		super.afterBundlingProcess();
+		SassRubyRuntimePool pool = runtimePool;
+		if (pool != null) {
+			pool.clearCache();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.DisposableResourceGenerator#
+	 * dispose()
+	 */
+	@Override
+	public void dispose() {
+
+		SassRubyRuntimePool pool = null;
+		synchronized (this) {
+			pool = runtimePool;
+			runtimePool = null;
+		}
+		if (pool != null) {
+			pool.terminate();
+		}
 	}
 
 	/*
@@ -169,7 +209,7 @@ public class SassRubyGenerator extends AbstractCSSGenerator implements ISassReso
 			String result = compile(bundle, content, path, context);
 			rd = new StringReader(result);
 
-		} catch (ResourceNotFoundException | ScriptException | IOException e) {
+		} catch (ResourceNotFoundException | IOException e) {
 			throw new BundlingProcessException("Unable to generate content for resource path : '" + path + "'", e);
 		}
 
@@ -188,49 +228,63 @@ public class SassRubyGenerator extends AbstractCSSGenerator implements ISassReso
 	 * @param ctx
 	 *            the generator context
 	 * @return the compiled Sass content
-	 * @throws ScriptException
-	 *             if a ScriptException occurs
 	 * @throws IOException
 	 *             if an IOExceptions occurs
 	 */
 	private String compile(JoinableResourceBundle bundle, String content, String path, GeneratorContext ctx)
-			throws ScriptException, IOException {
+			throws IOException {
 
-		try(InputStream is = getResourceInputStream(JAWR_IMPORTER_RB)){
-			String script = IOUtils.toString(is);
-			rubyEngine.eval(script);
+		SassRubyRuntimePool pool = getRuntimePool();
+		SassRubyRuntime runtime = pool.acquire();
+		try {
+			JawrSassResolver scssResolver = new JawrSassResolver(bundle, path, rsHandler, useAbsoluteURL);
+			String compiledScss = runtime.compile(content, path, scssResolver);
+			addLinkedResources(path, ctx, scssResolver.getLinkedResources());
+			return compiledScss;
+		} catch (EvalFailedException | InvokeFailedException e) {
+			throw new BundlingProcessException("Unable to compile the Sass resource : '" + path + "'", e);
+		} finally {
+			pool.release(runtime);
 		}
-		
-		SimpleBindings bindings = new SimpleBindings();
-		JawrSassResolver scssResolver = new JawrSassResolver(bundle, path, rsHandler, useAbsoluteURL);
-		bindings.put(JAWR_RESOLVER_VAR, scssResolver);
-		String compiledScss = rubyEngine.eval(buildScript(path, content), bindings).toString();
-		addLinkedResources(path, ctx, scssResolver.getLinkedResources());
-		return compiledScss;
 	}
 
 	/**
-	 * Builds the ruby script to execute
+	 * Returns the pool of JRuby runtimes, which is initialized on first use
 	 * 
-	 * @param path
-	 *            the resource path
-	 * @param content
-	 *            the resource content
-	 * @return the ruby script to execute
+	 * @return the pool of JRuby runtimes
+	 * @throws IOException
+	 *             if an IOExceptions occurs
 	 */
-	private String buildScript(String path, String content) {
-
-		StringBuilder script = new StringBuilder();
-
-		script.append("require 'rubygems'\n" + "require 'sass/plugin'\n" + "require 'sass/engine'\n");
+	private SassRubyRuntimePool getRuntimePool() throws IOException {
+
+		SassRubyRuntimePool pool = runtimePool;
+		if (pool == null) {
+			synchronized (this) {
+				pool = runtimePool;
+				if (pool == null) {
+					try (InputStream is = getResourceInputStream(JAWR_IMPORTER_RB)) {
+						String script = IOUtils.toString(is);
+						pool = createRuntimePool(script, nbRuntimes);
+					}
+					runtimePool = pool;
+				}
+			}
+		}
 
-		content = SassRubyUtils.normalizeMultiByteString(content);
+		return pool;
+	}
 
-		script.append(String.format(
-				"customImporter = Sass::Importers::JawrImporter.new(@jawrResolver) \n" + "name = \"%s\"\n"
-						+ "result = Sass::Engine.new(\"%s\", {:importer => customImporter, :filename => name, :syntax => :scss, :cache => false}).render",
-				path, content.replace("\"", "\\\"").replace("#", "\\#")));
-		return script.toString();
+	/**
+	 * Creates the pool of JRuby runtimes
+	 * 
+	 * @param script
+	 *            the Jawr importer script
+	 * @param maxSize
+	 *            the maximum number of runtimes
+	 * @return the pool of JRuby runtimes
+	 */
+	protected SassRubyRuntimePool createRuntimePool(String script, int maxSize) {
+		return new SassRubyRuntimePool(script, maxSize);
 	}
 
 	/**
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.generator.css.sass.ruby;
+
+import org.jruby.embed.LocalContextScope;
+import org.jruby.embed.LocalVariableBehavior;
+import org.jruby.embed.ScriptingContainer;
+
+/**
+ * This class defines a warm JRuby runtime for the Sass Ruby generator. The
+ * Jawr importer script is evaluated once when the runtime is created, and the
+ * content to compile is passed as a method argument instead of being inlined
+ * in a Ruby script. Each runtime keeps a cache of the parsed Sass trees.
+ *
+ * A runtime must not be used by several threads at the same time.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class SassRubyRuntime {
+
+	/** The scripting container */
+	private final ScriptingContainer container;
+
+	/** The Ruby Sass compiler */
+	private final Object compiler;
+
+	/**
+	 * Constructor
+	 *
+	 * @param importerScript
+	 *            the Jawr importer script
+	 */
+	public SassRubyRuntime(String importerScript) {
+		container = new ScriptingContainer(LocalContextScope.SINGLETHREAD, LocalVariableBehavior.TRANSIENT);
+		container.runScriptlet(importerScript);
+		compiler = container.runScriptlet("Jawr::SassCompiler.new");
+	}
+
+	/**
+	 * Compiles the SCSS content
+	 *
+	 * @param content
+	 *            the SCSS content
+	 * @param path
+	 *            the path of the SCSS resource
+	 * @param resolver
+	 *            the Jawr Sass resolver
+	 * @return the compiled CSS
+	 */
+	public String compile(String content, String path, JawrSassResolver resolver) {
+		return container.callMethod(compiler, "compile", new Object[] { content, path, resolver }, String.class);
+	}
+
+	/**
+	 * Clears the cache of the parsed Sass trees
+	 */
+	public void clearCache() {
+		container.callMethod(compiler, "clear_cache", new Object[0], Object.class);
+	}
+
+	/**
+	 * Terminates the runtime
+	 */
+	public void terminate() {
+		container.terminate();
+	}
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.generator.css.sass.ruby;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.util.StopWatch;
+
+/**
+ * This class defines a pool of warm JRuby runtimes for the Sass Ruby
+ * generator. The runtimes are created on demand, so a second runtime is only
+ * created if two Sass resources are compiled at the same time. The pool is
+ * owned by a generator, which terminates it when it is disposed, for example
+ * when the configuration is reloaded or when the application is undeployed.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class SassRubyRuntimePool {
+
+	/** The Logger */
+	private static final Logger PERF_LOGGER = LoggerFactory.getLogger(JawrConstant.PERF_PROCESSING_LOGGER);
+
+	/** The Jawr importer script */
+	private final String importerScript;
+
+	/** The maximum number of runtimes */
+	private final int maxSize;
+
+	/** The idle runtimes */
+	private final Deque<SassRubyRuntime> idleRuntimes = new ArrayDeque<>();
+
+	/** The number of runtimes created */
+	private int runtimeCount;
+
+	/** The flag indicating if the pool has been terminated */
+	private boolean terminated;
+
+	/**
+	 * Constructor
+	 *
+	 * @param importerScript
+	 *            the Jawr importer script
+	 * @param maxSize
+	 *            the maximum number of runtimes
+	 */
+	public SassRubyRuntimePool(String importerScript, int maxSize) {
+		this.importerScript = importerScript;
+		this.maxSize = Math.max(1, maxSize);
+	}
+
+	/**
+	 * Returns the number of runtimes created
+	 *
+	 * @return the number of runtimes created
+	 */
+	public synchronized int getRuntimeCount() {
+		return runtimeCount;
+	}
+
+	/**
+	 * Acquires a runtime from the pool. If all the runtimes are in use and the
+	 * maximum number of runtimes is reached, this method waits until a
+	 * runtime is released.
+	 *
+	 * @return the runtime
+	 */
+	public SassRubyRuntime acquire() {
+
+		synchronized (this) {
+			checkNotTerminated();
+			while (idleRuntimes.isEmpty() && runtimeCount >= maxSize) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new BundlingProcessException("Interrupted while waiting for a Sass Ruby runtime", e);
+				}
+				checkNotTerminated();
+			}
+
+			if (!idleRuntimes.isEmpty()) {
+				return idleRuntimes.pop();
+			}
+
+			runtimeCount++;
+		}
+
+		boolean created = false;
+		try {
+			StopWatch stopWatch = new StopWatch("Initializing Sass Ruby runtime");
+			stopWatch.start();
+			SassRubyRuntime runtime = createRuntime(importerScript);
+			stopWatch.stop();
+			if (PERF_LOGGER.isDebugEnabled()) {
+				PERF_LOGGER.debug(stopWatch.shortSummary());
+			}
+			created = true;
+			return runtime;
+		} finally {
+			if (!created) {
+				synchronized (this) {
+					runtimeCount--;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a new runtime
+	 *
+	 * @param script
+	 *            the Jawr importer script
+	 * @return the new runtime
+	 */
+	protected SassRubyRuntime createRuntime(String script) {
+		return new SassRubyRuntime(script);
+	}
+
+	/**
+	 * Checks that the pool has not been terminated
+	 */
+	private void checkNotTerminated() {
+		if (terminated) {
+			throw new BundlingProcessException("The pool of Sass Ruby runtimes has been terminated");
+		}
+	}
+
+	/**
+	 * Releases a runtime acquired from the pool. If the pool has been
+	 * terminated, the runtime is terminated.
+	 *
+	 * @param runtime
+	 *            the runtime
+	 */
+	public void release(SassRubyRuntime runtime) {
+
+		synchronized (this) {
+			if (!terminated) {
+				idleRuntimes.push(runtime);
+				notifyAll();
+				return;
+			}
+		}
+		runtime.terminate();
+	}
+
+	/**
+	 * Clears the cache of the parsed Sass trees of the idle runtimes. This is
+	 * called at the end of each bundling process, so the cache doesn't keep
+	 * the trees of resources which are not used anymore.
+	 */
+	public synchronized void clearCache() {
+		for (SassRubyRuntime runtime : idleRuntimes) {
+			runtime.clearCache();
+		}
+	}
+
+	/**
+	 * Terminates the pool. The idle runtimes are terminated, and the runtimes
+	 * in use are terminated when they are released.
+	 */
+	public void terminate() {
+
+		SassRubyRuntime[] runtimes = null;
+		synchronized (this) {
+			terminated = true;
+			runtimes = idleRuntimes.toArray(new SassRubyRuntime[idleRuntimes.size()]);
+			idleRuntimes.clear();
+			notifyAll();
+		}
+
+		for (SassRubyRuntime runtime : runtimes) {
+			runtime.terminate();
+		}
+	}
+}
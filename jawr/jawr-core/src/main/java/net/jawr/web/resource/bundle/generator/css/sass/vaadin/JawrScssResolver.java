@@ -14,6 +14,7 @@
 package net.jawr.web.resource.bundle.generator.css.sass.vaadin;
 
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,6 +26,7 @@ import com.vaadin.sass.internal.resolver.AbstractResolver;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
+import net.jawr.web.resource.bundle.generator.css.StylesheetImportGraph;
 import net.jawr.web.resource.bundle.generator.css.sass.ISassResourceGenerator;
 import net.jawr.web.resource.bundle.mappings.FilePathMapping;
 import net.jawr.web.resource.bundle.mappings.FilePathMappingUtils;
@@ -49,6 +51,12 @@ public class JawrScssResolver extends AbstractResolver {
 	/** The linked resources */
 	private final List<FilePathMapping> linkedResources = new ArrayList<>();
 
+	/** The paths of the imported resources */
+	private final List<String> imports = new ArrayList<>();
+
+	/** The import graph, which may be null */
+	private final StylesheetImportGraph importGraph;
+
 	/**
 	 * Constructor
 	 * 
@@ -58,8 +66,24 @@ public class JawrScssResolver extends AbstractResolver {
 	 *            the resource reader handler
 	 */
 	public JawrScssResolver(JoinableResourceBundle bundle, ResourceReaderHandler rsHandler) {
+		this(bundle, rsHandler, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param rsHandler
+	 *            the resource reader handler
+	 * @param importGraph
+	 *            the import graph used to read the imported resources
+	 */
+	public JawrScssResolver(JoinableResourceBundle bundle, ResourceReaderHandler rsHandler,
+			StylesheetImportGraph importGraph) {
 		this.bundle = bundle;
 		this.rsHandler = rsHandler;
+		this.importGraph = importGraph;
 	}
 
 	/*
@@ -108,11 +132,9 @@ public class JawrScssResolver extends AbstractResolver {
 			fileName += ".scss";
 		}
 
-		List<Class<?>> excluded = new ArrayList<>();
-		excluded.add(ISassResourceGenerator.class);
 		Reader rd = null;
 		try {
-			rd = rsHandler.getResource(bundle, fileName, false, excluded);
+			rd = getResourceReader(fileName);
 			FilePathMapping linkedResource = getFilePathMapping(fileName);
 			if (linkedResource != null) {
 				addLinkedResource(linkedResource);
@@ -136,6 +158,31 @@ public class JawrScssResolver extends AbstractResolver {
 		}
 	}
 
+	/**
+	 * Returns the resource reader
+	 * 
+	 * @param fileName
+	 *            the resource path
+	 * @return the resource reader
+	 * @throws ResourceNotFoundException
+	 *             if the resource is not found
+	 */
+	private Reader getResourceReader(String fileName) throws ResourceNotFoundException {
+
+		if (importGraph != null) {
+			String content = importGraph.getContent(bundle, fileName, rsHandler);
+			if (content == null) {
+				throw new ResourceNotFoundException(fileName);
+			}
+			imports.add(fileName);
+			return new StringReader(content);
+		}
+
+		List<Class<?>> excluded = new ArrayList<>();
+		excluded.add(ISassResourceGenerator.class);
+		return rsHandler.getResource(bundle, fileName, false, excluded);
+	}
+
 	/**
 	 * Returns the file path mapping
 	 * 
@@ -156,6 +203,15 @@ public class JawrScssResolver extends AbstractResolver {
 		return linkedResources;
 	}
 
+	/**
+	 * Returns the paths of the imported resources
+	 * 
+	 * @return the paths of the imported resources
+	 */
+	public List<String> getImports() {
+		return imports;
+	}
+
 	/**
 	 * Adds a linked resource to the sass source
 	 * 
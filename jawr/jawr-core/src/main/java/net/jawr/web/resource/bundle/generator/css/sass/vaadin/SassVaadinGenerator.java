@@ -32,9 +32,13 @@ import net.jawr.web.resource.bundle.generator.AbstractCSSGenerator;
 import net.jawr.web.resource.bundle.generator.CachedGenerator;
 import net.jawr.web.resource.bundle.generator.GeneratorContext;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.generator.css.StylesheetImportGraph;
+import net.jawr.web.resource.bundle.generator.css.StylesheetImportGraph.CompiledStylesheet;
 import net.jawr.web.resource.bundle.generator.css.sass.ISassResourceGenerator;
 import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
 import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolverFactory;
+import net.jawr.web.resource.bundle.mappings.FilePathMapping;
+import net.jawr.web.resource.bundle.mappings.FilePathMappingUtils;
 import net.jawr.web.util.StringUtils;
 
 /**
@@ -56,11 +60,15 @@ public class SassVaadinGenerator extends AbstractCSSGenerator implements ISassRe
 	 */
 	private ScssContext.UrlMode urlMode;
 
+	/** The import graph */
+	private final StylesheetImportGraph importGraph;
+
 	/**
 	 * Constructor
 	 */
 	public SassVaadinGenerator() {
 		resolver = ResourceGeneratorResolverFactory.createSuffixResolver(GeneratorRegistry.SASS_GENERATOR_SUFFIX);
+		importGraph = new StylesheetImportGraph(ISassResourceGenerator.class);
 	}
 
 	/*
@@ -164,13 +172,20 @@ public class SassVaadinGenerator extends AbstractCSSGenerator implements ISassRe
 	 */
 	protected String compile(JoinableResourceBundle bundle, String content, String path, GeneratorContext context) {
 
+		CompiledStylesheet compiled = importGraph.getCompiledStylesheet(bundle, path, content, rsHandler);
+		if (compiled != null) {
+			addLinkedResources(bundle, path, context, compiled.getImports());
+			return compiled.getContent();
+		}
+
 		try {
-			JawrScssResolver scssResolver = new JawrScssResolver(bundle, rsHandler);
+			JawrScssResolver scssResolver = new JawrScssResolver(bundle, rsHandler, importGraph);
 			JawrScssStylesheet sheet = new JawrScssStylesheet(bundle, content, path, scssResolver,
 					context.getCharset());
 			sheet.compile(urlMode);
 			String parsedScss = sheet.printState();
 			addLinkedResources(path, context, scssResolver.getLinkedResources());
+			importGraph.putCompiledStylesheet(path, content, scssResolver.getImports(), parsedScss);
 
 			return parsedScss;
 		} catch (Exception e) {
@@ -178,4 +193,66 @@ public class SassVaadinGenerator extends AbstractCSSGenerator implements ISassRe
 		}
 	}
 
+	/**
+	 * Adds the linked resources of a stylesheet which has not been compiled
+	 * again, as it would have been done by its compilation
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param path
+	 *            the stylesheet path
+	 * @param context
+	 *            the generator context
+	 * @param imports
+	 *            the paths of the imported resources
+	 */
+	private void addLinkedResources(JoinableResourceBundle bundle, String path, GeneratorContext context,
+			List<String> imports) {
+
+		List<FilePathMapping> linkedResources = new ArrayList<>();
+		FilePathMapping fMapping = FilePathMappingUtils.buildFilePathMapping(path, rsHandler);
+		if (fMapping != null) {
+			linkedResources.add(fMapping);
+			if (bundle != null) {
+				bundle.getFilePathMappings()
+						.add(new FilePathMapping(bundle, fMapping.getPath(), fMapping.getLastModified()));
+			}
+		}
+		for (String importPath : imports) {
+			FilePathMapping linkedResource = FilePathMappingUtils.buildFilePathMapping(importPath, rsHandler);
+			if (linkedResource != null) {
+				linkedResources.add(linkedResource);
+				if (bundle != null) {
+					bundle.getLinkedFilePathMappings().add(
+							new FilePathMapping(bundle, linkedResource.getPath(), linkedResource.getLastModified()));
+				}
+			}
+		}
+		addLinkedResources(path, context, linkedResources);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * beforeBundlingProcess()
+	 */
+	@Override
+	public void beforeBundlingProcess() {
+		super.beforeBundlingProcess();
+		importGraph.startBundlingProcess();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * afterBundlingProcess()
+	 */
+	@Override
+	public void afterBundlingProcess() {
+		importGraph.endBundlingProcess();
+		super.afterBundlingProcess();
+	}
+
 }
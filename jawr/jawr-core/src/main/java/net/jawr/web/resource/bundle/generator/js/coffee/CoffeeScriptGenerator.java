@@ -22,6 +22,7 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.script.ScriptContext;
 import javax.script.ScriptException;
 
 import org.slf4j.Logger;
@@ -44,6 +45,7 @@ import net.jawr.web.resource.bundle.mappings.FilePathMappingUtils;
 import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.StringUtils;
 import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEnginePool;
 
 /**
  * This class defines the coffee script generator
@@ -77,14 +79,11 @@ public class CoffeeScriptGenerator extends AbstractJavascriptGenerator implement
 	/** The resolver */
 	private final ResourceGeneratorResolver resolver;
 
-	/** The coffeeScript object */
-	private Object coffeeScript;
+	/** The name of the variable holding the coffee script options in the engines */
+	private static final String COFFEE_SCRIPT_OPTIONS_VAR = "jawrCoffeeScriptOptions";
 
-	/** The coffee script options */
-	private Object options;
-
-	/** The Rhino engine */
-	private JavascriptEngine jsEngine;
+	/** The JS engine pool */
+	private volatile JavascriptEnginePool jsEnginePool;
 
 	/**
 	 * Constructor
@@ -93,34 +92,44 @@ public class CoffeeScriptGenerator extends AbstractJavascriptGenerator implement
 		resolver = ResourceGeneratorResolverFactory.createSuffixResolver(COFFEE_SCRIPT_SUFFIX);
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Returns the JS engine pool, which is initialized on first use
 	 * 
-	 * @see net.jawr.web.resource.bundle.generator.
-	 * PostInitializationAwareResourceGenerator#afterPropertiesSet()
+	 * @return the JS engine pool
 	 */
-	@Override
-	public void afterPropertiesSet() {
-
-		super.afterPropertiesSet();
-		StopWatch stopWatch = new StopWatch("initializing JS engine for Coffeescript");
-		stopWatch.start();
-
-		// Load JavaScript Script Engine
-		String script = config.getProperty(JAWR_JS_GENERATOR_COFFEE_SCRIPT_LOCATION, DEFAULT_COFFEE_SCRIPT_JS_LOCATION);
-		jsEngine = new JavascriptEngine(config.getJavascriptEngineName(JAWR_JS_GENERATOR_COFFEE_SCRIPT_JS_ENGINE));
-		try(InputStream inputStream = getResourceInputStream(script)){
-			jsEngine.evaluate("coffee-script.js", inputStream);
-		} catch (IOException e) {
-			throw new BundlingProcessException(e);
-		}
-		String strOptions = config.getProperty(JAWR_JS_GENERATOR_COFFEE_SCRIPT_OPTIONS, COFFEE_SCRIPT_DEFAULT_OPTIONS);
-		options = jsEngine.execEval(strOptions);
-		coffeeScript = jsEngine.execEval("CoffeeScript");
-		stopWatch.stop();
-		if (PERF_LOGGER.isDebugEnabled()) {
-			PERF_LOGGER.debug(stopWatch.shortSummary());
+	private JavascriptEnginePool getJsEnginePool() {
+
+		JavascriptEnginePool pool = jsEnginePool;
+		if (pool == null) {
+			synchronized (this) {
+				pool = jsEnginePool;
+				if (pool == null) {
+					StopWatch stopWatch = new StopWatch("loading scripts for Coffeescript");
+					stopWatch.start();
+
+					// Load JavaScript Script Engine
+					String script = config.getProperty(JAWR_JS_GENERATOR_COFFEE_SCRIPT_LOCATION,
+							DEFAULT_COFFEE_SCRIPT_JS_LOCATION);
+					pool = new JavascriptEnginePool(
+							config.getJavascriptEngineName(JAWR_JS_GENERATOR_COFFEE_SCRIPT_JS_ENGINE), false,
+							config.getJavascriptEnginePoolSize());
+					pool.setScriptClassCache(workingDir, config.getJavascriptEngineOptimizationLevel());
+					pool.addScript("coffee-script.js", getResourceInputStream(script));
+					String strOptions = config.getProperty(JAWR_JS_GENERATOR_COFFEE_SCRIPT_OPTIONS,
+							COFFEE_SCRIPT_DEFAULT_OPTIONS);
+					pool.addScript("coffeeScriptOptions.js",
+							"var " + COFFEE_SCRIPT_OPTIONS_VAR + " = eval(" + strOptions + ");");
+					jsEnginePool = pool;
+
+					stopWatch.stop();
+					if (PERF_LOGGER.isDebugEnabled()) {
+						PERF_LOGGER.debug(stopWatch.shortSummary());
+					}
+				}
+			}
 		}
+
+		return pool;
 	}
 
 	/**
@@ -237,10 +246,16 @@ public class CoffeeScriptGenerator extends AbstractJavascriptGenerator implement
 	public String compile(String resourcePath, String coffeeScriptSource) {
 
 		String result = null;
+		JavascriptEnginePool pool = getJsEnginePool();
+		JavascriptEngine jsEngine = pool.acquire();
 		try {
-			result = (String) jsEngine.invokeMethod(coffeeScript, "compile", coffeeScriptSource, options);
+			ScriptContext context = jsEngine.getContext();
+			result = (String) jsEngine.invokeMethod(context.getAttribute("CoffeeScript"), "compile",
+					coffeeScriptSource, context.getAttribute(COFFEE_SCRIPT_OPTIONS_VAR));
 		} catch (NoSuchMethodException | ScriptException e) {
 			throw new BundlingProcessException(e);
+		} finally {
+			pool.release(jsEngine);
 		}
 
 		return result;
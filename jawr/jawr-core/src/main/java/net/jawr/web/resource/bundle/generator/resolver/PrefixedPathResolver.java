@@ -51,6 +51,15 @@ public class PrefixedPathResolver implements ResourceGeneratorResolver {
 		this.prefix = prefix + separator;
 	}
 
+	/**
+	 * Returns the prefix matched by this resolver, including the separator
+	 * 
+	 * @return the prefix
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
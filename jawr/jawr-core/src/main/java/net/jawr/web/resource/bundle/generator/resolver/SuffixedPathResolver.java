@@ -51,6 +51,15 @@ public class SuffixedPathResolver implements ResourceGeneratorResolver {
 		this.suffix = separator + suffix;
 	}
 
+	/**
+	 * Returns the suffix matched by this resolver, including the separator
+	 * 
+	 * @return the suffix
+	 */
+	public String getSuffix() {
+		return suffix;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
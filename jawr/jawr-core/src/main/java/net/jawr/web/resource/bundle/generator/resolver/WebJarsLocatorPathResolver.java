@@ -30,6 +30,7 @@ import org.webjars.WebJarAssetLocator;
 import net.jawr.web.JawrConstant;
 import net.jawr.web.resource.bundle.generator.GeneratorMappingHelper;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.generator.classpath.webjars.WebJarsAssetIndex;
 import net.jawr.web.resource.bundle.generator.classpath.webjars.WebJarsLocatorCssGenerator;
 
 /**
@@ -55,8 +56,11 @@ public class WebJarsLocatorPathResolver extends PrefixedPathResolver {
 	/** The webjars resource prefix */
 	private static Pattern WEBJARS_PREFIX_PATTERN = Pattern.compile(WEBJARS_RESOURCE_PREFIX + "(/[^/]*/[^/]*)");
 
-	/** The webjars Asset locator */
-	private final WebJarAssetLocator locator;
+	/** The webjars Asset locator, which is created on first use */
+	private volatile WebJarAssetLocator locator;
+
+	/** The working directory where the WebJars asset index is stored */
+	private String workingDirectory;
 
 	/**
 	 * The flag indicating that a check should be done on the resource path for
@@ -98,12 +102,37 @@ public class WebJarsLocatorPathResolver extends PrefixedPathResolver {
 	public WebJarsLocatorPathResolver(String prefix, boolean checkResourcePathForInfo,
 			boolean checkResourcePathForWarning) {
 		super(prefix);
-		this.locator = new WebJarAssetLocator();
 		this.checkResourcePathForInfo = checkResourcePathForInfo;
 		this.checkResourcePathForWarning = checkResourcePathForWarning;
 		this.pathsChecked = new ArrayList<>();
 	}
 
+	/**
+	 * Sets the working directory where the WebJars asset index is stored. It
+	 * must be set before the first use of the resolver.
+	 *
+	 * @param workingDirectory
+	 *            the working directory
+	 */
+	public void setWorkingDirectory(String workingDirectory) {
+		this.workingDirectory = workingDirectory;
+	}
+
+	/**
+	 * Returns the webjars asset locator
+	 *
+	 * @return the webjars asset locator
+	 */
+	private WebJarAssetLocator getLocator() {
+
+		WebJarAssetLocator assetLocator = locator;
+		if (assetLocator == null) {
+			assetLocator = WebJarsAssetIndex.getLocator(workingDirectory);
+			locator = assetLocator;
+		}
+		return assetLocator;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -118,9 +147,9 @@ public class WebJarsLocatorPathResolver extends PrefixedPathResolver {
 		String fullPath = null;
 		if (StringUtils.isNotEmpty(helper.getBracketsParam())) {
 			// Use the webjars reference stored in the bracket params
-			fullPath = locator.getFullPath(helper.getBracketsParam(), helper.getPath());
+			fullPath = getLocator().getFullPath(helper.getBracketsParam(), helper.getPath());
 		} else {
-			fullPath = locator.getFullPath(resourcePath);
+			fullPath = getLocator().getFullPath(resourcePath);
 		}
 		if (checkResourcePathForInfo || checkResourcePathForWarning) {
 			checkResourcePath(resourcePath, fullPath);
@@ -137,7 +166,7 @@ public class WebJarsLocatorPathResolver extends PrefixedPathResolver {
 	 */
 	public Set<String> getResourceNames(String folder) {
 		String path = super.getResourcePath(folder);
-		Set<String> assets = locator.listAssets(path);
+		Set<String> assets = getLocator().listAssets(path);
 		Set<String> resourceNames = new HashSet<>();
 		for (String asset : assets) {
 			int idx = asset.indexOf(path);
@@ -15,6 +15,8 @@
  */
 package net.jawr.web.resource.bundle.global.postprocessor.google.closure;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -22,18 +24,28 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PrintStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
@@ -50,6 +62,7 @@ import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.global.postprocessor.GlobalPostProcessingContext;
@@ -128,9 +141,19 @@ public class ClosureGlobalPostProcessor extends AbstractChainedGlobalProcessor<G
 	 */
 	private static final String JAWR_JS_CLOSURE_MODULES = "jawr.js.closure.modules";
 
+	/** The property which enables the incremental compilation */
+	private static final String JAWR_JS_CLOSURE_INCREMENTAL = "jawr.js.closure.incremental";
+
+	/**
+	 * The property which defines the number of threads used to compile the
+	 * independent modules in incremental mode
+	 */
+	private static final String JAWR_JS_CLOSURE_INCREMENTAL_THREADS = "jawr.js.closure.incremental.threads";
+
 	/** The list of the jawr js closure properties */
-	private static final List<String> JAWR_JS_CLOSURE_SPECIFIC_PROPERTIES = Arrays
-			.asList(JAWR_JS_CLOSURE_BUNDLES_EXCLUDED, JAWR_JS_CLOSURE_DISABLE_THREAD, JAWR_JS_CLOSURE_MODULES);
+	private static final List<String> JAWR_JS_CLOSURE_SPECIFIC_PROPERTIES = Arrays.asList(
+			JAWR_JS_CLOSURE_BUNDLES_EXCLUDED, JAWR_JS_CLOSURE_DISABLE_THREAD, JAWR_JS_CLOSURE_MODULES,
+			JAWR_JS_CLOSURE_INCREMENTAL, JAWR_JS_CLOSURE_INCREMENTAL_THREADS);
 
 	/** The google closure temporary directory */
 	public static final String GOOGLE_CLOSURE_TEMP_DIR = "/googleClosure/temp/";
@@ -162,6 +185,11 @@ public class ClosureGlobalPostProcessor extends AbstractChainedGlobalProcessor<G
 	/** The temporary directory */
 	private String tempDir;
 
+	/**
+	 * The compiled modules of the incremental mode, mapped by module name
+	 */
+	private final Map<String, CompiledModule> compiledModules = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructor
 	 */
@@ -190,6 +218,11 @@ public class ClosureGlobalPostProcessor extends AbstractChainedGlobalProcessor<G
 				tempDir = workingDir + GOOGLE_CLOSURE_TEMP_DIR;
 			}
 
+			if (ctx.getJawrConfig().getBooleanProperty(JAWR_JS_CLOSURE_INCREMENTAL, false)) {
+				processBundlesIncrementally(ctx, bundles);
+				return;
+			}
+
 			// Create result directory
 			File dir = new File(destDir);
 			if (!dir.exists() && !dir.mkdirs()) {
@@ -229,6 +262,352 @@ public class ClosureGlobalPostProcessor extends AbstractChainedGlobalProcessor<G
 		}
 	}
 
+	/**
+	 * Compiles incrementally the bundles. The modules are compiled from the
+	 * bundle text directory and their results are written directly in the
+	 * bundle text and zip directories. The modules whose the compilation key
+	 * (compiler arguments, module content and dependency contents) hasn't
+	 * changed since their last compilation are not compiled again.
+	 * 
+	 * With the ADVANCED_OPTIMIZATIONS compilation level, the compiler
+	 * optimizes the code across the modules, so all the modules are compiled
+	 * together. With the other levels, each module is compiled independently,
+	 * and the modules can be compiled in parallel.
+	 * 
+	 * @param ctx
+	 *            the global processing context
+	 * @param bundles
+	 *            the bundles
+	 */
+	private void processBundlesIncrementally(final GlobalPostProcessingContext ctx,
+			List<JoinableResourceBundle> bundles) {
+
+		Map<String, String> resultBundleMapping = new HashMap<>();
+		String[] args = getClosureCompilerArgs(ctx, bundles, resultBundleMapping);
+
+		// The arguments are the common arguments followed by the (--js,
+		// --module) argument pairs
+		final List<String> commonArgs = new ArrayList<>();
+		int argIdx = 0;
+		while (argIdx < args.length && !args[argIdx].equals(JS_ARG)) {
+			commonArgs.add(args[argIdx++]);
+		}
+		boolean advancedOptimizations = false;
+		int compilationLevelIdx = commonArgs.indexOf(COMPILATION_LEVEL_ARG);
+		if (compilationLevelIdx != -1 && compilationLevelIdx + 1 < commonArgs.size()) {
+			advancedOptimizations = ADVANCED_OPTIMIZATIONS_COMPILATION_LEVEL
+					.equalsIgnoreCase(commonArgs.get(compilationLevelIdx + 1));
+		}
+
+		Map<String, ClosureModule> modules = new LinkedHashMap<>();
+		for (; argIdx + 3 < args.length; argIdx += 4) {
+			ClosureModule module = new ClosureModule(args[argIdx + 1], args[argIdx + 3]);
+			if (!module.name.equals(JAWR_ROOT_MODULE_NAME)) {
+				modules.put(module.name, module);
+			}
+		}
+
+		try {
+			for (ClosureModule module : modules.values()) {
+				readModuleInput(ctx, module);
+			}
+
+			List<List<ClosureModule>> units = new ArrayList<>();
+			if (advancedOptimizations) {
+				units.add(new ArrayList<>(modules.values()));
+			} else {
+				for (ClosureModule module : modules.values()) {
+					units.add(Arrays.asList(module));
+				}
+			}
+
+			int nbThreads = Integer.parseInt(ctx.getJawrConfig().getProperty(JAWR_JS_CLOSURE_INCREMENTAL_THREADS, "1"));
+			if (nbThreads > 1 && units.size() > 1) {
+				ExecutorService executor = Executors.newFixedThreadPool(Math.min(nbThreads, units.size()));
+				try {
+					List<Future<Void>> results = new ArrayList<>();
+					for (final List<ClosureModule> unit : units) {
+						final String unitKey = getCompilationKey(commonArgs, unit, modules);
+						final boolean keepDependencies = unit.size() == modules.size();
+						results.add(executor.submit(new Callable<Void>() {
+
+							@Override
+							public Void call() throws Exception {
+								processModuleUnit(ctx, commonArgs, unit, unitKey, keepDependencies);
+								return null;
+							}
+						}));
+					}
+					for (Future<Void> result : results) {
+						result.get();
+					}
+				} catch (ExecutionException e) {
+					throw new BundlingProcessException(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new BundlingProcessException(e);
+				} finally {
+					executor.shutdown();
+				}
+			} else {
+				for (List<ClosureModule> unit : units) {
+					processModuleUnit(ctx, commonArgs, unit, getCompilationKey(commonArgs, unit, modules),
+							unit.size() == modules.size());
+				}
+			}
+		} catch (IOException | ResourceNotFoundException e) {
+			throw new BundlingProcessException(e);
+		}
+	}
+
+	/**
+	 * Reads the input of a module. If the bundle text directory contains the
+	 * result of the last compilation of the module, the input of this
+	 * compilation is used.
+	 * 
+	 * @param ctx
+	 *            the global processing context
+	 * @param module
+	 *            the module
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 * @throws ResourceNotFoundException
+	 *             if the bundle is not found
+	 */
+	private void readModuleInput(GlobalPostProcessingContext ctx, ClosureModule module)
+			throws IOException, ResourceNotFoundException {
+
+		byte[] content;
+		File file = new File(srcDir, PathNormalizer.escapeToPhysicalPath(module.jsFile));
+		if (file.exists()) {
+			content = Files.readAllBytes(file.toPath());
+		} else {
+			try (Reader rd = ctx.getRsReaderHandler().getResource(module.jsFile)) {
+				content = CharStreams.toString(rd).getBytes(ctx.getJawrConfig().getResourceCharset());
+			}
+		}
+
+		String checksum = CheckSumUtils.getMD5Checksum(new ByteArrayInputStream(content));
+		CompiledModule compiledModule = compiledModules.get(module.name);
+		if (compiledModule != null && compiledModule.outputChecksum.equals(checksum)) {
+			module.input = compiledModule.input;
+			module.inputChecksum = compiledModule.inputChecksum;
+			module.upToDate = true;
+		} else {
+			module.input = new String(content, ctx.getJawrConfig().getResourceCharset());
+			module.inputChecksum = checksum;
+		}
+	}
+
+	/**
+	 * Returns the compilation key of a unit of modules, which is the checksum
+	 * of the compiler arguments, of the module inputs and of the inputs of
+	 * their dependencies.
+	 * 
+	 * @param commonArgs
+	 *            the common compiler arguments
+	 * @param unit
+	 *            the modules compiled together
+	 * @param modules
+	 *            all the modules
+	 * @return the compilation key
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	private String getCompilationKey(List<String> commonArgs, List<ClosureModule> unit,
+			Map<String, ClosureModule> modules) throws IOException {
+
+		StringBuilder key = new StringBuilder();
+		for (String arg : commonArgs) {
+			key.append(arg).append(' ');
+		}
+		for (ClosureModule module : unit) {
+			key.append('\n').append(module.moduleSpec).append('=').append(module.inputChecksum);
+			for (String dependency : module.dependencies) {
+				ClosureModule dependencyModule = modules.get(dependency);
+				if (dependencyModule != null) {
+					key.append(' ').append(dependency).append('=').append(dependencyModule.inputChecksum);
+				}
+			}
+		}
+		return CheckSumUtils.getMD5Checksum(key.toString(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Processes a unit of modules, which are compiled together. If the unit
+	 * has already been compiled with the same compilation key, the cached
+	 * results are used.
+	 * 
+	 * @param ctx
+	 *            the global processing context
+	 * @param commonArgs
+	 *            the common compiler arguments
+	 * @param unit
+	 *            the modules
+	 * @param unitKey
+	 *            the compilation key of the unit
+	 * @param keepDependencies
+	 *            the flag indicating if the module dependencies must be passed
+	 *            to the compiler. This is the case if the unit contains all
+	 *            the modules.
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	private void processModuleUnit(GlobalPostProcessingContext ctx, List<String> commonArgs, List<ClosureModule> unit,
+			String unitKey, boolean keepDependencies) throws IOException {
+
+		boolean compilationNeeded = false;
+		for (ClosureModule module : unit) {
+			CompiledModule compiledModule = compiledModules.get(module.name);
+			if (compiledModule == null || !compiledModule.key.equals(unitKey)) {
+				compilationNeeded = true;
+				break;
+			}
+		}
+
+		if (!compilationNeeded) {
+			for (ClosureModule module : unit) {
+				if (!module.upToDate) {
+					writeModuleResult(module, compiledModules.get(module.name).output);
+				}
+			}
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Closure modules " + getModuleNames(unit) + " are up to date");
+			}
+			return;
+		}
+
+		List<String> args = new ArrayList<>(commonArgs);
+		args.add(JS_ARG);
+		args.add(JAWR_ROOT_MODULE_JS);
+		args.add(MODULE_ARG);
+		args.add(JAWR_ROOT_MODULE_NAME + ":1:");
+		Map<String, String> inputs = new HashMap<>();
+		for (ClosureModule module : unit) {
+			args.add(JS_ARG);
+			args.add(module.jsFile);
+			args.add(MODULE_ARG);
+			args.add(keepDependencies ? module.moduleSpec : module.name + ":1:" + JAWR_ROOT_MODULE_NAME);
+			inputs.put(module.jsFile, module.input);
+		}
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Compiling closure modules " + getModuleNames(unit));
+		}
+
+		Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+		int result = compileModules(ctx, args.toArray(new String[] {}), inputs, outputs);
+		if (result != 0) {
+			LOGGER.warn("The closure compilation of the modules " + getModuleNames(unit)
+					+ " failed. The bundles are left uncompiled.");
+			for (ClosureModule module : unit) {
+				compiledModules.remove(module.name);
+			}
+			return;
+		}
+
+		for (ClosureModule module : unit) {
+			ByteArrayOutputStream output = outputs.get(module.name);
+			if (output == null) {
+				throw new BundlingProcessException(
+						"The closure compiler has not generated the module '" + module.name + "'");
+			}
+			byte[] content = output.toByteArray();
+			writeModuleResult(module, content);
+			compiledModules.put(module.name, new CompiledModule(unitKey, module.input, module.inputChecksum,
+					content, CheckSumUtils.getMD5Checksum(new ByteArrayInputStream(content))));
+		}
+	}
+
+	/**
+	 * Compiles a unit of modules
+	 * 
+	 * @param ctx
+	 *            the global processing context
+	 * @param args
+	 *            the compiler arguments
+	 * @param inputs
+	 *            the module inputs, mapped by JS file
+	 * @param outputs
+	 *            the map which will contain the module outputs, mapped by
+	 *            module name
+	 * @return the compiler result, 0 if the compilation succeeded
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	protected int compileModules(GlobalPostProcessingContext ctx, String[] args, Map<String, String> inputs,
+			Map<String, ByteArrayOutputStream> outputs) throws IOException {
+
+		ClosureModuleCommandLineRunner runner;
+		// The closure command line runner parses the arguments in static
+		// fields, so the runners can't be created concurrently
+		synchronized (CommandLineRunner.class) {
+			runner = new ClosureModuleCommandLineRunner(ctx, args, inputs, outputs);
+		}
+		return runner.compile();
+	}
+
+	/**
+	 * Writes the result of a module in the bundle text and zip directories
+	 * 
+	 * @param module
+	 *            the module
+	 * @param content
+	 *            the compiled content
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	private void writeModuleResult(ClosureModule module, byte[] content) throws IOException {
+
+		String bundlePath = PathNormalizer.escapeToPhysicalPath(module.jsFile);
+		File outFile = new File(srcDir, bundlePath);
+		outFile.getParentFile().mkdirs();
+		try (OutputStream os = new FileOutputStream(outFile)) {
+			os.write(content);
+		}
+
+		File outZipFile = new File(srcZipDir, bundlePath);
+		outZipFile.getParentFile().mkdirs();
+		try (OutputStream os = new GZIPOutputStream(new FileOutputStream(outZipFile))) {
+			os.write(content);
+		}
+	}
+
+	/**
+	 * Returns the names of the modules
+	 * 
+	 * @param modules
+	 *            the modules
+	 * @return the names of the modules
+	 */
+	private List<String> getModuleNames(List<ClosureModule> modules) {
+
+		List<String> names = new ArrayList<>();
+		for (ClosureModule module : modules) {
+			names.add(module.name);
+		}
+		return names;
+	}
+
+	/**
+	 * Creates the closure compiler
+	 * 
+	 * @param ctx
+	 *            the global processing context
+	 * @param errorStream
+	 *            the error stream
+	 * @return the closure compiler
+	 */
+	private Compiler createClosureCompiler(GlobalPostProcessingContext ctx, PrintStream errorStream) {
+		Compiler compiler = new Compiler(errorStream);
+
+		// Disable thread if needed
+		if (Boolean.getBoolean(ctx.getJawrConfig().getProperty(JAWR_JS_CLOSURE_DISABLE_THREAD, "false"))) {
+			compiler.disableThreads();
+		}
+		return compiler;
+	}
+
 	/**
 	 * Returns the closure compiler arguments
 	 * 
@@ -657,13 +1036,7 @@ public class ClosureGlobalPostProcessor extends AbstractChainedGlobalProcessor<G
 		 */
 		@Override
 		protected Compiler createCompiler() {
-			Compiler compiler = new Compiler(getErrorPrintStream());
-
-			// Disable thread if needed
-			if (Boolean.getBoolean(ctx.getJawrConfig().getProperty(JAWR_JS_CLOSURE_DISABLE_THREAD, "false"))) {
-				compiler.disableThreads();
-			}
-			return compiler;
+			return createClosureCompiler(ctx, getErrorPrintStream());
 		}
 
 		/*
@@ -780,4 +1153,220 @@ public class ClosureGlobalPostProcessor extends AbstractChainedGlobalProcessor<G
 			return result;
 		}
 	}
+
+	/**
+	 * A closure module of the incremental compilation
+	 * 
+	 * @author Ibrahim Chaehoi
+	 */
+	private static class ClosureModule {
+
+		/** The module name */
+		private final String name;
+
+		/** The bundle JS file */
+		private final String jsFile;
+
+		/** The module argument */
+		private final String moduleSpec;
+
+		/** The module dependencies */
+		private final List<String> dependencies;
+
+		/** The module input */
+		private String input;
+
+		/** The checksum of the module input */
+		private String inputChecksum;
+
+		/**
+		 * The flag indicating if the bundle text directory contains the
+		 * result of the last compilation of the module
+		 */
+		private boolean upToDate;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param jsFile
+		 *            the bundle JS file
+		 * @param moduleSpec
+		 *            the module argument
+		 */
+		public ClosureModule(String jsFile, String moduleSpec) {
+			this.jsFile = jsFile;
+			this.moduleSpec = moduleSpec;
+			this.name = moduleSpec.substring(0, moduleSpec.indexOf(':'));
+			Matcher matcher = MODULE_ARG_PATTERN.matcher(moduleSpec);
+			if (matcher.find() && StringUtils.isNotEmpty(matcher.group(1))) {
+				this.dependencies = Arrays.asList(matcher.group(1).split(MODULE_DEPENDENCIES_SEPARATOR));
+			} else {
+				this.dependencies = new ArrayList<>();
+			}
+		}
+	}
+
+	/**
+	 * The result of the compilation of a module
+	 * 
+	 * @author Ibrahim Chaehoi
+	 */
+	private static class CompiledModule {
+
+		/** The compilation key */
+		private final String key;
+
+		/** The module input */
+		private final String input;
+
+		/** The checksum of the module input */
+		private final String inputChecksum;
+
+		/** The compiled module */
+		private final byte[] output;
+
+		/** The checksum of the compiled module */
+		private final String outputChecksum;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param key
+		 *            the compilation key
+		 * @param input
+		 *            the module input
+		 * @param inputChecksum
+		 *            the checksum of the module input
+		 * @param output
+		 *            the compiled module
+		 * @param outputChecksum
+		 *            the checksum of the compiled module
+		 */
+		public CompiledModule(String key, String input, String inputChecksum, byte[] output, String outputChecksum) {
+			this.key = key;
+			this.input = input;
+			this.inputChecksum = inputChecksum;
+			this.output = output;
+			this.outputChecksum = outputChecksum;
+		}
+	}
+
+	/**
+	 * The Closure command line runner of the incremental compilation, which
+	 * reads the module inputs and writes the module outputs in memory
+	 * 
+	 * @author Ibrahim Chaehoi
+	 */
+	private class ClosureModuleCommandLineRunner extends CommandLineRunner {
+
+		/**
+		 * The global postprocessing context
+		 */
+		private final GlobalPostProcessingContext ctx;
+
+		/** The module inputs, mapped by JS file */
+		private final Map<String, String> inputs;
+
+		/** The module outputs, mapped by module name */
+		private final Map<String, ByteArrayOutputStream> outputs;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param ctx
+		 *            the global post processing context
+		 * @param args
+		 *            the compiler arguments
+		 * @param inputs
+		 *            the module inputs, mapped by JS file
+		 * @param outputs
+		 *            the module outputs, mapped by module name
+		 */
+		public ClosureModuleCommandLineRunner(GlobalPostProcessingContext ctx, String[] args,
+				Map<String, String> inputs, Map<String, ByteArrayOutputStream> outputs) {
+			super(args);
+			this.ctx = ctx;
+			this.inputs = inputs;
+			this.outputs = outputs;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.google.javascript.jscomp.CommandLineRunner#createCompiler()
+		 */
+		@Override
+		protected Compiler createCompiler() {
+			return createClosureCompiler(ctx, getErrorPrintStream());
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.google.javascript.jscomp.AbstractCommandLineRunner#
+		 * checkModuleName (java.lang.String)
+		 */
+		@Override
+		protected void checkModuleName(String name) throws FlagUsageException {
+
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see
+		 * com.google.javascript.jscomp.AbstractCommandLineRunner#createInputs(
+		 * java.util.List, java.util.List, boolean, java.util.List)
+		 */
+		@Override
+		protected List<SourceFile> createInputs(List<FlagEntry<JsSourceType>> files, List<JsonFileSpec> jsonFiles,
+				boolean allowStdIn, List<JsModuleSpec> jsModuleSpecs) {
+
+			List<SourceFile> sourceFiles = new ArrayList<>(files.size());
+			for (FlagEntry<JsSourceType> jsSource : files) {
+				String filename = jsSource.getValue();
+				if (filename.equals(JAWR_ROOT_MODULE_JS)) {
+					sourceFiles.add(SourceFile.fromCode(filename, ""));
+				} else if (inputs.containsKey(filename)) {
+					sourceFiles.add(SourceFile.fromCode(filename, inputs.get(filename)));
+				}
+			}
+			return sourceFiles;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see com.google.javascript.jscomp.AbstractCommandLineRunner#
+		 * filenameToOutputStream(java.lang.String)
+		 */
+		@Override
+		protected OutputStream filenameToOutputStream(String fileName) throws IOException {
+
+			if (fileName == null) {
+				return null;
+			}
+
+			int fileExtensionIdx = fileName.lastIndexOf(".");
+			String moduleName = fileName.substring(0, fileExtensionIdx).substring(2);
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			outputs.put(moduleName, output);
+			return output;
+		}
+
+		/**
+		 * Compiles the modules
+		 * 
+		 * @return the compiler result, 0 if the compilation succeeded
+		 * @throws IOException
+		 *             if an IO exception occurs
+		 */
+		public int compile() throws IOException {
+			try {
+				return doRun();
+			} catch (FlagUsageException e) {
+				throw new BundlingProcessException(e);
+			}
+		}
+	}
 }
@@ -32,6 +32,7 @@ import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper;
 import net.jawr.web.resource.bundle.iterator.ConditionalCommentCallbackHandler;
 import net.jawr.web.resource.bundle.iterator.ResourceBundlePathsIterator;
 import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
@@ -48,7 +49,8 @@ import net.jawr.web.resource.watcher.ResourceWatcher;
  * @author Ibrahim Chaehoi
  * 
  */
-public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
+public class CachedResourceBundlesHandler
+		implements ResourceBundlesHandler, ReloadableResourceBundlesHandler, DisposableResourceBundlesHandler {
 
 	/** The prefix for text element in cache */
 	private static final String TEXT_CACHE_PREFIX = "TEXT.";
@@ -412,4 +414,49 @@ public class CachedResourceBundlesHandler implements ResourceBundlesHandler {
 	public void setBundlingProcessLifeCycleListeners(List<BundlingProcessLifeCycleListener> listeners) {
 		this.rsHandler.setBundlingProcessLifeCycleListeners(listeners);
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.
+	 * ReloadableResourceBundlesHandler#canUpdateBundles()
+	 */
+	@Override
+	public boolean canUpdateBundles() {
+		return rsHandler instanceof ReloadableResourceBundlesHandler
+				&& ((ReloadableResourceBundlesHandler) rsHandler).canUpdateBundles();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.
+	 * ReloadableResourceBundlesHandler#updateBundles(java.util.List,
+	 * net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper)
+	 */
+	@Override
+	public boolean updateBundles(List<JoinableResourceBundle> bundles,
+			BundleConfigDependencyHelper previousConfigHelper) {
+		boolean updated = false;
+		if (rsHandler instanceof ReloadableResourceBundlesHandler) {
+			updated = ((ReloadableResourceBundlesHandler) rsHandler).updateBundles(bundles, previousConfigHelper);
+			if (updated) {
+				cacheMgr.clear();
+			}
+		}
+		return updated;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.
+	 * DisposableResourceBundlesHandler#dispose()
+	 */
+	@Override
+	public void dispose() {
+		if (rsHandler instanceof DisposableResourceBundlesHandler) {
+			((DisposableResourceBundlesHandler) rsHandler).dispose();
+		}
+	}
 }
@@ -0,0 +1,30 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.handler;
+
+/**
+ * This interface is implemented by the resource bundles handlers which hold
+ * resources to release when they are replaced, for example when the Jawr
+ * configuration is reloaded, or when the application is undeployed.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public interface DisposableResourceBundlesHandler {
+
+	/**
+	 * Disposes the handler. The background tasks of the handler are stopped
+	 * and the resources it holds are released.
+	 */
+	void dispose();
+}
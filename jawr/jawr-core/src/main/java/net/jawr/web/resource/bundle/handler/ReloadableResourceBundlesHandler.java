@@ -0,0 +1,55 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.handler;
+
+import java.util.List;
+
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper;
+
+/**
+ * This interface is implemented by the resource bundles handlers which are
+ * able to update their bundles in place when the Jawr configuration changes,
+ * instead of being recreated.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public interface ReloadableResourceBundlesHandler {
+
+	/**
+	 * Checks if the handler is able to update its bundles in place. This is
+	 * checked before the Jawr config is updated, so the config is not modified
+	 * if the handler must be recreated.
+	 * 
+	 * @return true if the bundles can be updated in place
+	 */
+	boolean canUpdateBundles();
+
+	/**
+	 * Updates the bundles of the handler with the bundles built from the new
+	 * configuration. The current bundles whose configuration and mappings are
+	 * unchanged are kept as they are, while the others are replaced and
+	 * rebuilt. The Jawr config of the handler must already contain the new
+	 * configuration properties.
+	 * 
+	 * @param bundles
+	 *            the bundles built from the new configuration
+	 * @param previousConfigHelper
+	 *            the configuration dependency helper of the previous
+	 *            configuration
+	 * @return true if the bundles have been updated, false if the handler
+	 *         must be recreated
+	 */
+	boolean updateBundles(List<JoinableResourceBundle> bundles, BundleConfigDependencyHelper previousConfigHelper);
+}
@@ -13,10 +13,13 @@
  */
 package net.jawr.web.resource.bundle.handler;
 
-import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
@@ -27,13 +30,21 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.GZIPOutputStream;
 
@@ -54,8 +65,10 @@ import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.JoinableResourceBundleContent;
 import net.jawr.web.resource.bundle.JoinableResourceBundlePropertySerializer;
+import net.jawr.web.resource.bundle.factory.PropertiesBundleConstant;
 import net.jawr.web.resource.bundle.factory.global.postprocessor.GlobalPostProcessingContext;
 import net.jawr.web.resource.bundle.factory.global.preprocessor.GlobalPreprocessingContext;
+import net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.global.processor.GlobalProcessor;
@@ -69,14 +82,17 @@ import net.jawr.web.resource.bundle.iterator.ResourceBundlePathsIterator;
 import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CharSequencePostProcessorAdapter;
 import net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.sorting.GlobalResourceBundleComparator;
 import net.jawr.web.resource.bundle.variant.VariantSet;
 import net.jawr.web.resource.bundle.variant.VariantUtils;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
+import net.jawr.web.resource.handler.reader.DecodedResourceReader;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import net.jawr.web.resource.watcher.ResourceWatcher;
 import net.jawr.web.util.StopWatch;
+import net.jawr.web.util.ChunkedCharSequence;
 import net.jawr.web.util.StringUtils;
 import net.jawr.web.util.bom.UnicodeBOMReader;
 
@@ -86,11 +102,18 @@ import net.jawr.web.util.bom.UnicodeBOMReader;
  * @author Jordi Hernández Sellés
  * @author Ibrahim Chaehoi
  */
-public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
+public class ResourceBundlesHandlerImpl
+		implements ResourceBundlesHandler, ReloadableResourceBundlesHandler, DisposableResourceBundlesHandler {
 
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(ResourceBundlesHandler.class);
 
+	/** The perf Logger */
+	private static final Logger PERF_LOGGER = LoggerFactory.getLogger(JawrConstant.PERF_PROCESSING_LOGGER);
+
+	/** The name of the file which stores the access counts of the lazy variants */
+	public static final String LAZY_VARIANT_ACCESS_FILE_NAME = "lazyVariantAccess.properties";
+
 	/**
 	 * The bundles that this handler manages.
 	 */
@@ -166,6 +189,24 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	/** The flag indicating if we need to search for variant in post process */
 	private boolean needToSearchForVariantInPostProcess;
 
+	/**
+	 * The lazy variants which have not been generated yet, mapped by variant
+	 * bundle name
+	 */
+	private final ConcurrentMap<String, LazyVariant> lazyVariants = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of runs where each lazy variant has been requested, mapped by
+	 * variant bundle name
+	 */
+	private Properties lazyVariantAccessCounts;
+
+	/** The executor which prewarms the lazy variants */
+	private ExecutorService lazyVariantExecutor;
+
+	/** The flag indicating if the handler has been disposed */
+	private volatile boolean disposed;
+
 	/**
 	 * Build a ResourceBundlesHandler.
 	 * 
@@ -512,8 +553,10 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 			bundlesIterator = new DebugModePathsIteratorImpl(bundles, commentCallbackHandler, variants);
 		} else if (debugMode.equals(DebugMode.FORCE_NON_DEBUG_IN_IE)) {
 			bundlesIterator = new IECssDebugPathsIteratorImpl(bundles, commentCallbackHandler, variants);
-		} else
+		} else {
+			generateLazyVariants(bundles, variants);
 			bundlesIterator = new PathsIteratorImpl(bundles, commentCallbackHandler, variants);
+		}
 		return bundlesIterator;
 	}
 
@@ -546,6 +589,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 				// Prefixes are used only in production mode
 				String path = PathNormalizer.removeVariantPrefixFromPath(bundlePath);
+				generateLazyVariant(path, true);
 				rd = resourceBundleHandler.getResourceBundleReader(path);
 				if (liveProcessBundles.contains(path)) {
 					rd = processInLive(rd);
@@ -598,6 +642,7 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		String path = PathNormalizer.removeVariantPrefixFromPath(bundlePath);
 		ReadableByteChannel data = null;
 		try {
+			generateLazyVariant(path, true);
 			if (liveProcessBundles.contains(path)) {
 
 				Reader rd = null;
@@ -676,9 +721,17 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 			String storeJawrConfigHashcode = resourceBundleHandler.getJawrBundleMapping()
 					.getProperty(JawrConstant.JAWR_CONFIG_HASHCODE);
 			String jawrConfigHashcode = getJawrConfigHashcode();
+			boolean configChanged = !jawrConfigHashcode.equals(storeJawrConfigHashcode);
 			boolean rebuildAllBundles = !config.getUseSmartBundling()
-					|| (!jawrConfigHashcode.equals(storeJawrConfigHashcode));
+					|| (configChanged && !isSharedConfigUnchanged());
 			if (!rebuildAllBundles) {
+				if (configChanged) {
+					removeObsoleteBundlesFromMapping();
+					if (LOGGER.isDebugEnabled()) {
+						LOGGER.debug(
+								"Jawr config has changed since last bundling process. Only the affected bundles will be processed.");
+					}
+				}
 				bundleToProcess = getBundlesToRebuild();
 				if (!bundleToProcess.isEmpty() && LOGGER.isDebugEnabled()) {
 
@@ -703,6 +756,153 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		build(bundleToProcess, forceStoreJawrBundleMapping, stopWatch);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.
+	 * ReloadableResourceBundlesHandler#canUpdateBundles()
+	 */
+	@Override
+	public boolean canUpdateBundles() {
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.
+	 * ReloadableResourceBundlesHandler#updateBundles(java.util.List,
+	 * net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper)
+	 */
+	@Override
+	public synchronized boolean updateBundles(List<JoinableResourceBundle> newBundles,
+			BundleConfigDependencyHelper previousConfigHelper) {
+
+		stopProcessIfNeeded();
+
+		BundleConfigDependencyHelper configHelper = getBundleConfigDependencyHelper();
+		Map<String, JoinableResourceBundle> currentBundles = new HashMap<>();
+		for (JoinableResourceBundle bundle : bundles) {
+			currentBundles.put(bundle.getName(), bundle);
+		}
+
+		// Keep the current bundles which are not affected by the changes
+		Map<String, JoinableResourceBundle> keptBundles = new HashMap<>();
+		for (JoinableResourceBundle newBundle : newBundles) {
+			JoinableResourceBundle bundle = currentBundles.get(newBundle.getName());
+			if (bundle != null && isUnchangedBundle(bundle, previousConfigHelper, newBundle, configHelper)) {
+				keptBundles.put(bundle.getName(), bundle);
+			}
+		}
+
+		// The bundles which depend on a replaced bundle are replaced too
+		boolean bundleReplaced = true;
+		while (bundleReplaced) {
+			bundleReplaced = false;
+			for (Iterator<JoinableResourceBundle> it = keptBundles.values().iterator(); it.hasNext();) {
+				List<JoinableResourceBundle> dependencies = it.next().getDependencies();
+				if (dependencies != null) {
+					for (JoinableResourceBundle dependency : dependencies) {
+						if (keptBundles.get(dependency.getName()) != dependency) {
+							it.remove();
+							bundleReplaced = true;
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		List<JoinableResourceBundle> updatedBundles = new ArrayList<>();
+		List<JoinableResourceBundle> replacedBundles = new ArrayList<>();
+		for (JoinableResourceBundle newBundle : newBundles) {
+			JoinableResourceBundle bundle = keptBundles.get(newBundle.getName());
+			if (bundle == null) {
+				bundle = newBundle;
+				bundle.setDirty(true);
+				replacedBundles.add(bundle);
+			}
+			updatedBundles.add(bundle);
+		}
+
+		// Bind the dependencies of the new bundles to the kept bundles
+		for (JoinableResourceBundle bundle : replacedBundles) {
+			List<JoinableResourceBundle> dependencies = bundle.getDependencies();
+			if (dependencies != null) {
+				List<JoinableResourceBundle> updatedDependencies = new ArrayList<>();
+				for (JoinableResourceBundle dependency : dependencies) {
+					JoinableResourceBundle keptBundle = keptBundles.get(dependency.getName());
+					updatedDependencies.add(keptBundle != null ? keptBundle : dependency);
+				}
+				bundle.setDependencies(updatedDependencies);
+			}
+		}
+
+		// Remove the lazy variants of the bundles which are not used anymore
+		for (Iterator<LazyVariant> it = lazyVariants.values().iterator(); it.hasNext();) {
+			if (keptBundles.get(it.next().bundle.getName()) == null) {
+				it.remove();
+			}
+		}
+
+		if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("The Jawr config has changed. " + keptBundles.size() + " of the " + updatedBundles.size()
+					+ " bundles are not affected and will not be processed.");
+		}
+
+		this.bundles = new CopyOnWriteArrayList<>(updatedBundles);
+		compositeResourceBundleMap.clear();
+		splitBundlesByType(this.bundles);
+		clientSideHandlerGenerator.init(config, globalBundles, contextBundles);
+
+		if (config.getUseBundleMapping()) {
+			removeObsoleteBundlesFromMapping();
+		}
+
+		build(getBundlesToRebuild(), true, ThreadLocalJawrContext.getStopWatch());
+		return true;
+	}
+
+	/**
+	 * Checks if a bundle is not affected by the configuration changes
+	 * 
+	 * @param bundle
+	 *            the current bundle
+	 * @param previousConfigHelper
+	 *            the configuration dependency helper of the previous
+	 *            configuration
+	 * @param newBundle
+	 *            the bundle built from the new configuration
+	 * @param configHelper
+	 *            the configuration dependency helper of the new configuration
+	 * @return true if the bundle is not affected by the configuration changes
+	 */
+	private boolean isUnchangedBundle(JoinableResourceBundle bundle, BundleConfigDependencyHelper previousConfigHelper,
+			JoinableResourceBundle newBundle, BundleConfigDependencyHelper configHelper) {
+
+		return bundle.getId().equals(newBundle.getId()) && bundle.isComposite() == newBundle.isComposite()
+				&& previousConfigHelper.getBundleConfigHashcode(bundle)
+						.equals(configHelper.getBundleConfigHashcode(newBundle))
+				&& getItemPaths(bundle).equals(getItemPaths(newBundle));
+	}
+
+	/**
+	 * Returns the paths of the resources of a bundle
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @return the paths of the resources of the bundle
+	 */
+	private List<String> getItemPaths(JoinableResourceBundle bundle) {
+		List<String> paths = new ArrayList<>();
+		if (bundle.getItemPathList() != null) {
+			for (BundlePath bundlePath : bundle.getItemPathList()) {
+				paths.add(bundlePath.getPath());
+			}
+		}
+		return paths;
+	}
+
 	/**
 	 * Returns the jawr config hashcode
 	 * 
@@ -716,6 +916,87 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		}
 	}
 
+	/**
+	 * Returns the helper which tracks the configuration properties affecting
+	 * each bundle
+	 * 
+	 * @return the bundle configuration dependency helper
+	 */
+	protected BundleConfigDependencyHelper getBundleConfigDependencyHelper() {
+		return new BundleConfigDependencyHelper(config.getConfigProperties(), getResourceType());
+	}
+
+	/**
+	 * Checks if the configuration properties shared by all the bundles are the
+	 * same as the ones used for the last bundling process
+	 * 
+	 * @return true if the shared configuration properties are unchanged
+	 */
+	private boolean isSharedConfigUnchanged() {
+		String storedSharedConfigHashcode = bundleMapping.getProperty(JawrConstant.JAWR_SHARED_CONFIG_HASHCODE);
+		return getBundleConfigDependencyHelper().getSharedConfigHashcode().equals(storedSharedConfigHashcode);
+	}
+
+	/**
+	 * Removes from the bundle mapping the properties of the bundles which are
+	 * not defined anymore
+	 */
+	private void removeObsoleteBundlesFromMapping() {
+
+		Set<String> bundleNames = new HashSet<>();
+		addBundleNames(bundles, bundleNames);
+
+		String bundlePropertyPrefix = BundleConfigDependencyHelper.getBundlePropertyPrefix(getResourceType(), "");
+		for (String key : bundleMapping.stringPropertyNames()) {
+			if (key.startsWith(bundlePropertyPrefix)) {
+				int idx = key.indexOf('.', bundlePropertyPrefix.length());
+				if (idx != -1 && !bundleNames.contains(key.substring(bundlePropertyPrefix.length(), idx))) {
+					bundleMapping.remove(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the names of the bundles and of their child bundles to the set
+	 * 
+	 * @param bundles
+	 *            the bundles
+	 * @param bundleNames
+	 *            the set of bundle names to update
+	 */
+	private void addBundleNames(List<JoinableResourceBundle> bundles, Set<String> bundleNames) {
+		for (JoinableResourceBundle bundle : bundles) {
+			bundleNames.add(bundle.getName());
+			if (bundle.isComposite()) {
+				addBundleNames(((CompositeResourceBundle) bundle).getChildBundles(), bundleNames);
+			}
+		}
+	}
+
+	/**
+	 * Removes the properties of a bundle and of its child bundles from the
+	 * bundle mapping
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 */
+	private void removeBundleFromMapping(JoinableResourceBundle bundle) {
+
+		String bundlePropertyPrefix = BundleConfigDependencyHelper.getBundlePropertyPrefix(getResourceType(),
+				bundle.getName()) + ".";
+		for (String key : bundleMapping.stringPropertyNames()) {
+			if (key.startsWith(bundlePropertyPrefix)) {
+				bundleMapping.remove(key);
+			}
+		}
+		if (bundle.isComposite()) {
+			for (JoinableResourceBundle childBundle : ((CompositeResourceBundle) bundle).getChildBundles()) {
+				removeBundleFromMapping(childBundle);
+			}
+		}
+	}
+
 	/**
 	 * Executes the global preprocessing
 	 * 
@@ -843,6 +1124,11 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		// Global preprocessing
 		executeGlobalPreprocessing(bundlesToBuild, processBundleFlag, stopWatch);
 
+		BundleConfigDependencyHelper configDependencyHelper = null;
+		if (config.getUseBundleMapping()) {
+			configDependencyHelper = getBundleConfigDependencyHelper();
+		}
+
 		for (JoinableResourceBundle bundle : bundlesToBuild) {
 
 			stopProcessIfNeeded();
@@ -864,8 +1150,13 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 			}
 
 			if (config.getUseBundleMapping()) {
+				removeBundleFromMapping(bundle);
 				JoinableResourceBundlePropertySerializer.serializeInProperties(bundle,
 						resourceBundleHandler.getResourceType(), bundleMapping);
+				bundleMapping.setProperty(
+						BundleConfigDependencyHelper.getBundlePropertyPrefix(getResourceType(), bundle.getName())
+								+ PropertiesBundleConstant.BUNDLE_FACTORY_CUSTOM_CONFIG_HASHCODE,
+						configDependencyHelper.getBundleConfigHashcode(bundle));
 			}
 
 			bundle.setDirty(false);
@@ -892,6 +1183,10 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 			LOGGER.info("End of bundle processing");
 		}
 
+		if (config.isPrewarmLazyCssSkinVariants()) {
+			prewarmLazyVariants();
+		}
+
 	}
 
 	/**
@@ -944,6 +1239,8 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	private void storeJawrBundleMapping(boolean mappingFileExists, boolean force) {
 		if (config.getUseBundleMapping() && (!mappingFileExists || force)) {
 			bundleMapping.setProperty(JawrConstant.JAWR_CONFIG_HASHCODE, getJawrConfigHashcode());
+			bundleMapping.setProperty(JawrConstant.JAWR_SHARED_CONFIG_HASHCODE,
+					getBundleConfigDependencyHelper().getSharedConfigHashcode());
 			resourceBundleHandler.storeJawrBundleMapping(bundleMapping);
 
 			if (resourceBundleHandler.getResourceType().equals(JawrConstant.CSS_TYPE)) {
@@ -1082,7 +1379,6 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 *            the variants
 	 */
 	private void joinAndPostProcessBundle(CompositeResourceBundle composite, BundleProcessingStatus status) {
-		JoinableResourceBundleContent store;
 
 		stopProcessIfNeeded();
 
@@ -1091,28 +1387,378 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		allVariants.add(null);
 		// Process all variants
 		for (Map<String, String> variants : allVariants) {
-			status.setBundleVariants(variants);
-			store = new JoinableResourceBundleContent();
-			for (JoinableResourceBundle childbundle : composite.getChildBundles()) {
-				if (!childbundle.getInclusionPattern().isIncludeOnlyOnDebug()) {
-					JoinableResourceBundleContent childContent = joinAndPostprocessBundle(childbundle, variants,
-							status);
-					// Do unitary postprocessing.
-					status.setProcessingType(BundleProcessingStatus.FILE_PROCESSING_TYPE);
-					StringBuffer content = executeUnitaryPostProcessing(composite, status, childContent.getContent(),
-							this.unitaryCompositePostProcessor);
-					childContent.setContent(content);
-					store.append(childContent);
+			if (isLazyVariant(composite, variants, status)) {
+				registerLazyVariant(composite, variants);
+			} else {
+				joinAndPostProcessVariant(composite, variants, status);
+			}
+		}
+	}
+
+	/**
+	 * Joins and post process a variant of the composite bundle
+	 * 
+	 * @param composite
+	 *            the composite bundle
+	 * @param variants
+	 *            the variant map
+	 * @param status
+	 *            the status
+	 * @return the composite bundle content
+	 */
+	private JoinableResourceBundleContent joinAndPostProcessCompositeVariant(CompositeResourceBundle composite,
+			Map<String, String> variants, BundleProcessingStatus status) {
+
+		JoinableResourceBundleContent store = new JoinableResourceBundleContent();
+		for (JoinableResourceBundle childbundle : composite.getChildBundles()) {
+			if (!childbundle.getInclusionPattern().isIncludeOnlyOnDebug()) {
+				JoinableResourceBundleContent childContent = joinAndPostprocessBundle(childbundle, variants, status);
+				// Do unitary postprocessing.
+				status.setProcessingType(BundleProcessingStatus.FILE_PROCESSING_TYPE);
+				StringBuffer content = executeUnitaryPostProcessing(composite, status, childContent.getContent(),
+						this.unitaryCompositePostProcessor);
+				childContent.setContent(content);
+				store.append(childContent);
+			}
+		}
+
+		// Post process composite bundle as needed
+		return postProcessJoinedCompositeBundle(composite, store.getContent(), status);
+	}
+
+	/**
+	 * Joins and post process a variant of the bundle, and stores the result
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param variants
+	 *            the variant map
+	 * @param status
+	 *            the status
+	 */
+	private void joinAndPostProcessVariant(JoinableResourceBundle bundle, Map<String, String> variants,
+			BundleProcessingStatus status) {
+
+		status.setBundleVariants(variants);
+		JoinableResourceBundleContent store;
+		if (bundle instanceof CompositeResourceBundle) {
+			store = joinAndPostProcessCompositeVariant((CompositeResourceBundle) bundle, variants, status);
+		} else {
+			store = joinAndPostprocessBundle(bundle, variants, status);
+		}
+
+		String variantKey = VariantUtils.getVariantKey(variants);
+		String name = VariantUtils.getVariantBundleName(bundle.getId(), variantKey, false);
+		storeBundle(name, store);
+		initBundleDataHashcode(bundle, store, variantKey);
+	}
+
+	/**
+	 * Checks if the variant of the bundle must be generated on its first
+	 * request. This is the case for the skin variants, except the default one,
+	 * if the lazy skin variants are enabled and if the bundle mapping is not
+	 * used, because the bundle mapping stores the hashcode of all variants.
+	 * The variants are never lazy while searching for the post process
+	 * variants or while processing the bundles at build time.
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param variants
+	 *            the variant map
+	 * @param status
+	 *            the status
+	 * @return true if the variant must be generated on its first request
+	 */
+	private boolean isLazyVariant(JoinableResourceBundle bundle, Map<String, String> variants,
+			BundleProcessingStatus status) {
+
+		if (!config.isLazyCssSkinVariants() || config.getUseBundleMapping()
+				|| status.isSearchingPostProcessorVariants() || ThreadLocalJawrContext.isBundleProcessingAtBuildTime()
+				|| variants == null || !variants.containsKey(JawrConstant.SKIN_VARIANT_TYPE)) {
+			return false;
+		}
+
+		boolean defaultVariant = true;
+		for (Entry<String, String> entry : variants.entrySet()) {
+			VariantSet variantSet = bundle.getVariants().get(entry.getKey());
+			if (variantSet != null && !variantSet.getDefaultVariant().equals(entry.getValue())) {
+				defaultVariant = false;
+				break;
+			}
+		}
+		return !defaultVariant;
+	}
+
+	/**
+	 * Registers a variant which will be generated on its first request
+	 * 
+	 * @param bundle
+	 *            the bundle
+	 * @param variants
+	 *            the variant map
+	 */
+	private void registerLazyVariant(JoinableResourceBundle bundle, Map<String, String> variants) {
+
+		String variantKey = VariantUtils.getVariantKey(variants);
+		String name = VariantUtils.getVariantBundleName(bundle.getId(), variantKey, false);
+		lazyVariants.put(name, new LazyVariant(bundle, variants));
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("The variant '" + variantKey + "' of the bundle '" + bundle.getId()
+					+ "' will be generated on its first request");
+		}
+	}
+
+	/**
+	 * Generates the lazy variants of the bundles, which match the variants
+	 * given in parameter
+	 * 
+	 * @param bundles
+	 *            the bundles
+	 * @param variants
+	 *            the current variants
+	 */
+	private void generateLazyVariants(List<JoinableResourceBundle> bundles, Map<String, String> variants) {
+
+		if (lazyVariants.isEmpty() || variants == null || variants.isEmpty()) {
+			return;
+		}
+
+		List<String> variantBundleNames = new ArrayList<>();
+		for (JoinableResourceBundle bundle : bundles) {
+			Map<String, VariantSet> bundleVariants = bundle.getVariants();
+			if (bundleVariants != null && !bundleVariants.isEmpty()) {
+				Map<String, String> availableVariants = config.getGeneratorRegistry()
+						.getAvailableVariantMap(bundleVariants, variants);
+				String variantKey = VariantUtils.getVariantKey(availableVariants);
+				if (StringUtils.isNotEmpty(variantKey)) {
+					variantBundleNames.add(VariantUtils.getVariantBundleName(bundle.getId(), variantKey, false));
+				}
+			}
+		}
+		generateLazyVariants(variantBundleNames, true);
+	}
+
+	/**
+	 * Generates a lazy variant if it has not been generated yet
+	 * 
+	 * @param variantBundleName
+	 *            the variant bundle name
+	 * @param recordAccess
+	 *            the flag indicating if the access to the variant must be
+	 *            recorded for the prewarming
+	 */
+	private void generateLazyVariant(String variantBundleName, boolean recordAccess) {
+
+		if (lazyVariants.containsKey(variantBundleName)) {
+			generateLazyVariants(Collections.singletonList(variantBundleName), recordAccess);
+		}
+	}
+
+	/**
+	 * Generates the lazy variants which have not been generated yet. The
+	 * generation is serialized with the bundling processes on the handler
+	 * lock, as the generators and the postprocessors are not designed to run
+	 * concurrently, and it is surrounded by the bundling process life cycle
+	 * notifications, so the listeners see the lazy generation as a bundling
+	 * process. If several threads request the same variant, only one of them
+	 * generates it while the others wait for the result.
+	 * 
+	 * @param variantBundleNames
+	 *            the variant bundle names
+	 * @param recordAccess
+	 *            the flag indicating if the access to the variants must be
+	 *            recorded for the prewarming
+	 */
+	private synchronized void generateLazyVariants(List<String> variantBundleNames, boolean recordAccess) {
+
+		List<String> generatedNames = new ArrayList<>();
+		for (String variantBundleName : variantBundleNames) {
+			if (lazyVariants.containsKey(variantBundleName)) {
+				generatedNames.add(variantBundleName);
+			}
+		}
+		if (generatedNames.isEmpty() || disposed) {
+			return;
+		}
+
+		for (BundlingProcessLifeCycleListener listener : lifeCycleListeners) {
+			listener.beforeBundlingProcess();
+		}
+		try {
+			for (String variantBundleName : generatedNames) {
+				LazyVariant lazyVariant = lazyVariants.get(variantBundleName);
+				StopWatch stopWatch = new StopWatch("Generating the lazy variant '" + variantBundleName + "'");
+				stopWatch.start();
+				BundleProcessingStatus status = new BundleProcessingStatus(
+						BundleProcessingStatus.FILE_PROCESSING_TYPE, lazyVariant.bundle, resourceHandler, config);
+				joinAndPostProcessVariant(lazyVariant.bundle, lazyVariant.variants, status);
+				lazyVariants.remove(variantBundleName, lazyVariant);
+				stopWatch.stop();
+				if (PERF_LOGGER.isDebugEnabled()) {
+					PERF_LOGGER.debug(stopWatch.shortSummary());
+				}
+				if (recordAccess) {
+					recordLazyVariantAccess(variantBundleName);
+				}
+			}
+		} finally {
+			for (BundlingProcessLifeCycleListener listener : lifeCycleListeners) {
+				listener.afterBundlingProcess();
+			}
+		}
+	}
+
+	/**
+	 * Returns the file which stores the access counts of the lazy variants
+	 * 
+	 * @return the file which stores the access counts of the lazy variants,
+	 *         or null if there is no working directory
+	 */
+	private File getLazyVariantAccessFile() {
+
+		String textDirPath = resourceBundleHandler.getBundleTextDirPath();
+		if (textDirPath == null) {
+			return null;
+		}
+		return new File(new File(textDirPath).getParentFile(), LAZY_VARIANT_ACCESS_FILE_NAME);
+	}
+
+	/**
+	 * Returns the access counts of the lazy variants, which are loaded from the
+	 * working directory the first time
+	 * 
+	 * @return the access counts of the lazy variants
+	 */
+	private synchronized Properties getLazyVariantAccessCounts() {
+
+		if (lazyVariantAccessCounts == null) {
+			lazyVariantAccessCounts = new Properties();
+			File accessFile = getLazyVariantAccessFile();
+			if (accessFile != null && accessFile.isFile()) {
+				try (InputStream is = new FileInputStream(accessFile)) {
+					lazyVariantAccessCounts.load(is);
+				} catch (IOException e) {
+					LOGGER.warn("Unable to read the lazy variant access file '" + accessFile + "'", e);
 				}
 			}
+		}
+		return lazyVariantAccessCounts;
+	}
 
-			// Post process composite bundle as needed
-			store = postProcessJoinedCompositeBundle(composite, store.getContent(), status);
+	/**
+	 * Records the access to a lazy variant, and stores the access counts in
+	 * the working directory
+	 * 
+	 * @param variantBundleName
+	 *            the variant bundle name
+	 */
+	private synchronized void recordLazyVariantAccess(String variantBundleName) {
+
+		Properties accessCounts = getLazyVariantAccessCounts();
+		int count = Integer.parseInt(accessCounts.getProperty(variantBundleName, "0"));
+		accessCounts.setProperty(variantBundleName, Integer.toString(count + 1));
+
+		File accessFile = getLazyVariantAccessFile();
+		if (accessFile != null) {
+			accessFile.getParentFile().mkdirs();
+			try (OutputStream os = new FileOutputStream(accessFile)) {
+				accessCounts.store(os, "Jawr lazy variant access counts");
+			} catch (IOException e) {
+				LOGGER.warn("Unable to store the lazy variant access file '" + accessFile + "'", e);
+			}
+		}
+	}
+
+	/**
+	 * Generates in background the lazy variants which have been requested in
+	 * the previous runs, starting with the most requested ones
+	 */
+	private void prewarmLazyVariants() {
+
+		if (lazyVariants.isEmpty()) {
+			return;
+		}
 
-			String variantKey = VariantUtils.getVariantKey(variants);
-			String name = VariantUtils.getVariantBundleName(composite.getId(), variantKey, false);
-			storeBundle(name, store);
-			initBundleDataHashcode(composite, store, variantKey);
+		final Properties accessCounts = getLazyVariantAccessCounts();
+		final List<String> variantBundleNames = new ArrayList<>();
+		synchronized (this) {
+			for (String variantBundleName : accessCounts.stringPropertyNames()) {
+				if (lazyVariants.containsKey(variantBundleName)) {
+					variantBundleNames.add(variantBundleName);
+				}
+			}
+			Collections.sort(variantBundleNames, new Comparator<String>() {
+
+				@Override
+				public int compare(String name1, String name2) {
+					int count1 = Integer.parseInt(accessCounts.getProperty(name1));
+					int count2 = Integer.parseInt(accessCounts.getProperty(name2));
+					return count1 < count2 ? 1 : count1 == count2 ? name1.compareTo(name2) : -1;
+				}
+			});
+		}
+
+		if (variantBundleNames.isEmpty()) {
+			return;
+		}
+
+		getLazyVariantExecutor().execute(new Runnable() {
+
+			@Override
+			public void run() {
+				for (String variantBundleName : variantBundleNames) {
+					if (disposed || Thread.currentThread().isInterrupted()) {
+						break;
+					}
+					try {
+						generateLazyVariant(variantBundleName, false);
+					} catch (RuntimeException e) {
+						LOGGER.warn("Unable to prewarm the lazy variant '" + variantBundleName + "'", e);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Returns the executor which prewarms the lazy variants
+	 * 
+	 * @return the executor which prewarms the lazy variants
+	 */
+	private synchronized ExecutorService getLazyVariantExecutor() {
+
+		if (lazyVariantExecutor == null) {
+			lazyVariantExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "jawr-lazy-variant-prewarm");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return lazyVariantExecutor;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.handler.
+	 * DisposableResourceBundlesHandler#dispose()
+	 */
+	@Override
+	public void dispose() {
+
+		disposed = true;
+		ExecutorService executor = null;
+		synchronized (this) {
+			executor = lazyVariantExecutor;
+			lazyVariantExecutor = null;
+			lazyVariants.clear();
+		}
+		if (executor != null) {
+			executor.shutdownNow();
 		}
 	}
 
@@ -1188,6 +1834,9 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 			JoinableResourceBundle bundle = resolveBundleForPath(bundleId);
 			if (bundle != null) {
+				if (StringUtils.isNotEmpty(variantKey)) {
+					generateLazyVariant(VariantUtils.getVariantBundleName(bundle.getId(), variantKey, false), true);
+				}
 				String bundleHashcode = bundle.getBundleDataHashCode(variantKey);
 				if (hashcode == null && bundleHashcode == null || hashcode != null && hashcode.equals(bundleHashcode)
 						&& ((bundlePrefix == null && bundle.getBundlePrefix() == null)
@@ -1288,18 +1937,16 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 */
 	private void joinAndPostProcessBundle(JoinableResourceBundle bundle, BundleProcessingStatus status) {
 
-		JoinableResourceBundleContent store;
 		List<Map<String, String>> allVariants = VariantUtils.getAllVariants(bundle.getVariants());
 		// Add the default bundle variant (the non variant one)
 		allVariants.add(null);
 
 		for (Map<String, String> variantMap : allVariants) {
-			status.setBundleVariants(variantMap);
-			String variantKey = VariantUtils.getVariantKey(variantMap);
-			String name = VariantUtils.getVariantBundleName(bundle.getId(), variantKey, false);
-			store = joinAndPostprocessBundle(bundle, variantMap, status);
-			storeBundle(name, store);
-			initBundleDataHashcode(bundle, store, variantKey);
+			if (isLazyVariant(bundle, variantMap, status)) {
+				registerLazyVariant(bundle, variantMap);
+			} else {
+				joinAndPostProcessVariant(bundle, variantMap, status);
+			}
 		}
 	}
 
@@ -1323,8 +1970,10 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 		JoinableResourceBundleContent bundleContent = new JoinableResourceBundleContent();
 
-		StringBuffer bundleData = new StringBuffer();
+		// The processed members are joined without being copied
+		ChunkedCharSequence bundleData = new ChunkedCharSequence();
 		StringBuffer store = null;
+		status.clearJoinedMembers();
 
 		try {
 
@@ -1341,7 +1990,6 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 				// File is first created in memory using a stringwriter.
 				StringWriter writer = new StringWriter();
-				BufferedWriter bwriter = new BufferedWriter(writer);
 
 				String path = (String) it.next().getPath();
 				if (LOGGER.isDebugEnabled())
@@ -1361,29 +2009,37 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 
 				// Update the status.
 				status.setLastPathAdded(path);
+				status.setMemberPath(path);
 
-				rd = new UnicodeBOMReader(rd, config.getResourceCharset());
+				rd = getUnicodeBOMReader(rd);
 				if (!firstPath && ((UnicodeBOMReader) rd).hasBOM()) {
 					((UnicodeBOMReader) rd).skipBOM();
 				} else {
 					firstPath = false;
 				}
 
-				IOUtils.copy(rd, bwriter, true);
+				IOUtils.copy(rd, writer, true);
 
 				// Add new line at the end if it doesn't exist
 				StringBuffer buffer = writer.getBuffer();
 
-				if (!buffer.toString().endsWith(StringUtils.STR_LINE_FEED)) {
+				if (!StringUtils.endsWith(buffer, StringUtils.STR_LINE_FEED)) {
 					buffer.append(StringUtils.STR_LINE_FEED);
 				}
 
 				// Do unitary postprocessing.
 				status.setProcessingType(BundleProcessingStatus.FILE_PROCESSING_TYPE);
-				bundleData.append(executeUnitaryPostProcessing(bundle, status, buffer, this.unitaryPostProcessor));
+				StringBuffer memberData = executeUnitaryPostProcessing(bundle, status, buffer,
+						this.unitaryPostProcessor);
+				// The members are recorded, so the bundle minifier doesn't
+				// minify again the members already minified
+				status.addJoinedMember(memberData, path);
+				bundleData.append(memberData);
 			}
 
 			// Post process bundle as needed
+			// The joined content is not copied for the post processors which
+			// process a CharSequence
 			store = executeBundlePostProcessing(bundle, status, bundleData);
 
 		} catch (IOException e) {
@@ -1395,6 +2051,24 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		return bundleContent;
 	}
 
+	/**
+	 * Returns the BOM aware reader on the resource
+	 * 
+	 * @param rd
+	 *            the reader on the resource
+	 * @return the BOM aware reader on the resource
+	 * @throws IOException
+	 *             if an IO exception occurs while detecting the BOM
+	 */
+	private UnicodeBOMReader getUnicodeBOMReader(Reader rd) throws IOException {
+
+		// Reuse the BOM detected on the raw bytes if there is one
+		if (rd instanceof DecodedResourceReader && ((DecodedResourceReader) rd).getBOM() != null) {
+			return new UnicodeBOMReader(rd, config.getResourceCharset(), ((DecodedResourceReader) rd).getBOM());
+		}
+		return new UnicodeBOMReader(rd, config.getResourceCharset());
+	}
+
 	/**
 	 * Executes the unitary resource post processing
 	 * 
@@ -1409,20 +2083,15 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	private StringBuffer executeUnitaryPostProcessing(JoinableResourceBundle bundle, BundleProcessingStatus status,
 			StringBuffer content, ResourceBundlePostProcessor defaultPostProcessor) {
 
-		StringBuffer bundleData = new StringBuffer();
+		StringBuffer bundleData = content;
 		status.setProcessingType(BundleProcessingStatus.FILE_PROCESSING_TYPE);
 		if (null != bundle.getUnitaryPostProcessor()) {
-			StringBuffer resourceData = bundle.getUnitaryPostProcessor().postProcessBundle(status, content);
-			bundleData.append(resourceData);
+			bundleData = bundle.getUnitaryPostProcessor().postProcessBundle(status, content);
 		} else if (null != defaultPostProcessor) {
 			if (LOGGER.isDebugEnabled())
 				LOGGER.debug("POSTPROCESSING UNIT:" + status.getLastPathAdded());
-			StringBuffer resourceData = defaultPostProcessor.postProcessBundle(status, content);
-			bundleData.append(resourceData);
-		} else {
-			bundleData = content;
+			bundleData = defaultPostProcessor.postProcessBundle(status, content);
 		}
-
 		return bundleData;
 	}
 
@@ -1438,18 +2107,20 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 	 * @return the processed content
 	 */
 	private StringBuffer executeBundlePostProcessing(JoinableResourceBundle bundle, BundleProcessingStatus status,
-			StringBuffer bundleData) {
+			CharSequence bundleData) {
 
-		StringBuffer store;
+		CharSequence store;
 		status.setProcessingType(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE);
 		status.setLastPathAdded(bundle.getId());
+		status.setMemberPath(null);
 		if (null != bundle.getBundlePostProcessor())
-			store = bundle.getBundlePostProcessor().postProcessBundle(status, bundleData);
+			store = CharSequencePostProcessorAdapter.adapt(bundle.getBundlePostProcessor()).postProcess(status,
+					bundleData);
 		else if (null != this.postProcessor)
-			store = this.postProcessor.postProcessBundle(status, bundleData);
+			store = CharSequencePostProcessorAdapter.adapt(this.postProcessor).postProcess(status, bundleData);
 		else
 			store = bundleData;
-		return store;
+		return CharSequencePostProcessorAdapter.toStringBuffer(store);
 	}
 
 	/*
@@ -1585,4 +2256,29 @@ public class ResourceBundlesHandlerImpl implements ResourceBundlesHandler {
 		this.lifeCycleListeners.addAll(listeners);
 	}
 
+	/**
+	 * This class defines a bundle variant which is generated on its first
+	 * request
+	 */
+	private static class LazyVariant {
+
+		/** The bundle */
+		private final JoinableResourceBundle bundle;
+
+		/** The variant map */
+		private final Map<String, String> variants;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param bundle
+		 *            the bundle
+		 * @param variants
+		 *            the variant map
+		 */
+		private LazyVariant(JoinableResourceBundle bundle, Map<String, String> variants) {
+			this.bundle = bundle;
+			this.variants = variants;
+		}
+	}
 }
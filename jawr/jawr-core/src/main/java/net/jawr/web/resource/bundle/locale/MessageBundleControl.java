@@ -26,6 +26,8 @@ import java.security.PrivilegedExceptionAction;
 import java.util.Locale;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.jawr.web.resource.bundle.IOUtils;
 
@@ -42,6 +44,12 @@ public class MessageBundleControl extends ResourceBundle.Control {
 	/** The charset */
 	private final Charset charset;
 
+	/** The bundles loaded since the start of the caching, by format and name */
+	private final ConcurrentMap<String, ResourceBundle> loadedBundles = new ConcurrentHashMap<>();
+
+	/** The flag indicating if the loaded bundles are cached */
+	private volatile boolean cacheBundles;
+
 	/**
 	 * Constructor
 	 * 
@@ -88,6 +96,15 @@ public class MessageBundleControl extends ResourceBundle.Control {
 			throws IllegalAccessException, InstantiationException, IOException {
 
 		String bundleName = toBundleName(baseName, locale);
+		String cacheKey = null;
+		if (cacheBundles) {
+			cacheKey = format + ":" + bundleName;
+			ResourceBundle cachedBundle = loadedBundles.get(cacheKey);
+			if (cachedBundle != null) {
+				return cachedBundle;
+			}
+		}
+
 		ResourceBundle bundle = null;
 		if (format.equals("java.class")) {
 			try {
@@ -147,9 +164,35 @@ public class MessageBundleControl extends ResourceBundle.Control {
 		} else {
 			throw new IllegalArgumentException("unknown format: " + format);
 		}
+
+		if (cacheKey != null && bundle != null) {
+			ResourceBundle existing = loadedBundles.putIfAbsent(cacheKey, bundle);
+			if (existing != null) {
+				bundle = existing;
+			}
+		}
 		return bundle;
 	}
 
+	/**
+	 * Starts caching the loaded bundles. Until the caching is stopped, each
+	 * bundle is only loaded once, and it is shared by all the bundles which
+	 * have it in their parent chain. So a message bundle used as fallback by
+	 * several locales is only parsed once.
+	 */
+	public void startCaching() {
+		loadedBundles.clear();
+		cacheBundles = true;
+	}
+
+	/**
+	 * Stops caching the loaded bundles, and discards the cached bundles
+	 */
+	public void stopCaching() {
+		cacheBundles = false;
+		loadedBundles.clear();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -16,6 +16,7 @@ package net.jawr.web.resource.bundle.locale;
 import static net.jawr.web.JawrConstant.JAWR_LOCALE_GENERATOR_ADD_QUOTE_TO_MSG_KEY;
 import static net.jawr.web.JawrConstant.JAWR_LOCALE_GENERATOR_FALLBACK_TO_SYSTEM_LOCALE;
 import static net.jawr.web.JawrConstant.JAWR_LOCALE_GENERATOR_RESOURCE_BUNDLE_CHARSET;
+import static net.jawr.web.JawrConstant.JAWR_LOCALE_GENERATOR_THREADS;
 
 import java.io.File;
 import java.io.FileFilter;
@@ -23,14 +24,26 @@ import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import net.jawr.web.JawrConstant;
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.resource.FileNameUtils;
@@ -65,6 +78,9 @@ import net.jawr.web.util.StringUtils;
 public class ResourceBundleMessagesGenerator extends AbstractJavascriptGenerator
 		implements VariantResourceGenerator, PathMappingProvider {
 
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResourceBundleMessagesGenerator.class);
+
 	/** The resource bundle separator in path mapping */
 	private static final String RESOURCE_BUNDLE_SEPARATOR = "\\|";
 
@@ -92,6 +108,34 @@ public class ResourceBundleMessagesGenerator extends AbstractJavascriptGenerator
 	/** The message bundle control */
 	protected MessageBundleControl control;
 
+	/**
+	 * The cache of the resource bundle file paths, by resource bundle path.
+	 * The empty string is used for the resource bundles which are not found.
+	 */
+	private final Map<String, String> cachedResourceBundleFilePaths = new ConcurrentHashMap<>();
+
+	/**
+	 * The serialized messages generated during the bundling process, by
+	 * resource path, filter and locale
+	 */
+	private final ConcurrentMap<String, String> cachedMessages = new ConcurrentHashMap<>();
+
+	/**
+	 * The resource paths and filters whose locale variants have been generated
+	 * during the bundling process
+	 */
+	private final Set<String> generatedLocaleVariants = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/** The number of threads used to generate the locale variants */
+	private int nbThreads;
+
+	/** The executor used to generate the locale variants */
+	private ExecutorService executor;
+
+	/** The flag indicating if the bundling process is running */
+	private volatile boolean processingBundle;
+
 	/**
 	 * Constructor
 	 */
@@ -110,6 +154,37 @@ public class ResourceBundleMessagesGenerator extends AbstractJavascriptGenerator
 	public void beforeBundlingProcess() {
 		super.beforeBundlingProcess();
 		cachedAvailableLocalePerResource.clear();
+		cachedResourceBundleFilePaths.clear();
+		cachedMessages.clear();
+		generatedLocaleVariants.clear();
+		if (control != null) {
+			control.startCaching();
+		}
+		processingBundle = true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.generator.AbstractCachedGenerator#
+	 * afterBundlingProcess()
+	 */
+	@Override
+	public void afterBundlingProcess() {
+		processingBundle = false;
+		if (control != null) {
+			control.stopCaching();
+		}
+		cachedResourceBundleFilePaths.clear();
+		cachedMessages.clear();
+		generatedLocaleVariants.clear();
+		synchronized (this) {
+			if (executor != null) {
+				executor.shutdown();
+				executor = null;
+			}
+		}
+		super.afterBundlingProcess();
 	}
 
 	/*
@@ -132,6 +207,12 @@ public class ResourceBundleMessagesGenerator extends AbstractJavascriptGenerator
 		Charset charset = Charset.forName(charsetName);
 
 		control = new MessageBundleControl(fallbackToSystemLocale, charset);
+
+		nbThreads = Runtime.getRuntime().availableProcessors();
+		String value = config.getProperty(JAWR_LOCALE_GENERATOR_THREADS);
+		if (StringUtils.isNotEmpty(value)) {
+			nbThreads = Integer.parseInt(value.trim());
+		}
 	}
 
 	/*
@@ -158,7 +239,139 @@ public class ResourceBundleMessagesGenerator extends AbstractJavascriptGenerator
 
 		MessageBundleScriptCreator creator = new MessageBundleScriptCreator(context, control);
 		addLinkedResources(path, context);
-		return creator.createScript(context.getCharset());
+		if (!processingBundle || !context.isProcessingBundle()) {
+			return creator.createScript(context.getCharset());
+		}
+
+		return creator.createScriptFromMessages(getMessages(path, context, creator));
+	}
+
+	/**
+	 * Returns the serialized messages for the locale of the context. During
+	 * the bundling process, the serialized messages are shared by the
+	 * resources using the same message bundles and filters, whatever their
+	 * namespace. The first time a message bundle is requested, the messages
+	 * of all its available locales are generated in parallel.
+	 * 
+	 * @param path
+	 *            the resource path
+	 * @param context
+	 *            the generator context
+	 * @param creator
+	 *            the message bundle script creator
+	 * @return the serialized messages
+	 */
+	protected String getMessages(String path, GeneratorContext context, MessageBundleScriptCreator creator) {
+
+		String messagesPrefix = path + "[" + (context.getBracketsParam() == null ? "" : context.getBracketsParam()) + "]@";
+		Locale locale = context.getLocale() == null ? control.getFallbackLocale() : context.getLocale();
+		String messagesKey = messagesPrefix + locale;
+		String messages = cachedMessages.get(messagesKey);
+		if (messages == null) {
+			if (nbThreads > 1 && generatedLocaleVariants.add(messagesPrefix)) {
+				generateLocaleVariants(path, messagesPrefix, creator, context.getCharset());
+				messages = cachedMessages.get(messagesKey);
+			}
+			if (messages == null) {
+				messages = creator.createMessages(context.getCharset(), locale);
+				cachedMessages.put(messagesKey, messages);
+			}
+		}
+		return messages;
+	}
+
+	/**
+	 * Generates in parallel the serialized messages of all the available
+	 * locales of a message bundle. If the generation fails for a locale, the
+	 * messages will be generated again when the locale is requested, so the
+	 * error is reported for the right variant.
+	 * 
+	 * @param path
+	 *            the resource path
+	 * @param messagesPrefix
+	 *            the prefix of the serialized messages key
+	 * @param creator
+	 *            the message bundle script creator
+	 * @param charset
+	 *            the charset
+	 */
+	private void generateLocaleVariants(String path, final String messagesPrefix,
+			final MessageBundleScriptCreator creator, final Charset charset) {
+
+		List<String> localeVariants = getAvailableLocales(path);
+		if (localeVariants.size() < 2) {
+			return;
+		}
+
+		ExecutorService executorService = getExecutor();
+		List<Future<?>> futures = new ArrayList<>();
+		for (String localeVariant : localeVariants) {
+			final Locale locale = toLocale(localeVariant);
+			futures.add(executorService.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					cachedMessages.putIfAbsent(messagesPrefix + locale, creator.createMessages(charset, locale));
+				}
+			}));
+		}
+
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Unable to generate a locale variant of '" + path + "'", e.getCause());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new BundlingProcessException("Interrupted while generating the locale variants of " + path, e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the executor used to generate the locale variants
+	 * 
+	 * @return the executor used to generate the locale variants
+	 */
+	private synchronized ExecutorService getExecutor() {
+
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+
+				/** The thread counter */
+				private final AtomicInteger counter = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "jawr-locale-generator-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Returns the locale of a locale variant
+	 * 
+	 * @param localeVariant
+	 *            the locale variant
+	 * @return the locale
+	 */
+	private Locale toLocale(String localeVariant) {
+
+		String[] params = localeVariant.split("_");
+		switch (params.length) {
+		case 3:
+			return new Locale(params[0], params[1], params[2]);
+		case 2:
+			return new Locale(params[0], params[1]);
+		default:
+			return new Locale(localeVariant);
+		}
 	}
 
 	/**
@@ -220,10 +433,8 @@ public class ResourceBundleMessagesGenerator extends AbstractJavascriptGenerator
 			for (Locale locale : locales) {
 
 				String resourceBundlePath = control.toBundleName(resourcePath, locale) + fileSuffix;
-				URL rbURL = LocaleUtils.getResourceBundleURL(resourceBundlePath, context.getServletContext());
-				if (rbURL != null) {
-					File f = FileUtils.urlToFile(rbURL);
-					String fileName = f.getAbsolutePath();
+				String fileName = getResourceBundleFilePath(resourceBundlePath, context);
+				if (fileName != null) {
 					if (StringUtils.isNotEmpty(fileName)) {
 						long lastModified = rsHandler.getLastModified(fileName);
 						FilePathMapping fMapping = new FilePathMapping(fileName, lastModified);
@@ -236,6 +447,30 @@ public class ResourceBundleMessagesGenerator extends AbstractJavascriptGenerator
 		return fMappings;
 	}
 
+	/**
+	 * Returns the file path of a resource bundle. During the bundling process,
+	 * the file paths are cached.
+	 * 
+	 * @param resourceBundlePath
+	 *            the resource bundle path
+	 * @param context
+	 *            the generator context
+	 * @return the file path of the resource bundle, or null if it doesn't
+	 *         exist
+	 */
+	private String getResourceBundleFilePath(String resourceBundlePath, GeneratorContext context) {
+
+		String fileName = processingBundle ? cachedResourceBundleFilePaths.get(resourceBundlePath) : null;
+		if (fileName == null) {
+			URL rbURL = LocaleUtils.getResourceBundleURL(resourceBundlePath, context.getServletContext());
+			fileName = rbURL == null ? "" : FileUtils.urlToFile(rbURL).getAbsolutePath();
+			if (processingBundle) {
+				cachedResourceBundleFilePaths.put(resourceBundlePath, fileName);
+			}
+		}
+		return fileName.isEmpty() ? null : fileName;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
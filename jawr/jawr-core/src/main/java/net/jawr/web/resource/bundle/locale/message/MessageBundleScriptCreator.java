@@ -163,11 +163,45 @@ public class MessageBundleScriptCreator {
 	 */
 	public Reader createScript(Charset charset) {
 
+		return doCreateScript(loadProperties(charset, getLocaleToApply()));
+	}
+
+	/**
+	 * Creates the serialized messages of the message resource bundles for the
+	 * locale given in parameter. The result only depends on the resource
+	 * bundles, the filters and the locale, so it can be shared by the scripts
+	 * using other namespaces.
+	 * 
+	 * @param charset
+	 *            the charset
+	 * @param locale
+	 *            the locale, or null for the fallback locale
+	 * @return the serialized messages
+	 */
+	public String createMessages(Charset charset, Locale locale) {
+
+		Locale currentLocale = locale == null ? control.getFallbackLocale() : locale;
+		return serializeMessages(loadProperties(charset, currentLocale));
+	}
+
+	/**
+	 * Loads the resource bundles whose names are defined in the configuration
+	 * parameter, for the locale given in parameter, and returns their messages
+	 * which match the filters. This method doesn't create the script, so the
+	 * messages can be serialized once and shared by several namespaces.
+	 * 
+	 * @param charset
+	 *            the charset, which is passed to
+	 *            {@link #updateProperties(ResourceBundle, Properties, Charset)}
+	 * @param currentLocale
+	 *            the locale of the resource bundles to load
+	 * @return the filtered messages of all the resource bundles
+	 */
+	protected Properties loadProperties(Charset charset, Locale currentLocale) {
+
 		String[] names = configParam.split("\\|");
 		Properties props = new Properties();
 
-		Locale currentLocale = getLocaleToApply();
-
 		for (int x = 0; x < names.length; x++) {
 
 			ResourceBundle bundle;
@@ -186,7 +220,7 @@ public class MessageBundleScriptCreator {
 
 			updateProperties(bundle, props, charset);
 		}
-		return doCreateScript(props);
+		return props;
 	}
 
 	/**
@@ -253,9 +287,30 @@ public class MessageBundleScriptCreator {
 	 * @return the JS script from the message properties
 	 */
 	protected Reader doCreateScript(Properties props) {
+		return createScriptFromMessages(serializeMessages(props));
+	}
+
+	/**
+	 * Serializes the message properties to a javascript object literal
+	 * 
+	 * @param props
+	 *            the message properties
+	 * @return the serialized messages
+	 */
+	protected String serializeMessages(Properties props) {
 		BundleStringJsonifier bsj = new BundleStringJsonifier(props, addQuoteToMessageKey);
+		return bsj.serializeBundles().toString();
+	}
+
+	/**
+	 * Returns the JS script from the serialized messages
+	 * 
+	 * @param messages
+	 *            the serialized messages
+	 * @return the JS script
+	 */
+	public Reader createScriptFromMessages(String messages) {
 		String script = template.toString();
-		String messages = bsj.serializeBundles().toString();
 		script = script.replaceFirst("@namespace", RegexUtil.adaptReplacementToMatcher(namespace));
 		script = script.replaceFirst("@messages", RegexUtil.adaptReplacementToMatcher(messages));
 
@@ -27,6 +27,9 @@ public class FilePathMapping extends PathMapping {
 	/** The last modified date of the file */
 	private long lastModified;
 
+	/** The hash of the file content, which may be null */
+	private String contentHash;
+
 	/**
 	 * Constructor
 	 * 
@@ -81,6 +84,26 @@ public class FilePathMapping extends PathMapping {
 		this.lastModified = lastModified;
 	}
 
+	/**
+	 * Returns the hash of the file content, or null if it has not been
+	 * computed
+	 * 
+	 * @return the hash of the file content
+	 */
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	/**
+	 * Sets the hash of the file content
+	 * 
+	 * @param contentHash
+	 *            the hash of the file content
+	 */
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
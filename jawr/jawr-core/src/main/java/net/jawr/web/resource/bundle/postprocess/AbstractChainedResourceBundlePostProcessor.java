@@ -15,7 +15,10 @@ package net.jawr.web.resource.bundle.postprocess;
 
 import java.io.IOException;
 
+import net.jawr.web.JawrConstant;
 import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.util.ChunkedCharSequence;
+import net.jawr.web.util.StringUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,14 +27,31 @@ import org.slf4j.LoggerFactory;
  * Chained abstract implementation of ResourceBundlePostProcessor.
  * Implementations can be used as a processing chain.
  * 
+ * The consecutive CSS post processors of a chain, which provide a CSS token
+ * visitor, share the same token stream, so the content is only tokenized and
+ * serialized once. This token path is not used for a post processor whose
+ * class overrides <code>postProcessBundle</code>,
+ * <code>processContent</code> or <code>doPostProcessBundle</code> below the
+ * class providing the visitor, so the overridden behavior is never bypassed.
+ * 
+ * The post processors which override <code>doPostProcessCharSequence</code>
+ * process a {@link CharSequence}, like the joined members of a bundle, without
+ * copying it into a {@link StringBuffer} first. The same rule applies : this
+ * path is not used if the other content processing methods are overridden
+ * below the class overriding <code>doPostProcessCharSequence</code>.
+ * 
  * @author Jordi Hernández Sellés
  * @author Ibrahim Chaehoi
  */
-public abstract class AbstractChainedResourceBundlePostProcessor implements ChainedResourceBundlePostProcessor {
+public abstract class AbstractChainedResourceBundlePostProcessor
+		implements ChainedResourceBundlePostProcessor, CharSequencePostProcessor {
 
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractChainedResourceBundlePostProcessor.class);
 
+	/** The performance processing logger */
+	private static final Logger PERF_LOGGER = LoggerFactory.getLogger(JawrConstant.PERF_PROCESSING_LOGGER);
+
 	/** The next post processor */
 	protected ChainedResourceBundlePostProcessor nextProcessor;
 
@@ -44,6 +64,23 @@ public abstract class AbstractChainedResourceBundlePostProcessor implements Chai
 	/** The ID of the chained bundle post processor */
 	private final String id;
 
+	/** The policy which detects the members already minified */
+	private MinifiedResourcePolicy minifiedResourcePolicy;
+
+	/**
+	 * The flag indicating if the content processing methods are overridden
+	 * below the class providing the CSS token visitor, or null if it has not
+	 * been checked yet
+	 */
+	private volatile Boolean contentProcessingOverridden;
+
+	/**
+	 * The flag indicating if the post processor processes a
+	 * {@link CharSequence} without copying it, or null if it has not been
+	 * checked yet
+	 */
+	private volatile Boolean charSequenceProcessing;
+
 	/**
 	 * Constructor
 	 * 
@@ -89,11 +126,16 @@ public abstract class AbstractChainedResourceBundlePostProcessor implements Chai
 	 */
 	@Override
 	public StringBuffer postProcessBundle(BundleProcessingStatus status, StringBuffer bundleData) {
+
+		if (isProcessingCssTokens()) {
+			return postProcessTokens(status, new CssTokenStream(bundleData));
+		}
+
 		StringBuffer processedBundle = null;
 		try {
 			if (LOGGER.isDebugEnabled())
 				LOGGER.debug("postprocessing bundle:" + status.getCurrentBundle().getId());
-			processedBundle = doPostProcessBundle(status, bundleData);
+			processedBundle = processContent(status, bundleData);
 		} catch (IOException e) {
 			throw new BundlingProcessException("Unexpected IOException during execution of a postprocessor.", e);
 		}
@@ -103,6 +145,348 @@ public abstract class AbstractChainedResourceBundlePostProcessor implements Chai
 		return processedBundle;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.CharSequencePostProcessor#
+	 * postProcess(net.jawr.web.resource.bundle.postprocess.
+	 * BundleProcessingStatus, java.lang.CharSequence)
+	 */
+	@Override
+	public CharSequence postProcess(BundleProcessingStatus status, CharSequence content) {
+
+		if (content instanceof StringBuffer) {
+			return postProcessBundle(status, (StringBuffer) content);
+		}
+		if (isProcessingCssTokens()) {
+			return postProcessTokens(status, new CssTokenStream(content));
+		}
+		if (!isProcessingCharSequence(status)) {
+			return postProcessBundle(status, CharSequencePostProcessorAdapter.toStringBuffer(content));
+		}
+
+		CharSequence processedContent = null;
+		try {
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("postprocessing bundle:" + status.getCurrentBundle().getId());
+			processedContent = processCharSequence(status, content);
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unexpected IOException during execution of a postprocessor.", e);
+		}
+		if (null != nextProcessor) {
+			processedContent = CharSequencePostProcessorAdapter.adapt(nextProcessor).postProcess(status,
+					processedContent);
+		}
+		return processedContent;
+	}
+
+	/**
+	 * Postprocess the tokens of a CSS token stream in the context of this
+	 * chain of processors. The tokens are processed by the following token
+	 * visitors of the chain, then the stream is serialized for the next post
+	 * processor.
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param tokens
+	 *            the CSS token stream
+	 * @return the processed content
+	 */
+	protected StringBuffer postProcessTokens(BundleProcessingStatus status, CssTokenStream tokens) {
+
+		try {
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("postprocessing bundle tokens:" + status.getCurrentBundle().getId());
+			getCssTokenVisitor().visitTokens(status, tokens);
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unexpected IOException during execution of a postprocessor.", e);
+		}
+
+		if (nextProcessor instanceof AbstractChainedResourceBundlePostProcessor
+				&& ((AbstractChainedResourceBundlePostProcessor) nextProcessor).isProcessingCssTokens()) {
+			return ((AbstractChainedResourceBundlePostProcessor) nextProcessor).postProcessTokens(status, tokens);
+		}
+
+		StringBuffer processedBundle = tokens.toStringBuffer();
+		if (null != nextProcessor) {
+			processedBundle = nextProcessor.postProcessBundle(status, processedBundle);
+		}
+		return processedBundle;
+	}
+
+	/**
+	 * Returns the visitor which processes the tokens of the CSS content for
+	 * this post processor, or null if the post processor processes the whole
+	 * content. The visitor is ignored if a subclass of the class providing it
+	 * overrides the content processing methods.
+	 * 
+	 * @return the CSS token visitor, or null
+	 */
+	protected CssTokenVisitor getCssTokenVisitor() {
+		return null;
+	}
+
+	/**
+	 * Checks if the post processor processes the tokens of the CSS content
+	 * with its visitor
+	 * 
+	 * @return true if the post processor processes the CSS tokens
+	 */
+	private boolean isProcessingCssTokens() {
+
+		if (getCssTokenVisitor() == null) {
+			return false;
+		}
+
+		Boolean overridden = contentProcessingOverridden;
+		if (overridden == null) {
+			Class<?> visitorClass = getDeclaringClass("getCssTokenVisitor");
+			overridden = !getDeclaringClass("postProcessBundle", BundleProcessingStatus.class, StringBuffer.class)
+					.isAssignableFrom(visitorClass) || isContentProcessingOverriddenBelow(visitorClass);
+			contentProcessingOverridden = overridden;
+		}
+		return !overridden;
+	}
+
+	/**
+	 * Checks if the post processor processes a {@link CharSequence} without
+	 * copying it. This is the case if it overrides
+	 * <code>doPostProcessCharSequence</code>, unless it is a minifier
+	 * processing a member, or the other content processing methods are
+	 * overridden below the class overriding
+	 * <code>doPostProcessCharSequence</code>.
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return true if the post processor processes a {@link CharSequence}
+	 *         without copying it
+	 */
+	private boolean isProcessingCharSequence(BundleProcessingStatus status) {
+
+		if (isMinifier() && BundleProcessingStatus.FILE_PROCESSING_TYPE.equals(status.getProcessingType())) {
+			return false;
+		}
+
+		Boolean processing = charSequenceProcessing;
+		if (processing == null) {
+			Class<?> processingClass = getDeclaringClass("doPostProcessCharSequence", BundleProcessingStatus.class,
+					CharSequence.class);
+			processing = processingClass != AbstractChainedResourceBundlePostProcessor.class
+					&& getDeclaringClass("postProcessBundle", BundleProcessingStatus.class, StringBuffer.class)
+							.equals(AbstractChainedResourceBundlePostProcessor.class)
+					&& getDeclaringClass("processCharSequence", BundleProcessingStatus.class, CharSequence.class)
+							.isAssignableFrom(getDeclaringClass("processContent", BundleProcessingStatus.class,
+									StringBuffer.class))
+					&& !isContentProcessingOverriddenBelow(processingClass);
+			charSequenceProcessing = processing;
+		}
+		return processing;
+	}
+
+	/**
+	 * Checks if <code>processContent</code> or
+	 * <code>doPostProcessBundle</code> is overridden below the class given in
+	 * parameter
+	 * 
+	 * @param c
+	 *            the class
+	 * @return true if a content processing method is overridden below the
+	 *         class
+	 */
+	private boolean isContentProcessingOverriddenBelow(Class<?> c) {
+
+		return !getDeclaringClass("processContent", BundleProcessingStatus.class, StringBuffer.class)
+				.isAssignableFrom(c)
+				|| !getDeclaringClass("doPostProcessBundle", BundleProcessingStatus.class, StringBuffer.class)
+						.isAssignableFrom(c);
+	}
+
+	/**
+	 * Returns the class which declares the implementation of a method for this
+	 * post processor
+	 * 
+	 * @param methodName
+	 *            the method name
+	 * @param parameterTypes
+	 *            the parameter types
+	 * @return the class which declares the method
+	 */
+	private Class<?> getDeclaringClass(String methodName, Class<?>... parameterTypes) {
+
+		for (Class<?> c = getClass(); c != null; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod(methodName, parameterTypes);
+				return c;
+			} catch (NoSuchMethodException e) {
+				// Check the superclass
+			}
+		}
+		throw new IllegalStateException("The method '" + methodName + "' is not defined in " + getClass());
+	}
+
+	/**
+	 * Returns true if the post processor is a minifier. The minifiers don't
+	 * process the members which are already minified.
+	 * 
+	 * @return true if the post processor is a minifier
+	 */
+	protected boolean isMinifier() {
+		return false;
+	}
+
+	/**
+	 * Postprocess the content, unless the post processor is a minifier and
+	 * the current member is already minified
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param bundleData
+	 *            the bundle data
+	 * @return the processed content
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	protected StringBuffer processContent(BundleProcessingStatus status, StringBuffer bundleData)
+			throws IOException {
+
+		String path = status.getMemberPath();
+		if (!isMinifier() || path == null
+				|| !BundleProcessingStatus.FILE_PROCESSING_TYPE.equals(status.getProcessingType())) {
+			return doPostProcessBundle(status, bundleData);
+		}
+
+		MinifiedResourcePolicy policy = getMinifiedResourcePolicy(status);
+		if (isMinifiedMember(policy, path, bundleData)) {
+			return bundleData;
+		}
+
+		long start = System.nanoTime();
+		StringBuffer result = doPostProcessBundle(status, bundleData);
+		policy.addMinifiedContent(bundleData.length(), System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * Postprocess a content which is not a {@link StringBuffer}. This method
+	 * is the counterpart of {@link #processContent(BundleProcessingStatus, StringBuffer)}
+	 * for the post processors which override
+	 * <code>doPostProcessCharSequence</code>. If the post processor is a
+	 * minifier and the content is made of the joined members of a bundle, the
+	 * members which are already minified are not minified again.
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param content
+	 *            the content
+	 * @return the processed content
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	protected CharSequence processCharSequence(BundleProcessingStatus status, CharSequence content)
+			throws IOException {
+
+		if (!isMinifier() || !(content instanceof ChunkedCharSequence)) {
+			return doPostProcessCharSequence(status, content);
+		}
+
+		MinifiedResourcePolicy policy = getMinifiedResourcePolicy(status);
+		ChunkedCharSequence members = (ChunkedCharSequence) content;
+		ChunkedCharSequence result = null;
+		ChunkedCharSequence membersToMinify = new ChunkedCharSequence();
+		for (int i = 0; i < members.getChunkCount(); i++) {
+			CharSequence member = members.getChunk(i);
+			String path = status.getJoinedMemberPath(member);
+			if (path != null && isMinifiedMember(policy, path, member)) {
+				if (result == null) {
+					result = new ChunkedCharSequence();
+				}
+				if (membersToMinify.length() > 0) {
+					result.append(minify(status, policy, membersToMinify));
+					membersToMinify = new ChunkedCharSequence();
+				}
+				if (result.length() > 0 && !result.endsWith(StringUtils.STR_LINE_FEED)) {
+					result.append(StringUtils.STR_LINE_FEED);
+				}
+				result.append(member);
+			} else {
+				membersToMinify.append(member);
+			}
+		}
+
+		if (result == null) {
+			return minify(status, policy, content);
+		}
+		if (membersToMinify.length() > 0) {
+			result.append(minify(status, policy, membersToMinify));
+		}
+		return result;
+	}
+
+	/**
+	 * Minifies a content and records the time spent
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param policy
+	 *            the policy which detects the members already minified
+	 * @param content
+	 *            the content to minify
+	 * @return the minified content
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private CharSequence minify(BundleProcessingStatus status, MinifiedResourcePolicy policy, CharSequence content)
+			throws IOException {
+
+		long start = System.nanoTime();
+		CharSequence result = doPostProcessCharSequence(status, content);
+		policy.addMinifiedContent(content.length(), System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * Checks if a member is already minified, and records it as skipped if it
+	 * is the case
+	 * 
+	 * @param policy
+	 *            the policy which detects the members already minified
+	 * @param path
+	 *            the path of the member
+	 * @param content
+	 *            the content of the member
+	 * @return true if the member is already minified
+	 */
+	private boolean isMinifiedMember(MinifiedResourcePolicy policy, String path, CharSequence content) {
+
+		if (!policy.isMinified(path, content)) {
+			return false;
+		}
+
+		long savedTime = policy.addSkippedContent(content.length());
+		if (PERF_LOGGER.isDebugEnabled()) {
+			PERF_LOGGER.debug("Minification by '" + id + "' skipped for the minified resource '" + path + "' ("
+					+ content.length() + " chars, about " + (savedTime / 1000000) + " ms saved, "
+					+ (policy.getSavedTime() / 1000000) + " ms saved in total)");
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the policy which detects the members already minified, which is
+	 * created on the first call
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the policy which detects the members already minified
+	 */
+	private synchronized MinifiedResourcePolicy getMinifiedResourcePolicy(BundleProcessingStatus status) {
+
+		if (minifiedResourcePolicy == null) {
+			minifiedResourcePolicy = MinifiedResourcePolicy.create(status.getJawrConfig());
+		}
+		return minifiedResourcePolicy;
+	}
+
 	/**
 	 * Set the next post processor in the chain.
 	 * 
@@ -135,4 +519,24 @@ public abstract class AbstractChainedResourceBundlePostProcessor implements Chai
 	 */
 	protected abstract StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException;
+
+	/**
+	 * Postprocess a content which is not a {@link StringBuffer}, like the
+	 * joined members of a bundle. The post processors override this method to
+	 * process the content without copying it. The default implementation
+	 * copies the content and calls
+	 * {@link #doPostProcessBundle(BundleProcessingStatus, StringBuffer)}.
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param content
+	 *            the content, which must not be modified
+	 * @return the processed content
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	protected CharSequence doPostProcessCharSequence(BundleProcessingStatus status, CharSequence content)
+			throws IOException {
+		return doPostProcessBundle(status, CharSequencePostProcessorAdapter.toStringBuffer(content));
+	}
 }
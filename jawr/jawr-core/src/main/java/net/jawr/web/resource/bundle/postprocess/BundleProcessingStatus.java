@@ -14,6 +14,7 @@
 package net.jawr.web.resource.bundle.postprocess;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import net.jawr.web.config.JawrConfig;
@@ -68,6 +69,12 @@ public class BundleProcessingStatus {
 	/** The processing type (bundle, file) */
 	private String processingType;
 
+	/** The path of the bundle member being processed */
+	private String memberPath;
+
+	/** The paths of the members joined in the bundle content, by content */
+	private Map<CharSequence, String> joinedMemberPaths = new IdentityHashMap<>();
+
 	/**
 	 * Constructor
 	 * 
@@ -104,6 +111,8 @@ public class BundleProcessingStatus {
 		this.dataMap = status.dataMap;
 		this.bundleVariants = status.bundleVariants;
 		this.lastPathAdded = status.lastPathAdded;
+		this.memberPath = status.memberPath;
+		this.joinedMemberPaths = status.joinedMemberPaths;
 		this.searchingPostProcessorVariants = status.searchingPostProcessorVariants;
 	}
 
@@ -145,6 +154,60 @@ public class BundleProcessingStatus {
 		this.lastPathAdded = lastPathAdded;
 	}
 
+	/**
+	 * Returns the path of the bundle member being processed. Unlike the last
+	 * path added, it is null when the processed content is not a bundle
+	 * member, like a bundle or the child bundle of a composite bundle.
+	 * 
+	 * @return the path of the bundle member being processed, or null
+	 */
+	public String getMemberPath() {
+		return memberPath;
+	}
+
+	/**
+	 * Sets the path of the bundle member being processed
+	 * 
+	 * @param memberPath
+	 *            the path to set, or null if the processed content is not a
+	 *            bundle member
+	 */
+	public void setMemberPath(String memberPath) {
+		this.memberPath = memberPath;
+	}
+
+	/**
+	 * Records a member joined in the bundle content
+	 * 
+	 * @param content
+	 *            the processed content of the member, as joined in the bundle
+	 *            content
+	 * @param path
+	 *            the path of the member
+	 */
+	public void addJoinedMember(CharSequence content, String path) {
+		joinedMemberPaths.put(content, path);
+	}
+
+	/**
+	 * Returns the path of a member joined in the bundle content
+	 * 
+	 * @param content
+	 *            the content of the member, as joined in the bundle content
+	 * @return the path of the member, or null if the content is not a joined
+	 *         member
+	 */
+	public String getJoinedMemberPath(CharSequence content) {
+		return joinedMemberPaths.get(content);
+	}
+
+	/**
+	 * Forgets the members joined in the bundle content
+	 */
+	public void clearJoinedMembers() {
+		joinedMemberPaths.clear();
+	}
+
 	/**
 	 * Returns the currently processed bundle.
 	 * 
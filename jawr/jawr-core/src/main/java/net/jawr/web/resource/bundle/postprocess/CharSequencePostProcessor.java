@@ -0,0 +1,40 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess;
+
+/**
+ * Interface for the postprocessors which process the content as a
+ * {@link CharSequence}, so the callers don't have to copy it into a
+ * synchronized {@link StringBuffer}. It is implemented by the chained post
+ * processors, and the other {@link ResourceBundlePostProcessor}
+ * implementations are used through the
+ * {@link CharSequencePostProcessorAdapter}.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public interface CharSequencePostProcessor {
+
+	/**
+	 * Postprocess a bundle of resources. The returned sequence may be the
+	 * given one.
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param content
+	 *            the joined resources
+	 * @return the postprocessed content
+	 */
+	public CharSequence postProcess(BundleProcessingStatus status, CharSequence content);
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess;
+
+import net.jawr.web.util.ChunkedCharSequence;
+
+/**
+ * This class adapts a {@link ResourceBundlePostProcessor} to the
+ * {@link CharSequencePostProcessor} interface. The content is copied into a
+ * {@link StringBuffer} only if it is not already one.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class CharSequencePostProcessorAdapter implements CharSequencePostProcessor {
+
+	/** The adapted post processor */
+	private final ResourceBundlePostProcessor postProcessor;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param postProcessor
+	 *            the post processor to adapt
+	 */
+	public CharSequencePostProcessorAdapter(ResourceBundlePostProcessor postProcessor) {
+		this.postProcessor = postProcessor;
+	}
+
+	/**
+	 * Returns the adapted post processor
+	 * 
+	 * @return the adapted post processor
+	 */
+	public ResourceBundlePostProcessor getPostProcessor() {
+		return postProcessor;
+	}
+
+	/**
+	 * Returns the post processor as a {@link CharSequencePostProcessor}
+	 * 
+	 * @param postProcessor
+	 *            the post processor
+	 * @return the post processor itself if it implements
+	 *         {@link CharSequencePostProcessor}, an adapter otherwise, or null
+	 *         if the post processor is null
+	 */
+	public static CharSequencePostProcessor adapt(ResourceBundlePostProcessor postProcessor) {
+
+		if (postProcessor == null) {
+			return null;
+		}
+		if (postProcessor instanceof CharSequencePostProcessor) {
+			return (CharSequencePostProcessor) postProcessor;
+		}
+		return new CharSequencePostProcessorAdapter(postProcessor);
+	}
+
+	/**
+	 * Returns the content as a {@link StringBuffer}, without copying it if it
+	 * is already one
+	 * 
+	 * @param content
+	 *            the content
+	 * @return the content as a {@link StringBuffer}
+	 */
+	public static StringBuffer toStringBuffer(CharSequence content) {
+
+		if (content instanceof StringBuffer) {
+			return (StringBuffer) content;
+		}
+		if (content instanceof ChunkedCharSequence) {
+			return ((ChunkedCharSequence) content).toStringBuffer();
+		}
+		return new StringBuffer(content);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.CharSequencePostProcessor#
+	 * postProcess(net.jawr.web.resource.bundle.postprocess.
+	 * BundleProcessingStatus, java.lang.CharSequence)
+	 */
+	@Override
+	public CharSequence postProcess(BundleProcessingStatus status, CharSequence content) {
+		return postProcessor.postProcessBundle(status, toStringBuffer(content));
+	}
+}
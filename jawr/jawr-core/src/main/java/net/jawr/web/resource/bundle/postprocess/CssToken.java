@@ -0,0 +1,140 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess;
+
+/**
+ * This class defines a token of a CSS token stream. The token references its
+ * content in the parsed CSS until its value is replaced.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class CssToken {
+
+	/** The token type */
+	private final CssTokenType type;
+
+	/** The parsed CSS */
+	private final String source;
+
+	/** The start of the token in the parsed CSS */
+	private final int start;
+
+	/** The end of the token in the parsed CSS */
+	private final int end;
+
+	/** The value of the token if it has been replaced */
+	private String value;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param type
+	 *            the token type
+	 * @param value
+	 *            the token value
+	 */
+	public CssToken(CssTokenType type, String value) {
+		this(type, value, 0, value.length());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param type
+	 *            the token type
+	 * @param source
+	 *            the parsed CSS
+	 * @param start
+	 *            the start of the token in the parsed CSS
+	 * @param end
+	 *            the end of the token in the parsed CSS
+	 */
+	CssToken(CssTokenType type, String source, int start, int end) {
+		this.type = type;
+		this.source = source;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Returns the token type
+	 * 
+	 * @return the token type
+	 */
+	public CssTokenType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the token value
+	 * 
+	 * @return the token value
+	 */
+	public String getValue() {
+		if (value == null) {
+			value = source.substring(start, end);
+		}
+		return value;
+	}
+
+	/**
+	 * Replaces the token value
+	 * 
+	 * @param value
+	 *            the value to set
+	 */
+	public void setValue(String value) {
+		this.value = value;
+	}
+
+	/**
+	 * Removes the token from the content
+	 */
+	public void remove() {
+		this.value = "";
+	}
+
+	/**
+	 * Returns the length of the token value
+	 * 
+	 * @return the length of the token value
+	 */
+	public int length() {
+		return value == null ? end - start : value.length();
+	}
+
+	/**
+	 * Appends the token value to the buffer
+	 * 
+	 * @param sb
+	 *            the buffer
+	 */
+	void appendTo(StringBuffer sb) {
+		if (value == null) {
+			sb.append(source, start, end);
+		} else {
+			sb.append(value);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return type + ":" + getValue();
+	}
+}
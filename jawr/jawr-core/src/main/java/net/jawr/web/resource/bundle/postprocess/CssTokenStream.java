@@ -0,0 +1,195 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.jawr.web.resource.bundle.css.CssImageUrlRewriter;
+
+/**
+ * This class defines the token stream of a CSS content. The CSS is scanned
+ * once to find the URL functions and the charset declarations, the content
+ * between them being kept as text tokens. The post processors implementing
+ * {@link CssTokenVisitor} update the tokens, and the content is rebuilt once
+ * when the stream is serialized.
+ * 
+ * The tokens are found with the same patterns as the ones used by the
+ * post processors on the whole content, so a visitor produces the same result
+ * as its {@link StringBuffer} based post processing. The text added by a
+ * visitor with {@link #prepend(String)} or {@link #append(String)} is not
+ * tokenized.
+ * 
+ * The content is tokenized on the first call to {@link #getTokens()}, so the
+ * visitors which only add text around the content don't pay for the scan, and
+ * the content is then serialized with a single copy.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class CssTokenStream {
+
+	/** The name of the URL group */
+	private static final String URL_GROUP = "url";
+
+	/** The name of the charset group */
+	private static final String CHARSET_GROUP = "charset";
+
+	/** The pattern of the tokens */
+	private static final Pattern TOKEN_PATTERN = Pattern.compile("(?<" + URL_GROUP + ">(?i:"
+			+ CssImageUrlRewriter.URL_REGEXP + "))|(?<" + CHARSET_GROUP + ">@charset \"(.+)\";)");
+
+	/** The CSS content */
+	private final String source;
+
+	/** The tokens, or null if the content has not been tokenized yet */
+	private List<CssToken> tokens;
+
+	/** The text added at the beginning of the content before tokenization */
+	private final List<String> prefixes = new ArrayList<>();
+
+	/** The text added at the end of the content before tokenization */
+	private final List<String> suffixes = new ArrayList<>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param content
+	 *            the CSS content
+	 */
+	public CssTokenStream(CharSequence content) {
+		this.source = content.toString();
+	}
+
+	/**
+	 * Returns the tokens
+	 * 
+	 * @return the tokens
+	 */
+	public List<CssToken> getTokens() {
+
+		if (tokens == null) {
+			tokens = tokenize();
+			for (int i = prefixes.size() - 1; i >= 0; i--) {
+				tokens.add(0, new CssToken(CssTokenType.TEXT, prefixes.get(i)));
+			}
+			for (String suffix : suffixes) {
+				tokens.add(new CssToken(CssTokenType.TEXT, suffix));
+			}
+			prefixes.clear();
+			suffixes.clear();
+		}
+		return tokens;
+	}
+
+	/**
+	 * Tokenizes the CSS content
+	 * 
+	 * @return the tokens of the CSS content
+	 */
+	private List<CssToken> tokenize() {
+
+		List<CssToken> result = new ArrayList<>();
+		Matcher matcher = TOKEN_PATTERN.matcher(source);
+		int textStart = 0;
+		while (matcher.find()) {
+			if (matcher.start() > textStart) {
+				result.add(new CssToken(CssTokenType.TEXT, source, textStart, matcher.start()));
+			}
+			CssTokenType type = matcher.start(URL_GROUP) != -1 ? CssTokenType.URL : CssTokenType.CHARSET;
+			result.add(new CssToken(type, source, matcher.start(), matcher.end()));
+			textStart = matcher.end();
+		}
+		if (textStart < source.length()) {
+			result.add(new CssToken(CssTokenType.TEXT, source, textStart, source.length()));
+		}
+		return result;
+	}
+
+	/**
+	 * Adds a text at the beginning of the content
+	 * 
+	 * @param text
+	 *            the text to add
+	 */
+	public void prepend(String text) {
+		if (tokens == null) {
+			prefixes.add(0, text);
+		} else {
+			tokens.add(0, new CssToken(CssTokenType.TEXT, text));
+		}
+	}
+
+	/**
+	 * Adds a text at the end of the content
+	 * 
+	 * @param text
+	 *            the text to add
+	 */
+	public void append(String text) {
+		if (tokens == null) {
+			suffixes.add(text);
+		} else {
+			tokens.add(new CssToken(CssTokenType.TEXT, text));
+		}
+	}
+
+	/**
+	 * Serializes the token stream
+	 * 
+	 * @return the CSS content
+	 */
+	public StringBuffer toStringBuffer() {
+
+		if (tokens == null) {
+			int length = source.length();
+			for (String prefix : prefixes) {
+				length += prefix.length();
+			}
+			for (String suffix : suffixes) {
+				length += suffix.length();
+			}
+			StringBuffer sb = new StringBuffer(length);
+			for (String prefix : prefixes) {
+				sb.append(prefix);
+			}
+			sb.append(source);
+			for (String suffix : suffixes) {
+				sb.append(suffix);
+			}
+			return sb;
+		}
+
+		int length = 0;
+		for (CssToken token : tokens) {
+			length += token.length();
+		}
+		StringBuffer sb = new StringBuffer(length);
+		for (CssToken token : tokens) {
+			token.appendTo(sb);
+		}
+		return sb;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return toStringBuffer().toString();
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess;
+
+import java.io.IOException;
+
+/**
+ * The interface of the CSS post processors, which are able to process the
+ * tokens of a CSS token stream instead of the whole content. The consecutive
+ * visitors of a post processor chain share the same token stream, so the CSS
+ * is parsed and serialized only once for all of them.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public interface CssTokenVisitor {
+
+	/**
+	 * Processes the tokens of the CSS token stream
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param tokens
+	 *            the CSS token stream
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	void visitTokens(BundleProcessingStatus status, CssTokenStream tokens) throws IOException;
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.util.StringUtils;
+
+/**
+ * This class defines the policy which detects the bundle members already
+ * minified, like the vendor files "*.min.js" or "*.min.css". The minifiers
+ * don't process these members again.
+ * 
+ * A member is considered as minified if its path matches the pattern of the
+ * minified resources, or if the detection is enabled and its content is
+ * dense : long lines and few whitespaces. Only the beginning of the content is
+ * checked, so the detection is cheap. The detection is disabled by default,
+ * as it may skip hand written members with long lines.
+ * 
+ * The policy also keeps the time spent by the minifier by character, to
+ * estimate the time saved when a member is skipped.
+ * 
+ * This class is thread safe.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class MinifiedResourcePolicy {
+
+	/** The number of characters checked by the detection */
+	private static final int DETECTION_SAMPLE_LENGTH = 8192;
+
+	/** The minimum length of the content checked by the detection */
+	private static final int DETECTION_MIN_LENGTH = 1024;
+
+	/** The minimum average line length of a minified content */
+	private static final int MIN_AVERAGE_LINE_LENGTH = 500;
+
+	/** The maximum whitespace ratio of a minified content */
+	private static final double MAX_WHITESPACE_RATIO = 0.1;
+
+	/** The pattern of the paths of the minified resources, or null */
+	private final Pattern minifiedPathPattern;
+
+	/** The flag indicating if the minified content is detected */
+	private final boolean detection;
+
+	/** The number of characters minified */
+	private final AtomicLong minifiedLength = new AtomicLong();
+
+	/** The time spent to minify, in nanoseconds */
+	private final AtomicLong minificationTime = new AtomicLong();
+
+	/** The estimated time saved, in nanoseconds */
+	private final AtomicLong savedTime = new AtomicLong();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param minifiedPathPattern
+	 *            the regular expression of the paths of the minified
+	 *            resources, or null
+	 * @param detection
+	 *            the flag indicating if the minified content is detected
+	 */
+	public MinifiedResourcePolicy(String minifiedPathPattern, boolean detection) {
+		this.minifiedPathPattern = StringUtils.isNotEmpty(minifiedPathPattern)
+				? Pattern.compile(minifiedPathPattern.trim()) : null;
+		this.detection = detection;
+	}
+
+	/**
+	 * Creates the policy defined in the Jawr config
+	 * 
+	 * @param config
+	 *            the Jawr config, or null to use the default values
+	 * @return the policy
+	 */
+	public static MinifiedResourcePolicy create(JawrConfig config) {
+
+		String pattern = JawrConstant.DEFAULT_MINIFIED_RESOURCES_PATTERN;
+		boolean detection = false;
+		if (config != null) {
+			pattern = config.getProperty(JawrConstant.JAWR_MINIFIED_RESOURCES_PATTERN, pattern);
+			detection = config.getBooleanProperty(JawrConstant.JAWR_MINIFIED_RESOURCES_DETECTION, detection);
+		}
+		return new MinifiedResourcePolicy(pattern, detection);
+	}
+
+	/**
+	 * Checks if a member is already minified
+	 * 
+	 * @param path
+	 *            the path of the member
+	 * @param content
+	 *            the content of the member
+	 * @return true if the member is already minified
+	 */
+	public boolean isMinified(String path, CharSequence content) {
+
+		if (path != null && minifiedPathPattern != null && minifiedPathPattern.matcher(path).matches()) {
+			return true;
+		}
+		return detection && isDense(content);
+	}
+
+	/**
+	 * Checks if the beginning of the content is dense, which means that it
+	 * has long lines and few whitespaces
+	 * 
+	 * @param content
+	 *            the content
+	 * @return true if the content is dense
+	 */
+	private boolean isDense(CharSequence content) {
+
+		if (content.length() < DETECTION_MIN_LENGTH) {
+			return false;
+		}
+		int length = Math.min(content.length(), DETECTION_SAMPLE_LENGTH);
+		int nbLines = 1;
+		int nbWhitespaces = 0;
+		for (int i = 0; i < length; i++) {
+			char c = content.charAt(i);
+			if (c == '\n') {
+				nbLines++;
+			}
+			if (Character.isWhitespace(c)) {
+				nbWhitespaces++;
+			}
+		}
+		return length / nbLines >= MIN_AVERAGE_LINE_LENGTH && nbWhitespaces <= length * MAX_WHITESPACE_RATIO;
+	}
+
+	/**
+	 * Records the minification of a member
+	 * 
+	 * @param length
+	 *            the length of the member
+	 * @param time
+	 *            the time spent to minify the member, in nanoseconds
+	 */
+	public void addMinifiedContent(long length, long time) {
+		minifiedLength.addAndGet(length);
+		minificationTime.addAndGet(time);
+	}
+
+	/**
+	 * Records a member which has not been minified, and returns the estimated
+	 * time saved
+	 * 
+	 * @param length
+	 *            the length of the member
+	 * @return the estimated time saved, in nanoseconds, or 0 if no member has
+	 *         been minified yet
+	 */
+	public long addSkippedContent(long length) {
+
+		long minified = minifiedLength.get();
+		long time = 0;
+		if (minified > 0) {
+			time = (long) (length * ((double) minificationTime.get() / minified));
+		}
+		savedTime.addAndGet(time);
+		return time;
+	}
+
+	/**
+	 * Returns the estimated time saved by the members which have not been
+	 * minified
+	 * 
+	 * @return the estimated time saved, in nanoseconds
+	 */
+	public long getSavedTime() {
+		return savedTime.get();
+	}
+}
@@ -15,12 +15,9 @@ package net.jawr.web.resource.bundle.postprocess.impl;
 
 import java.io.IOException;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.util.ChunkedCharSequence;
 
 /**
  * This class defines the abstract JS postprocessor
@@ -29,9 +26,6 @@ import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
  */
 public abstract class AbstractJsChainedResourceBundlePostProcessor extends AbstractChainedResourceBundlePostProcessor {
 
-	/** The logger */
-	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractChainedResourceBundlePostProcessor.class);
-
 	/**
 	 * Constructor
 	 * 
@@ -45,27 +39,60 @@ public abstract class AbstractJsChainedResourceBundlePostProcessor extends Abstr
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see
-	 * net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor#
-	 * postProcessBundle(java.lang.StringBuffer)
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#processContent(net.jawr.web.
+	 * resource.bundle.postprocess.BundleProcessingStatus,
+	 * java.lang.StringBuffer)
+	 */
+	@Override
+	protected StringBuffer processContent(BundleProcessingStatus status, StringBuffer bundleData)
+			throws IOException {
+		StringBuffer processedBundle = super.processContent(status, bundleData);
+		if (endsWithClosingParenthesis(processedBundle)) {
+			processedBundle.append(";");
+		}
+		return processedBundle;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#processCharSequence(net.jawr.
+	 * web.resource.bundle.postprocess.BundleProcessingStatus,
+	 * java.lang.CharSequence)
 	 */
 	@Override
-	public StringBuffer postProcessBundle(BundleProcessingStatus status, StringBuffer bundleData) {
-		StringBuffer processedBundle = null;
-		try {
-			if (LOGGER.isDebugEnabled())
-				LOGGER.debug("postprocessing bundle:" + status.getCurrentBundle().getId());
-			processedBundle = doPostProcessBundle(status, bundleData);
-			if (processedBundle.toString().trim().endsWith(")")) {
-				processedBundle.append(";");
+	protected CharSequence processCharSequence(BundleProcessingStatus status, CharSequence content)
+			throws IOException {
+		CharSequence processedContent = super.processCharSequence(status, content);
+		if (endsWithClosingParenthesis(processedContent)) {
+			if (processedContent instanceof StringBuffer) {
+				((StringBuffer) processedContent).append(";");
+			} else if (processedContent instanceof ChunkedCharSequence) {
+				((ChunkedCharSequence) processedContent).append(";");
+			} else {
+				processedContent = new ChunkedCharSequence().append(processedContent).append(";");
 			}
-		} catch (IOException e) {
-			throw new BundlingProcessException("Unexpected IOException during execution of a postprocessor.", e);
 		}
-		if (null != nextProcessor) {
-			processedBundle = nextProcessor.postProcessBundle(status, processedBundle);
+		return processedContent;
+	}
+
+	/**
+	 * Checks if the last character of the content, which is not a whitespace,
+	 * is a closing parenthesis
+	 * 
+	 * @param content
+	 *            the content
+	 * @return true if the content ends with a closing parenthesis
+	 */
+	private static boolean endsWithClosingParenthesis(CharSequence content) {
+
+		int i = content.length() - 1;
+		while (i >= 0 && content.charAt(i) <= ' ') {
+			i--;
 		}
-		return processedBundle;
+		return i >= 0 && content.charAt(i) == ')';
 	}
 
 }
@@ -32,6 +32,7 @@ import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEnginePool;
 
 /**
  * This class defines the autoprefixer postprocessor
@@ -63,11 +64,11 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 	/** The default options */
 	public static final String AUTOPREFIXER_DEFAULT_OPTIONS = "{}";
 
-	/** The autoprefixer script options */
-	private Object options;
+	/** The name of the variable holding the autoprefixer options in the engines */
+	private static final String AUTOPREFIXER_OPTIONS_VAR = "jawrAutoPrefixerOptions";
 
-	/** The Rhino engine */
-	private JavascriptEngine jsEngine;
+	/** The JS engine pool */
+	private volatile JavascriptEnginePool jsEnginePool;
 
 	/**
 	 * Constructor
@@ -78,33 +79,50 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 
 	/**
 	 * Initialize the postprocessor
+	 * 
+	 * @param status
+	 *            the bundle processing status
 	 */
-	private void initialize(JawrConfig config) {
+	private synchronized void initialize(BundleProcessingStatus status) {
+
+		if (jsEnginePool != null) {
+			return;
+		}
 
 		StopWatch stopWatch = new StopWatch("Initializing JS engine for Autoprefixer");
 		stopWatch.start();
 
 		// Load JavaScript Script Engine
+		JawrConfig config = status.getJawrConfig();
 		String script = config.getProperty(AUTOPREFIXER_SCRIPT_LOCATION, AUTOPREFIXER_SCRIPT_DEFAULT_LOCATION);
 		String jsEngineName = config.getJavascriptEngineName(AUTOPREFIXER_JS_ENGINE);
-		jsEngine = new JavascriptEngine(jsEngineName, true);
-		jsEngine.getBindings().put("logger", LOGGER);
-		try(InputStream inputStream = getResourceInputStream(config, script)){
-			jsEngine.evaluate("autoprefixer.js", inputStream);
-		} catch (IOException e) {
-			throw new BundlingProcessException(e);
+		JavascriptEnginePool pool = new JavascriptEnginePool(jsEngineName, true,
+				config.getJavascriptEnginePoolSize());
+		if (status.getRsReader() != null) {
+			pool.setScriptClassCache(status.getRsReader().getWorkingDirectory(),
+					config.getJavascriptEngineOptimizationLevel());
 		}
+		pool.putBinding("logger", LOGGER);
+		pool.addScript("autoprefixer.js", getResourceInputStream(config, script));
 		String strOptions = config.getProperty(AUTOPREFIXER_SCRIPT_OPTIONS, AUTOPREFIXER_DEFAULT_OPTIONS);
-		this.options = jsEngine.execEval(strOptions);
-
-		jsEngine.evaluate("initAutoPrefixer.js", String.format("if(logger.isDebugEnabled()){ logger.debug('Autoprefixer config : '+autoprefixer(%s).info());}", strOptions));
-		jsEngine.evaluate("jawrAutoPrefixerProcess.js",
+		pool.addScript("autoprefixerOptions.js", "var " + AUTOPREFIXER_OPTIONS_VAR + " = eval(" + strOptions + ");");
+		pool.addScript("jawrAutoPrefixerProcess.js",
 				"function process(cssSource, opts){\n"
 				+ "var result = autoprefixer.process.apply(autoprefixer, [cssSource, opts]);\n"
 				+ "if(result.warnings){\n" + "result.warnings().forEach(function(message){\n"
 				+ "if(logger.isWarnEnabled()){\n" + "logger.warn(message.toString());\n" + "}\n" + "});}\n"
 				+ "return result.css;\n" + "}");
-        
+
+		// Initialize the first engine, and log the configuration once
+		JavascriptEngine jsEngine = pool.acquire();
+		try {
+			jsEngine.evaluate("initAutoPrefixer.js", String.format(
+					"if(logger.isDebugEnabled()){ logger.debug('Autoprefixer config : '+autoprefixer(%s).info());}",
+					strOptions));
+		} finally {
+			pool.release(jsEngine);
+		}
+		jsEnginePool = pool;
 
 		stopWatch.stop();
 		if (PERF_LOGGER.isDebugEnabled()) {
@@ -147,8 +165,8 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
 
-		if (jsEngine == null) {
-			initialize(status.getJawrConfig());
+		if (jsEnginePool == null) {
+			initialize(status);
 		}
 
 		StopWatch stopWatch = new StopWatch();
@@ -156,11 +174,15 @@ public class AutoPrefixerPostProcessor extends AbstractChainedResourceBundlePost
 
 		String cssSource = bundleData.toString();
 		String res = null;
+		JavascriptEngine jsEngine = jsEnginePool.acquire();
 		try {
+			Object options = jsEngine.getContext().getAttribute(AUTOPREFIXER_OPTIONS_VAR);
 			res = (String) jsEngine.invokeFunction("process", cssSource, options);
 
 		} catch (NoSuchMethodException | ScriptException e) {
 			throw new BundlingProcessException(e);
+		} finally {
+			jsEnginePool.release(jsEngine);
 		}
 
 		stopWatch.stop();
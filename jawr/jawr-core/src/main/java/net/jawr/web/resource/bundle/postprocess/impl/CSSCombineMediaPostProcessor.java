@@ -18,6 +18,8 @@ import java.io.IOException;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CssTokenStream;
+import net.jawr.web.resource.bundle.postprocess.CssTokenVisitor;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 import net.jawr.web.util.StringUtils;
 
@@ -31,10 +33,14 @@ import org.slf4j.LoggerFactory;
  * 
  * Information about css media types: http://www.w3.org/TR/CSS21/media.html
  * 
+ * The post processor only adds text around the content, so the content is
+ * copied once and never scanned.
+ * 
  * @author Gerben Jorna
  * @author Ibrahim Chaehoi
  */
-public class CSSCombineMediaPostProcessor extends AbstractChainedResourceBundlePostProcessor {
+public class CSSCombineMediaPostProcessor extends AbstractChainedResourceBundlePostProcessor
+		implements CssTokenVisitor {
 
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(CSSCombineMediaPostProcessor.class);
@@ -48,6 +54,10 @@ public class CSSCombineMediaPostProcessor extends AbstractChainedResourceBundleP
 	/** The media rule end */
 	protected static final String CSS_MEDIA_RULE_CLOSE = "}";
 
+	/** The end of the media block */
+	private static final String CSS_MEDIA_BLOCK_END = CSS_MEDIA_RULE_CLOSE + StringUtils.STR_LINE_FEED
+			+ StringUtils.STR_LINE_FEED;
+
 	/**
 	 * Constructor
 	 */
@@ -66,6 +76,50 @@ public class CSSCombineMediaPostProcessor extends AbstractChainedResourceBundleP
 	@Override
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
+
+		String mediaBlockStart = getMediaBlockStart(status);
+		StringBuffer sb = new StringBuffer(
+				mediaBlockStart.length() + bundleData.length() + CSS_MEDIA_BLOCK_END.length());
+		sb.append(mediaBlockStart).append(bundleData).append(CSS_MEDIA_BLOCK_END);
+		LOGGER.info("Postprocessing finished");
+		return sb;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#getCssTokenVisitor()
+	 */
+	@Override
+	protected CssTokenVisitor getCssTokenVisitor() {
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.postprocess.CssTokenVisitor#visitTokens(net.
+	 * jawr.web.resource.bundle.postprocess.BundleProcessingStatus,
+	 * net.jawr.web.resource.bundle.postprocess.CssTokenStream)
+	 */
+	@Override
+	public void visitTokens(BundleProcessingStatus status, CssTokenStream tokens) throws IOException {
+
+		tokens.prepend(getMediaBlockStart(status));
+		tokens.append(CSS_MEDIA_BLOCK_END);
+		LOGGER.info("Postprocessing finished");
+	}
+
+	/**
+	 * Returns the start of the media block of the bundle
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the start of the media block
+	 */
+	private String getMediaBlockStart(BundleProcessingStatus status) {
 		LOGGER.info("Post processing file '" + status.getLastPathAdded() + "'");
 
 		String bundleMediaTypePropertyName = "jawr.css.bundle." + status.getCurrentBundle().getName() + ".media";
@@ -78,12 +132,6 @@ public class CSSCombineMediaPostProcessor extends AbstractChainedResourceBundleP
 
 		LOGGER.info("bundle media type: " + bundleMediaType);
 
-		StringBuffer sb = new StringBuffer(
-				CSS_MEDIA_RULE + " " + bundleMediaType + " " + CSS_MEDIA_RULE_OPEN + StringUtils.STR_LINE_FEED);
-		sb.append(bundleData);
-		sb.append(CSS_MEDIA_RULE_CLOSE + StringUtils.STR_LINE_FEED + StringUtils.STR_LINE_FEED);
-
-		LOGGER.info("Postprocessing finished");
-		return sb;
+		return CSS_MEDIA_RULE + " " + bundleMediaType + " " + CSS_MEDIA_RULE_OPEN + StringUtils.STR_LINE_FEED;
 	}
 }
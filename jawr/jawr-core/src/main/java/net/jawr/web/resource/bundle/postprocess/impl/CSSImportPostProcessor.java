@@ -13,38 +13,66 @@
  */
 package net.jawr.web.resource.bundle.postprocess.impl;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.BinaryResourcesHandler;
 import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.css.CssImageUrlRewriter;
 import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.factory.util.RegexUtil;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
 import net.jawr.web.resource.bundle.generator.ResourceGenerator;
 import net.jawr.web.resource.bundle.generator.resolver.SuffixedPathResolver;
+import net.jawr.web.resource.bundle.mappings.FilePathMapping;
 import net.jawr.web.resource.bundle.mappings.FilePathMappingUtils;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
+import net.jawr.web.util.LRUCache;
 import net.jawr.web.util.StringUtils;
 
 /**
  * This class defines the Post processor which handle the inclusion of the CSS
  * define with @import statement
  * 
+ * The imports of the imported CSS are included recursively. A CSS which is
+ * imported several times with the same media is included only once, and an
+ * import which leads back to a CSS being imported is ignored.
+ * 
+ * The imported CSS files, whose image URLs are rewritten for the importing
+ * CSS, are kept in a bounded cache shared by all the bundles and variants
+ * processed by the post processor. An entry is used as long as the last
+ * modification date of its file doesn't change, so only the resources backed
+ * by a file are cached. When the total size of the entries exceeds the limit,
+ * the least recently used entries are discarded. The imported files are
+ * registered as linked resources of the bundle, so the bundle is rebuilt when
+ * one of them changes.
+ * 
  * @author Ibrahim Chaehoi
  * 
  */
 public class CSSImportPostProcessor extends AbstractChainedResourceBundlePostProcessor {
 
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(CSSImportPostProcessor.class);
+
 	/** The url pattern */
 	private static final Pattern IMPORT_PATTERN = Pattern.compile(
 			"@import\\s*url\\(\\s*" // 'url(' and any number of whitespaces
@@ -58,6 +86,21 @@ public class CSSImportPostProcessor extends AbstractChainedResourceBundlePostPro
 													// then ')'
 			Pattern.CASE_INSENSITIVE); // works with 'URL('
 
+	/**
+	 * The property name of the maximum number of characters kept in the cache
+	 * of the imported CSS
+	 */
+	private static final String JAWR_CSS_POSTPROCESSOR_CSSIMPORT_CACHE_MAX_SIZE = "jawr.css.postprocessor.cssimport.cache.max.size";
+
+	/** The default maximum number of characters kept in the cache */
+	private static final int DEFAULT_CACHE_MAX_SIZE = 2097152;
+
+	/**
+	 * The imported CSS by imported path and importing CSS path, or null if it
+	 * has not been created yet
+	 */
+	private LRUCache<String, ImportedCss> importedCssCache;
+
 	/**
 	 * Constructor
 	 */
@@ -77,58 +120,148 @@ public class CSSImportPostProcessor extends AbstractChainedResourceBundlePostPro
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
 
-		String data = bundleData.toString();
+		Deque<String> importStack = new ArrayDeque<>();
+		importStack.push(status.getLastPathAdded());
+		return resolveImports(bundleData.toString(), status, importStack, new HashSet<String>());
+	}
+
+	/**
+	 * Replaces the imports of the CSS content by the content of the imported
+	 * CSS
+	 * 
+	 * @param data
+	 *            the CSS content
+	 * @param status
+	 *            the bundle processing status
+	 * @param importStack
+	 *            the paths of the CSS being imported, the importing CSS being
+	 *            the first one
+	 * @param importedCss
+	 *            the paths and media of the CSS already imported
+	 * @return the CSS content with the imports resolved
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private StringBuffer resolveImports(String data, BundleProcessingStatus status, Deque<String> importStack,
+			Set<String> importedCss) throws IOException {
 
 		// Rewrite each css url path
 		Matcher matcher = IMPORT_PATTERN.matcher(data);
 		StringBuffer sb = new StringBuffer();
 		while (matcher.find()) {
 
-			String content = getCssPathContent(matcher.group(3), matcher.group(4), status);
+			String path = getCssPathToImport(matcher.group(3), status);
+			String media = matcher.group(4);
+			String content = "";
+			if (importStack.contains(path)) {
+				LOGGER.warn("The import of the CSS '" + path + "' in '" + importStack.peek()
+						+ "' creates a cycle and will be ignored.");
+			} else if (!importedCss.add(path + "|" + media)) {
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("The CSS '" + path + "' has already been imported.");
+				}
+			} else {
+				importStack.push(path);
+				CharSequence importedContent = resolveImports(getCssPathContent(path, status), status,
+						importStack, importedCss);
+				importStack.pop();
+				content = wrapInMedia(importedContent, media);
+			}
 			matcher.appendReplacement(sb, RegexUtil.adaptReplacementToMatcher(content));
 		}
 		matcher.appendTail(sb);
 		return sb;
-
 	}
 
 	/**
-	 * Retrieve the content of the css to import
+	 * Returns the path of the css to import
 	 * 
 	 * @param cssPathToImport
-	 *            the path of the css to import
-	 * @param media
-	 *            the media
+	 *            the path of the css to import as defined in the import
+	 *            statement
 	 * @param status
 	 *            the bundle processing status
-	 * @return the content of the css to import
-	 * @throws IOException
-	 *             if an IOException occurs
+	 * @return the path of the css to import
 	 */
-	private String getCssPathContent(String cssPathToImport, String media, BundleProcessingStatus status)
-			throws IOException {
+	private String getCssPathToImport(String cssPathToImport, BundleProcessingStatus status) {
 
 		String currentCssPath = status.getLastPathAdded();
 
 		String path = cssPathToImport;
 
-		JawrConfig jawrConfig = status.getJawrConfig();
-
-		if (jawrConfig.getGeneratorRegistry().isPathGenerated(path)) {
+		GeneratorRegistry generatorRegistry = status.getJawrConfig().getGeneratorRegistry();
+		if (generatorRegistry.isPathGenerated(path)) {
 
-			ResourceGenerator generator = jawrConfig.getGeneratorRegistry().getResourceGenerator(path);
+			ResourceGenerator generator = generatorRegistry.getResourceGenerator(path);
 			if (generator != null && generator.getResolver() instanceof SuffixedPathResolver) {
 				path = PathNormalizer.concatWebPath(currentCssPath, cssPathToImport);
 			}
 		} else if (!cssPathToImport.startsWith("/")) { // relative URL
 			path = PathNormalizer.concatWebPath(currentCssPath, cssPathToImport);
 		}
+		return path;
+	}
+
+	/**
+	 * Wraps the imported content in a media rule if a media is defined
+	 * 
+	 * @param content
+	 *            the imported content
+	 * @param media
+	 *            the media
+	 * @return the content to include
+	 */
+	private String wrapInMedia(CharSequence content, String media) {
+
+		StringBuilder result = new StringBuilder();
+		boolean isMediaAttributeSet = StringUtils.isNotEmpty(media);
+		if (isMediaAttributeSet) {
+			result.append("@media ").append(media).append(" {\n");
+		}
+		result.append(content);
+		if (isMediaAttributeSet) {
+			result.append("\n}\n");
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Retrieve the content of the css to import, whose image URLs are
+	 * rewritten for the importing CSS
+	 * 
+	 * @param path
+	 *            the path of the css to import
+	 * @param status
+	 *            the bundle processing status
+	 * @return the content of the css to import
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private String getCssPathContent(String path, BundleProcessingStatus status) throws IOException {
+
+		String currentCssPath = status.getLastPathAdded();
+		String cacheKey = path + "|" + currentCssPath;
+		JoinableResourceBundle bundle = status.getCurrentBundle();
+
+		LRUCache<String, ImportedCss> cache = getImportedCssCache(status);
+		ImportedCss cachedCss = cache.get(cacheKey);
+		if (cachedCss != null) {
+			if (cachedCss.isUpToDate()) {
+				if (bundle != null) {
+					cachedCss.addLinkedResource(bundle);
+				}
+				return cachedCss.content;
+			}
+			cache.remove(cacheKey);
+		}
 
-		FilePathMappingUtils.buildFilePathMapping(status.getCurrentBundle(), path, status.getRsReader());
+		JawrConfig jawrConfig = status.getJawrConfig();
+		boolean generatedPath = jawrConfig.getGeneratorRegistry().isPathGenerated(path);
+		FilePathMapping fMapping = FilePathMappingUtils.buildFilePathMapping(bundle, path, status.getRsReader());
 		Reader reader = null;
 
 		try {
-			reader = status.getRsReader().getResource(status.getCurrentBundle(), path, true);
+			reader = status.getRsReader().getResource(bundle, path, true);
 		} catch (ResourceNotFoundException e) {
 			throw new IOException("Css to import '" + path + "' was not found", e);
 		}
@@ -143,16 +276,100 @@ public class CSSImportPostProcessor extends AbstractChainedResourceBundlePostPro
 		}
 		// Rewrite image URL
 		CssImportedUrlRewriter urlRewriter = new CssImportedUrlRewriter(jawrConfig);
-		StringBuilder result = new StringBuilder();
-		boolean isMediaAttributeSet = StringUtils.isNotEmpty(media);
-		if (isMediaAttributeSet) {
-			result.append("@media ").append(media).append(" {\n");
+		String result = urlRewriter.rewriteUrl(path, currentCssPath, content.getBuffer().toString()).toString();
+
+		// Only the CSS files are cached, the generated CSS can depend on the
+		// bundle variant, and the modification of the other resources can't
+		// be detected
+		if (fMapping != null && fMapping.getLastModified() > 0 && !generatedPath) {
+			cache.put(cacheKey, new ImportedCss(fMapping.getPath(), fMapping.getLastModified(), result));
 		}
-		result.append(urlRewriter.rewriteUrl(path, currentCssPath, content.getBuffer().toString()));
-		if (isMediaAttributeSet) {
-			result.append("\n}\n");
+		return result;
+	}
+
+	/**
+	 * Returns the cache of the imported CSS, which is created on the first
+	 * call
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the cache of the imported CSS
+	 */
+	private synchronized LRUCache<String, ImportedCss> getImportedCssCache(BundleProcessingStatus status) {
+
+		if (importedCssCache == null) {
+			long maxSize = DEFAULT_CACHE_MAX_SIZE;
+			if (status.getJawrConfig() != null) {
+				maxSize = Long.parseLong(status.getJawrConfig()
+						.getProperty(JAWR_CSS_POSTPROCESSOR_CSSIMPORT_CACHE_MAX_SIZE, String.valueOf(maxSize)).trim());
+			}
+			importedCssCache = new LRUCache<String, ImportedCss>(maxSize) {
+
+				@Override
+				protected long getWeight(ImportedCss value) {
+					return value.content.length();
+				}
+			};
+		}
+		return importedCssCache;
+	}
+
+	/**
+	 * This class defines an imported CSS file, whose image URLs are rewritten
+	 * for the importing CSS.
+	 * 
+	 * @author Ibrahim Chaehoi
+	 */
+	private static class ImportedCss {
+
+		/** The file path */
+		private final String filePath;
+
+		/** The last modification date of the file when it has been read */
+		private final long lastModified;
+
+		/** The rewritten content */
+		private final String content;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param filePath
+		 *            the file path
+		 * @param lastModified
+		 *            the last modification date of the file
+		 * @param content
+		 *            the rewritten content
+		 */
+		public ImportedCss(String filePath, long lastModified, String content) {
+			this.filePath = filePath;
+			this.lastModified = lastModified;
+			this.content = content;
+		}
+
+		/**
+		 * Checks if the file has not been modified since it has been read
+		 * 
+		 * @return true if the file has not been modified
+		 */
+		public boolean isUpToDate() {
+			return new File(filePath).lastModified() == lastModified;
+		}
+
+		/**
+		 * Adds the file to the linked resources of the bundle
+		 * 
+		 * @param bundle
+		 *            the bundle
+		 */
+		public void addLinkedResource(JoinableResourceBundle bundle) {
+
+			FilePathMapping fMapping = new FilePathMapping(bundle, filePath, lastModified);
+			List<FilePathMapping> linkedMappings = bundle.getLinkedFilePathMappings();
+			if (!linkedMappings.contains(fMapping)) {
+				linkedMappings.add(fMapping);
+			}
 		}
-		return result.toString();
 	}
 
 	/**
@@ -16,9 +16,11 @@ package net.jawr.web.resource.bundle.postprocess.impl;
 import java.io.IOException;
 
 import net.jawr.web.minification.CSSMinifier;
+import net.jawr.web.minification.CSSTokenizerMinifier;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
+import net.jawr.web.util.StringUtils;
 
 /**
  * Performs minification on CSS files by removing newlines, expendable
@@ -35,6 +37,15 @@ public class CSSMinPostProcessor extends AbstractChainedResourceBundlePostProces
 	 */
 	private static final String JAWR_CSS_POSTPROCESSOR_CSSMIN_KEEP_LICENCE = "jawr.css.postprocessor.cssmin.keepLicence";
 
+	/**
+	 * The property name of the CSS minifier implementation, which is either
+	 * "tokenizer" or "regex"
+	 */
+	private static final String JAWR_CSS_POSTPROCESSOR_CSSMIN_IMPLEMENTATION = "jawr.css.postprocessor.cssmin.implementation";
+
+	/** The implementation name of the regular expression based minifier */
+	private static final String REGEX_IMPLEMENTATION = "regex";
+
 	/** The CSS minifier */
 	private CSSMinifier minifier;
 
@@ -45,6 +56,17 @@ public class CSSMinPostProcessor extends AbstractChainedResourceBundlePostProces
 		super(PostProcessFactoryConstant.CSS_MINIFIER);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#isMinifier()
+	 */
+	@Override
+	protected boolean isMinifier() {
+		return true;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -57,20 +79,60 @@ public class CSSMinPostProcessor extends AbstractChainedResourceBundlePostProces
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
 
-		if (minifier == null) {
-
-			boolean keepLicence = status.getJawrConfig().getBooleanProperty(JAWR_CSS_POSTPROCESSOR_CSSMIN_KEEP_LICENCE,
-					false);
-			this.minifier = new CSSMinifier(keepLicence);
+		initMinifier(status);
+		try {
+			return minifier.minifyCSS(bundleData);
+		} catch (StackOverflowError e) {
+			throw new Error(
+					"An error occured while processing the bundle '" + status.getCurrentBundle().getName() + "'", e);
 		}
 
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#doPostProcessCharSequence(
+	 * net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus,
+	 * java.lang.CharSequence)
+	 */
+	@Override
+	protected CharSequence doPostProcessCharSequence(BundleProcessingStatus status, CharSequence content)
+			throws IOException {
+
+		initMinifier(status);
+		if (!(minifier instanceof CSSTokenizerMinifier)) {
+			return super.doPostProcessCharSequence(status, content);
+		}
 		try {
-			return minifier.minifyCSS(bundleData);
+			return ((CSSTokenizerMinifier) minifier).minifyCSS(StringUtils.toCharArray(content));
 		} catch (StackOverflowError e) {
 			throw new Error(
 					"An error occured while processing the bundle '" + status.getCurrentBundle().getName() + "'", e);
 		}
+	}
+
+	/**
+	 * Initializes the CSS minifier if it has not been initialized yet
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 */
+	private void initMinifier(BundleProcessingStatus status) {
 
+		if (minifier == null) {
+
+			boolean keepLicence = status.getJawrConfig().getBooleanProperty(JAWR_CSS_POSTPROCESSOR_CSSMIN_KEEP_LICENCE,
+					false);
+			String implementation = status.getJawrConfig()
+					.getProperty(JAWR_CSS_POSTPROCESSOR_CSSMIN_IMPLEMENTATION, "tokenizer");
+			if (REGEX_IMPLEMENTATION.equals(implementation.trim())) {
+				this.minifier = new CSSMinifier(keepLicence);
+			} else {
+				this.minifier = new CSSTokenizerMinifier(keepLicence);
+			}
+		}
 	}
 
 }
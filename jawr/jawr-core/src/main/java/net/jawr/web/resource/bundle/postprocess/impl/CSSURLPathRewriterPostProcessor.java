@@ -20,6 +20,10 @@ import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.generator.ResourceGenerator;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CssToken;
+import net.jawr.web.resource.bundle.postprocess.CssTokenStream;
+import net.jawr.web.resource.bundle.postprocess.CssTokenType;
+import net.jawr.web.resource.bundle.postprocess.CssTokenVisitor;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 
 /**
@@ -34,7 +38,8 @@ import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
  * @author Jordi Hernández Sellés
  * @author Ibrahim Chaehoi
  */
-public class CSSURLPathRewriterPostProcessor extends AbstractChainedResourceBundlePostProcessor {
+public class CSSURLPathRewriterPostProcessor extends AbstractChainedResourceBundlePostProcessor
+		implements CssTokenVisitor {
 
 	/**
 	 * This variable is used to fake the gzip prefix for the full bundle path
@@ -77,6 +82,38 @@ public class CSSURLPathRewriterPostProcessor extends AbstractChainedResourceBund
 		return urlRewriter.rewriteUrl(status.getLastPathAdded(), fullBundlePath, bundleData.toString());
 	}
 
+	/**
+	 * Returns the CSS token visitor. The subclasses, whose URL rewriter doesn't
+	 * rewrite the URL functions one by one, must return null.
+	 * 
+	 * @return the CSS token visitor
+	 */
+	@Override
+	protected CssTokenVisitor getCssTokenVisitor() {
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.postprocess.CssTokenVisitor#visitTokens(net.
+	 * jawr.web.resource.bundle.postprocess.BundleProcessingStatus,
+	 * net.jawr.web.resource.bundle.postprocess.CssTokenStream)
+	 */
+	@Override
+	public void visitTokens(BundleProcessingStatus status, CssTokenStream tokens) throws IOException {
+
+		String fullBundlePath = getFinalFullBundlePath(status);
+		PostProcessorCssImageUrlRewriter urlRewriter = createImageUrlRewriter(status);
+		for (CssToken token : tokens.getTokens()) {
+			if (token.getType() == CssTokenType.URL) {
+				token.setValue(
+						urlRewriter.rewriteUrlFunction(token.getValue(), status.getLastPathAdded(), fullBundlePath));
+			}
+		}
+	}
+
 	/**
 	 * Creates the image URL rewriter
 	 * 
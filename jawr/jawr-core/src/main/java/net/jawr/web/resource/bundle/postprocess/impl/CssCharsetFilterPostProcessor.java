@@ -14,11 +14,13 @@
 package net.jawr.web.resource.bundle.postprocess.impl;
 
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CssToken;
+import net.jawr.web.resource.bundle.postprocess.CssTokenStream;
+import net.jawr.web.resource.bundle.postprocess.CssTokenType;
+import net.jawr.web.resource.bundle.postprocess.CssTokenVisitor;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 
 import org.slf4j.Logger;
@@ -36,7 +38,8 @@ import org.slf4j.LoggerFactory;
  * @author Ibrahim Chaehoi
  * 
  */
-public class CssCharsetFilterPostProcessor extends AbstractChainedResourceBundlePostProcessor {
+public class CssCharsetFilterPostProcessor extends AbstractChainedResourceBundlePostProcessor
+		implements CssTokenVisitor {
 
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(CssCharsetFilterPostProcessor.class);
@@ -45,9 +48,6 @@ public class CssCharsetFilterPostProcessor extends AbstractChainedResourceBundle
 
 	private static final String CHARSET_DECLARATION_PREFIX = "@charset \"";
 
-	/** The charset declaration pattern */
-	private static final Pattern CHARSET_DECLARATION = Pattern.compile("@charset \"(.+)\";");
-
 	/**
 	 * Constructor
 	 */
@@ -68,38 +68,69 @@ public class CssCharsetFilterPostProcessor extends AbstractChainedResourceBundle
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
 
-		Matcher matcher = CHARSET_DECLARATION.matcher(bundleData.toString());
-		StringBuffer sb = new StringBuffer();
+		CssTokenStream tokens = new CssTokenStream(bundleData);
+		visitTokens(status, tokens);
+		return tokens.toStringBuffer();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#getCssTokenVisitor()
+	 */
+	@Override
+	protected CssTokenVisitor getCssTokenVisitor() {
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jawr.web.resource.bundle.postprocess.CssTokenVisitor#visitTokens(net.
+	 * jawr.web.resource.bundle.postprocess.BundleProcessingStatus,
+	 * net.jawr.web.resource.bundle.postprocess.CssTokenStream)
+	 */
+	@Override
+	public void visitTokens(BundleProcessingStatus status, CssTokenStream tokens) throws IOException {
+
 		String currentCharset = null;
 		boolean charsetDefinedAtBegining = false;
-		while (matcher.find()) {
-			if (matcher.start() == 0) {
-				currentCharset = matcher.group(1);
-				charsetDefinedAtBegining = true;
-			} else {
-				if (currentCharset != null) {
-					if (!currentCharset.equalsIgnoreCase(matcher.group(1))) {
-						LOGGER.warn("The bundle '" + status.getCurrentBundle().getId()
-								+ "' contains CSS with different charset declaration.");
-					}
+		int position = 0;
+		for (CssToken token : tokens.getTokens()) {
+			int length = token.length();
+			if (token.getType() == CssTokenType.CHARSET) {
+				String declaration = token.getValue();
+				String charset = declaration.substring(CHARSET_DECLARATION_PREFIX.length(),
+						declaration.length() - CHARSET_DECLARATION_SUFFIX.length());
+				if (position == 0) {
+					currentCharset = charset;
+					charsetDefinedAtBegining = true;
 				} else {
-					currentCharset = matcher.group(1);
-					LOGGER.warn("For the bundle '" + status.getCurrentBundle().getId()
-							+ "', the charset declaration is not defined at the top. The charset which will be set is '"
-							+ currentCharset + "'.");
+					if (currentCharset != null) {
+						if (!currentCharset.equalsIgnoreCase(charset)) {
+							LOGGER.warn("The bundle '" + status.getCurrentBundle().getId()
+									+ "' contains CSS with different charset declaration.");
+						}
+					} else {
+						currentCharset = charset;
+						LOGGER.warn("For the bundle '" + status.getCurrentBundle().getId()
+								+ "', the charset declaration is not defined at the top. The charset which will be set is '"
+								+ currentCharset + "'.");
+					}
+					token.remove();
 				}
-
-				matcher.appendReplacement(sb, "");
 			}
+			position += length;
 		}
-		matcher.appendTail(sb);
 
 		// Put the declaration on top
 		if (currentCharset != null && !charsetDefinedAtBegining) {
-			sb = new StringBuffer(
-					CHARSET_DECLARATION_PREFIX + currentCharset + CHARSET_DECLARATION_SUFFIX + "\n" + sb.toString());
+			tokens.prepend("\n");
+			tokens.getTokens().add(0, new CssToken(CssTokenType.CHARSET,
+					CHARSET_DECLARATION_PREFIX + currentCharset + CHARSET_DECLARATION_SUFFIX));
 		}
-		return sb;
 	}
 
 }
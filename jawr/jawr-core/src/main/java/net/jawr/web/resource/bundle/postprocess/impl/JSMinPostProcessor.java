@@ -13,21 +13,15 @@
  */
 package net.jawr.web.resource.bundle.postprocess.impl;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringWriter;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 
 import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.minification.JSMin;
 import net.jawr.web.minification.JSMin.JSMinException;
-import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
+import net.jawr.web.util.StringUtils;
 
 /**
  * This postprocessor will minify a javascript bundle using Douglas Crockford's
@@ -39,12 +33,6 @@ import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
  */
 public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProcessor {
 
-	/** The line feed string */
-	private static final String LF = "\n";
-
-	/** the carriage return line feed string */
-	private static final String CR_LF = "\r\n";
-
 	/**
 	 * Constructor for a compressor.
 	 */
@@ -52,6 +40,17 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 		super(PostProcessFactoryConstant.JSMIN);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#isMinifier()
+	 */
+	@Override
+	protected boolean isMinifier() {
+		return true;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -62,25 +61,47 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	@Override
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleString)
 			throws IOException {
-		Charset charset = status.getJawrConfig().getResourceCharset();
-
-		// The original JSMin doesn't handle Dos (CRLF) line endings
-		// So here we replace the CRLF with LF only
-		String bundleContent = bundleString.toString().replaceAll(CR_LF, LF);
+		// The characters are minified directly, the CRLF line endings being
+		// handled as LF by JSMin
+		char[] bundleChars = new char[bundleString.length()];
+		bundleString.getChars(0, bundleChars.length, bundleChars, 0);
+		return new StringBuffer(minify(status, bundleChars));
+	}
 
-		byte[] bundleBytes = bundleContent.getBytes(charset.name());
-		ByteArrayInputStream bIs = new ByteArrayInputStream(bundleBytes);
-		ByteArrayOutputStream bOs = new ByteArrayOutputStream();
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#doPostProcessCharSequence(
+	 * net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus,
+	 * java.lang.CharSequence)
+	 */
+	@Override
+	protected CharSequence doPostProcessCharSequence(BundleProcessingStatus status, CharSequence content)
+			throws IOException {
+		return minify(status, StringUtils.toCharArray(content));
+	}
 
-		// Compress data and recover it as a byte array.
-		JSMin minifier = new JSMin(bIs, bOs);
+	/**
+	 * Minifies the characters of the bundle
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param bundleChars
+	 *            the characters of the bundle content
+	 * @return the minified content
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private StringBuilder minify(BundleProcessingStatus status, char[] bundleChars) throws IOException {
+		StringBuilder minified = new StringBuilder(bundleChars.length);
+		JSMin minifier = new JSMin(bundleChars, bundleChars.length, minified);
 		try {
 			minifier.jsmin();
 		} catch (JSMinException e) {
-			formatAndThrowJSLintError(status, bundleBytes, e);
+			formatAndThrowJSLintError(status, bundleChars, e);
 		}
-		byte[] minified = bOs.toByteArray();
-		return byteArrayToString(charset, minified);
+		return minified;
 	}
 
 	/**
@@ -90,7 +111,8 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	 * @param sb
 	 *            the content to minify
 	 * @param charset
-	 *            the charset
+	 *            the charset, which is not used anymore as the characters
+	 *            are minified directly
 	 * @return the minified content
 	 * @throws java.io.IOException
 	 *             if an IOException occurs
@@ -98,35 +120,10 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	 *             if a JSMin exception occurs
 	 */
 	public StringBuffer minifyStringBuffer(StringBuffer sb, Charset charset) throws IOException, JSMinException {
-		byte[] bundleBytes = sb.toString().getBytes(charset.name());
-		ByteArrayInputStream bIs = new ByteArrayInputStream(bundleBytes);
-		ByteArrayOutputStream bOs = new ByteArrayOutputStream();
-
-		// Compress data and recover it as a byte array.
-		JSMin minifier = new JSMin(bIs, bOs);
+		StringBuilder minified = new StringBuilder(sb.length());
+		JSMin minifier = new JSMin(sb, minified);
 		minifier.jsmin();
-		byte[] minified = bOs.toByteArray();
-		return byteArrayToString(charset, minified);
-	}
-
-	/**
-	 * Convert a byte array to a String buffer taking into account the charset
-	 * 
-	 * @param charset
-	 *            the charset
-	 * @param minified
-	 *            the byte array
-	 * @return the string buffer
-	 * @throws IOException
-	 *             if an IO exception occurs
-	 */
-	private StringBuffer byteArrayToString(Charset charset, byte[] minified) throws IOException {
-		// Write the data into a string
-		ReadableByteChannel chan = Channels.newChannel(new ByteArrayInputStream(minified));
-		Reader rd = Channels.newReader(chan, charset.newDecoder(), -1);
-		StringWriter writer = new StringWriter();
-		IOUtils.copy(rd, writer, true);
-		return writer.getBuffer();
+		return new StringBuffer(minified);
 	}
 
 	/**
@@ -135,38 +132,26 @@ public class JSMinPostProcessor extends AbstractJsChainedResourceBundlePostProce
 	 * 
 	 * @param status
 	 *            the bundle processing status
-	 * @param bundleBytes
-	 *            the byte array of the bundle content
+	 * @param bundleChars
+	 *            the characters of the bundle content
 	 * @param e
 	 *            the JSMinException
 	 */
-	private void formatAndThrowJSLintError(BundleProcessingStatus status, byte[] bundleBytes, JSMinException e) {
+	private void formatAndThrowJSLintError(BundleProcessingStatus status, char[] bundleChars, JSMinException e) {
 		StringBuilder errorMsg = new StringBuilder(
 				"JSMin failed to minify the bundle with id: '" + status.getCurrentBundle().getId() + "'.\n");
 		errorMsg.append("The exception thrown is of type:").append(e.getClass().getName()).append("'.\n");
-		int currentByte = e.getByteIndex();
+		int currentChar = e.getByteIndex();
 		int startPoint;
-		if (currentByte < 100)
+		if (currentChar < 100)
 			startPoint = 0;
 		else
-			startPoint = currentByte - 100;
-		int totalSize = currentByte - startPoint;
+			startPoint = currentChar - 100;
 
-		byte[] lastData = new byte[totalSize];
-
-		for (int x = 0; x < totalSize; x++) {
-			lastData[x] = bundleBytes[startPoint];
-			startPoint++;
-		}
 		errorMsg.append("The error happened at this point in your javascript (line ").append(e.getLine())
 				.append("; col. ").append(e.getColumn()).append(") : \n");
 		errorMsg.append("_______________________________________________\n...");
-		try {
-			String data = byteArrayToString(status.getJawrConfig().getResourceCharset(), lastData).toString();
-			errorMsg.append(data).append("\n\n");
-		} catch (IOException e1) {
-			// Ignored, we have enaugh problems by this point.
-		}
+		errorMsg.append(bundleChars, startPoint, currentChar - startPoint).append("\n\n");
 		errorMsg.append("_______________________________________________");
 		errorMsg.append(
 				"\nIf you can't find the error, try to check the scripts using JSLint (http://www.jslint.com/) to find the conflicting part of the code. ");
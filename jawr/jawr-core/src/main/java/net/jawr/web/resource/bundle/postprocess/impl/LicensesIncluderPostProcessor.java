@@ -30,6 +30,7 @@ import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
+import net.jawr.web.util.ChunkedCharSequence;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,11 +68,43 @@ public class LicensesIncluderPostProcessor extends AbstractChainedResourceBundle
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
 
-		JoinableResourceBundle bundle = status.getCurrentBundle();
-		Charset charset = status.getJawrConfig().getResourceCharset();
-		if (bundle.getLicensesPathList().isEmpty())
+		if (status.getCurrentBundle().getLicensesPathList().isEmpty())
 			return bundleData;
 
+		return new StringBuffer(readLicenses(status)).append(bundleData);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#doPostProcessCharSequence(
+	 * net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus,
+	 * java.lang.CharSequence)
+	 */
+	@Override
+	protected CharSequence doPostProcessCharSequence(BundleProcessingStatus status, CharSequence content)
+			throws IOException {
+
+		if (status.getCurrentBundle().getLicensesPathList().isEmpty())
+			return content;
+
+		return new ChunkedCharSequence().append(readLicenses(status)).append(content);
+	}
+
+	/**
+	 * Reads the license files of the current bundle
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the content of the license files
+	 * @throws IOException
+	 *             if an IOException occurs
+	 */
+	private String readLicenses(BundleProcessingStatus status) throws IOException {
+
+		JoinableResourceBundle bundle = status.getCurrentBundle();
+		Charset charset = status.getJawrConfig().getResourceCharset();
 		ByteArrayOutputStream baOs = new ByteArrayOutputStream();
 		WritableByteChannel wrChannel = Channels.newChannel(baOs);
 		Writer writer = Channels.newWriter(wrChannel, charset.name());
@@ -102,7 +135,7 @@ public class LicensesIncluderPostProcessor extends AbstractChainedResourceBundle
 				}
 			}
 		}
-		return new StringBuffer(baOs.toString(charset.name())).append(bundleData);
+		return baOs.toString(charset.name());
 	}
 
 }
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess.impl.css.base64;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jawr.web.util.LRUCache;
+
+/**
+ * This class defines the cache of the base64 encoded images, which is shared
+ * by all the CSS bundles and variants processed by a base64 image encoder
+ * post processor. The encoded images are stored by image path, checksum and
+ * MIME type, so an image referenced by several bundles is encoded only once,
+ * and an image which has been modified is encoded again. When the total size
+ * of the encoded images exceeds the limit, the least recently used images are
+ * discarded.
+ * 
+ * The cache also keeps the number of characters inlined in each bundle, which
+ * helps to tune the maximum size of the encoded images.
+ * 
+ * This class is thread safe.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class Base64EncodedImageCache {
+
+	/** The encoded images by key */
+	private final LRUCache<String, String> encodedImages;
+
+	/** The number of characters inlined by bundle */
+	private final Map<String, AtomicLong> inlinedSizes = new HashMap<>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxSize
+	 *            the maximum number of characters stored in the cache
+	 */
+	public Base64EncodedImageCache(long maxSize) {
+		encodedImages = new LRUCache<String, String>(maxSize) {
+
+			@Override
+			protected long getWeight(String value) {
+				return value.length();
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache key of an image
+	 * 
+	 * @param path
+	 *            the image path
+	 * @param checksum
+	 *            the checksum of the image content
+	 * @param mimeType
+	 *            the MIME type of the image
+	 * @return the cache key
+	 */
+	public static String getKey(String path, long checksum, String mimeType) {
+		return path + "|" + Long.toHexString(checksum) + "|" + mimeType;
+	}
+
+	/**
+	 * Returns the encoded image stored for the key
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @return the base64 encoded image, or null if it is not in the cache
+	 */
+	public String get(String key) {
+		return encodedImages.get(key);
+	}
+
+	/**
+	 * Stores an encoded image
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @param encodedImage
+	 *            the base64 encoded image
+	 */
+	public void put(String key, String encodedImage) {
+		encodedImages.put(key, encodedImage);
+	}
+
+	/**
+	 * Adds a number of characters inlined in a bundle
+	 * 
+	 * @param bundleId
+	 *            the bundle ID
+	 * @param length
+	 *            the number of characters inlined
+	 */
+	public void addInlinedSize(String bundleId, long length) {
+
+		AtomicLong inlinedSize;
+		synchronized (inlinedSizes) {
+			inlinedSize = inlinedSizes.get(bundleId);
+			if (inlinedSize == null) {
+				inlinedSize = new AtomicLong();
+				inlinedSizes.put(bundleId, inlinedSize);
+			}
+		}
+		inlinedSize.addAndGet(length);
+	}
+
+	/**
+	 * Returns the number of characters inlined in a bundle
+	 * 
+	 * @param bundleId
+	 *            the bundle ID
+	 * @return the number of characters inlined in the bundle
+	 */
+	public long getInlinedSize(String bundleId) {
+
+		synchronized (inlinedSizes) {
+			AtomicLong inlinedSize = inlinedSizes.get(bundleId);
+			return inlinedSize == null ? 0 : inlinedSize.get();
+		}
+	}
+
+	/**
+	 * Returns the number of characters inlined by bundle
+	 * 
+	 * @return the number of characters inlined by bundle
+	 */
+	public Map<String, Long> getInlinedSizes() {
+
+		Map<String, Long> result = new HashMap<>();
+		synchronized (inlinedSizes) {
+			for (Map.Entry<String, AtomicLong> entry : inlinedSizes.entrySet()) {
+				result.put(entry.getKey(), entry.getValue().get());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Discards all the encoded images and the statistics
+	 */
+	public void clear() {
+		encodedImages.clear();
+		encodedImages.resetCounts();
+		synchronized (inlinedSizes) {
+			inlinedSizes.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of characters stored in the cache
+	 * 
+	 * @return the number of characters stored in the cache
+	 */
+	public long getSize() {
+		return encodedImages.getWeight();
+	}
+
+	/**
+	 * Returns the number of cache hits
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return encodedImages.getHitCount();
+	}
+
+	/**
+	 * Returns the number of cache misses
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return encodedImages.getMissCount();
+	}
+}
@@ -18,12 +18,14 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CssTokenVisitor;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 import net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.impl.CSSURLPathRewriterPostProcessor;
@@ -33,7 +35,8 @@ import net.jawr.web.util.StringUtils;
 
 /**
  * This class defines the post processor which encodes resources (background
- * images) using base64 encoding.
+ * images) using base64 encoding. The encoded images are kept in a cache shared
+ * by all the bundles and variants processed by the post processor.
  * 
  * @author Gerben Jorna
  * @author Ibrahim Chaehoi
@@ -44,6 +47,9 @@ public class Base64ImageEncoderPostProcessor extends CSSURLPathRewriterPostProce
 	/** The logger */
 	protected static final Logger LOGGER = LoggerFactory.getLogger(Base64ImageEncoderPostProcessor.class);
 
+	/** The performance processing logger */
+	private static final Logger PERF_LOGGER = LoggerFactory.getLogger(JawrConstant.PERF_PROCESSING_LOGGER);
+
 	/** Tab */
 	protected static final String TAB = "\t";
 
@@ -62,6 +68,12 @@ public class Base64ImageEncoderPostProcessor extends CSSURLPathRewriterPostProce
 	/** The mhtml prefix */
 	protected static final String MHTML_PREFIX = "mhtml:";
 
+	/** The cache of the encoded images */
+	private Base64EncodedImageCache encodedImageCache;
+
+	/** The flag indicating if the cache of the encoded images is initialized */
+	private boolean encodedImageCacheInitialized;
+
 	/**
 	 * Constructor
 	 */
@@ -70,6 +82,17 @@ public class Base64ImageEncoderPostProcessor extends CSSURLPathRewriterPostProce
 		isVariantPostProcessor = true;
 	}
 
+	/**
+	 * Returns null, as the base64 encoding annotations, which follow the URL
+	 * functions, are handled on the whole content.
+	 * 
+	 * @return null
+	 */
+	@Override
+	protected CssTokenVisitor getCssTokenVisitor() {
+		return null;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -81,7 +104,43 @@ public class Base64ImageEncoderPostProcessor extends CSSURLPathRewriterPostProce
 	@Override
 	protected PostProcessorCssImageUrlRewriter createImageUrlRewriter(BundleProcessingStatus status) {
 
-		return new Base64PostProcessorCssImageUrlRewriter(status);
+		return new Base64PostProcessorCssImageUrlRewriter(status, getEncodedImageCache(status));
+	}
+
+	/**
+	 * Returns the cache of the encoded images, which is created on the first
+	 * call
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the cache of the encoded images, or null if the cache is
+	 *         disabled
+	 */
+	protected synchronized Base64EncodedImageCache getEncodedImageCache(BundleProcessingStatus status) {
+
+		if (!encodedImageCacheInitialized) {
+			long maxSize = JawrConstant.DEFAULT_BASE64_CACHE_MAX_SIZE;
+			Properties configProperties = status.getJawrConfig().getConfigProperties();
+			String maxSizeProperty = (String) configProperties.get(JawrConstant.BASE64_CACHE_MAX_SIZE);
+			if (StringUtils.isNotEmpty(maxSizeProperty)) {
+				maxSize = Long.parseLong(maxSizeProperty.trim());
+			}
+			if (maxSize > 0) {
+				encodedImageCache = new Base64EncodedImageCache(maxSize);
+			}
+			encodedImageCacheInitialized = true;
+		}
+		return encodedImageCache;
+	}
+
+	/**
+	 * Returns the cache of the encoded images
+	 * 
+	 * @return the cache of the encoded images, or null if it has not been
+	 *         created or if it is disabled
+	 */
+	public synchronized Base64EncodedImageCache getEncodedImageCache() {
+		return encodedImageCache;
 	}
 
 	/*
@@ -133,6 +192,14 @@ public class Base64ImageEncoderPostProcessor extends CSSURLPathRewriterPostProce
 					prependBase64EncodedResources(sb, encodedResources);
 				}
 			}
+
+			Base64EncodedImageCache cache = getEncodedImageCache();
+			if (cache != null && PERF_LOGGER.isDebugEnabled()) {
+				String bundleId = status.getCurrentBundle().getId();
+				PERF_LOGGER.debug("Base64 images inlined in bundle '" + bundleId + "' : "
+						+ cache.getInlinedSize(bundleId) + " characters (cache hits : " + cache.getHitCount()
+						+ ", misses : " + cache.getMissCount() + ", size : " + cache.getSize() + ")");
+			}
 		}
 
 		if (LOGGER.isInfoEnabled()) {
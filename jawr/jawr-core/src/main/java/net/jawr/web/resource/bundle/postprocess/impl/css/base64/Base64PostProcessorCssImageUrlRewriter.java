@@ -20,6 +20,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -104,15 +106,37 @@ public class Base64PostProcessorCssImageUrlRewriter extends PostProcessorCssImag
 	/** The flag indicating if we must skip the base64 encoding */
 	private boolean skipBase64Encoding;
 
+	/** The cache of the encoded images, or null if there is no cache */
+	private final Base64EncodedImageCache encodedImageCache;
+
+	/** The ID of the current bundle */
+	private final String bundleId;
+
 	/**
 	 * Constructor
 	 * 
 	 * @param status
 	 *            the bundle processing status
 	 */
-	@SuppressWarnings("unchecked")
 	public Base64PostProcessorCssImageUrlRewriter(BundleProcessingStatus status) {
+		this(status, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @param encodedImageCache
+	 *            the cache of the encoded images, or null if the images are
+	 *            encoded each time
+	 */
+	@SuppressWarnings("unchecked")
+	public Base64PostProcessorCssImageUrlRewriter(BundleProcessingStatus status,
+			Base64EncodedImageCache encodedImageCache) {
 		super(status);
+		this.encodedImageCache = encodedImageCache;
+		this.bundleId = status.getCurrentBundle() != null ? status.getCurrentBundle().getId() : null;
 		this.browser = status.getVariant(JawrConstant.BROWSER_VARIANT_TYPE);
 
 		encodedResources = (Map<String, Base64EncodedResource>) status.getData(JawrConstant.BASE64_ENCODED_RESOURCES);
@@ -247,8 +271,11 @@ public class Base64PostProcessorCssImageUrlRewriter extends PostProcessorCssImag
 
 				String fileExtension = FileNameUtils.getExtension(url);
 				String fileMimeType = (String) MIMETypesSupport.getSupportedProperties(this).get(fileExtension);
+
+				// The checksum is computed while the image is read
+				CRC32 checksum = new CRC32();
 				ByteArrayOutputStream out = new ByteArrayOutputStream();
-				IOUtils.copy(is, out, true);
+				IOUtils.copy(new CheckedInputStream(is, checksum), out, true);
 
 				int size = out.size();
 				if (size > maxFileSize) { // Check file size
@@ -257,15 +284,25 @@ public class Base64PostProcessorCssImageUrlRewriter extends PostProcessorCssImag
 							+ maxFileSize);
 				} else {
 
-					byte[] data = out.toByteArray();
-					StringBuffer s = new StringBuffer(encodeInBase64(data));
+					String encodedData = null;
+					String cacheKey = null;
+					if (encodedImageCache != null) {
+						cacheKey = Base64EncodedImageCache.getKey(url, checksum.getValue(), fileMimeType);
+						encodedData = encodedImageCache.get(cacheKey);
+					}
+					if (encodedData == null) {
+						encodedData = encodeInBase64(out.toByteArray());
+						if (encodedImageCache != null) {
+							encodedImageCache.put(cacheKey, encodedData);
+						}
+					}
 
 					Base64EncodedResource encodedImage = new Base64EncodedResource();
 					encodedImage.setId(url.hashCode());
 					encodedImage.setType(fileMimeType);
-					encodedImage.setBase64Encoding(s);
+					encodedImage.setBase64Encoding(new StringBuffer(encodedData));
 
-					encodedResources.put(encodedImage.getId(), encodedImage);
+					boolean newResource = encodedResources.put(encodedImage.getId(), encodedImage) == null;
 
 					// For IE under IE8, use MHTML
 					if (JawrConstant.BROWSER_IE6.equals(browser) || JawrConstant.BROWSER_IE7.equals(browser)) {
@@ -278,8 +315,13 @@ public class Base64PostProcessorCssImageUrlRewriter extends PostProcessorCssImag
 						 */
 						imgUrl = MHTML_PREFIX + JawrConstant.JAWR_BUNDLE_PATH_PLACEHOLDER + "!" + encodedImage.getId();
 
+						// The encoded image is added once to the bundle
+						if (newResource) {
+							addInlinedSize(encodedData.length());
+						}
 					} else {
-						imgUrl = DATA_PREFIX + fileMimeType + ";base64," + s;
+						imgUrl = DATA_PREFIX + fileMimeType + ";base64," + encodedData;
+						addInlinedSize(imgUrl.length());
 					}
 				}
 			} catch (IOException e) {
@@ -295,6 +337,19 @@ public class Base64PostProcessorCssImageUrlRewriter extends PostProcessorCssImag
 		return imgUrl;
 	}
 
+	/**
+	 * Adds a number of characters inlined in the current bundle to the
+	 * statistics of the encoded image cache
+	 * 
+	 * @param length
+	 *            the number of characters inlined
+	 */
+	private void addInlinedSize(long length) {
+		if (encodedImageCache != null && bundleId != null) {
+			encodedImageCache.addInlinedSize(bundleId, length);
+		}
+	}
+
 	/**
 	 * Encodes the data in base64
 	 * 
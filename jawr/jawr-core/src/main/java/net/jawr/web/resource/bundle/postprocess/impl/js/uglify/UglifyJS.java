@@ -29,6 +29,7 @@ import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.util.StopWatch;
 import net.jawr.web.util.StringUtils;
 import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEnginePool;
 
 /**
  * The Uglify JS engine. This compressor is using UglifyJS
@@ -45,18 +46,18 @@ public class UglifyJS {
 	private static final String[] UGLIFY_SCRIPTS = { "utils.js", "ast.js", "parse.js", "transform.js", "scope.js",
 			"output.js", "compress.js", "sourcemap.js", "uglify.js" };
 
+	/** The name of the variable holding the Uglify options in the engines */
+	private static final String UGLIFY_OPTIONS_VAR = "jawrUglifyOptions";
+
 	/** The flag indicating if we use the base engine */
 	boolean baseEngine = true;
 
-	/** The JS engine */
-	private final JavascriptEngine jsEngine;
+	/** The JS engine pool */
+	private final JavascriptEnginePool jsEnginePool;
 
 	/** The Jawr configuration */
 	private final JawrConfig config;
 
-	/** The Uglify options in JSON format */
-	private final Object options;
-
 	/**
 	 * Constructor
 	 * 
@@ -68,19 +69,36 @@ public class UglifyJS {
 	 *            the uglify options
 	 */
 	public UglifyJS(JawrConfig config, String scriptDirLocation, String optionsInJson) {
+		this(config, null, scriptDirLocation, optionsInJson);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param config
+	 *            the JAWR config
+	 * @param workingDirectory
+	 *            the Jawr working directory where the compiled scripts are
+	 *            stored, or null if they must not be stored
+	 * @param scriptDirLocation
+	 *            the directory where the Uglify source file are located
+	 * @param optionsInJson
+	 *            the uglify options
+	 */
+	public UglifyJS(JawrConfig config, String workingDirectory, String scriptDirLocation, String optionsInJson) {
 
 		StopWatch stopWatch = new StopWatch();
-		stopWatch.start("initializing JS engine for Uglify");
+		stopWatch.start("loading scripts for Uglify");
 
 		String jsEngineName = config.getJavascriptEngineName(JawrConstant.UGLIFY_POSTPROCESSOR_JS_ENGINE);
-		this.jsEngine = new JavascriptEngine(jsEngineName);
 		this.config = config;
-		this.options = jsEngine.execEval(optionsInJson);
+		this.jsEnginePool = new JavascriptEnginePool(jsEngineName, false, config.getJavascriptEnginePoolSize());
+		jsEnginePool.setScriptClassCache(workingDirectory, config.getJavascriptEngineOptimizationLevel());
+		jsEnginePool.addScript("uglifyOptions.js", "var " + UGLIFY_OPTIONS_VAR + " = eval(" + optionsInJson + ");");
 		String baseJsLocation = StringUtils.isNotEmpty(scriptDirLocation) ? scriptDirLocation
 				: JawrConstant.UGLIFY_POSTPROCESSOR_DEFAULT_JS_BASE_LOCATION;
 		for (String script : UGLIFY_SCRIPTS) {
-			jsEngine.evaluate(script, getResourceInputStream(baseJsLocation + script));
-
+			jsEnginePool.addScript(script, getResourceInputStream(baseJsLocation + script));
 		}
 		stopWatch.stop();
 		if (PERF_LOGGER.isDebugEnabled()) {
@@ -120,10 +138,14 @@ public class UglifyJS {
 		Object result = null;
 		StopWatch stopWatch = new StopWatch();
 		stopWatch.start("Compressing using Uglify");
+		JavascriptEngine jsEngine = jsEnginePool.acquire();
 		try {
+			Object options = jsEngine.getContext().getAttribute(UGLIFY_OPTIONS_VAR);
 			result = jsEngine.invokeFunction("minify", scriptSource, options);
 		} catch (NoSuchMethodException | ScriptException e) {
 			throw new BundlingProcessException(e);
+		} finally {
+			jsEnginePool.release(jsEngine);
 		}
 
 		stopWatch.stop();
@@ -40,6 +40,17 @@ public class UglifyPostProcessor extends
 		super(PostProcessFactoryConstant.UGLIFY_JS);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#isMinifier()
+	 */
+	@Override
+	protected boolean isMinifier() {
+		return true;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -60,7 +71,9 @@ public class UglifyPostProcessor extends
 					JawrConstant.UGLIFY_POSTPROCESSOR_DEFAULT_JS_BASE_LOCATION);
 
 			String optionsInJson = config.getProperty(JawrConstant.UGLIFY_POSTPROCESSOR_OPTIONS, "{}");
-			uglifyJS = new UglifyJS(config, scriptDirLocation, optionsInJson);
+			String workingDirectory = status.getRsReader() != null ? status.getRsReader().getWorkingDirectory()
+					: null;
+			uglifyJS = new UglifyJS(config, workingDirectory, scriptDirLocation, optionsInJson);
 		}
 
 		CompressionResult result = uglifyJS.compress(bundleData.toString());
@@ -18,6 +18,7 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 
+import net.jawr.web.JawrConstant;
 import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
@@ -29,11 +30,17 @@ import com.yahoo.platform.yui.compressor.CssCompressor;
  * YUICompressor. See http://developer.yahoo.com/yui/compressor/ for more
  * information.
  * 
+ * The results are kept in a bounded cache, so the content shared by several
+ * bundles or variants is minified only once.
+ * 
  * @author Jordi Hernández Sellés
  * @author Ibrahim Chaehoi
  */
 public class YUICSSCompressor extends AbstractChainedResourceBundlePostProcessor {
 
+	/** The cache of the compressor results */
+	private YUICompressorCache cache;
+
 	/**
 	 * Constructor
 	 */
@@ -41,6 +48,17 @@ public class YUICSSCompressor extends AbstractChainedResourceBundlePostProcessor
 		super(PostProcessFactoryConstant.YUI_COMPRESSOR);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#isMinifier()
+	 */
+	@Override
+	protected boolean isMinifier() {
+		return true;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -52,6 +70,17 @@ public class YUICSSCompressor extends AbstractChainedResourceBundlePostProcessor
 	@Override
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
+
+		YUICompressorCache resultCache = getCache(status);
+		String key = null;
+		if (resultCache != null) {
+			key = YUICompressorCache.getKey(bundleData, "css");
+			String result = resultCache.get(key);
+			if (result != null) {
+				return new StringBuffer(result);
+			}
+		}
+
 		Reader rd = new StringReader(bundleData.toString());
 		CssCompressor compressor = new CssCompressor(rd);
 
@@ -59,7 +88,32 @@ public class YUICSSCompressor extends AbstractChainedResourceBundlePostProcessor
 
 		compressor.compress(wr, -1);
 
+		if (resultCache != null) {
+			resultCache.put(key, wr.toString());
+		}
 		return wr.getBuffer();
 	}
 
+	/**
+	 * Returns the cache of the compressor results, or null if the cache is
+	 * disabled
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the cache of the compressor results
+	 */
+	private synchronized YUICompressorCache getCache(BundleProcessingStatus status) {
+
+		if (cache == null) {
+			long maxSize = JawrConstant.DEFAULT_YUI_COMPRESSOR_CACHE_MAX_SIZE;
+			if (status.getJawrConfig() != null) {
+				maxSize = status.getJawrConfig().getYuiCompressorCacheMaxSize();
+			}
+			if (maxSize > 0) {
+				cache = new YUICompressorCache(maxSize);
+			}
+		}
+		return cache;
+	}
+
 }
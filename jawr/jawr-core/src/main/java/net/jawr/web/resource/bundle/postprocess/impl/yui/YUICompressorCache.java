@@ -0,0 +1,129 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.bundle.postprocess.impl.yui;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.util.LRUCache;
+
+/**
+ * This class defines a bounded cache of the YUI compressor results. The
+ * results are stored by the hash of the compressed content and by the
+ * compressor options, so the content shared by several bundles or variants is
+ * compressed only once. When the total size of the results exceeds the limit,
+ * the least recently used results are discarded.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class YUICompressorCache {
+
+	/** The results by key */
+	private final LRUCache<String, String> results;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxSize
+	 *            the maximum number of characters stored in the cache
+	 */
+	public YUICompressorCache(long maxSize) {
+		results = new LRUCache<String, String>(maxSize) {
+
+			@Override
+			protected long getWeight(String value) {
+				return value.length();
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache key of the content compressed with the given options
+	 * 
+	 * @param content
+	 *            the content to compress
+	 * @param options
+	 *            the compressor options
+	 * @return the cache key
+	 */
+	public static String getKey(CharSequence content, String options) {
+
+		try {
+			return options + ":" + content.length() + ":"
+					+ CheckSumUtils.getMD5Checksum(content.toString(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unable to compute the checksum of the content", e);
+		}
+	}
+
+	/**
+	 * Returns the result stored for the key
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @return the result, or null if it is not in the cache
+	 */
+	public String get(String key) {
+		return results.get(key);
+	}
+
+	/**
+	 * Stores a result
+	 * 
+	 * @param key
+	 *            the cache key
+	 * @param result
+	 *            the compressor result
+	 */
+	public void put(String key, String result) {
+		results.put(key, result);
+	}
+
+	/**
+	 * Discards all the results
+	 */
+	public void clear() {
+		results.clear();
+		results.resetCounts();
+	}
+
+	/**
+	 * Returns the number of characters stored in the cache
+	 * 
+	 * @return the number of characters stored in the cache
+	 */
+	public long getSize() {
+		return results.getWeight();
+	}
+
+	/**
+	 * Returns the number of cache hits
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return results.getHitCount();
+	}
+
+	/**
+	 * Returns the number of cache misses
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return results.getMissCount();
+	}
+}
@@ -26,7 +26,8 @@ import org.mozilla.javascript.EvaluatorException;
 
 /**
  * Implementation of Rhino's ErrorReporter, used as a callback to log errors
- * encuntered while parsing a javascript file.
+ * encuntered while parsing a javascript file. An error reporter is created for
+ * each compressed bundle.
  * 
  * @author Jordi Hernández Sellés
  * @author Ibrahim Chaehoi
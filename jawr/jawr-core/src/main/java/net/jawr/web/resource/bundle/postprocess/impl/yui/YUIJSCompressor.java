@@ -18,6 +18,7 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 
+import net.jawr.web.JawrConstant;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.PostProcessFactoryConstant;
 import net.jawr.web.resource.bundle.postprocess.impl.AbstractJsChainedResourceBundlePostProcessor;
@@ -32,6 +33,9 @@ import com.yahoo.platform.yui.compressor.JavaScriptCompressor;
  * Lecomte's YUICompressor. See http://developer.yahoo.com/yui/compressor/ for
  * more information.
  * 
+ * The results are kept in a bounded cache, so the content shared by several
+ * bundles or variants is minified only once.
+ * 
  * @author Jordi Hernández Sellés
  * @author Ibrahim Chaehoi
  */
@@ -43,6 +47,9 @@ public class YUIJSCompressor extends AbstractJsChainedResourceBundlePostProcesso
 	/** The flag indicating if the content should be obfuscated or not */
 	private final boolean obfuscate;
 
+	/** The cache of the compressor results */
+	private YUICompressorCache cache;
+
 	/**
 	 * Constructor.
 	 * 
@@ -55,6 +62,17 @@ public class YUIJSCompressor extends AbstractJsChainedResourceBundlePostProcesso
 		this.obfuscate = obfuscate;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.postprocess.
+	 * AbstractChainedResourceBundlePostProcessor#isMinifier()
+	 */
+	@Override
+	protected boolean isMinifier() {
+		return true;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -67,6 +85,16 @@ public class YUIJSCompressor extends AbstractJsChainedResourceBundlePostProcesso
 	protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
 			throws IOException {
 
+		YUICompressorCache resultCache = getCache(status);
+		String key = null;
+		if (resultCache != null) {
+			key = YUICompressorCache.getKey(bundleData, "js:munge=" + obfuscate);
+			String result = resultCache.get(key);
+			if (result != null) {
+				return new StringBuffer(result);
+			}
+		}
+
 		Reader rd = new StringReader(bundleData.toString());
 		JavaScriptCompressor compressor = new JavaScriptCompressor(rd, new YUIErrorReporter(status, bundleData));
 
@@ -79,7 +107,32 @@ public class YUIJSCompressor extends AbstractJsChainedResourceBundlePostProcesso
 		 */
 		compressor.compress(wr, -1, obfuscate, LOGGER.isDebugEnabled(), false, false);
 
+		if (resultCache != null) {
+			resultCache.put(key, wr.toString());
+		}
 		return wr.getBuffer();
 	}
 
+	/**
+	 * Returns the cache of the compressor results, or null if the cache is
+	 * disabled
+	 * 
+	 * @param status
+	 *            the bundle processing status
+	 * @return the cache of the compressor results
+	 */
+	private synchronized YUICompressorCache getCache(BundleProcessingStatus status) {
+
+		if (cache == null) {
+			long maxSize = JawrConstant.DEFAULT_YUI_COMPRESSOR_CACHE_MAX_SIZE;
+			if (status.getJawrConfig() != null) {
+				maxSize = status.getJawrConfig().getYuiCompressorCacheMaxSize();
+			}
+			if (maxSize > 0) {
+				cache = new YUICompressorCache(maxSize);
+			}
+		}
+		return cache;
+	}
+
 }
@@ -13,10 +13,13 @@
  */
 package net.jawr.web.resource.handler.reader;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -24,6 +27,7 @@ import javax.servlet.ServletContext;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
+import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 
 /**
@@ -40,6 +44,12 @@ public class BaseServletContextResourceReader implements ServletContextResourceR
 	/** The charset */
 	private Charset charset;
 
+	/**
+	 * The size threshold above which the files are read through a file
+	 * channel
+	 */
+	private long channelReadThreshold;
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -51,6 +61,7 @@ public class BaseServletContextResourceReader implements ServletContextResourceR
 	public void init(ServletContext context, JawrConfig config) {
 		this.context = context;
 		this.charset = config.getResourceCharset();
+		this.channelReadThreshold = config.getChannelReadThreshold();
 	}
 
 	/*
@@ -77,9 +88,42 @@ public class BaseServletContextResourceReader implements ServletContextResourceR
 
 		Reader rd = null;
 		if (!resourceName.contains(":")) {
-			InputStream is = context.getResourceAsStream(resourceName);
-			if (is != null) {
-				rd = new InputStreamReader(is, charset);
+			rd = getChannelDecodedResource(resourceName);
+			if (rd == null) {
+				InputStream is = context.getResourceAsStream(resourceName);
+				if (is != null) {
+					rd = new InputStreamReader(is, charset);
+				}
+			}
+		}
+		return rd;
+	}
+
+	/**
+	 * Returns the reader on the resource if it is a file whose size is over
+	 * the file channel read threshold
+	 * 
+	 * @param resourceName
+	 *            the resource name
+	 * @return the reader on the resource, or null if the resource is not a
+	 *         file which must be read through a file channel
+	 */
+	protected Reader getChannelDecodedResource(String resourceName) {
+
+		Reader rd = null;
+		if (channelReadThreshold >= 0) {
+			String realPath = context.getRealPath(resourceName);
+			if (realPath != null) {
+				File file = new File(realPath);
+				if (FileChannelDecoder.isDecodedFromChannel(file, channelReadThreshold)) {
+					try {
+						rd = FileChannelDecoder.decode(file, charset.newDecoder()
+								.onMalformedInput(CodingErrorAction.REPLACE)
+								.onUnmappableCharacter(CodingErrorAction.REPLACE));
+					} catch (IOException e) {
+						throw new BundlingProcessException("Unable to read the resource '" + resourceName + "'", e);
+					}
+				}
 			}
 		}
 		return rd;
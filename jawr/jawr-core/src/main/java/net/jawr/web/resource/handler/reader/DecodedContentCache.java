@@ -0,0 +1,162 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.handler.reader;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.CheckSumUtils;
+import net.jawr.web.util.LRUCache;
+
+/**
+ * This class defines a bounded cache of decoded resource contents. The
+ * contents are stored by their hash, so the resources which have the same
+ * content share the same entry. When the total size of the contents exceeds
+ * the limit, the least recently used contents are discarded.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class DecodedContentCache {
+
+	/** The map of the content hash of the resources */
+	private final ConcurrentMap<String, String> contentHashes = new ConcurrentHashMap<>();
+
+	/** The contents by hash */
+	private final LRUCache<String, DecodedResourceReader> contents;
+
+	/** The number of cache hits */
+	private final AtomicLong hitCount = new AtomicLong();
+
+	/** The number of cache misses */
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            the maximum number of characters stored in the cache
+	 */
+	public DecodedContentCache(long maxSize) {
+		contents = new LRUCache<String, DecodedResourceReader>(maxSize) {
+
+			@Override
+			protected long getWeight(DecodedResourceReader value) {
+				return value.getContent().length();
+			}
+		};
+	}
+
+	/**
+	 * Returns a reader on the content of the resource
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @return a reader on the content of the resource, or null if the content
+	 *         is not in the cache
+	 */
+	public DecodedResourceReader get(String resourceName) {
+
+		DecodedResourceReader content = null;
+		String hash = contentHashes.get(resourceName);
+		if (hash != null) {
+			content = contents.get(hash);
+		}
+
+		if (content == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+
+		hitCount.incrementAndGet();
+		return content.newReader();
+	}
+
+	/**
+	 * Stores the content of the resource. If a resource with the same content
+	 * is already in the cache, its content is shared.
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @param content
+	 *            the reader on the content, which is not consumed
+	 * @return a reader on the content to use
+	 */
+	public DecodedResourceReader put(String resourceName, DecodedResourceReader content) {
+
+		if (content.getContent().length() > contents.getMaxWeight()) {
+			return content;
+		}
+
+		String hash = null;
+		try {
+			hash = CheckSumUtils.getMD5Checksum(content.getContent());
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unable to compute the checksum of '" + resourceName + "'", e);
+		}
+
+		DecodedResourceReader existing = contents.putIfAbsent(hash, content.newReader());
+		contentHashes.put(resourceName, hash);
+		return existing == null ? content : existing.newReader();
+	}
+
+	/**
+	 * Discards the content of the resource given in parameter
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 */
+	public void remove(String resourceName) {
+		contentHashes.remove(resourceName);
+	}
+
+	/**
+	 * Discards all the contents
+	 */
+	public void clear() {
+		contentHashes.clear();
+		contents.clear();
+		hitCount.set(0);
+		missCount.set(0);
+	}
+
+	/**
+	 * Returns the number of characters stored in the cache
+	 *
+	 * @return the number of characters stored in the cache
+	 */
+	public long getSize() {
+		return contents.getWeight();
+	}
+
+	/**
+	 * Returns the number of cache hits
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of cache misses
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+}
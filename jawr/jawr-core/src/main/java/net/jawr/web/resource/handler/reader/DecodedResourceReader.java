@@ -0,0 +1,75 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.handler.reader;
+
+import java.io.StringReader;
+
+import net.jawr.web.util.bom.BOM;
+
+/**
+ * This class defines a reader on a resource content which has already been
+ * fully decoded. The content can be shared between several readers, and the
+ * BOM of the resource can be given if it has been detected on the raw bytes.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class DecodedResourceReader extends StringReader {
+
+	/** The decoded content */
+	private final String content;
+
+	/** The BOM detected on the raw bytes, or null if it is unknown */
+	private final BOM bom;
+
+	/**
+	 * Constructor
+	 *
+	 * @param content
+	 *            the decoded content
+	 * @param bom
+	 *            the BOM detected on the raw bytes, or null if it is unknown
+	 */
+	public DecodedResourceReader(String content, BOM bom) {
+		super(content);
+		this.content = content;
+		this.bom = bom;
+	}
+
+	/**
+	 * Returns the decoded content
+	 *
+	 * @return the decoded content
+	 */
+	public String getContent() {
+		return content;
+	}
+
+	/**
+	 * Returns the BOM detected on the raw bytes
+	 *
+	 * @return the BOM detected on the raw bytes, or null if it is unknown
+	 */
+	public BOM getBOM() {
+		return bom;
+	}
+
+	/**
+	 * Returns a new reader on the same content
+	 *
+	 * @return a new reader on the same content
+	 */
+	public DecodedResourceReader newReader() {
+		return new DecodedResourceReader(content, bom);
+	}
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.handler.reader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+import net.jawr.web.util.bom.BOM;
+
+/**
+ * This class decodes the content of large files by reading them through a
+ * file channel into a bounded direct buffer, which is reused by the thread.
+ * The bytes are decoded chunk by chunk directly into the content, so neither
+ * the whole raw content nor the stream buffers are copied, and the file is
+ * closed as soon as it has been read. The BOM is detected on the raw bytes.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public final class FileChannelDecoder {
+
+	/** The size of the byte and char buffers */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The direct byte buffer of the current thread */
+	private static final ThreadLocal<ByteBuffer> BYTE_BUFFER = new ThreadLocal<ByteBuffer>() {
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.ThreadLocal#initialValue()
+		 */
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+	};
+
+	/**
+	 * Constructor
+	 */
+	private FileChannelDecoder() {
+	}
+
+	/**
+	 * Checks if the file must be decoded directly from a file channel
+	 *
+	 * @param file
+	 *            the file
+	 * @param threshold
+	 *            the size threshold above which the files are decoded from a
+	 *            file channel, a negative value disables this mode
+	 * @return true if the file must be decoded from a file channel
+	 */
+	public static boolean isDecodedFromChannel(File file, long threshold) {
+		return threshold >= 0 && file.length() > threshold && file.isFile();
+	}
+
+	/**
+	 * Decodes the content of the file
+	 *
+	 * @param file
+	 *            the file
+	 * @param decoder
+	 *            the charset decoder
+	 * @return the reader on the decoded content
+	 * @throws IOException
+	 *             if an IO exception occurs
+	 */
+	public static DecodedResourceReader decode(File file, CharsetDecoder decoder) throws IOException {
+
+		try (FileInputStream fis = new FileInputStream(file); FileChannel channel = fis.getChannel()) {
+
+			long size = channel.size();
+			StringBuilder content = new StringBuilder((int) Math.min(size, Integer.MAX_VALUE - 8));
+			ByteBuffer bytes = BYTE_BUFFER.get();
+			bytes.clear();
+			CharBuffer chars = CharBuffer.allocate((int) Math.min(Math.max(size, 16), BUFFER_SIZE));
+			decoder.reset();
+
+			BOM bom = null;
+			boolean endOfInput = false;
+			while (!endOfInput) {
+				endOfInput = channel.read(bytes) == -1;
+				bytes.flip();
+				if (bom == null) {
+					if (bytes.remaining() < 4 && !endOfInput) {
+						// Wait for enough bytes to detect the BOM
+						bytes.compact();
+						continue;
+					}
+					bom = BOM.detect(bytes);
+				}
+				decode(decoder, bytes, chars, content, endOfInput);
+				bytes.compact();
+			}
+
+			while (decoder.flush(chars).isOverflow()) {
+				drain(chars, content);
+			}
+			drain(chars, content);
+
+			return new DecodedResourceReader(content.toString(), bom);
+		}
+	}
+
+	/**
+	 * Decodes the bytes available in the byte buffer
+	 *
+	 * @param decoder
+	 *            the charset decoder
+	 * @param bytes
+	 *            the byte buffer
+	 * @param chars
+	 *            the char buffer
+	 * @param content
+	 *            the decoded content to update
+	 * @param endOfInput
+	 *            the flag indicating if there is no more byte to read
+	 * @throws IOException
+	 *             if the bytes can't be decoded
+	 */
+	private static void decode(CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars, StringBuilder content,
+			boolean endOfInput) throws IOException {
+
+		while (true) {
+			CoderResult result = decoder.decode(bytes, chars, endOfInput);
+			if (result.isOverflow()) {
+				drain(chars, content);
+			} else if (result.isUnderflow()) {
+				break;
+			} else {
+				result.throwException();
+			}
+		}
+	}
+
+	/**
+	 * Appends the decoded chars to the content and clears the char buffer
+	 *
+	 * @param chars
+	 *            the char buffer
+	 * @param content
+	 *            the decoded content to update
+	 */
+	private static void drain(CharBuffer chars, StringBuilder content) {
+		chars.flip();
+		content.append(chars);
+		chars.clear();
+	}
+}
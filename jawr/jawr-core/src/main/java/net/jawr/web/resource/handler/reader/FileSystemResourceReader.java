@@ -16,6 +16,7 @@ package net.jawr.web.resource.handler.reader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.channels.Channels;
@@ -45,6 +46,12 @@ public class FileSystemResourceReader implements TextResourceReader, StreamResou
 	/** The charset */
 	private Charset charset;
 
+	/**
+	 * The size threshold above which the files are read through a file
+	 * channel
+	 */
+	private long channelReadThreshold;
+
 	/**
 	 * Constructor
 	 * 
@@ -83,6 +90,7 @@ public class FileSystemResourceReader implements TextResourceReader, StreamResou
 					+ " is not a directory. Please check your configuration.");
 		}
 		this.charset = config.getResourceCharset();
+		this.channelReadThreshold = config.getChannelReadThreshold();
 	}
 
 	/*
@@ -109,10 +117,19 @@ public class FileSystemResourceReader implements TextResourceReader, StreamResou
 	public Reader getResource(JoinableResourceBundle bundle, String resourceName, boolean processingBundle) {
 
 		Reader rd = null;
-		FileInputStream fis = (FileInputStream) getResourceAsStream(resourceName);
-		if (fis != null) {
-			FileChannel inchannel = fis.getChannel();
-			rd = Channels.newReader(inchannel, charset.newDecoder(), -1);
+		File resource = new File(baseDir, resourceName);
+		if (FileChannelDecoder.isDecodedFromChannel(resource, channelReadThreshold)) {
+			try {
+				rd = FileChannelDecoder.decode(resource, charset.newDecoder());
+			} catch (IOException e) {
+				throw new BundlingProcessException("Unable to read the resource '" + resourceName + "'", e);
+			}
+		} else {
+			FileInputStream fis = (FileInputStream) getResourceAsStream(resourceName);
+			if (fis != null) {
+				FileChannel inchannel = fis.getChannel();
+				rd = Channels.newReader(inchannel, charset.newDecoder(), -1);
+			}
 		}
 
 		return rd;
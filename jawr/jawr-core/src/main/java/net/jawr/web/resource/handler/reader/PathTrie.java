@@ -0,0 +1,172 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.handler.reader;
+
+import java.util.Arrays;
+
+/**
+ * This class defines a character trie which associates a bit mask to each key.
+ * The keys can be stored from the start (prefix matching) or from the end
+ * (suffix matching) of the path.
+ *
+ * The trie is only modified while it is built, it must not be updated once it
+ * has been published to other threads.
+ *
+ * @author Ibrahim Chaehoi
+ */
+final class PathTrie {
+
+	/** The empty key array */
+	private static final char[] EMPTY_KEYS = new char[0];
+
+	/** The empty children array */
+	private static final Node[] EMPTY_CHILDREN = new Node[0];
+
+	/** The flag indicating if the keys are matched from the end of the path */
+	private final boolean reverse;
+
+	/** The flag indicating if the matching is case insensitive */
+	private final boolean ignoreCase;
+
+	/** The root node */
+	private final Node root = new Node();
+
+	/** The flag indicating if the trie is empty */
+	private boolean empty = true;
+
+	/**
+	 * Constructor
+	 *
+	 * @param reverse
+	 *            the flag indicating if the keys are matched from the end of
+	 *            the path
+	 * @param ignoreCase
+	 *            the flag indicating if the matching is case insensitive
+	 */
+	PathTrie(boolean reverse, boolean ignoreCase) {
+		this.reverse = reverse;
+		this.ignoreCase = ignoreCase;
+	}
+
+	/**
+	 * Adds a key to the trie
+	 *
+	 * @param key
+	 *            the key
+	 * @param mask
+	 *            the mask associated to the key
+	 */
+	void put(String key, long mask) {
+
+		Node node = root;
+		int length = key.length();
+		for (int i = 0; i < length; i++) {
+			node = node.getOrCreateChild(normalize(key.charAt(reverse ? length - 1 - i : i)));
+		}
+		node.mask |= mask;
+		empty = false;
+	}
+
+	/**
+	 * Returns the union of the masks of all the keys which match the path
+	 *
+	 * @param path
+	 *            the path
+	 * @return the union of the masks of all the keys which match the path
+	 */
+	long match(String path) {
+
+		long result = 0;
+		if (empty || path == null) {
+			return result;
+		}
+
+		Node node = root;
+		int length = path.length();
+		for (int i = 0; i < length && node != null; i++) {
+			node = node.getChild(normalize(path.charAt(reverse ? length - 1 - i : i)));
+			if (node != null) {
+				result |= node.mask;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Normalizes the character
+	 *
+	 * @param c
+	 *            the character
+	 * @return the normalized character
+	 */
+	private char normalize(char c) {
+		return ignoreCase ? Character.toLowerCase(c) : c;
+	}
+
+	/**
+	 * The trie node
+	 */
+	private static final class Node {
+
+		/** The sorted keys of the children */
+		private char[] keys = EMPTY_KEYS;
+
+		/** The children */
+		private Node[] children = EMPTY_CHILDREN;
+
+		/** The mask of the keys ending on this node */
+		private long mask;
+
+		/**
+		 * Returns the child node for the character
+		 *
+		 * @param c
+		 *            the character
+		 * @return the child node or null if there is none
+		 */
+		private Node getChild(char c) {
+			int idx = Arrays.binarySearch(keys, c);
+			return idx >= 0 ? children[idx] : null;
+		}
+
+		/**
+		 * Returns the child node for the character, creating it if needed
+		 *
+		 * @param c
+		 *            the character
+		 * @return the child node
+		 */
+		private Node getOrCreateChild(char c) {
+			int idx = Arrays.binarySearch(keys, c);
+			if (idx >= 0) {
+				return children[idx];
+			}
+
+			int insertIdx = -idx - 1;
+			char[] newKeys = new char[keys.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, insertIdx);
+			System.arraycopy(children, 0, newChildren, 0, insertIdx);
+			System.arraycopy(keys, insertIdx, newKeys, insertIdx + 1, keys.length - insertIdx);
+			System.arraycopy(children, insertIdx, newChildren, insertIdx + 1, children.length - insertIdx);
+
+			Node child = new Node();
+			newKeys[insertIdx] = c;
+			newChildren[insertIdx] = child;
+			keys = newKeys;
+			children = newChildren;
+			return child;
+		}
+	}
+}
@@ -0,0 +1,498 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.handler.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.jawr.web.JawrConstant;
+
+/**
+ * This class defines the cache of the resource metadata used by the resource
+ * reader handler during a bundling process. It stores the reader which has
+ * resolved a resource, the resources which have not been found, the file path
+ * of the resources and the file system attributes of the files.
+ *
+ * The cache is only active between the calls to {@link #start()} and
+ * {@link #stop()}, so the resources are always checked outside of a bundling
+ * process.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ResourceMetadataCache {
+
+	/** The value stored for the resources which have no file path */
+	public static final String NO_FILE_PATH = "";
+
+	/** The flag indicating if the cache is active */
+	private volatile boolean active;
+
+	/** The map of the text readers which have resolved a resource */
+	private final ConcurrentMap<String, TextResourceReader> textReaders = new ConcurrentHashMap<>();
+
+	/** The map of the stream readers which have resolved a resource */
+	private final ConcurrentMap<String, StreamResourceReader> streamReaders = new ConcurrentHashMap<>();
+
+	/** The text resources which have not been found */
+	private final Set<String> textResourcesNotFound = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/** The stream resources which have not been found */
+	private final Set<String> streamResourcesNotFound = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/** The map of the file paths of the resources */
+	private final ConcurrentMap<String, String> filePaths = new ConcurrentHashMap<>();
+
+	/** The map of the file metadata */
+	private final ConcurrentMap<String, FileMetadata> fileMetadata = new ConcurrentHashMap<>();
+
+	/** The cache of the decoded resource contents */
+	private final DecodedContentCache decodedContents;
+
+	/**
+	 * Constructor
+	 */
+	public ResourceMetadataCache() {
+		this(JawrConstant.DEFAULT_DECODED_CONTENT_CACHE_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param decodedContentMaxSize
+	 *            the maximum number of characters of decoded content stored
+	 *            in the cache
+	 */
+	public ResourceMetadataCache(long decodedContentMaxSize) {
+		this.decodedContents = new DecodedContentCache(decodedContentMaxSize);
+	}
+
+	/**
+	 * Activates the cache
+	 */
+	public void start() {
+		clear();
+		active = true;
+	}
+
+	/**
+	 * Deactivates the cache and discards its content
+	 */
+	public void stop() {
+		active = false;
+		clear();
+	}
+
+	/**
+	 * Returns true if the cache is active
+	 *
+	 * @return true if the cache is active
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Discards the content of the cache
+	 */
+	public void clear() {
+		textReaders.clear();
+		streamReaders.clear();
+		textResourcesNotFound.clear();
+		streamResourcesNotFound.clear();
+		filePaths.clear();
+		fileMetadata.clear();
+		decodedContents.clear();
+	}
+
+	/**
+	 * Discards the readers which have resolved the resources and the resources
+	 * not found, which may be resolved differently once a resource reader has
+	 * been added
+	 */
+	public void clearResolvedReaders() {
+		textReaders.clear();
+		streamReaders.clear();
+		textResourcesNotFound.clear();
+		streamResourcesNotFound.clear();
+	}
+
+	/**
+	 * Discards the decoded contents, which may be read differently once a
+	 * resource reader has been added
+	 */
+	public void clearDecodedContents() {
+		decodedContents.clear();
+	}
+
+	/**
+	 * Discards the information related to the file given in parameter. The
+	 * resources whose stored file path is the file or is under it are
+	 * discarded, as well as the resources whose name ends with the name of the
+	 * file, which may be resolved differently if the file has been created or
+	 * deleted.
+	 *
+	 * @param filePath
+	 *            the path of the modified file
+	 */
+	public void invalidate(String filePath) {
+
+		Path path = toPath(filePath);
+		if (path == null || path.getFileName() == null) {
+			clear();
+			return;
+		}
+
+		Set<String> resourceNames = new HashSet<>();
+		for (Map.Entry<String, String> entry : filePaths.entrySet()) {
+			Path resourceFilePath = toPath(entry.getValue());
+			if (resourceFilePath != null && resourceFilePath.startsWith(path)) {
+				resourceNames.add(entry.getKey());
+			}
+		}
+
+		String fileName = "/" + path.getFileName().toString();
+		addMatchingResourceNames(textReaders.keySet(), fileName, resourceNames);
+		addMatchingResourceNames(streamReaders.keySet(), fileName, resourceNames);
+		addMatchingResourceNames(textResourcesNotFound, fileName, resourceNames);
+		addMatchingResourceNames(streamResourcesNotFound, fileName, resourceNames);
+		addMatchingResourceNames(filePaths.keySet(), fileName, resourceNames);
+
+		for (String resourceName : resourceNames) {
+			textReaders.remove(resourceName);
+			streamReaders.remove(resourceName);
+			textResourcesNotFound.remove(resourceName);
+			streamResourcesNotFound.remove(resourceName);
+			filePaths.remove(resourceName);
+			decodedContents.remove(resourceName);
+		}
+
+		for (Iterator<String> iterator = fileMetadata.keySet().iterator(); iterator.hasNext();) {
+			Path metadataPath = toPath(iterator.next());
+			if (metadataPath == null || metadataPath.startsWith(path)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Adds to the set the resource names which match the file name or which
+	 * are under a directory with this name
+	 *
+	 * @param names
+	 *            the resource names stored in the cache
+	 * @param fileName
+	 *            the file name, starting with a slash
+	 * @param resourceNames
+	 *            the set of resource names to update
+	 */
+	private static void addMatchingResourceNames(Set<String> names, String fileName, Set<String> resourceNames) {
+		for (String name : names) {
+			if (name.endsWith(fileName) || name.contains(fileName + "/")) {
+				resourceNames.add(name);
+			}
+		}
+	}
+
+	/**
+	 * Returns the normalized path of the file
+	 *
+	 * @param filePath
+	 *            the file path
+	 * @return the normalized path of the file, or null if the path is not a
+	 *         valid file path
+	 */
+	private static Path toPath(String filePath) {
+		if (filePath == null || NO_FILE_PATH.equals(filePath)) {
+			return null;
+		}
+		try {
+			return Paths.get(filePath).toAbsolutePath().normalize();
+		} catch (InvalidPathException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the text reader which has resolved the resource
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @return the text reader which has resolved the resource, or null
+	 */
+	public TextResourceReader getTextReader(String resourceName) {
+		return active ? textReaders.get(resourceName) : null;
+	}
+
+	/**
+	 * Stores the text reader which has resolved the resource
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @param reader
+	 *            the reader
+	 */
+	public void putTextReader(String resourceName, TextResourceReader reader) {
+		if (active) {
+			textReaders.put(resourceName, reader);
+		}
+	}
+
+	/**
+	 * Returns the stream reader which has resolved the resource
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @return the stream reader which has resolved the resource, or null
+	 */
+	public StreamResourceReader getStreamReader(String resourceName) {
+		return active ? streamReaders.get(resourceName) : null;
+	}
+
+	/**
+	 * Stores the stream reader which has resolved the resource
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @param reader
+	 *            the reader
+	 */
+	public void putStreamReader(String resourceName, StreamResourceReader reader) {
+		if (active) {
+			streamReaders.put(resourceName, reader);
+		}
+	}
+
+	/**
+	 * Checks if the text resource is known as not found
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @return true if the text resource is known as not found
+	 */
+	public boolean isTextResourceNotFound(String resourceName) {
+		return active && textResourcesNotFound.contains(resourceName);
+	}
+
+	/**
+	 * Marks the text resource as not found
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 */
+	public void setTextResourceNotFound(String resourceName) {
+		if (active) {
+			textResourcesNotFound.add(resourceName);
+		}
+	}
+
+	/**
+	 * Checks if the stream resource is known as not found
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @return true if the stream resource is known as not found
+	 */
+	public boolean isStreamResourceNotFound(String resourceName) {
+		return active && streamResourcesNotFound.contains(resourceName);
+	}
+
+	/**
+	 * Marks the stream resource as not found
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 */
+	public void setStreamResourceNotFound(String resourceName) {
+		if (active) {
+			streamResourcesNotFound.add(resourceName);
+		}
+	}
+
+	/**
+	 * Returns the file path of the resource stored in the cache
+	 *
+	 * @param resourcePath
+	 *            the resource path
+	 * @return the file path of the resource, {@link #NO_FILE_PATH} if there
+	 *         is no file associated to the resource, or null if the resource
+	 *         is not in the cache
+	 */
+	public String getFilePath(String resourcePath) {
+		return active ? filePaths.get(resourcePath) : null;
+	}
+
+	/**
+	 * Stores the file path of the resource
+	 *
+	 * @param resourcePath
+	 *            the resource path
+	 * @param filePath
+	 *            the file path, which can be null
+	 */
+	public void putFilePath(String resourcePath, String filePath) {
+		if (active) {
+			filePaths.put(resourcePath, filePath == null ? NO_FILE_PATH : filePath);
+		}
+	}
+
+	/**
+	 * Returns a reader on the decoded content of the resource
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @return a reader on the decoded content of the resource, or null if the
+	 *         content is not in the cache
+	 */
+	public DecodedResourceReader getDecodedContent(String resourceName) {
+
+		return active ? decodedContents.get(resourceName) : null;
+	}
+
+	/**
+	 * Stores the decoded content of the resource
+	 *
+	 * @param resourceName
+	 *            the resource name
+	 * @param content
+	 *            the reader on the decoded content, which is not consumed
+	 * @return the reader on the decoded content to use
+	 */
+	public DecodedResourceReader putDecodedContent(String resourceName, DecodedResourceReader content) {
+		return active ? decodedContents.put(resourceName, content) : content;
+	}
+
+	/**
+	 * Returns the cache of the decoded resource contents
+	 *
+	 * @return the cache of the decoded resource contents
+	 */
+	public DecodedContentCache getDecodedContentCache() {
+		return decodedContents;
+	}
+
+	/**
+	 * Returns the metadata of the file. The metadata are read from the file
+	 * system if they are not cached.
+	 *
+	 * @param filePath
+	 *            the file path
+	 * @return the metadata of the file
+	 */
+	public FileMetadata getFileMetadata(String filePath) {
+
+		FileMetadata metadata = active ? fileMetadata.get(filePath) : null;
+		if (metadata == null) {
+			metadata = FileMetadata.read(filePath);
+			if (active) {
+				fileMetadata.put(filePath, metadata);
+			}
+		}
+		return metadata;
+	}
+
+	/**
+	 * This class defines the metadata of a file
+	 */
+	public static final class FileMetadata {
+
+		/** The metadata of a file which doesn't exist */
+		private static final FileMetadata NOT_FOUND = new FileMetadata(false, 0, 0);
+
+		/** The flag indicating if the file exists */
+		private final boolean exists;
+
+		/** The last modification date */
+		private final long lastModified;
+
+		/** The file size */
+		private final long size;
+
+		/**
+		 * Constructor
+		 *
+		 * @param exists
+		 *            the flag indicating if the file exists
+		 * @param lastModified
+		 *            the last modification date
+		 * @param size
+		 *            the file size
+		 */
+		private FileMetadata(boolean exists, long lastModified, long size) {
+			this.exists = exists;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
+
+		/**
+		 * Reads the metadata of the file from the file system
+		 *
+		 * @param filePath
+		 *            the file path
+		 * @return the metadata of the file
+		 */
+		private static FileMetadata read(String filePath) {
+
+			FileMetadata metadata = NOT_FOUND;
+			try {
+				BasicFileAttributes attrs = Files.readAttributes(new File(filePath).toPath(),
+						BasicFileAttributes.class);
+				metadata = new FileMetadata(true, attrs.lastModifiedTime().toMillis(), attrs.size());
+			} catch (IOException | RuntimeException e) {
+				// The file doesn't exist or can't be accessed
+			}
+			return metadata;
+		}
+
+		/**
+		 * Returns true if the file exists
+		 *
+		 * @return true if the file exists
+		 */
+		public boolean exists() {
+			return exists;
+		}
+
+		/**
+		 * Returns the last modification date
+		 *
+		 * @return the last modification date
+		 */
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		/**
+		 * Returns the file size
+		 *
+		 * @return the file size
+		 */
+		public long getSize() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.handler.reader;
+
+/**
+ * This interface is implemented by the resource reader handlers which cache
+ * information about the resources, and which must be notified when a file is
+ * created, modified or deleted.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public interface ResourceMetadataInvalidator {
+
+	/**
+	 * Discards the cached information about the file given in parameter,
+	 * which has been created, modified or deleted.
+	 * 
+	 * @param filePath
+	 *            the file path
+	 */
+	void invalidateResourceMetadata(String filePath);
+
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.resource.handler.reader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.jawr.web.resource.bundle.generator.ResourceGenerator;
+import net.jawr.web.resource.bundle.generator.resolver.PrefixedPathResolver;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
+import net.jawr.web.resource.bundle.generator.resolver.SuffixedPathResolver;
+
+/**
+ * This class defines an immutable index of an ordered list of resource
+ * readers, which allows to retrieve the readers able to handle a path without
+ * scanning the whole list.
+ *
+ * Each reader is identified by its position in the list. The candidates for a
+ * path are returned as a bit mask, which can be walked using the
+ * <code>next*</code> methods in the order of the list. The readers whose
+ * position is over 63 are not indexed and are checked against their resolver
+ * while walking the candidates.
+ *
+ * The index is never modified, a new one must be built when the list of
+ * readers changes.
+ *
+ * @param <T>
+ *            the type of reader
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ResourceReaderDispatchIndex<T> {
+
+	/** The maximum number of readers which can be indexed */
+	private static final int MAX_INDEXED_READERS = 64;
+
+	/** The readers */
+	private final List<T> readers;
+
+	/** The resolvers of the generators, null for the other readers */
+	private final ResourceGeneratorResolver[] resolvers;
+
+	/** The mask of the readers which are not generators */
+	private final long nonGeneratorMask;
+
+	/**
+	 * The mask of the generators whose resolver can't be indexed and must be
+	 * checked against the path
+	 */
+	private final long customResolverMask;
+
+	/** The trie of the generator prefixes */
+	private final PathTrie prefixTrie = new PathTrie(false, false);
+
+	/** The trie of the generator suffixes */
+	private final PathTrie suffixTrie = new PathTrie(true, false);
+
+	/**
+	 * Constructor
+	 *
+	 * @param readers
+	 *            the ordered list of readers
+	 */
+	public ResourceReaderDispatchIndex(List<? extends T> readers) {
+
+		this.readers = Collections.unmodifiableList(new ArrayList<T>(readers));
+		this.resolvers = new ResourceGeneratorResolver[this.readers.size()];
+
+		long nonGenerators = 0;
+		long customResolvers = 0;
+		for (int i = 0; i < resolvers.length; i++) {
+			T reader = this.readers.get(i);
+			long bit = i < MAX_INDEXED_READERS ? 1L << i : 0;
+			if (reader instanceof ResourceGenerator) {
+				ResourceGeneratorResolver resolver = ((ResourceGenerator) reader).getResolver();
+				resolvers[i] = resolver;
+				if (bit != 0 && !indexResolver(resolver, bit)) {
+					customResolvers |= bit;
+				}
+			} else {
+				nonGenerators |= bit;
+			}
+		}
+
+		this.nonGeneratorMask = nonGenerators;
+		this.customResolverMask = customResolvers;
+	}
+
+	/**
+	 * Adds the resolver to the prefix or suffix trie if its matching rule is
+	 * the one of its base class
+	 *
+	 * @param resolver
+	 *            the resolver
+	 * @param bit
+	 *            the bit of the reader
+	 * @return true if the resolver has been indexed
+	 */
+	private boolean indexResolver(ResourceGeneratorResolver resolver, long bit) {
+
+		boolean indexed = false;
+		if (resolver instanceof PrefixedPathResolver
+				&& isMatchPathInheritedFrom(resolver, PrefixedPathResolver.class)) {
+			prefixTrie.put(((PrefixedPathResolver) resolver).getPrefix(), bit);
+			indexed = true;
+		} else if (resolver instanceof SuffixedPathResolver
+				&& isMatchPathInheritedFrom(resolver, SuffixedPathResolver.class)) {
+			suffixTrie.put(((SuffixedPathResolver) resolver).getSuffix(), bit);
+			indexed = true;
+		}
+		return indexed;
+	}
+
+	/**
+	 * Checks if the matchPath method of the resolver is the one defined in the
+	 * class given in parameter
+	 *
+	 * @param resolver
+	 *            the resolver
+	 * @param declaringClass
+	 *            the class
+	 * @return true if the matchPath method of the resolver is the one defined
+	 *         in the class given in parameter
+	 */
+	private static boolean isMatchPathInheritedFrom(ResourceGeneratorResolver resolver, Class<?> declaringClass) {
+
+		try {
+			return resolver.getClass().getMethod("matchPath", String.class).getDeclaringClass()
+					.equals(declaringClass);
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the ordered list of readers
+	 *
+	 * @return the ordered list of readers
+	 */
+	public List<T> getReaders() {
+		return readers;
+	}
+
+	/**
+	 * Returns the reader at the position given in parameter
+	 *
+	 * @param idx
+	 *            the position
+	 * @return the reader
+	 */
+	public T getReader(int idx) {
+		return readers.get(idx);
+	}
+
+	/**
+	 * Returns the mask of the generators whose resolver matches the path
+	 *
+	 * @param path
+	 *            the path
+	 * @return the mask of the generators whose resolver matches the path
+	 */
+	public long getGeneratorCandidates(String path) {
+
+		long result = 0;
+		if (path != null && path.length() > 0) {
+			result = prefixTrie.match(path) | suffixTrie.match(path);
+			for (long custom = customResolverMask; custom != 0; custom &= custom - 1) {
+				int idx = Long.numberOfTrailingZeros(custom);
+				if (resolvers[idx].matchPath(path)) {
+					result |= 1L << idx;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the mask of the readers which can handle the path, which are the
+	 * readers which are not generators and the generators whose resolver
+	 * matches the path.
+	 *
+	 * @param path
+	 *            the path
+	 * @return the mask of the readers which can handle the path
+	 */
+	public long getReaderCandidates(String path) {
+		return nonGeneratorMask | getGeneratorCandidates(path);
+	}
+
+	/**
+	 * Returns the mask of the readers which are not generators
+	 *
+	 * @return the mask of the readers which are not generators
+	 */
+	public long getNonGeneratorCandidates() {
+		return nonGeneratorMask;
+	}
+
+	/**
+	 * Returns the position of the next reader which can handle the path,
+	 * starting from the position given in parameter
+	 *
+	 * @param path
+	 *            the path
+	 * @param candidates
+	 *            the mask returned by {@link #getReaderCandidates(String)}
+	 * @param from
+	 *            the position to start from
+	 * @return the position of the next reader or -1 if there is none
+	 */
+	public int nextReader(String path, long candidates, int from) {
+		return next(path, candidates, from, true, true);
+	}
+
+	/**
+	 * Returns the position of the next generator whose resolver matches the
+	 * path, starting from the position given in parameter
+	 *
+	 * @param path
+	 *            the path
+	 * @param candidates
+	 *            the mask returned by {@link #getGeneratorCandidates(String)}
+	 * @param from
+	 *            the position to start from
+	 * @return the position of the next generator or -1 if there is none
+	 */
+	public int nextGenerator(String path, long candidates, int from) {
+		return next(path, candidates, from, false, true);
+	}
+
+	/**
+	 * Returns the position of the next reader which is not a generator,
+	 * starting from the position given in parameter
+	 *
+	 * @param candidates
+	 *            the mask returned by {@link #getNonGeneratorCandidates()}
+	 * @param from
+	 *            the position to start from
+	 * @return the position of the next reader or -1 if there is none
+	 */
+	public int nextNonGenerator(long candidates, int from) {
+		return next(null, candidates, from, true, false);
+	}
+
+	/**
+	 * Returns the position of the next candidate
+	 *
+	 * @param path
+	 *            the path
+	 * @param candidates
+	 *            the candidate mask
+	 * @param from
+	 *            the position to start from
+	 * @param acceptNonGenerators
+	 *            the flag indicating if the readers which are not generators
+	 *            are accepted over the indexed positions
+	 * @param acceptGenerators
+	 *            the flag indicating if the matching generators are accepted
+	 *            over the indexed positions
+	 * @return the position of the next candidate or -1 if there is none
+	 */
+	private int next(String path, long candidates, int from, boolean acceptNonGenerators,
+			boolean acceptGenerators) {
+
+		if (from < MAX_INDEXED_READERS) {
+			long remaining = candidates & (-1L << from);
+			if (remaining != 0) {
+				return Long.numberOfTrailingZeros(remaining);
+			}
+			from = MAX_INDEXED_READERS;
+		}
+
+		for (int i = from; i < resolvers.length; i++) {
+			ResourceGeneratorResolver resolver = resolvers[i];
+			if (resolver == null) {
+				if (acceptNonGenerators) {
+					return i;
+				}
+			} else if (acceptGenerators && path != null && resolver.matchPath(path)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
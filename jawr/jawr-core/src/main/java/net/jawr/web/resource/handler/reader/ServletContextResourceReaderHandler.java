@@ -17,9 +17,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -32,13 +32,15 @@ import org.slf4j.LoggerFactory;
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.context.ThreadLocalJawrContext;
+import net.jawr.web.exception.BundlingProcessException;
 import net.jawr.web.exception.InterruptBundlingProcessException;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.FileNameUtils;
+import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
-import net.jawr.web.resource.bundle.generator.ResourceGenerator;
+import net.jawr.web.resource.bundle.lifecycle.BundlingProcessLifeCycleListener;
 import net.jawr.web.servlet.util.MIMETypesSupport;
 import net.jawr.web.util.StringUtils;
 
@@ -47,7 +49,8 @@ import net.jawr.web.util.StringUtils;
  * 
  * @author Ibrahim Chaehoi
  */
-public class ServletContextResourceReaderHandler implements ResourceReaderHandler {
+public class ServletContextResourceReaderHandler
+		implements ResourceReaderHandler, ResourceMetadataInvalidator, BundlingProcessLifeCycleListener {
 
 	/** The logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(ServletContextResourceReaderHandler.class);
@@ -73,8 +76,38 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 	/** The list of resource info providers */
 	private final List<ResourceBrowser> resourceInfoProviders = new ArrayList<>();
 
-	/** The allowed file extension */
-	private final List<String> allowedExtensions = new ArrayList<>();
+	/**
+	 * The index of the resource readers, which is rebuilt each time a reader
+	 * is added
+	 */
+	private volatile ResourceReaderDispatchIndex<TextResourceReader> resourceReaderIndex = new ResourceReaderDispatchIndex<>(
+			resourceReaders);
+
+	/**
+	 * The index of the stream resource readers, which is rebuilt each time a
+	 * reader is added
+	 */
+	private volatile ResourceReaderDispatchIndex<StreamResourceReader> streamResourceReaderIndex = new ResourceReaderDispatchIndex<>(
+			streamResourceReaders);
+
+	/**
+	 * The index of the resource info providers, which is rebuilt each time a
+	 * reader is added
+	 */
+	private volatile ResourceReaderDispatchIndex<ResourceBrowser> resourceInfoProviderIndex = new ResourceReaderDispatchIndex<>(
+			resourceInfoProviders);
+
+	/** The cache of the resource metadata used during the bundling process */
+	private final ResourceMetadataCache metadataCache;
+
+	/**
+	 * The path prefixes of the immutable resources, whose decoded content is
+	 * shared during a bundling process
+	 */
+	private final PathTrie immutablePaths = new PathTrie(false, false);
+
+	/** The allowed file extensions, stored from the extension separator */
+	private final PathTrie allowedExtensions = new PathTrie(true, true);
 
 	/**
 	 * Constructor
@@ -95,6 +128,7 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 				.getCanonicalPath();
 
 		this.config = jawrConfig;
+		this.metadataCache = new ResourceMetadataCache(config.getDecodedContentCacheMaxSize());
 		if (config.getUseBundleMapping() && StringUtils.isNotEmpty(config.getJawrWorkingDirectory())) {
 			tempWorkingDirectory = config.getJawrWorkingDirectory();
 		}
@@ -114,16 +148,29 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 		this.workingDirectory = tempWorkingDirectory + File.separator + JawrConstant.JAWR_WRK_DIR;
 
 		// add the default extension
-		allowedExtensions.addAll(JawrConstant.DEFAULT_RESOURCE_EXTENSIONS);
+		for (String extension : JawrConstant.DEFAULT_RESOURCE_EXTENSIONS) {
+			addAllowedExtension(extension);
+		}
 
 		if (JawrConstant.BINARY_TYPE.equals(config.getResourceType())) {
 			for (Object key : MIMETypesSupport.getSupportedProperties(JawrConfig.class).keySet()) {
-				if (!this.allowedExtensions.contains((String) key)) {
-					this.allowedExtensions.add((String) key);
-				}
+				addAllowedExtension((String) key);
 			}
 		} else {
-			allowedExtensions.add(config.getResourceType());
+			addAllowedExtension(config.getResourceType());
+		}
+
+		String immutablePathList = config.getProperty(JawrConstant.JAWR_RESOURCE_IMMUTABLE_PATHS);
+		if (StringUtils.isNotEmpty(immutablePathList)) {
+			for (String path : immutablePathList.split(JawrConstant.COMMA_SEPARATOR)) {
+				path = path.trim();
+				if (path.endsWith("**")) {
+					path = path.substring(0, path.length() - 2);
+				}
+				if (path.length() > 0) {
+					immutablePaths.put(path, 1L);
+				}
+			}
 		}
 
 		ServletContextResourceReader rd = (ServletContextResourceReader) ClassLoaderResourceUtils
@@ -176,6 +223,27 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 		this.workingDirectory = workingDir;
 	}
 
+	/**
+	 * Adds an allowed extension
+	 * 
+	 * @param extension
+	 *            the extension
+	 */
+	private void addAllowedExtension(String extension) {
+		allowedExtensions.put(FileNameUtils.EXTENSION_SEPARATOR_STR + extension, 1L);
+	}
+
+	/**
+	 * Checks if the extension of the resource is an allowed one
+	 * 
+	 * @param resourceName
+	 *            the resource name
+	 * @return true if the extension of the resource is an allowed one
+	 */
+	private boolean isAllowedExtension(String resourceName) {
+		return allowedExtensions.match(resourceName) != 0;
+	}
+
 	/**
 	 * Initialize the reader
 	 * 
@@ -192,6 +260,7 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 
 		if (obj instanceof ResourceBrowser) {
 			resourceInfoProviders.add(0, (ResourceBrowser) obj);
+			resourceInfoProviderIndex = new ResourceReaderDispatchIndex<>(resourceInfoProviders);
 		}
 	}
 
@@ -202,18 +271,24 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 	 * addResourceReader(net.jawr.web.resource.handler.reader. ResourceReader)
 	 */
 	@Override
-	public void addResourceReader(ResourceReader rd) {
+	public synchronized void addResourceReader(ResourceReader rd) {
 
 		if (rd instanceof TextResourceReader) {
 			resourceReaders.add((TextResourceReader) rd);
 			Collections.sort(resourceReaders, new ResourceReaderComparator(config));
+			resourceReaderIndex = new ResourceReaderDispatchIndex<>(resourceReaders);
 		}
 
 		if (rd instanceof StreamResourceReader) {
 			streamResourceReaders.add((StreamResourceReader) rd);
 			Collections.sort(streamResourceReaders, new ResourceReaderComparator(config));
+			streamResourceReaderIndex = new ResourceReaderDispatchIndex<>(streamResourceReaders);
 		}
 
+		// The new reader may have a higher priority than the readers which
+		// have already resolved the resources or read their content
+		metadataCache.clearResolvedReaders();
+		metadataCache.clearDecodedContents();
 		initReader(rd);
 	}
 
@@ -273,30 +348,51 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 		if (ThreadLocalJawrContext.isInterruptingProcessingBundle()) {
 			throw new InterruptBundlingProcessException();
 		}
+		// The metadata cache is only used for the resources retrieved for the
+		// bundling process, as some readers only handle these resources
+		ResourceReaderDispatchIndex<TextResourceReader> index = resourceReaderIndex;
+		boolean useMetadataCache = processingBundle && metadataCache.isActive();
+		if (useMetadataCache && metadataCache.isTextResourceNotFound(resourceName)) {
+			throw new ResourceNotFoundException(resourceName);
+		}
+
+		// The decoded content of the resources is shared during the bundling
+		// process
+		boolean sharedContent = useMetadataCache && excludedReader.isEmpty();
+		if (sharedContent) {
+			Reader content = metadataCache.getDecodedContent(resourceName);
+			if (content != null) {
+				return content;
+			}
+		}
+
 		Reader rd = null;
+		TextResourceReader resolvingReader = null;
+		TextResourceReader firstCandidateReader = null;
 
-		String resourceExtension = FileNameUtils.getExtension(resourceName);
 		boolean generatedPath = generatorRegistry.isPathGenerated(resourceName);
-		if (generatedPath || allowedExtensions.contains(resourceExtension.toLowerCase())) {
-			List<TextResourceReader> list = new ArrayList<>();
-			list.addAll(resourceReaders);
-			for (TextResourceReader rsReader : list) {
-				if (!isInstanceOf(rsReader, excludedReader)) {
-					if (!(rsReader instanceof ResourceGenerator)
-							|| ((ResourceGenerator) rsReader).getResolver().matchPath(resourceName)) {
-						try {
-							rd = rsReader.getResource(bundle, resourceName, processingBundle);
-						} catch (Exception e) {
-							if (LOGGER.isDebugEnabled()) {
-								LOGGER.debug("An exception occured while trying to read resource '" + resourceName
-										+ "'. Continuing with other readers. Error : ", e);
-							} else if (LOGGER.isInfoEnabled()) {
-								LOGGER.info("An exception occured while trying to read resource '" + resourceName
-										+ "'. Continuing with other readers. Error : " + e.getMessage());
-							}
-						}
-						if (rd != null) {
-							break;
+		if (generatedPath || isAllowedExtension(resourceName)) {
+
+			// Try first the reader which has already resolved the resource
+			TextResourceReader resolvedReader = useMetadataCache ? metadataCache.getTextReader(resourceName) : null;
+			if (resolvedReader != null && !isInstanceOf(resolvedReader, excludedReader)) {
+				rd = getResource(resolvedReader, bundle, resourceName, processingBundle);
+				resolvingReader = resolvedReader;
+			}
+
+			long candidates = index.getReaderCandidates(resourceName);
+			int firstIdx = index.nextReader(resourceName, candidates, 0);
+			if (firstIdx != -1) {
+				firstCandidateReader = index.getReader(firstIdx);
+			}
+			for (int i = firstIdx; i != -1 && rd == null; i = index.nextReader(resourceName, candidates, i + 1)) {
+				TextResourceReader rsReader = index.getReader(i);
+				if (rsReader != resolvedReader && !isInstanceOf(rsReader, excludedReader)) {
+					rd = getResource(rsReader, bundle, resourceName, processingBundle);
+					if (rd != null) {
+						resolvingReader = rsReader;
+						if (useMetadataCache && index == resourceReaderIndex) {
+							metadataCache.putTextReader(resourceName, rsReader);
 						}
 					}
 				}
@@ -306,12 +402,118 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 		}
 
 		if (rd == null) {
+			// Generated resources may depend on the bundle, so only the
+			// resources which are not generated are stored as not found
+			if (useMetadataCache && !generatedPath && excludedReader.isEmpty() && index == resourceReaderIndex) {
+				metadataCache.setTextResourceNotFound(resourceName);
+			}
 			throw new ResourceNotFoundException(resourceName);
 		}
 
+		// The content of a resource is stored if it doesn't depend on the
+		// bundle and if it has been resolved by the reader with the highest
+		// priority. The immutable resources are always stored. The stored
+		// contents are discarded when a reader is added, as the new reader,
+		// like the CSS smartsprites one, may handle the resource.
+		if (sharedContent && index == resourceReaderIndex && (immutablePaths.match(resourceName) != 0
+				|| (!generatedPath && resolvingReader == firstCandidateReader))) {
+			rd = storeDecodedContent(resourceName, rd);
+		}
+
 		return rd;
 	}
 
+	/**
+	 * Stores the decoded content of the resource in the metadata cache
+	 * 
+	 * @param resourceName
+	 *            the resource name
+	 * @param rd
+	 *            the reader on the resource
+	 * @return the reader on the decoded content
+	 */
+	private Reader storeDecodedContent(String resourceName, Reader rd) {
+
+		DecodedResourceReader content = null;
+		if (rd instanceof DecodedResourceReader) {
+			content = (DecodedResourceReader) rd;
+		} else {
+			StringWriter writer = new StringWriter();
+			try {
+				IOUtils.copy(rd, writer, true);
+			} catch (IOException e) {
+				throw new BundlingProcessException("Unable to read the resource '" + resourceName + "'", e);
+			}
+			content = new DecodedResourceReader(writer.toString(), null);
+		}
+		return metadataCache.putDecodedContent(resourceName, content);
+	}
+
+	/**
+	 * Retrieves the resource from the reader given in parameter
+	 * 
+	 * @param rsReader
+	 *            the resource reader
+	 * @param bundle
+	 *            the bundle
+	 * @param resourceName
+	 *            the resource name
+	 * @param processingBundle
+	 *            the flag indicating if we are processing the bundle
+	 * @return the reader to the resource or null if the resource has not been
+	 *         found or if an exception occurs
+	 */
+	private Reader getResource(TextResourceReader rsReader, JoinableResourceBundle bundle, String resourceName,
+			boolean processingBundle) {
+
+		Reader rd = null;
+		try {
+			rd = rsReader.getResource(bundle, resourceName, processingBundle);
+		} catch (Exception e) {
+			logReaderException(resourceName, e);
+		}
+		return rd;
+	}
+
+	/**
+	 * Retrieves the resource from the stream reader given in parameter
+	 * 
+	 * @param rsReader
+	 *            the stream resource reader
+	 * @param resourceName
+	 *            the resource name
+	 * @return the input stream of the resource or null if the resource has not
+	 *         been found or if an exception occurs
+	 */
+	private InputStream getResourceAsStream(StreamResourceReader rsReader, String resourceName) {
+
+		InputStream is = null;
+		try {
+			is = rsReader.getResourceAsStream(resourceName);
+		} catch (Exception e) {
+			logReaderException(resourceName, e);
+		}
+		return is;
+	}
+
+	/**
+	 * Logs the exception which occured while reading a resource
+	 * 
+	 * @param resourceName
+	 *            the resource name
+	 * @param e
+	 *            the exception
+	 */
+	private void logReaderException(String resourceName, Exception e) {
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("An exception occured while trying to read resource '" + resourceName
+					+ "'. Continuing with other readers. Error : ", e);
+		} else if (LOGGER.isInfoEnabled()) {
+			LOGGER.info("An exception occured while trying to read resource '" + resourceName
+					+ "'. Continuing with other readers. Error : " + e.getMessage());
+		}
+	}
+
 	/**
 	 * Checks if an object is an instance of on interface from a list of
 	 * interface
@@ -365,30 +567,32 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 			throw new InterruptBundlingProcessException();
 		}
 
+		ResourceReaderDispatchIndex<StreamResourceReader> index = streamResourceReaderIndex;
+		boolean useMetadataCache = processingBundle && metadataCache.isActive();
+		if (useMetadataCache && metadataCache.isStreamResourceNotFound(resourceName)) {
+			throw new ResourceNotFoundException(resourceName);
+		}
+
 		generatorRegistry.loadGeneratorIfNeeded(resourceName);
 		InputStream is = null;
 
-		String resourceExtension = FileNameUtils.getExtension(resourceName);
 		boolean generatedPath = generatorRegistry.isPathGenerated(resourceName);
-		if (generatedPath || allowedExtensions.contains(resourceExtension.toLowerCase())) {
-			List<StreamResourceReader> list = new ArrayList<>();
-			list.addAll(streamResourceReaders);
-			for (StreamResourceReader rsReader : list) {
-				if (!(rsReader instanceof ResourceGenerator)
-						|| ((ResourceGenerator) rsReader).getResolver().matchPath(resourceName)) {
-					try {
-						is = rsReader.getResourceAsStream(resourceName);
-					} catch (Exception e) {
-						if (LOGGER.isDebugEnabled()) {
-							LOGGER.debug("An exception occured while trying to read resource '" + resourceName
-									+ "'. Continuing with other readers. Error : ", e);
-						} else if (LOGGER.isInfoEnabled()) {
-							LOGGER.info("An exception occured while trying to read resource '" + resourceName
-									+ "'. Continuing with other readers. Error : " + e.getMessage());
-						}
-					}
-					if (is != null) {
-						break;
+		if (generatedPath || isAllowedExtension(resourceName)) {
+
+			StreamResourceReader resolvedReader = useMetadataCache ? metadataCache.getStreamReader(resourceName)
+					: null;
+			if (resolvedReader != null) {
+				is = getResourceAsStream(resolvedReader, resourceName);
+			}
+
+			long candidates = index.getReaderCandidates(resourceName);
+			for (int i = index.nextReader(resourceName, candidates, 0); i != -1 && is == null; i = index
+					.nextReader(resourceName, candidates, i + 1)) {
+				StreamResourceReader rsReader = index.getReader(i);
+				if (rsReader != resolvedReader) {
+					is = getResourceAsStream(rsReader, resourceName);
+					if (is != null && useMetadataCache && index == streamResourceReaderIndex) {
+						metadataCache.putStreamReader(resourceName, rsReader);
 					}
 				}
 			}
@@ -396,6 +600,9 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 			LOGGER.warn("The resource '" + resourceName + "' will not be read as its extension is not an allowed one.");
 		}
 		if (is == null) {
+			if (useMetadataCache && !generatedPath && index == streamResourceReaderIndex) {
+				metadataCache.setStreamResourceNotFound(resourceName);
+			}
 			throw new ResourceNotFoundException(resourceName);
 		}
 
@@ -413,23 +620,9 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 	public Set<String> getResourceNames(String dirName) {
 		Set<String> resourceNames = new TreeSet<>();
 
-		List<ResourceBrowser> list = new ArrayList<>();
-		list.addAll(resourceInfoProviders);
-		for (ResourceBrowser rsBrowser : list) {
-			if (generatorRegistry.isPathGenerated(dirName)) {
-				if (rsBrowser instanceof ResourceGenerator) {
-					ResourceGenerator rsGeneratorBrowser = (ResourceGenerator) rsBrowser;
-					if (rsGeneratorBrowser.getResolver().matchPath(dirName)) {
-						resourceNames.addAll(rsBrowser.getResourceNames(dirName));
-						break;
-					}
-				}
-			} else {
-				if (!(rsBrowser instanceof ResourceGenerator)) {
-					resourceNames.addAll(rsBrowser.getResourceNames(dirName));
-					break;
-				}
-			}
+		ResourceBrowser rsBrowser = getResourceBrowser(dirName);
+		if (rsBrowser != null) {
+			resourceNames.addAll(rsBrowser.getResourceNames(dirName));
 		}
 
 		return resourceNames;
@@ -445,22 +638,12 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 	@Override
 	public boolean isDirectory(String resourceName) {
 		boolean result = false;
-		List<ResourceBrowser> list = new ArrayList<>();
-		list.addAll(resourceInfoProviders);
-		for (Iterator<ResourceBrowser> iterator = list.iterator(); iterator.hasNext() && !result;) {
-			ResourceBrowser rsBrowser = iterator.next();
-			if (generatorRegistry.isPathGenerated(resourceName)) {
-				if (rsBrowser instanceof ResourceGenerator) {
-					ResourceGenerator rsGeneratorBrowser = (ResourceGenerator) rsBrowser;
-					if (rsGeneratorBrowser.getResolver().matchPath(resourceName)) {
-						result = rsBrowser.isDirectory(resourceName);
-					}
-				}
-			} else {
-				if (!(rsBrowser instanceof ResourceGenerator)) {
-					result = rsBrowser.isDirectory(resourceName);
-				}
-			}
+		ResourceReaderDispatchIndex<ResourceBrowser> index = resourceInfoProviderIndex;
+		boolean generatedPath = generatorRegistry.isPathGenerated(resourceName);
+		long candidates = getResourceBrowserCandidates(index, resourceName, generatedPath);
+		for (int i = nextResourceBrowser(index, resourceName, generatedPath, candidates, 0); i != -1
+				&& !result; i = nextResourceBrowser(index, resourceName, generatedPath, candidates, i + 1)) {
+			result = index.getReader(i).isDirectory(resourceName);
 		}
 		return result;
 	}
@@ -475,27 +658,78 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 	@Override
 	public String getFilePath(String resourcePath) {
 
-		String filePath = null;
-		List<ResourceBrowser> list = new ArrayList<>();
-		list.addAll(resourceInfoProviders);
-		for (Iterator<ResourceBrowser> iterator = list.iterator(); iterator.hasNext() && filePath == null;) {
-			ResourceBrowser rsBrowser = iterator.next();
-			if (generatorRegistry.isPathGenerated(resourcePath)) {
-				if (rsBrowser instanceof ResourceGenerator) {
-					ResourceGenerator rsGeneratorBrowser = (ResourceGenerator) rsBrowser;
-					if (rsGeneratorBrowser.getResolver().matchPath(resourcePath)) {
-						filePath = rsBrowser.getFilePath(resourcePath);
-					}
-				}
-			} else {
-				if (!(rsBrowser instanceof ResourceGenerator)) {
-					filePath = rsBrowser.getFilePath(resourcePath);
-				}
-			}
+		String filePath = metadataCache.getFilePath(resourcePath);
+		if (filePath != null) {
+			return filePath.equals(ResourceMetadataCache.NO_FILE_PATH) ? null : filePath;
+		}
+
+		ResourceReaderDispatchIndex<ResourceBrowser> index = resourceInfoProviderIndex;
+		boolean generatedPath = generatorRegistry.isPathGenerated(resourcePath);
+		long candidates = getResourceBrowserCandidates(index, resourcePath, generatedPath);
+		for (int i = nextResourceBrowser(index, resourcePath, generatedPath, candidates, 0); i != -1
+				&& filePath == null; i = nextResourceBrowser(index, resourcePath, generatedPath, candidates, i + 1)) {
+			filePath = index.getReader(i).getFilePath(resourcePath);
 		}
+		metadataCache.putFilePath(resourcePath, filePath);
 		return filePath;
 	}
 
+	/**
+	 * Returns the first resource browser which handles the path
+	 * 
+	 * @param path
+	 *            the path
+	 * @return the first resource browser which handles the path
+	 */
+	private ResourceBrowser getResourceBrowser(String path) {
+
+		ResourceReaderDispatchIndex<ResourceBrowser> index = resourceInfoProviderIndex;
+		boolean generatedPath = generatorRegistry.isPathGenerated(path);
+		long candidates = getResourceBrowserCandidates(index, path, generatedPath);
+		int idx = nextResourceBrowser(index, path, generatedPath, candidates, 0);
+		return idx == -1 ? null : index.getReader(idx);
+	}
+
+	/**
+	 * Returns the mask of the resource browsers which handle the path. If the
+	 * path is a generated one, only the matching generators are retrieved,
+	 * otherwise only the browsers which are not generators are retrieved.
+	 * 
+	 * @param index
+	 *            the resource browser index
+	 * @param path
+	 *            the path
+	 * @param generatedPath
+	 *            the flag indicating if the path is generated
+	 * @return the mask of the resource browsers which handle the path
+	 */
+	private long getResourceBrowserCandidates(ResourceReaderDispatchIndex<ResourceBrowser> index, String path,
+			boolean generatedPath) {
+		return generatedPath ? index.getGeneratorCandidates(path) : index.getNonGeneratorCandidates();
+	}
+
+	/**
+	 * Returns the position of the next resource browser which handles the
+	 * path
+	 * 
+	 * @param index
+	 *            the resource browser index
+	 * @param path
+	 *            the path
+	 * @param generatedPath
+	 *            the flag indicating if the path is generated
+	 * @param candidates
+	 *            the candidate mask
+	 * @param from
+	 *            the position to start from
+	 * @return the position of the next resource browser or -1 if there is
+	 *         none
+	 */
+	private int nextResourceBrowser(ResourceReaderDispatchIndex<ResourceBrowser> index, String path,
+			boolean generatedPath, long candidates, int from) {
+		return generatedPath ? index.nextGenerator(path, candidates, from) : index.nextNonGenerator(candidates, from);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -504,11 +738,45 @@ public class ServletContextResourceReaderHandler implements ResourceReaderHandle
 	 */
 	@Override
 	public long getLastModified(String filePath) {
-		long lastModified = 0;
-		File f = new File(filePath);
-		if (f.exists()) {
-			lastModified = f.lastModified();
+		return metadataCache.getFileMetadata(filePath).getLastModified();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.handler.reader.ResourceMetadataInvalidator#
+	 * invalidateResourceMetadata(java.lang.String)
+	 */
+	@Override
+	public void invalidateResourceMetadata(String filePath) {
+		metadataCache.invalidate(filePath);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.lifecycle.
+	 * BundlingProcessLifeCycleListener#beforeBundlingProcess()
+	 */
+	@Override
+	public void beforeBundlingProcess() {
+		metadataCache.start();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jawr.web.resource.bundle.lifecycle.
+	 * BundlingProcessLifeCycleListener#afterBundlingProcess()
+	 */
+	@Override
+	public void afterBundlingProcess() {
+		if (LOGGER.isDebugEnabled()) {
+			DecodedContentCache contentCache = metadataCache.getDecodedContentCache();
+			LOGGER.debug("Decoded content cache for " + config.getResourceType() + " resources : "
+					+ contentCache.getHitCount() + " hits, " + contentCache.getMissCount() + " misses, "
+					+ contentCache.getSize() + " characters stored");
 		}
-		return lastModified;
+		metadataCache.stop();
 	}
 }
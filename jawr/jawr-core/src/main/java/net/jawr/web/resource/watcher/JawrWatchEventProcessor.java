@@ -33,6 +33,8 @@ import net.jawr.web.resource.FileNameUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
 import net.jawr.web.resource.bundle.mappings.PathMapping;
+import net.jawr.web.resource.handler.reader.ResourceMetadataInvalidator;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 
 /**
  * The Jawr watch event processor
@@ -126,6 +128,13 @@ public class JawrWatchEventProcessor extends Thread {
 	public void process(JawrWatchEvent evt) {
 
 		Path resolvedPath = evt.getResolvedPath();
+
+		// Discard the cached information about the modified file
+		ResourceReaderHandler rsReader = watcher.getResourceReaderHandler();
+		if (rsReader instanceof ResourceMetadataInvalidator) {
+			((ResourceMetadataInvalidator) rsReader).invalidateResourceMetadata(resolvedPath.toString());
+		}
+
 		List<PathMapping> mappings = watcher.getPathToResourceBundle().get(evt.getDirPath());
 		if (mappings != null) {
 
@@ -127,6 +127,15 @@ public class ResourceWatcher extends Thread {
 		return bundlesHandler;
 	}
 
+	/**
+	 * Returns the resource reader handler
+	 * 
+	 * @return the resource reader handler
+	 */
+	public ResourceReaderHandler getResourceReaderHandler() {
+		return rsReader;
+	}
+
 	/**
 	 * Returns the map which links java.nio.file.Path to a list of PathMapping
 	 * 
@@ -146,6 +146,9 @@ public class JawrBinaryResourceRequestHandler extends JawrRequestHandler {
 		}
 
 		// init registry
+		if (generatorRegistry != null) {
+			generatorRegistry.dispose();
+		}
 		generatorRegistry = new GeneratorRegistry(resourceType);
 
 		// Initialize config
@@ -53,9 +53,11 @@ import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.BinaryResourcesHandler;
 import net.jawr.web.resource.FileNameUtils;
 import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.css.CssDebugUrlRewriter;
 import net.jawr.web.resource.bundle.factory.PropertiesBasedBundlesHandlerFactory;
 import net.jawr.web.resource.bundle.factory.PropsConfigPropertiesSource;
+import net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper;
 import net.jawr.web.resource.bundle.factory.util.ClassLoaderResourceUtils;
 import net.jawr.web.resource.bundle.factory.util.ConfigChangeListener;
 import net.jawr.web.resource.bundle.factory.util.ConfigChangeListenerThread;
@@ -64,8 +66,11 @@ import net.jawr.web.resource.bundle.factory.util.PathNormalizer;
 import net.jawr.web.resource.bundle.factory.util.PropsFilePropertiesSource;
 import net.jawr.web.resource.bundle.factory.util.ServletContextAware;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
 import net.jawr.web.resource.bundle.handler.BundleHashcodeType;
 import net.jawr.web.resource.bundle.handler.ClientSideHandlerScriptRequestHandler;
+import net.jawr.web.resource.bundle.handler.DisposableResourceBundlesHandler;
+import net.jawr.web.resource.bundle.handler.ReloadableResourceBundlesHandler;
 import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
 import net.jawr.web.resource.bundle.renderer.BundleRenderer;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
@@ -303,6 +308,30 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			configChangeListenerThread.start();
 		}
 
+		initResourceWatcher();
+
+		if (LOGGER.isInfoEnabled()) {
+			long totaltime = System.currentTimeMillis() - initialTime;
+			LOGGER.info("Init method succesful. jawr started in " + (totaltime / 1000) + " seconds....");
+		}
+
+		// Reset ThreadLocalJawrContext
+		ThreadLocalJawrContext.reset();
+	}
+
+	/**
+	 * Initialize the resource watcher if the smart bundling feature is used.
+	 * If a resource watcher was already defined, it is stopped, as it is bound
+	 * to the previous bundles handler.
+	 */
+	protected void initResourceWatcher() {
+
+		if (this.watcher != null) {
+			this.watcher.stopWatching();
+			this.watcher.interrupt();
+			this.watcher = null;
+		}
+
 		if (this.bundlesHandler != null && jawrConfig.getUseSmartBundling()) {
 
 			this.watcher = new ResourceWatcher(this.bundlesHandler, this.rsReaderHandler);
@@ -316,14 +345,6 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 
 			this.watcher.start();
 		}
-
-		if (LOGGER.isInfoEnabled()) {
-			long totaltime = System.currentTimeMillis() - initialTime;
-			LOGGER.info("Init method succesful. jawr started in " + (totaltime / 1000) + " seconds....");
-		}
-
-		// Reset ThreadLocalJawrContext
-		ThreadLocalJawrContext.reset();
 	}
 
 	/**
@@ -351,6 +372,79 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 				props.getProperty(JawrConstant.JAWR_JMX_MBEAN_PREFIX));
 	}
 
+	/**
+	 * Updates the current Jawr context with the new configuration, without
+	 * recreating the bundles handler and the generator registry. This is only
+	 * possible if the smart bundling is used and if the configuration
+	 * properties shared by all the bundles and the default postprocessor
+	 * chains are unchanged. The generators whose settings have changed are
+	 * reinitialized and only the bundles affected by the changes are rebuilt.
+	 * The config and the generators are only modified once these checks have
+	 * passed, and they are restored if the new bundles can't be built.
+	 * 
+	 * @param props
+	 *            the Jawr properties
+	 * @return true if the Jawr context has been updated, false if it must be
+	 *         initialized again
+	 * @throws ServletException
+	 *             if an exception occurs
+	 */
+	protected boolean updateJawrContext(Properties props) throws ServletException {
+
+		// Check that the bundles can be updated in place before modifying the
+		// config or the generators
+		if (jawrConfig == null || !jawrConfig.getUseSmartBundling()
+				|| !(bundlesHandler instanceof ReloadableResourceBundlesHandler)
+				|| !((ReloadableResourceBundlesHandler) bundlesHandler).canUpdateBundles()) {
+			return false;
+		}
+
+		// Resolve the placeholders of the new properties
+		Properties newProps = new JawrConfig(resourceType, props, configPropResolver).getConfigProperties();
+		Properties previousProps = jawrConfig.getConfigProperties();
+		BundleConfigDependencyHelper previousConfigHelper = new BundleConfigDependencyHelper(previousProps,
+				resourceType);
+		BundleConfigDependencyHelper configHelper = new BundleConfigDependencyHelper(newProps, resourceType);
+		if (!configHelper.getSharedConfig().equals(previousConfigHelper.getSharedConfig()) || !configHelper
+				.getDefaultPostProcessorConfig().equals(previousConfigHelper.getDefaultPostProcessorConfig())) {
+			return false;
+		}
+		List<ResourceGeneratorResolver> modifiedGeneratorResolvers = configHelper
+				.getModifiedGeneratorResolvers(previousConfigHelper);
+
+		StopWatch stopWatch = new StopWatch("Jawr Processing for '" + resourceType + "' resource");
+		ThreadLocalJawrContext.setStopWatch(stopWatch);
+
+		// The bundles are built once the generators are initialized with the
+		// new settings, as their variants may depend on them
+		jawrConfig.updateConfigProperties(newProps);
+		generatorRegistry.reinitializeGenerators(modifiedGeneratorResolvers);
+
+		List<JoinableResourceBundle> bundles = null;
+		try {
+			PropertiesBasedBundlesHandlerFactory factory = new PropertiesBasedBundlesHandlerFactory(newProps,
+					resourceType, rsReaderHandler, initResourceBundleHandler(), jawrConfig, false);
+			bundles = factory.buildResourceBundles();
+		} catch (DuplicateBundlePathException | BundleDependencyException e) {
+			throw new ServletException(e);
+		} finally {
+			if (bundles == null) {
+				// Restore the previous config, which is still used by the
+				// current bundles
+				jawrConfig.updateConfigProperties(previousProps);
+				generatorRegistry.reinitializeGenerators(modifiedGeneratorResolvers);
+			}
+		}
+
+		boolean updated = ((ReloadableResourceBundlesHandler) bundlesHandler).updateBundles(bundles,
+				previousConfigHelper);
+
+		if (PERF_PROCESSING_LOGGER.isDebugEnabled()) {
+			PERF_PROCESSING_LOGGER.debug(stopWatch.prettyPrint());
+		}
+		return updated;
+	}
+
 	/**
 	 * Resets the cache manager
 	 */
@@ -481,6 +575,14 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 		StopWatch stopWatch = new StopWatch("Jawr Processing for '" + resourceType + "' resource");
 		ThreadLocalJawrContext.setStopWatch(stopWatch);
 
+		// Dispose the previous bundles handler and registry
+		if (bundlesHandler instanceof DisposableResourceBundlesHandler) {
+			((DisposableResourceBundlesHandler) bundlesHandler).dispose();
+		}
+		if (generatorRegistry != null) {
+			generatorRegistry.dispose();
+		}
+
 		// init registry
 		generatorRegistry = new GeneratorRegistry(resourceType);
 
@@ -1163,6 +1265,13 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			}
 		}
 
+		if (bundlesHandler instanceof DisposableResourceBundlesHandler) {
+			((DisposableResourceBundlesHandler) bundlesHandler).dispose();
+		}
+		if (generatorRegistry != null) {
+			generatorRegistry.dispose();
+		}
+
 		JmxUtils.unregisterJMXBean(servletContext, resourceType,
 				jawrConfig.getProperty(JawrConstant.JAWR_JMX_MBEAN_PREFIX));
 
@@ -1257,7 +1366,12 @@ public class JawrRequestHandler implements ConfigChangeListener, Serializable {
 			}
 			props.putAll(newConfig);
 
-			initializeJawrContext(props);
+			// Only the bundles affected by the configuration changes are
+			// rebuilt if the smart bundling is used
+			if (!updateJawrContext(props)) {
+				initializeJawrContext(props);
+				initResourceWatcher();
+			}
 
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug("Jawr configuration succesfully reloaded. ");
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An unsynchronized character sequence built by appending chunks. The appended
+ * sequences are kept as is, so appending doesn't copy their content, and the
+ * content is copied only once, when the sequence is converted to a
+ * {@link StringBuffer} or to a {@link String}.
+ * 
+ * The appended sequences must not be modified afterwards.
+ * 
+ * @author Ibrahim Chaehoi
+ */
+public class ChunkedCharSequence implements CharSequence {
+
+	/** The chunks */
+	private final List<CharSequence> chunks = new ArrayList<>();
+
+	/** The start offsets of the chunks */
+	private int[] offsets = new int[16];
+
+	/** The length of the sequence */
+	private int length;
+
+	/**
+	 * Appends a character sequence
+	 * 
+	 * @param chunk
+	 *            the character sequence to append
+	 * @return this sequence
+	 */
+	public ChunkedCharSequence append(CharSequence chunk) {
+
+		int chunkLength = chunk.length();
+		if (chunkLength > 0) {
+			if (chunks.size() == offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			}
+			offsets[chunks.size()] = length;
+			chunks.add(chunk);
+			length += chunkLength;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the number of chunks
+	 * 
+	 * @return the number of chunks
+	 */
+	public int getChunkCount() {
+		return chunks.size();
+	}
+
+	/**
+	 * Returns a chunk, as it has been appended
+	 * 
+	 * @param index
+	 *            the index of the chunk
+	 * @return the chunk
+	 */
+	public CharSequence getChunk(int index) {
+		return chunks.get(index);
+	}
+
+	/**
+	 * Checks if the sequence ends with the given suffix
+	 * 
+	 * @param suffix
+	 *            the suffix
+	 * @return true if the sequence ends with the given suffix
+	 */
+	public boolean endsWith(CharSequence suffix) {
+		return StringUtils.endsWith(this, suffix);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.CharSequence#length()
+	 */
+	@Override
+	public int length() {
+		return length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.CharSequence#charAt(int)
+	 */
+	@Override
+	public char charAt(int index) {
+
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+		}
+		int chunkIdx = getChunkIndex(index);
+		return chunks.get(chunkIdx).charAt(index - offsets[chunkIdx]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.CharSequence#subSequence(int, int)
+	 */
+	@Override
+	public CharSequence subSequence(int start, int end) {
+
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + length);
+		}
+		StringBuilder sb = new StringBuilder(end - start);
+		if (start < end) {
+			int chunkIdx = getChunkIndex(start);
+			int pos = start;
+			while (pos < end) {
+				CharSequence chunk = chunks.get(chunkIdx);
+				int chunkStart = offsets[chunkIdx];
+				int chunkEnd = Math.min(chunkStart + chunk.length(), end);
+				sb.append(chunk, pos - chunkStart, chunkEnd - chunkStart);
+				pos = chunkEnd;
+				chunkIdx++;
+			}
+		}
+		return sb;
+	}
+
+	/**
+	 * Copies characters from this sequence into the destination array
+	 * 
+	 * @param srcBegin
+	 *            the index of the first character to copy
+	 * @param srcEnd
+	 *            the index after the last character to copy
+	 * @param dst
+	 *            the destination array
+	 * @param dstBegin
+	 *            the start offset in the destination array
+	 */
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+
+		if (srcBegin < 0 || srcEnd > length || srcBegin > srcEnd) {
+			throw new IndexOutOfBoundsException("Start: " + srcBegin + ", End: " + srcEnd + ", Length: " + length);
+		}
+		if (srcBegin == srcEnd) {
+			return;
+		}
+		int chunkIdx = getChunkIndex(srcBegin);
+		int pos = srcBegin;
+		while (pos < srcEnd) {
+			CharSequence chunk = chunks.get(chunkIdx);
+			int chunkStart = offsets[chunkIdx];
+			int chunkEnd = Math.min(chunkStart + chunk.length(), srcEnd);
+			int dstPos = dstBegin + pos - srcBegin;
+			if (chunk instanceof String) {
+				((String) chunk).getChars(pos - chunkStart, chunkEnd - chunkStart, dst, dstPos);
+			} else if (chunk instanceof StringBuffer) {
+				((StringBuffer) chunk).getChars(pos - chunkStart, chunkEnd - chunkStart, dst, dstPos);
+			} else if (chunk instanceof StringBuilder) {
+				((StringBuilder) chunk).getChars(pos - chunkStart, chunkEnd - chunkStart, dst, dstPos);
+			} else if (chunk instanceof ChunkedCharSequence) {
+				((ChunkedCharSequence) chunk).getChars(pos - chunkStart, chunkEnd - chunkStart, dst, dstPos);
+			} else {
+				for (int i = pos - chunkStart; i < chunkEnd - chunkStart; i++) {
+					dst[dstPos++] = chunk.charAt(i);
+				}
+			}
+			pos = chunkEnd;
+			chunkIdx++;
+		}
+	}
+
+	/**
+	 * Returns the index of the chunk which contains the character at the
+	 * given index
+	 * 
+	 * @param index
+	 *            the character index
+	 * @return the chunk index
+	 */
+	private int getChunkIndex(int index) {
+
+		int idx = Arrays.binarySearch(offsets, 0, chunks.size(), index);
+		return idx >= 0 ? idx : -idx - 2;
+	}
+
+	/**
+	 * Returns the content in a new {@link StringBuffer}, which has exactly the
+	 * size of the content. If the sequence contains a single
+	 * {@link StringBuffer}, this one is returned.
+	 * 
+	 * @return the content in a {@link StringBuffer}
+	 */
+	public StringBuffer toStringBuffer() {
+
+		if (chunks.size() == 1 && chunks.get(0) instanceof StringBuffer) {
+			return (StringBuffer) chunks.get(0);
+		}
+		StringBuffer sb = new StringBuffer(length);
+		for (CharSequence chunk : chunks) {
+			sb.append(chunk);
+		}
+		return sb;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+
+		StringBuilder sb = new StringBuilder(length);
+		for (CharSequence chunk : chunks) {
+			sb.append(chunk);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class defines a bounded cache, which discards the least recently used
+ * entries when the total weight of its entries exceeds the limit. By default
+ * each entry weighs 1, so the limit is a number of entries. The subclasses
+ * override {@link #getWeight(Object)} to bound the cache by the size of the
+ * values instead.
+ *
+ * This class is thread safe.
+ *
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the values
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class LRUCache<K, V> {
+
+	/** The maximum total weight of the entries */
+	private final long maxWeight;
+
+	/** The values by key, ordered from the least recently used */
+	private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The total weight of the entries */
+	private long weight;
+
+	/** The number of cache hits */
+	private final AtomicLong hitCount = new AtomicLong();
+
+	/** The number of cache misses */
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxWeight
+	 *            the maximum total weight of the entries
+	 */
+	public LRUCache(long maxWeight) {
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * Returns the weight of a value. The default implementation returns 1.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the weight of the value
+	 */
+	protected long getWeight(V value) {
+		return 1;
+	}
+
+	/**
+	 * Returns the value stored for the key, and marks it as the most recently
+	 * used
+	 *
+	 * @param key
+	 *            the key
+	 * @return the value, or null if it is not in the cache
+	 */
+	public V get(K key) {
+
+		V value;
+		synchronized (entries) {
+			value = entries.get(key);
+		}
+		if (value == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Stores the value for the key. A value heavier than the cache is not
+	 * stored, and the previous value of the key is discarded.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 */
+	public void put(K key, V value) {
+
+		synchronized (entries) {
+			remove(key);
+			long valueWeight = getWeight(value);
+			if (valueWeight <= maxWeight) {
+				entries.put(key, value);
+				weight += valueWeight;
+				evictIfNeeded();
+			}
+		}
+	}
+
+	/**
+	 * Stores the value for the key if there is no value for it yet. This
+	 * method doesn't update the hit and miss counts.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 * @return the value already stored for the key, or null if the value has
+	 *         been stored or is heavier than the cache
+	 */
+	public V putIfAbsent(K key, V value) {
+
+		synchronized (entries) {
+			V existing = entries.get(key);
+			if (existing == null) {
+				put(key, value);
+			}
+			return existing;
+		}
+	}
+
+	/**
+	 * Discards the value stored for the key
+	 *
+	 * @param key
+	 *            the key
+	 */
+	public void remove(K key) {
+
+		synchronized (entries) {
+			V previous = entries.remove(key);
+			if (previous != null) {
+				weight -= getWeight(previous);
+			}
+		}
+	}
+
+	/**
+	 * Discards the least recently used entries until the total weight is
+	 * under the limit
+	 */
+	private void evictIfNeeded() {
+
+		for (Iterator<V> iterator = entries.values().iterator(); weight > maxWeight && iterator.hasNext();) {
+			weight -= getWeight(iterator.next());
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Discards all the entries
+	 */
+	public void clear() {
+
+		synchronized (entries) {
+			entries.clear();
+			weight = 0;
+		}
+	}
+
+	/**
+	 * Resets the hit and miss counts
+	 */
+	public void resetCounts() {
+		hitCount.set(0);
+		missCount.set(0);
+	}
+
+	/**
+	 * Returns the number of entries
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Returns the maximum total weight of the entries
+	 *
+	 * @return the maximum total weight of the entries
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Returns the total weight of the entries
+	 *
+	 * @return the total weight of the entries
+	 */
+	public long getWeight() {
+		synchronized (entries) {
+			return weight;
+		}
+	}
+
+	/**
+	 * Returns the number of cache hits
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of cache misses
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+}
@@ -144,7 +144,59 @@ public class StringUtils {
         
         return cs1.equals(cs2);
     }
-    
+
+    /**
+     * <p>Checks if a CharSequence ends with a specified suffix, without
+     * copying the CharSequence into a String.</p>
+     *
+     * <pre>
+     * StringUtils.endsWith("abc", "bc")  = true
+     * StringUtils.endsWith("abc", "")    = true
+     * StringUtils.endsWith("abc", "abcd") = false
+     * </pre>
+     *
+     * @param cs the CharSequence to check
+     * @param suffix the suffix to find
+     * @return <code>true</code> if the CharSequence ends with the suffix
+     */
+    public static boolean endsWith(final CharSequence cs, final CharSequence suffix) {
+        int offset = cs.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (cs.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>Copies the characters of a CharSequence in a new array, without
+     * copying it into a String first.</p>
+     *
+     * @param cs the CharSequence to copy
+     * @return the characters of the CharSequence
+     */
+    public static char[] toCharArray(final CharSequence cs) {
+        char[] chars = new char[cs.length()];
+        if (cs instanceof String) {
+            ((String) cs).getChars(0, chars.length, chars, 0);
+        } else if (cs instanceof StringBuffer) {
+            ((StringBuffer) cs).getChars(0, chars.length, chars, 0);
+        } else if (cs instanceof StringBuilder) {
+            ((StringBuilder) cs).getChars(0, chars.length, chars, 0);
+        } else if (cs instanceof ChunkedCharSequence) {
+            ((ChunkedCharSequence) cs).getChars(0, chars.length, chars, 0);
+        } else {
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = cs.charAt(i);
+            }
+        }
+        return chars;
+    }
+
 	// Count matches
 	// -----------------------------------------------------------------------
 	/**
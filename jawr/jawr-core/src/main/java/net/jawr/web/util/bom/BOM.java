@@ -13,6 +13,8 @@
  */
 package net.jawr.web.util.bom;
 
+import java.nio.ByteBuffer;
+
 /**
  * The class defining the BOM for UTF files
  * 
@@ -89,6 +91,54 @@ public class BOM {
 		return result;
 	}
 
+	/**
+	 * Detects the BOM at the current position of the byte buffer. The
+	 * position of the buffer is not modified.
+	 * 
+	 * @param buffer
+	 *            the byte buffer
+	 * @return the BOM detected, or {@link #NONE} if there is no BOM
+	 */
+	public static BOM detect(ByteBuffer buffer) {
+
+		BOM result = NONE;
+		int pos = buffer.position();
+		int remaining = buffer.remaining();
+		if (remaining >= 4 && startsWith(buffer, pos, UTF_32_LE)) {
+			result = UTF_32_LE;
+		} else if (remaining >= 4 && startsWith(buffer, pos, UTF_32_BE)) {
+			result = UTF_32_BE;
+		} else if (remaining >= 3 && startsWith(buffer, pos, UTF_8)) {
+			result = UTF_8;
+		} else if (remaining >= 2 && startsWith(buffer, pos, UTF_16_LE)) {
+			result = UTF_16_LE;
+		} else if (remaining >= 2 && startsWith(buffer, pos, UTF_16_BE)) {
+			result = UTF_16_BE;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the buffer starts with the bytes of the BOM at the position
+	 * given in parameter
+	 * 
+	 * @param buffer
+	 *            the byte buffer
+	 * @param pos
+	 *            the position
+	 * @param bom
+	 *            the BOM
+	 * @return true if the buffer starts with the bytes of the BOM
+	 */
+	private static boolean startsWith(ByteBuffer buffer, int pos, BOM bom) {
+		for (int i = 0; i < bom.bytes.length; i++) {
+			if (buffer.get(pos + i) != bom.bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Returns a <code>String</code> representation of this <code>BOM</code>
 	 * value.
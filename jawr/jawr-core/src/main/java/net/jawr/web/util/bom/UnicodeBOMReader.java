@@ -177,6 +177,34 @@ public class UnicodeBOMReader extends Reader {
 			in.unread(chBom, 0, read);
 	}
 
+	/**
+	 * Constructs a new <code>UnicodeBOMReader</code> that wraps the specified
+	 * <code>Reader</code>, whose BOM has already been detected on the raw
+	 * bytes.
+	 * 
+	 * @param reader
+	 *            a <code>reader</code>.
+	 * @param pCharset
+	 *            a charset.
+	 * @param pBom
+	 *            the BOM detected.
+	 */
+	public UnicodeBOMReader(final Reader reader, final Charset pCharset, final BOM pBom) {
+
+		if (reader == null)
+			throw new InvalidParameterException("invalid reader: null is not allowed");
+
+		if (pCharset == null)
+			throw new InvalidParameterException("invalid charset: null is not allowed");
+
+		if (pBom == null)
+			throw new InvalidParameterException("invalid BOM: null is not allowed");
+
+		in = new PushbackReader(reader, 4);
+		charset = pCharset;
+		bom = pBom;
+	}
+
 	/**
 	 * Returns the <code>BOM</code> that was detected in the wrapped
 	 * <code>InputStream</code> object.
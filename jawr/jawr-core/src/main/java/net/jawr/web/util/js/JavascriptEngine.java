@@ -18,6 +18,8 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
@@ -26,6 +28,8 @@ import javax.script.ScriptException;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.util.js.rhino.RhinoScriptClassCache;
+import net.jawr.web.util.js.rhino.RhinoScriptEngine;
 
 /**
  * This class is intended to provide facility method for JS script engine.
@@ -76,9 +80,21 @@ public class JavascriptEngine implements Invocable {
 	 *            in the global variable
 	 */
 	public JavascriptEngine(String scriptEngineName, boolean initGlobal) {
+		this(new ScriptEngineManager().getEngineByName(scriptEngineName), initGlobal);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param scriptEngine
+	 *            the script engine to use
+	 * @param initGlobal
+	 *            the flag indicating that we must initialize the global object
+	 *            in the global variable
+	 */
+	public JavascriptEngine(ScriptEngine scriptEngine, boolean initGlobal) {
 
-		ScriptEngineManager manager = new ScriptEngineManager();
-		scriptEngine = manager.getEngineByName(scriptEngineName);
+		this.scriptEngine = scriptEngine;
 		if (initGlobal) {
 
 			// get JavaScript "global" object and put it in the script engine
@@ -93,6 +109,15 @@ public class JavascriptEngine implements Invocable {
 		}
 	}
 
+	/**
+	 * Returns the script engine
+	 * 
+	 * @return the script engine
+	 */
+	public ScriptEngine getScriptEngine() {
+		return scriptEngine;
+	}
+
 	/**
 	 * @return the context
 	 */
@@ -160,6 +185,83 @@ public class JavascriptEngine implements Invocable {
 		}
 	}
 
+	/**
+	 * Checks if the scripts can be compiled by the engine
+	 * 
+	 * @return true if the scripts can be compiled by the engine
+	 */
+	public boolean isCompilable() {
+		return scriptEngine instanceof Compilable;
+	}
+
+	/**
+	 * Compiles the script
+	 * 
+	 * @param scriptName
+	 *            the script name
+	 * @param script
+	 *            the script
+	 * @return the compiled script
+	 */
+	public CompiledScript compile(String scriptName, String script) {
+
+		try {
+			scriptEngine.put(ScriptEngine.FILENAME, scriptName);
+			return ((Compilable) scriptEngine).compile(script);
+		} catch (ScriptException e) {
+			throw new BundlingProcessException("Error while compiling script : " + scriptName, e);
+		}
+	}
+
+	/**
+	 * Compiles the script. If the engine is a Rhino engine, the classes
+	 * generated for the script are stored in the cache, and loaded from it if
+	 * they have already been generated.
+	 * 
+	 * @param scriptName
+	 *            the script name
+	 * @param script
+	 *            the script
+	 * @param classCache
+	 *            the cache of the generated script classes
+	 * @return the compiled script
+	 */
+	public CompiledScript compile(String scriptName, String script, RhinoScriptClassCache classCache) {
+
+		if (!(scriptEngine instanceof RhinoScriptEngine)) {
+			return compile(scriptName, script);
+		}
+
+		try {
+			scriptEngine.put(ScriptEngine.FILENAME, scriptName);
+			return classCache.compile((RhinoScriptEngine) scriptEngine, scriptName, script);
+		} catch (ScriptException e) {
+			throw new BundlingProcessException("Error while compiling script : " + scriptName, e);
+		}
+	}
+
+	/**
+	 * Evaluates a compiled script in the context of this engine
+	 * 
+	 * @param scriptName
+	 *            the script name
+	 * @param script
+	 *            the compiled script
+	 * @return the result
+	 */
+	public Object evaluate(String scriptName, CompiledScript script) {
+
+		try {
+			scriptEngine.put(ScriptEngine.FILENAME, scriptName);
+			if (scriptEngine instanceof RhinoScriptEngine) {
+				return ((RhinoScriptEngine) scriptEngine).exec(script);
+			}
+			return script.eval(scriptEngine.getContext());
+		} catch (ScriptException e) {
+			throw new BundlingProcessException("Error while evaluating script : " + scriptName, e);
+		}
+	}
+
 	/**
 	 * Evaluates the JS passed in parameter
 	 * 
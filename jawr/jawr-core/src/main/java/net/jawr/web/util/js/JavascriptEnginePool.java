@@ -0,0 +1,387 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.js;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+import javax.script.SimpleBindings;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.util.js.rhino.RhinoScriptClassCache;
+import net.jawr.web.util.js.rhino.RhinoScriptEngine;
+import net.jawr.web.util.js.rhino.RhinoScriptEngineFactory;
+
+/**
+ * This class defines a pool of Javascript engines for a tool script like
+ * Uglify or Autoprefixer. All the engines of the pool are initialized with the
+ * same bindings and scripts. The scripts are read once, and when the Rhino
+ * engine is used they are also evaluated once, in a scope shared by the
+ * engines, whose standard objects are sealed, while each engine has its own
+ * engine scope. The engines are created on demand, so no engine is created until the tool is
+ * used, and only one engine is created if the tool is never used
+ * concurrently. If the working directory is defined, the classes generated
+ * by Rhino for the scripts are persisted, and reused after a restart.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class JavascriptEnginePool {
+
+	/** The name of the Javascript engine */
+	private final String jsEngineName;
+
+	/**
+	 * The flag indicating that we must initialize the global object in the
+	 * global variable
+	 */
+	private final boolean initGlobal;
+
+	/** The maximum number of engines */
+	private final int maxSize;
+
+	/** The bindings defined in each engine */
+	private final Map<String, Object> bindings = new LinkedHashMap<>();
+
+	/** The scripts evaluated in each engine */
+	private final List<PooledScript> scripts = new ArrayList<>();
+
+	/** The idle engines */
+	private final Deque<JavascriptEngine> idleEngines = new ArrayDeque<>();
+
+	/** The cache of the generated script classes */
+	private RhinoScriptClassCache scriptClassCache;
+
+	/**
+	 * The flag indicating if the Rhino engine is used, or null if it is not
+	 * resolved yet
+	 */
+	private Boolean rhinoEngine;
+
+	/**
+	 * The engine whose scope, where the scripts are evaluated, is shared by
+	 * the engines of the pool, if the Rhino engine is used
+	 */
+	private RhinoScriptEngine sharedScopeEngine;
+
+	/** The number of engines created */
+	private int engineCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param jsEngineName
+	 *            the name of the Javascript engine
+	 * @param initGlobal
+	 *            the flag indicating that we must initialize the global object
+	 *            in the global variable
+	 * @param maxSize
+	 *            the maximum number of engines, a value lower than 1 means
+	 *            the number of available processors
+	 */
+	public JavascriptEnginePool(String jsEngineName, boolean initGlobal, int maxSize) {
+		this.jsEngineName = jsEngineName;
+		this.initGlobal = initGlobal;
+		this.maxSize = maxSize < 1 ? Runtime.getRuntime().availableProcessors() : maxSize;
+	}
+
+	/**
+	 * Returns the maximum number of engines
+	 *
+	 * @return the maximum number of engines
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of engines created
+	 *
+	 * @return the number of engines created
+	 */
+	public synchronized int getEngineCount() {
+		return engineCount;
+	}
+
+	/**
+	 * Defines a binding in each engine. The bindings are defined before the
+	 * evaluation of the scripts.
+	 *
+	 * @param name
+	 *            the binding name
+	 * @param value
+	 *            the binding value
+	 */
+	public synchronized void putBinding(String name, Object value) {
+		checkNotStarted();
+		bindings.put(name, value);
+	}
+
+	/**
+	 * Defines where and how the classes generated by Rhino for the scripts are
+	 * persisted. The classes are stored in a subdirectory of the Jawr working
+	 * directory.
+	 *
+	 * @param workingDirectory
+	 *            the Jawr working directory, or null if the classes must not
+	 *            be persisted
+	 * @param optimizationLevel
+	 *            the Rhino optimization level used to generate the classes, a
+	 *            negative value means that the classes are not persisted
+	 */
+	public synchronized void setScriptClassCache(String workingDirectory, int optimizationLevel) {
+		checkNotStarted();
+		if (workingDirectory != null && optimizationLevel >= 0) {
+			scriptClassCache = new RhinoScriptClassCache(
+					new File(workingDirectory, JawrConstant.JS_ENGINE_SCRIPT_CLASS_DIR), optimizationLevel);
+		} else {
+			scriptClassCache = null;
+		}
+	}
+
+	/**
+	 * Adds a script to evaluate in each engine
+	 *
+	 * @param scriptName
+	 *            the script name
+	 * @param is
+	 *            the script input stream, which is closed by this method
+	 */
+	public void addScript(String scriptName, InputStream is) {
+
+		try (Reader rd = new InputStreamReader(is)) {
+			addScript(scriptName, IOUtils.toString(rd));
+		} catch (IOException e) {
+			throw new BundlingProcessException("Unable to read the script : " + scriptName, e);
+		}
+	}
+
+	/**
+	 * Adds a script to evaluate in each engine
+	 *
+	 * @param scriptName
+	 *            the script name
+	 * @param script
+	 *            the script
+	 */
+	public synchronized void addScript(String scriptName, String script) {
+		checkNotStarted();
+		scripts.add(new PooledScript(scriptName, script));
+	}
+
+	/**
+	 * Checks that no engine has been created yet
+	 */
+	private void checkNotStarted() {
+		if (engineCount > 0) {
+			throw new IllegalStateException("The Javascript engines have already been initialized");
+		}
+	}
+
+	/**
+	 * Acquires an engine from the pool. The engine is used exclusively by the
+	 * caller until it is released. If all the engines are in use and the
+	 * maximum number of engines is reached, this method waits until an engine
+	 * is released.
+	 *
+	 * @return the engine
+	 */
+	public JavascriptEngine acquire() {
+
+		synchronized (this) {
+			while (idleEngines.isEmpty() && engineCount >= maxSize) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new BundlingProcessException("Interrupted while waiting for a Javascript engine", e);
+				}
+			}
+
+			if (!idleEngines.isEmpty()) {
+				return idleEngines.pop();
+			}
+
+			engineCount++;
+		}
+
+		boolean created = false;
+		try {
+			JavascriptEngine engine = createEngine();
+			created = true;
+			return engine;
+		} finally {
+			if (!created) {
+				synchronized (this) {
+					engineCount--;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Releases an engine acquired from the pool
+	 *
+	 * @param engine
+	 *            the engine
+	 */
+	public synchronized void release(JavascriptEngine engine) {
+		idleEngines.push(engine);
+		notifyAll();
+	}
+
+	/**
+	 * Creates a new engine. If the Rhino engine is used, the bindings and the
+	 * scripts are defined once in the scope of a shared engine, which is
+	 * never returned by the pool, and the new engine is derived from it. The
+	 * new engine has its own engine scope, and the variables of the shared
+	 * scope are visible from its global scope. Otherwise the bindings and the
+	 * scripts are defined in the new engine.
+	 *
+	 * @return the new engine
+	 */
+	private JavascriptEngine createEngine() {
+
+		synchronized (scripts) {
+			if (rhinoEngine == null) {
+				rhinoEngine = isRhinoEngine();
+			}
+
+			if (rhinoEngine) {
+				if (sharedScopeEngine == null) {
+					sharedScopeEngine = createSharedScopeEngine();
+				}
+				RhinoScriptEngine scriptEngine = sharedScopeEngine.derive();
+				scriptEngine.setBindings(sharedScopeEngine.getBindings(ScriptContext.ENGINE_SCOPE),
+						ScriptContext.GLOBAL_SCOPE);
+				return new JavascriptEngine(scriptEngine, false);
+			}
+		}
+
+		JavascriptEngine engine = new JavascriptEngine(new ScriptEngineManager().getEngineByName(jsEngineName),
+				initGlobal);
+		initialize(engine);
+		return engine;
+	}
+
+	/**
+	 * Checks if the engine name refers to the Rhino engine, without creating
+	 * any engine
+	 *
+	 * @return true if the engine name refers to the Rhino engine
+	 */
+	private boolean isRhinoEngine() {
+
+		for (ScriptEngineFactory factory : new ScriptEngineManager().getEngineFactories()) {
+			if (factory.getNames().contains(jsEngineName)) {
+				return factory instanceof RhinoScriptEngineFactory;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Creates the engine whose scope is shared by all the engines of the pool.
+	 * The scripts are evaluated only once, in this engine. As the engines of
+	 * the pool may access the shared scope concurrently, its bindings are
+	 * synchronized.
+	 *
+	 * @return the shared scope engine
+	 */
+	private RhinoScriptEngine createSharedScopeEngine() {
+
+		RhinoScriptEngine scriptEngine = new RhinoScriptEngine(true);
+		scriptEngine.setBindings(new SimpleBindings(Collections.synchronizedMap(new HashMap<String, Object>())),
+				ScriptContext.ENGINE_SCOPE);
+		initialize(new JavascriptEngine(scriptEngine, initGlobal));
+		return scriptEngine;
+	}
+
+	/**
+	 * Defines the bindings and evaluates the scripts in the engine
+	 *
+	 * @param engine
+	 *            the engine
+	 */
+	private void initialize(JavascriptEngine engine) {
+
+		for (Map.Entry<String, Object> entry : bindings.entrySet()) {
+			engine.getBindings().put(entry.getKey(), entry.getValue());
+		}
+
+		for (PooledScript script : scripts) {
+			script.evaluate(engine, scriptClassCache);
+		}
+	}
+
+	/**
+	 * This class defines a script evaluated in each engine of the pool
+	 */
+	private static class PooledScript {
+
+		/** The script name */
+		private final String name;
+
+		/** The script source */
+		private final String source;
+
+		/**
+		 * Constructor
+		 *
+		 * @param name
+		 *            the script name
+		 * @param source
+		 *            the script source
+		 */
+		public PooledScript(String name, String source) {
+			this.name = name;
+			this.source = source;
+		}
+
+		/**
+		 * Evaluates the script in the engine. If the engine is a Rhino engine
+		 * and the cache of the generated script classes is defined, the
+		 * script is compiled using the cache.
+		 *
+		 * @param engine
+		 *            the engine
+		 * @param classCache
+		 *            the cache of the generated script classes, or null
+		 */
+		public void evaluate(JavascriptEngine engine, RhinoScriptClassCache classCache) {
+
+			if (classCache != null && engine.getScriptEngine() instanceof RhinoScriptEngine) {
+				engine.evaluate(name, engine.compile(name, source, classCache));
+			} else {
+				engine.evaluate(name, source);
+			}
+		}
+	}
+}
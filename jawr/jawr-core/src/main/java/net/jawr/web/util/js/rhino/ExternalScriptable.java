@@ -122,7 +122,9 @@ final class ExternalScriptable implements Scriptable {
                 int scope = context.getAttributesScope(name);
                 if (scope != -1) {
                     Object value = context.getAttribute(name, scope);
-                    if(value.getClass().getPackage().getName().startsWith(RHINO_JS_PACKAGE_NAME)){
+                    // The package of a class may be undefined, so the class
+                    // name is checked instead
+                    if(value == null || value.getClass().getName().startsWith(RHINO_JS_PACKAGE_NAME)){
                     	return value;
                     }else{
                         return Context.javaToJS(value, this);
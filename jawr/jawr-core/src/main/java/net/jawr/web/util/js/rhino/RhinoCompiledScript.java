@@ -44,14 +44,23 @@ final class RhinoCompiledScript extends CompiledScript {
     }
 
     public Object eval(ScriptContext context) throws ScriptException {
+        return exec(engine, context);
+    }
+
+    /**
+     * Executes the script in the scope of the engine given in parameter. The
+     * engine must share the top level scope of the engine which has compiled
+     * the script.
+     */
+    Object exec(RhinoScriptEngine target, ScriptContext context) throws ScriptException {
 
         Object result = null;
         Context cx = RhinoScriptEngine.enterContext();
         try {
 
-            Scriptable scope = engine.getRuntimeScope(context);
+            Scriptable scope = target.getRuntimeScope(context);
             Object ret = script.exec(cx, scope);
-            result = engine.unwrapReturnValue(ret);
+            result = target.unwrapReturnValue(ret);
         } catch (RhinoException re) {
             int line = (line = re.lineNumber()) == 0 ? -1 : line;
             String msg;
@@ -70,7 +79,7 @@ final class RhinoCompiledScript extends CompiledScript {
         return result;
     }
 
-    public ScriptEngine getEngine() {
+    public RhinoScriptEngine getEngine() {
         return engine;
     }
 
@@ -0,0 +1,307 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package net.jawr.web.util.js.rhino;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.GeneratedClassLoader;
+import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.optimizer.ClassCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jawr.web.resource.bundle.CheckSumUtils;
+
+/**
+ * This class persists the classes generated by Rhino for the compiled
+ * scripts, so the scripts of the tools like Uglify or Autoprefixer are not
+ * compiled again when the application restarts. The classes are only
+ * generated if the optimization level of the cache is not negative.
+ * Otherwise, the scripts are interpreted and compiled as usual.
+ *
+ * The classes of a script are stored in a file named after the hash of the
+ * script source, the Rhino version and the compilation options. The file ends
+ * with a checksum of its content, which is verified before defining the
+ * classes, so a corrupted file is ignored and the script is compiled again.
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class RhinoScriptClassCache {
+
+	/** The logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(RhinoScriptClassCache.class);
+
+	/** The prefix of the generated script class names */
+	private static final String SCRIPT_CLASS_PREFIX = "net.jawr.web.util.js.rhino.generated.Script_";
+
+	/** The extension of the files storing the script classes */
+	private static final String SCRIPT_CLASSES_FILE_EXTENSION = ".classes";
+
+	/** The directory where the script classes are stored */
+	private final File directory;
+
+	/** The optimization level used to generate the script classes */
+	private final int optimizationLevel;
+
+	/**
+	 * Constructor
+	 *
+	 * @param directory
+	 *            the directory where the script classes are stored
+	 * @param optimizationLevel
+	 *            the Rhino optimization level used to generate the script
+	 *            classes, from 0 to 9
+	 */
+	public RhinoScriptClassCache(File directory, int optimizationLevel) {
+		this.directory = directory;
+		this.optimizationLevel = optimizationLevel;
+	}
+
+	/**
+	 * Returns the directory where the script classes are stored
+	 *
+	 * @return the directory where the script classes are stored
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Compiles the script. If the classes of the script have already been
+	 * stored, they are loaded instead of compiling the script again.
+	 *
+	 * @param engine
+	 *            the engine
+	 * @param scriptName
+	 *            the script name
+	 * @param source
+	 *            the script source
+	 * @return the compiled script
+	 * @throws ScriptException
+	 *             if a script exception occurs
+	 */
+	public CompiledScript compile(RhinoScriptEngine engine, String scriptName, String source) throws ScriptException {
+
+		Context cx = RhinoScriptEngine.enterContext();
+		try {
+			if (optimizationLevel < 0) {
+				return engine.compile(source);
+			}
+
+			String key = getKey(cx, scriptName, source);
+			String mainClassName = SCRIPT_CLASS_PREFIX + key;
+			File file = new File(directory, key + SCRIPT_CLASSES_FILE_EXTENSION);
+
+			Script script = null;
+			if (file.isFile()) {
+				try {
+					script = loadScript(cx, mainClassName, readClasses(file));
+				} catch (IOException | ReflectiveOperationException | LinkageError | RuntimeException e) {
+					LOGGER.warn("Unable to load the compiled classes of the script '" + scriptName
+							+ "', the script will be compiled again", e);
+				}
+			}
+
+			if (script == null) {
+				Object[] classes = null;
+				try {
+					CompilerEnvirons compilerEnv = new CompilerEnvirons();
+					compilerEnv.initFromContext(cx);
+					compilerEnv.setOptimizationLevel(optimizationLevel);
+					classes = new ClassCompiler(compilerEnv).compileToClassFiles(source, scriptName, 1,
+							mainClassName);
+				} catch (RhinoException e) {
+					ScriptException se = new ScriptException(e.getMessage(), e.sourceName(), e.lineNumber());
+					se.initCause(e);
+					throw se;
+				} catch (RuntimeException e) {
+					// The script can't be compiled to classes, for example if
+					// a method exceeds the 64K limit.
+					LOGGER.debug("Unable to compile the script '" + scriptName + "' to classes", e);
+					return engine.compile(source);
+				}
+
+				try {
+					script = loadScript(cx, mainClassName, classes);
+				} catch (ReflectiveOperationException e) {
+					throw new ScriptException(e);
+				}
+				writeClasses(file, classes);
+			}
+
+			return new RhinoCompiledScript(engine, script);
+		} finally {
+			Context.exit();
+		}
+	}
+
+	/**
+	 * Returns the key of the script classes
+	 *
+	 * @param cx
+	 *            the context
+	 * @param scriptName
+	 *            the script name
+	 * @param source
+	 *            the script source
+	 * @return the key of the script classes
+	 */
+	private String getKey(Context cx, String scriptName, String source) {
+
+		String content = cx.getImplementationVersion() + "\n" + cx.getLanguageVersion() + "\n"
+				+ optimizationLevel + "\n" + scriptName + "\n" + source;
+		try {
+			return CheckSumUtils.getMD5Checksum(content);
+		} catch (IOException e) {
+			// Should never happens
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Defines the script classes and creates the script instance
+	 *
+	 * @param cx
+	 *            the context
+	 * @param mainClassName
+	 *            the name of the main script class
+	 * @param classes
+	 *            the array of class names and class bytes
+	 * @return the script instance
+	 * @throws ReflectiveOperationException
+	 *             if the script can't be instantiated
+	 */
+	private Script loadScript(Context cx, String mainClassName, Object[] classes)
+			throws ReflectiveOperationException {
+
+		GeneratedClassLoader loader = cx.createClassLoader(cx.getApplicationClassLoader());
+		Class<?> mainClass = null;
+		for (int i = 0; i < classes.length; i += 2) {
+			String className = (String) classes[i];
+			Class<?> clazz = loader.defineClass(className, (byte[]) classes[i + 1]);
+			if (className.equals(mainClassName)) {
+				mainClass = clazz;
+			}
+		}
+
+		if (mainClass == null) {
+			throw new ClassNotFoundException(mainClassName);
+		}
+		loader.linkClass(mainClass);
+		return (Script) mainClass.newInstance();
+	}
+
+	/**
+	 * Reads the script classes from the file. The number of classes and the
+	 * class lengths are checked against the file size, and the checksum of
+	 * the content is verified.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the array of class names and class bytes
+	 * @throws IOException
+	 *             if an IO exception occurs or if the file is corrupted
+	 */
+	private Object[] readClasses(File file) throws IOException {
+
+		long fileLength = file.length();
+		List<Object> classes = new ArrayList<>();
+		CRC32 checksum = new CRC32();
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) {
+			DataInputStream checkedIn = new DataInputStream(new CheckedInputStream(in, checksum));
+			int nbClasses = checkedIn.readInt();
+			if (nbClasses < 0 || nbClasses > fileLength) {
+				throw new IOException("Invalid number of classes in " + file);
+			}
+			for (int i = 0; i < nbClasses; i++) {
+				classes.add(checkedIn.readUTF());
+				int length = checkedIn.readInt();
+				if (length < 0 || length > fileLength) {
+					throw new IOException("Invalid class length in " + file);
+				}
+				byte[] bytes = new byte[length];
+				checkedIn.readFully(bytes);
+				classes.add(bytes);
+			}
+			if (in.readLong() != checksum.getValue()) {
+				throw new IOException("Invalid checksum for " + file);
+			}
+		}
+
+		return classes.toArray();
+	}
+
+	/**
+	 * Writes the script classes in the file, followed by the checksum of the
+	 * content. The classes are first written in a temporary file which is
+	 * then renamed, so a partially written file is never read.
+	 *
+	 * @param file
+	 *            the file
+	 * @param classes
+	 *            the array of class names and class bytes
+	 */
+	private void writeClasses(File file, Object[] classes) {
+
+		File tmpFile = null;
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Unable to create the directory " + directory);
+			}
+
+			tmpFile = File.createTempFile(file.getName(), ".tmp", directory);
+			CRC32 checksum = new CRC32();
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				DataOutputStream checkedOut = new DataOutputStream(new CheckedOutputStream(out, checksum));
+				checkedOut.writeInt(classes.length / 2);
+				for (int i = 0; i < classes.length; i += 2) {
+					checkedOut.writeUTF((String) classes[i]);
+					byte[] bytes = (byte[]) classes[i + 1];
+					checkedOut.writeInt(bytes.length);
+					checkedOut.write(bytes);
+				}
+				checkedOut.flush();
+				out.writeLong(checksum.getValue());
+			}
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to store the compiled classes in " + file, e);
+			if (tmpFile != null && tmpFile.exists() && !tmpFile.delete()) {
+				LOGGER.debug("Unable to delete the temporary file " + tmpFile);
+			}
+		}
+	}
+}
@@ -82,6 +82,11 @@ public final class RhinoScriptEngine extends AbstractScriptEngine
      */
     private Map<Object, Object> indexedProps;
 
+    /* Flag indicating if the standard objects of the top level scope are
+     * sealed, so the top level scope can be shared between engines.
+     */
+    private final boolean sealed;
+
     private ScriptEngineFactory factory;
     private InterfaceImplementor implementor;
 
@@ -137,12 +142,39 @@ public final class RhinoScriptEngine extends AbstractScriptEngine
      * Creates a new instance of RhinoScriptEngine
      */
     public RhinoScriptEngine() {
+        this(false);
+    }
 
-        Context cx = enterContext();
-        try {
-            topLevel = new RhinoTopLevel(cx, this);
-        } finally {
-        	Context.exit();
+    /**
+     * Creates a new instance of RhinoScriptEngine
+     *
+     * @param sealed the flag indicating if the standard objects of the top
+     *        level scope are sealed. A sealed top level scope can be shared
+     *        by the engines created with {@link #derive()}.
+     */
+    public RhinoScriptEngine(boolean sealed) {
+        this(null, sealed);
+    }
+
+    /**
+     * Creates a new instance of RhinoScriptEngine
+     *
+     * @param sharedTopLevel the top level scope to share, or null to create
+     *        a new one
+     * @param sealed the flag indicating if the top level scope is sealed
+     */
+    private RhinoScriptEngine(RhinoTopLevel sharedTopLevel, boolean sealed) {
+
+        this.sealed = sealed;
+        if (sharedTopLevel != null) {
+            topLevel = sharedTopLevel;
+        } else {
+            Context cx = enterContext();
+            try {
+                topLevel = new RhinoTopLevel(cx, this, sealed);
+            } finally {
+            	Context.exit();
+            }
         }
 
         indexedProps = new HashMap<Object, Object>();
@@ -358,6 +390,40 @@ public final class RhinoScriptEngine extends AbstractScriptEngine
     }
 
 
+    /**
+     * Creates a new engine which shares the sealed top level scope of this
+     * engine. Each engine has its own engine scope, so the global variables
+     * defined in one engine are not visible from the others, and the engines
+     * can be used concurrently by different threads.
+     *
+     * @return the new engine
+     */
+    public RhinoScriptEngine derive() {
+        if (!sealed) {
+            throw new IllegalStateException("Only an engine with a sealed top level scope can be derived");
+        }
+        RhinoScriptEngine engine = new RhinoScriptEngine(topLevel, true);
+        engine.setEngineFactory(factory);
+        return engine;
+    }
+
+    /**
+     * Executes a compiled script in the engine scope of this engine. A script
+     * compiled by an engine sharing the same top level scope is not compiled
+     * again.
+     *
+     * @param script the compiled script
+     * @return the result of the script execution
+     * @throws ScriptException if a script exception occurs
+     */
+    public Object exec(CompiledScript script) throws ScriptException {
+        if (script instanceof RhinoCompiledScript
+                && ((RhinoCompiledScript) script).getEngine().topLevel == topLevel) {
+            return ((RhinoCompiledScript) script).exec(this, context);
+        }
+        return script.eval(context);
+    }
+
     //Compilable methods
     public CompiledScript compile(String script) throws ScriptException {
         return compile(new StringReader(script));
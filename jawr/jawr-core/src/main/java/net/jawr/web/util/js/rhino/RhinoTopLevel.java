@@ -50,8 +50,16 @@ public final class RhinoTopLevel extends ImporterTopLevel {
 	/** The serial version UID */
 	private static final long serialVersionUID = 544962182006951880L;
 
-	RhinoTopLevel(Context cx, RhinoScriptEngine engine) {
-        super(cx);
+    /**
+     * Constructor
+     *
+     * @param cx the context
+     * @param engine the engine
+     * @param sealed the flag indicating if the top level scope and its
+     *        standard objects must be sealed
+     */
+	RhinoTopLevel(Context cx, RhinoScriptEngine engine, boolean sealed) {
+        super(cx, sealed);
         this.engine = engine;
 
 
@@ -71,6 +79,10 @@ public final class RhinoTopLevel extends ImporterTopLevel {
         String names[] = { "bindings", "scope", "sync"  };
         defineFunctionProperties(names, RhinoTopLevel.class,
                 ScriptableObject.DONTENUM);
+
+        if (sealed) {
+            sealObject();
+        }
     }
 
     /**
@@ -199,3 +199,33 @@ WARNING
     end
   end
 end
+
+module Jawr
+  # The Sass compiler used by the Jawr Sass Ruby generator.
+  # The parsed Sass trees are kept in a memory cache store, which is keyed by
+  # the importer key of each file and the SHA1 of its content, so only the
+  # files of the import graph which have changed are parsed again.
+  class SassCompiler
+
+    def initialize
+      @cache_store = Sass::CacheStores::Memory.new
+    end
+
+    # Compiles the SCSS content
+    #
+    # @param content [String] The SCSS content.
+    # @param path [String] The path of the SCSS resource.
+    # @param jawrResolver [JawrSassResolver] The Jawr Saas resolver.
+    # @return [String] The compiled CSS.
+    def compile(content, path, jawrResolver)
+      importer = Sass::Importers::JawrImporter.new(jawrResolver)
+      Sass::Engine.new(content, {:importer => importer, :filename => path, :syntax => :scss,
+        :cache => true, :cache_store => @cache_store}).render
+    end
+
+    # Clears the parsed Sass trees
+    def clear_cache
+      @cache_store.reset!
+    end
+  end
+end
@@ -0,0 +1,73 @@
+package test.net.jawr.web.minification;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import net.jawr.web.minification.CSSMinifier;
+import net.jawr.web.minification.CSSTokenizerMinifier;
+import test.net.jawr.web.FileUtils;
+
+/**
+ * Compares the throughput of the regular expression based CSS minifier and of
+ * the tokenizer based one on a large bundle, built by concatenating the CSS
+ * files of the test resources.
+ *
+ * This benchmark is not run by the tests. Launch it from the test classpath
+ * with an optional target bundle size in bytes (default 2 MB) :
+ * <code>java test.net.jawr.web.minification.CSSMinifierBenchmark 2000000</code>
+ */
+public class CSSMinifierBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 5;
+
+	private static final int MEASURED_ITERATIONS = 10;
+
+	public static void main(String[] args) throws Exception {
+
+		int targetSize = args.length > 0 ? Integer.parseInt(args[0]) : 2 * 1024 * 1024;
+		StringBuilder content = new StringBuilder(targetSize);
+		File sourceDir = new File(FileUtils.getClasspathRootDir());
+		while (content.length() < targetSize) {
+			appendCssFiles(sourceDir, content);
+		}
+		String bundle = content.toString();
+		System.out.println("Bundle size : " + bundle.length() + " chars");
+
+		for (boolean keepLicence : new boolean[] { false, true }) {
+			run("regex     keepLicence=" + keepLicence, new CSSMinifier(keepLicence), bundle);
+			run("tokenizer keepLicence=" + keepLicence, new CSSTokenizerMinifier(keepLicence), bundle);
+		}
+	}
+
+	private static void run(String name, CSSMinifier minifier, String bundle) {
+
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			minifier.minifyCSS(new StringBuffer(bundle));
+		}
+
+		long start = System.nanoTime();
+		int length = 0;
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			length += minifier.minifyCSS(new StringBuffer(bundle)).length();
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.println(name + " : " + (elapsed / MEASURED_ITERATIONS / 1000000) + " ms/op, output "
+				+ (length / MEASURED_ITERATIONS) + " chars");
+	}
+
+	private static void appendCssFiles(File dir, StringBuilder content) throws Exception {
+
+		File[] children = dir.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				if (child.isDirectory()) {
+					appendCssFiles(child, content);
+				} else if (child.getName().endsWith(".css")) {
+					content.append(new String(Files.readAllBytes(child.toPath()), StandardCharsets.ISO_8859_1))
+							.append('\n');
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package test.net.jawr.web.minification;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import net.jawr.web.minification.CSSMinifier;
+import net.jawr.web.minification.CSSTokenizerMinifier;
+import test.net.jawr.web.FileUtils;
+
+public class CSSTokenizerMinifierTest extends TestCase {
+
+	private static final String TEST_FOLDER = "/cssminifier";
+
+	private static final String[] EDGE_CASES = { "", " ", "  a { b : c }  ", " @media screen { a { b:c } }",
+			"@media only screen and (max-width:767px){ a { b : c } }", "@media screen AND ( max-width : 767px ) {}",
+			"@media screen and\t(max-width)", "a{width:calc(100% - 10px)}", "a{width:calc( 1px + 2px ) }",
+			"a{b:c * d}", "a{b:c / d}", "a - {b:c}", "@media x - { a{} }", "a { content : \" a  {  b \" }",
+			"a { content : ' x /* y */ z ' }", "a { content : 'unterminated }", "a { /* comment */ b : c }",
+			"/* unterminated comment { a : b }", "/*! licence */ a { b : c }", "a { b : c } /*! licence a /* b */ c */",
+			"/*! licence */* comment */ a{}", "/*! unterminated licence a { b : c }", "a { content : 'x /*! l */ y' }",
+			"a { content : \"x /*! l */ y\" }", "a { content : 'x /*! l */ y }", "a\u000B{ b : c }",
+			"and\u000B (x)", "a \u000B b", "a\r\n{\r\n\tb:c;\r\n}\r\n", "a{b:c}}}{{{", "a { b : 'c' 'd' \"e\" }",
+			"\nand\n(x){a:b}", "x{ and (y) {b:c} }", "x{ and (y) }",
+			"a \u0006{b:c}", "a - \u0006 {b:c}", "x{\u0006 and (y){b:c}}", "\u0001 a{b:c}" };
+
+	private void assertSameResult(String source) {
+		assertSameResult(source, false);
+		assertSameResult(source, true);
+	}
+
+	private void assertSameResult(String source, boolean keepLicence) {
+		String expected = new CSSMinifier(keepLicence).minifyCSS(new StringBuffer(source)).toString();
+		String actual = new CSSTokenizerMinifier(keepLicence).minifyCSS(new StringBuffer(source)).toString();
+		assertEquals("Error in minifier for : " + source, expected, actual);
+	}
+
+	private void collectCssFiles(File dir, List<File> files) {
+		File[] children = dir.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				if (child.isDirectory()) {
+					collectCssFiles(child, files);
+				} else if (child.getName().endsWith(".css")) {
+					files.add(child);
+				}
+			}
+		}
+	}
+
+	public void testMinifyCSS() throws Exception {
+
+		String source = FileUtils.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/source.css"));
+		String expected = FileUtils
+				.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/expected.css"));
+
+		StringBuffer actual = new CSSTokenizerMinifier().minifyCSS(new StringBuffer(source));
+		assertEquals("Error in minifier", expected, actual.toString());
+	}
+
+	public void testMinifyCSSWithLicence() throws Exception {
+
+		String source = FileUtils.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/source.css"));
+		String expected = FileUtils
+				.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/expected_withLicence.css"));
+
+		StringBuffer actual = new CSSTokenizerMinifier(true).minifyCSS(new StringBuffer(source));
+		assertEquals("Error in minifier", expected, actual.toString());
+	}
+
+	public void test2MinifyCSS() throws Exception {
+
+		String source = FileUtils.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/source2.css"));
+		String expected = FileUtils
+				.readFile(new File(FileUtils.getClasspathRootDir() + TEST_FOLDER + "/expected2.css"));
+
+		StringBuffer actual = new CSSTokenizerMinifier().minifyCSS(new StringBuffer(source));
+		assertEquals("Error in minifier", expected, actual.toString());
+	}
+
+	public void testSameResultAsRegexMinifierOnTestResources() throws Exception {
+
+		List<File> files = new ArrayList<>();
+		collectCssFiles(new File(FileUtils.getClasspathRootDir()), files);
+		assertFalse(files.isEmpty());
+		for (File file : files) {
+			assertSameResult(new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1));
+		}
+	}
+
+	public void testSameResultAsRegexMinifierOnEdgeCases() {
+
+		for (String source : EDGE_CASES) {
+			assertSameResult(source);
+		}
+	}
+
+	public void testSameResultAsRegexMinifierOnRandomContent() {
+
+		String[] fragments = { " ", "  ", "\n", "\t", "\r\n", "{", "}", "(", ")", ";", ":", "-", "+", "*", "/", "'",
+				"\"", "/*", "*/", "/*!", "and", "AND", "a", "b", ".c", "#d", "100%", "\u000B", "\u0001" };
+		Random random = new Random(42);
+		for (int i = 0; i < 5000; i++) {
+			StringBuilder source = new StringBuilder();
+			int length = random.nextInt(30);
+			for (int j = 0; j < length; j++) {
+				source.append(fragments[random.nextInt(fragments.length)]);
+			}
+			assertSameResult(source.toString());
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package test.net.jawr.web.minification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import net.jawr.web.minification.JSMin;
+import net.jawr.web.minification.JSMin.JSMinException;
+import test.net.jawr.web.FileUtils;
+
+/**
+ * Compares the throughput of the stream based JSMin, as it was used by the
+ * JSMin post processor, and of the character based one on a large bundle,
+ * built by concatenating the JS files of the test resources.
+ *
+ * This benchmark is not run by the tests. Launch it from the test classpath
+ * with an optional target bundle size in bytes (default 2 MB) :
+ * <code>java test.net.jawr.web.minification.JSMinBenchmark 2000000</code>
+ */
+public class JSMinBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 5;
+
+	private static final int MEASURED_ITERATIONS = 10;
+
+	public static void main(String[] args) throws Exception {
+
+		int targetSize = args.length > 0 ? Integer.parseInt(args[0]) : 2 * 1024 * 1024;
+		StringBuilder content = new StringBuilder(targetSize);
+		File sourceDir = new File(FileUtils.getClasspathRootDir());
+		while (content.length() < targetSize) {
+			appendJsFiles(sourceDir, content);
+		}
+		StringBuffer bundle = new StringBuffer(content);
+		System.out.println("Bundle size : " + bundle.length() + " chars");
+
+		for (int i = 0; i < 2; i++) {
+			run("stream", bundle, true);
+			run("chars ", bundle, false);
+		}
+	}
+
+	private static void run(String name, StringBuffer bundle, boolean stream) throws Exception {
+
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			minify(bundle, stream);
+		}
+
+		long start = System.nanoTime();
+		int length = 0;
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			length += minify(bundle, stream).length();
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.println(name + " : " + (elapsed / MEASURED_ITERATIONS / 1000000) + " ms/op, output "
+				+ (length / MEASURED_ITERATIONS) + " chars");
+	}
+
+	private static StringBuffer minify(StringBuffer bundle, boolean stream) throws Exception {
+
+		if (stream) {
+			// The previous post processing : CRLF replacement, encoding and
+			// decoding
+			byte[] bytes = bundle.toString().replaceAll("\r\n", "\n").getBytes(StandardCharsets.UTF_8);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			new JSMin(new ByteArrayInputStream(bytes), out).jsmin();
+			return new StringBuffer(new String(out.toByteArray(), StandardCharsets.UTF_8));
+		}
+
+		char[] chars = new char[bundle.length()];
+		bundle.getChars(0, chars.length, chars, 0);
+		StringBuilder out = new StringBuilder(chars.length);
+		new JSMin(chars, chars.length, out).jsmin();
+		return new StringBuffer(out);
+	}
+
+	private static void appendJsFiles(File dir, StringBuilder content) throws Exception {
+
+		File[] children = dir.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				if (child.isDirectory()) {
+					appendJsFiles(child, content);
+				} else if (child.getName().endsWith(".js")) {
+					String source = new String(Files.readAllBytes(child.toPath()), StandardCharsets.UTF_8);
+					if (isMinifiable(source)) {
+						content.append(source).append(";\n");
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isMinifiable(String source) throws Exception {
+
+		try {
+			new JSMin(source, new StringBuilder()).jsmin();
+			return true;
+		} catch (JSMinException e) {
+			return false;
+		}
+	}
+}
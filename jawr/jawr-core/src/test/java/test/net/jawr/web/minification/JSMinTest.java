@@ -0,0 +1,130 @@
+package test.net.jawr.web.minification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import net.jawr.web.minification.JSMin;
+import net.jawr.web.minification.JSMin.JSMinException;
+import test.net.jawr.web.FileUtils;
+
+public class JSMinTest extends TestCase {
+
+	private static final String[] EDGE_CASES = { "", "\n", "\uFEFFvar a = 1;", "var a = 'b\\'c';\r\nvar d = 2;",
+			"a = b / c;\r\nd = /re[/]g/.test(e);", "a\r\n++b", "a + +b", "a - -b", "if (a) {\r\n\treturn 'x\ty';\r\n}",
+			"var s = `template ${a}`;", "var \u00E9t\u00E9 = '\u00E1\u00E9\u00F1\u00ED';", "a\rb", "/* comment */a",
+			"// comment\r\na", "x = 1 /* c */ / 2" };
+
+	private static final String[] ERRORS = { "/* unterminated", "var a = 'unterminated;", "a = /unterminated",
+			"a = /[unterminated/" };
+
+	private String minifyStream(String source) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] bytes = source.replaceAll("\r\n", "\n").getBytes(StandardCharsets.UTF_8);
+		new JSMin(new ByteArrayInputStream(bytes), out).jsmin();
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private String minifyChars(String source) throws Exception {
+		StringBuilder out = new StringBuilder(source.length());
+		new JSMin(source, out).jsmin();
+		return out.toString();
+	}
+
+	private void assertSameResult(String source) throws Exception {
+
+		String expected = null;
+		Class<?> expectedError = null;
+		try {
+			expected = minifyStream(source);
+		} catch (JSMinException e) {
+			expectedError = e.getClass();
+		}
+
+		try {
+			assertEquals("Error in minifier for : " + source, expected, minifyChars(source));
+			assertNull("Missing error for : " + source, expectedError);
+		} catch (JSMinException e) {
+			assertEquals("Wrong error for : " + source, expectedError, e.getClass());
+		}
+	}
+
+	private void collectJsFiles(File dir, List<File> files) {
+		File[] children = dir.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				if (child.isDirectory()) {
+					collectJsFiles(child, files);
+				} else if (child.getName().endsWith(".js")) {
+					files.add(child);
+				}
+			}
+		}
+	}
+
+	public void testSameResultAsStreamMinifierOnTestResources() throws Exception {
+
+		List<File> files = new ArrayList<>();
+		collectJsFiles(new File(FileUtils.getClasspathRootDir()), files);
+		assertFalse(files.isEmpty());
+		for (File file : files) {
+			String source = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+			if (source.indexOf('\uFFFD') == -1) {
+				assertSameResult(source);
+			}
+		}
+	}
+
+	public void testSameResultAsStreamMinifierOnEdgeCases() throws Exception {
+
+		for (String source : EDGE_CASES) {
+			assertSameResult(source);
+		}
+		for (String source : ERRORS) {
+			assertSameResult(source);
+		}
+	}
+
+	public void testSameResultAsStreamMinifierOnRandomContent() throws Exception {
+
+		String[] fragments = { " ", "\n", "\r\n", "\t", "a", "1", "$", "+", "-", "*", "/", "(", ")", "{", "}", "[",
+				"]", "=", ",", ";", "!", "'", "\"", "`", "\\", "/*", "*/", "//", "\u00E9" };
+		Random random = new Random(42);
+		for (int i = 0; i < 5000; i++) {
+			StringBuilder source = new StringBuilder();
+			int length = random.nextInt(30);
+			for (int j = 0; j < length; j++) {
+				source.append(fragments[random.nextInt(fragments.length)]);
+			}
+			assertSameResult(source.toString());
+		}
+	}
+
+	public void testErrorPosition() throws Exception {
+
+		String source = "var a = 1;\r\nvar b = 'unterminated;\r\n";
+		JSMin.UnterminatedStringLiteralException expected = null;
+		try {
+			minifyStream(source);
+		} catch (JSMin.UnterminatedStringLiteralException e) {
+			expected = e;
+		}
+		assertNotNull(expected);
+
+		try {
+			minifyChars(source);
+			fail("An UnterminatedStringLiteralException should have been thrown");
+		} catch (JSMin.UnterminatedStringLiteralException e) {
+			assertEquals(expected.getLine(), e.getLine());
+			assertEquals(expected.getColumn(), e.getColumn());
+			// The index is the character index in the source
+			assertEquals(source.length(), e.getByteIndex());
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.handler.reader.DecodedContentCache;
+import net.jawr.web.resource.handler.reader.DecodedResourceReader;
+
+/**
+ * Unit tests for DecodedContentCache
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class DecodedContentCacheTestCase {
+
+	@Test
+	public void testSharedContent() throws IOException {
+
+		DecodedContentCache cache = new DecodedContentCache(100);
+		cache.put("/js/lib/jquery.js", new DecodedResourceReader("var jQuery;", null));
+		cache.put("/js/vendor/jquery.js", new DecodedResourceReader(new String("var jQuery;"), null));
+
+		// Identical contents are stored once
+		assertEquals(11, cache.getSize());
+		assertSame(cache.get("/js/lib/jquery.js").getContent(), cache.get("/js/vendor/jquery.js").getContent());
+
+		// Each reader can be consumed independently
+		assertEquals("var jQuery;", IOUtils.toString(cache.get("/js/lib/jquery.js")));
+		assertEquals("var jQuery;", IOUtils.toString(cache.get("/js/lib/jquery.js")));
+		assertNull(cache.get("/js/app.js"));
+		assertEquals(4, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testEviction() {
+
+		DecodedContentCache cache = new DecodedContentCache(10);
+		cache.put("/a.js", new DecodedResourceReader("aaaaa", null));
+		cache.put("/b.js", new DecodedResourceReader("bbbbb", null));
+		cache.get("/a.js");
+		cache.put("/c.js", new DecodedResourceReader("ccccc", null));
+
+		// The least recently used content is discarded
+		assertEquals(10, cache.getSize());
+		assertEquals("aaaaa", cache.get("/a.js").getContent());
+		assertNull(cache.get("/b.js"));
+		assertEquals("ccccc", cache.get("/c.js").getContent());
+
+		// The contents over the limit are not stored
+		cache.put("/d.js", new DecodedResourceReader("ddddddddddd", null));
+		assertNull(cache.get("/d.js"));
+
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		assertNull(cache.get("/a.js"));
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.jawr.web.resource.handler.reader.ResourceMetadataCache;
+import net.jawr.web.resource.handler.reader.TextResourceReader;
+
+/**
+ * Unit tests for ResourceMetadataCache
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ResourceMetadataCacheTestCase {
+
+	private ResourceMetadataCache cache;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		cache = new ResourceMetadataCache();
+		file = File.createTempFile("jawr", ".css");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testInactiveCache() throws IOException {
+
+		TextResourceReader reader = mock(TextResourceReader.class);
+		cache.putTextReader("/css/a.css", reader);
+		cache.setTextResourceNotFound("/css/b.css");
+		cache.putFilePath("/css/a.css", "/tmp/a.css");
+
+		assertNull(cache.getTextReader("/css/a.css"));
+		assertFalse(cache.isTextResourceNotFound("/css/b.css"));
+		assertNull(cache.getFilePath("/css/a.css"));
+
+		writeFile("a");
+		long size = cache.getFileMetadata(file.getAbsolutePath()).getSize();
+		writeFile("abc");
+		assertTrue(size != cache.getFileMetadata(file.getAbsolutePath()).getSize());
+	}
+
+	@Test
+	public void testActiveCache() throws IOException {
+
+		cache.start();
+
+		TextResourceReader reader = mock(TextResourceReader.class);
+		cache.putTextReader("/css/a.css", reader);
+		cache.setTextResourceNotFound("/css/b.css");
+		cache.putFilePath("/css/c.css", null);
+
+		assertSame(reader, cache.getTextReader("/css/a.css"));
+		assertTrue(cache.isTextResourceNotFound("/css/b.css"));
+		assertEquals(ResourceMetadataCache.NO_FILE_PATH, cache.getFilePath("/css/c.css"));
+
+		writeFile("a");
+		assertEquals(1, cache.getFileMetadata(file.getAbsolutePath()).getSize());
+		writeFile("abc");
+		assertEquals(1, cache.getFileMetadata(file.getAbsolutePath()).getSize());
+
+		cache.invalidate(file.getAbsolutePath());
+		assertEquals(3, cache.getFileMetadata(file.getAbsolutePath()).getSize());
+		assertSame(reader, cache.getTextReader("/css/a.css"));
+		assertTrue(cache.isTextResourceNotFound("/css/b.css"));
+
+		cache.stop();
+		assertFalse(cache.isActive());
+	}
+
+	@Test
+	public void testInvalidateByStoredPath() {
+
+		cache.start();
+
+		TextResourceReader reader = mock(TextResourceReader.class);
+		String createdResource = "/css/" + file.getName() + ".new";
+		cache.putTextReader("/css/a.css", reader);
+		cache.putFilePath("/css/a.css", file.getAbsolutePath());
+		cache.putTextReader("/css/other.css", reader);
+		cache.putFilePath("/css/other.css", file.getAbsolutePath() + ".other");
+		cache.setTextResourceNotFound(createdResource);
+		cache.setTextResourceNotFound("/css/missing.css");
+
+		// The resource stored with the modified file path is discarded
+		cache.invalidate(file.getParentFile().getAbsolutePath() + "/./" + file.getName());
+		assertNull(cache.getTextReader("/css/a.css"));
+		assertNull(cache.getFilePath("/css/a.css"));
+		assertSame(reader, cache.getTextReader("/css/other.css"));
+		assertEquals(file.getAbsolutePath() + ".other", cache.getFilePath("/css/other.css"));
+
+		// The resource matching a created file is not "not found" anymore
+		cache.invalidate(file.getAbsolutePath() + ".new");
+		assertFalse(cache.isTextResourceNotFound(createdResource));
+		assertTrue(cache.isTextResourceNotFound("/css/missing.css"));
+	}
+
+	@Test
+	public void testMissingFile() {
+
+		cache.start();
+		ResourceMetadataCache.FileMetadata metadata = cache.getFileMetadata(file.getAbsolutePath() + ".missing");
+		assertFalse(metadata.exists());
+		assertEquals(0, metadata.getLastModified());
+	}
+
+	private void writeFile(String content) throws IOException {
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write(content);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016 Ibrahim Chaehoi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package test.net.jawr.web.resource.bundle;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.jawr.web.resource.bundle.generator.ResourceGeneratorReaderWrapper;
+import net.jawr.web.resource.bundle.generator.TextResourceGenerator;
+import net.jawr.web.resource.bundle.generator.resolver.PrefixedPathResolver;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
+import net.jawr.web.resource.bundle.generator.resolver.SuffixedPathResolver;
+import net.jawr.web.resource.handler.reader.ResourceReader;
+import net.jawr.web.resource.handler.reader.ResourceReaderDispatchIndex;
+import net.jawr.web.resource.handler.reader.TextResourceReader;
+
+/**
+ * Unit tests for ResourceReaderDispatchIndex
+ *
+ * @author Ibrahim Chaehoi
+ */
+public class ResourceReaderDispatchIndexTestCase {
+
+	@Test
+	public void testReaderCandidates() {
+
+		List<ResourceReader> readers = new ArrayList<>();
+		readers.add(mock(TextResourceReader.class));
+		readers.add(createGenerator(new PrefixedPathResolver("jar")));
+		readers.add(createGenerator(new PrefixedPathResolver("jarx")));
+		readers.add(createGenerator(new SuffixedPathResolver("less")));
+		readers.add(createGenerator(new CustomResolver()));
+
+		ResourceReaderDispatchIndex<ResourceReader> index = new ResourceReaderDispatchIndex<>(readers);
+
+		assertEquals("[0]", getReaders(index, "/css/style.css"));
+		assertEquals("[0, 1]", getReaders(index, "jar:/css/style.css"));
+		assertEquals("[0, 2, 3]", getReaders(index, "jarx:/css/style.less"));
+		assertEquals("[0, 4]", getReaders(index, "/custom/style.css"));
+
+		assertEquals("[]", getGenerators(index, "/css/style.css"));
+		assertEquals("[2, 3]", getGenerators(index, "jarx:/css/style.less"));
+		assertEquals("[]", getGenerators(index, ""));
+	}
+
+	@Test
+	public void testReaderCandidatesOverIndexCapacity() {
+
+		List<ResourceReader> readers = new ArrayList<>();
+		for (int i = 0; i < 70; i++) {
+			readers.add(createGenerator(new PrefixedPathResolver("gen" + i)));
+		}
+		readers.add(mock(TextResourceReader.class));
+
+		ResourceReaderDispatchIndex<ResourceReader> index = new ResourceReaderDispatchIndex<>(readers);
+
+		assertEquals("[5, 70]", getReaders(index, "gen5:/a.js"));
+		assertEquals("[66, 70]", getReaders(index, "gen66:/a.js"));
+		assertEquals("[66]", getGenerators(index, "gen66:/a.js"));
+	}
+
+	private String getReaders(ResourceReaderDispatchIndex<ResourceReader> index, String path) {
+
+		List<Integer> result = new ArrayList<>();
+		long candidates = index.getReaderCandidates(path);
+		for (int i = index.nextReader(path, candidates, 0); i != -1; i = index.nextReader(path, candidates, i + 1)) {
+			result.add(i);
+		}
+		return result.toString();
+	}
+
+	private String getGenerators(ResourceReaderDispatchIndex<ResourceReader> index, String path) {
+
+		List<Integer> result = new ArrayList<>();
+		long candidates = index.getGeneratorCandidates(path);
+		for (int i = index.nextGenerator(path, candidates, 0); i != -1; i = index.nextGenerator(path, candidates,
+				i + 1)) {
+			result.add(i);
+		}
+		return result.toString();
+	}
+
+	private ResourceGeneratorReaderWrapper createGenerator(ResourceGeneratorResolver resolver) {
+		ResourceGeneratorReaderWrapper generator = mock(ResourceGeneratorReaderWrapper.class,
+				withSettings().extraInterfaces(TextResourceGenerator.class));
+		when(((TextResourceGenerator) generator).getResolver()).thenReturn(resolver);
+		return generator;
+	}
+
+	private static class CustomResolver extends PrefixedPathResolver {
+
+		public CustomResolver() {
+			super("custom");
+		}
+
+		@Override
+		public boolean matchPath(String path) {
+			return path.startsWith("/custom/");
+		}
+	}
+}
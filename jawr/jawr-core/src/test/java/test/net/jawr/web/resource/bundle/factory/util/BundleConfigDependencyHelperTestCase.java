@@ -0,0 +1,149 @@
+package test.net.jawr.web.resource.bundle.factory.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
+import net.jawr.web.resource.bundle.iterator.BundlePath;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BundleConfigDependencyHelperTestCase {
+
+	private Properties props;
+
+	private JoinableResourceBundle libBundle;
+
+	private JoinableResourceBundle appBundle;
+
+	@Before
+	public void setUp() {
+		props = new Properties();
+		props.put("jawr.debug.on", "false");
+		props.put("jawr.js.bundle.lib.id", "/bundles/lib.js");
+		props.put("jawr.js.bundle.lib.mappings", "/js/lib/**");
+		props.put("jawr.js.bundle.app.id", "/bundles/app.js");
+		props.put("jawr.js.bundle.app.mappings", "/js/app/**");
+		props.put("jawr.js.bundle.app.bundlepostprocessors", "custom");
+		props.put("jawr.js.bundle.factory.bundlepostprocessors", "JSMin,license");
+		props.put("jawr.custom.postprocessors.custom.class", "net.jawr.CustomPostProcessor");
+		props.put("jawr.css.bundle.main.id", "/bundles/main.css");
+		props.put("jawr.css.bundle.main.mappings", "/css/**");
+		props.put("jawr.config.reload.interval", "10");
+
+		libBundle = createMockBundle("lib");
+		appBundle = createMockBundle("app");
+	}
+
+	@Test
+	public void testBundleConfigChange() {
+
+		String libHashcode = getBundleConfigHashcode(libBundle);
+		String appHashcode = getBundleConfigHashcode(appBundle);
+		String sharedHashcode = getSharedConfigHashcode();
+
+		props.put("jawr.js.bundle.lib.mappings", "/js/lib/**,/js/vendor/**");
+
+		assertNotEquals(libHashcode, getBundleConfigHashcode(libBundle));
+		assertEquals(appHashcode, getBundleConfigHashcode(appBundle));
+		assertEquals(sharedHashcode, getSharedConfigHashcode());
+	}
+
+	@Test
+	public void testPostProcessorChainChange() {
+
+		String libHashcode = getBundleConfigHashcode(libBundle);
+		String appHashcode = getBundleConfigHashcode(appBundle);
+
+		// The app bundle overrides the default bundle postprocessor chain
+		props.put("jawr.js.bundle.factory.bundlepostprocessors", "JSMin");
+		assertNotEquals(libHashcode, getBundleConfigHashcode(libBundle));
+		assertEquals(appHashcode, getBundleConfigHashcode(appBundle));
+
+		// Only the app bundle uses the custom postprocessor
+		libHashcode = getBundleConfigHashcode(libBundle);
+		props.put("jawr.custom.postprocessors.custom.class", "net.jawr.OtherPostProcessor");
+		assertEquals(libHashcode, getBundleConfigHashcode(libBundle));
+		assertNotEquals(appHashcode, getBundleConfigHashcode(appBundle));
+	}
+
+	@Test
+	public void testIgnoredConfigChange() {
+
+		String libHashcode = getBundleConfigHashcode(libBundle);
+		String sharedHashcode = getSharedConfigHashcode();
+
+		props.put("jawr.css.bundle.main.mappings", "/css/main/**");
+		props.put("jawr.config.reload.interval", "20");
+
+		assertEquals(libHashcode, getBundleConfigHashcode(libBundle));
+		assertEquals(sharedHashcode, getSharedConfigHashcode());
+	}
+
+	@Test
+	public void testSharedConfigChange() {
+
+		String sharedHashcode = getSharedConfigHashcode();
+		props.put("jawr.debug.on", "true");
+		assertNotEquals(sharedHashcode, getSharedConfigHashcode());
+	}
+
+	@Test
+	public void testGeneratorConfigChange() {
+
+		props.put("jawr.css.bundle.sass.id", "/bundles/sass.css");
+		props.put("jawr.css.bundle.sass.mappings", "/css/style.scss");
+		props.put("jawr.css.sass.generator.urlMode", "relative");
+		JoinableResourceBundle sassBundle = createMockBundle("sass");
+		when(sassBundle.getItemPathList())
+				.thenReturn(Arrays.asList(new BundlePath(null, "/css/style.scss")));
+		JoinableResourceBundle mainBundle = createMockBundle("main");
+		when(mainBundle.getItemPathList()).thenReturn(Arrays.asList(new BundlePath(null, "/css/main.css")));
+
+		BundleConfigDependencyHelper previousHelper = new BundleConfigDependencyHelper(props, "css");
+		String sassHashcode = previousHelper.getBundleConfigHashcode(sassBundle);
+		String mainHashcode = previousHelper.getBundleConfigHashcode(mainBundle);
+
+		props.put("jawr.css.sass.generator.urlMode", "absolute");
+		BundleConfigDependencyHelper helper = new BundleConfigDependencyHelper(props, "css");
+
+		// Only the bundle using the Sass generator is affected
+		assertNotEquals(sassHashcode, helper.getBundleConfigHashcode(sassBundle));
+		assertEquals(mainHashcode, helper.getBundleConfigHashcode(mainBundle));
+		assertEquals(previousHelper.getSharedConfig(), helper.getSharedConfig());
+
+		List<ResourceGeneratorResolver> resolvers = helper.getModifiedGeneratorResolvers(previousHelper);
+		assertEquals(1, resolvers.size());
+		assertTrue(resolvers.get(0).matchPath("/css/style.scss"));
+		assertTrue(helper.getModifiedGeneratorResolvers(helper).isEmpty());
+	}
+
+	private String getBundleConfigHashcode(JoinableResourceBundle bundle) {
+		return new BundleConfigDependencyHelper(props, "js").getBundleConfigHashcode(bundle);
+	}
+
+	private String getSharedConfigHashcode() {
+		return new BundleConfigDependencyHelper(props, "js").getSharedConfigHashcode();
+	}
+
+	private JoinableResourceBundle createMockBundle(String name) {
+
+		JoinableResourceBundle bundle = Mockito.mock(JoinableResourceBundle.class);
+		when(bundle.getName()).thenReturn(name);
+		when(bundle.isComposite()).thenReturn(false);
+		return bundle;
+	}
+}
@@ -0,0 +1,176 @@
+package test.net.jawr.web.resource.bundle.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.generator.AbstractCachedGenerator;
+import net.jawr.web.resource.bundle.generator.CachedGenerator;
+import net.jawr.web.resource.bundle.generator.GeneratorContext;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolverFactory;
+import net.jawr.web.resource.bundle.mappings.FilePathMapping;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+import test.net.jawr.web.FileUtils;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AbstractCachedGeneratorTestCase {
+
+	private static final String WORK_DIR = "workDirCachedGenerator";
+
+	@Mock
+	private ResourceReaderHandler rsHandler;
+
+	private File workDir;
+
+	private File linkedFile;
+
+	private JawrConfig config;
+
+	@Before
+	public void setUp() throws Exception {
+		workDir = new File(FileUtils.getClasspathRootDir(), WORK_DIR);
+		FileUtils.clearDirectory(workDir.getAbsolutePath());
+		workDir.mkdirs();
+		linkedFile = new File(workDir, "linked.txt");
+		writeLinkedFile("content", 1000);
+
+		Properties props = new Properties();
+		props.put(JawrConstant.JAWR_GENERATOR_CACHE_VALIDATION, JawrConstant.GENERATOR_CACHE_VALIDATION_CONTENT);
+		config = new JawrConfig("js", props);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(workDir.getAbsolutePath());
+	}
+
+	@Test
+	public void testContentHashValidation() throws Exception {
+
+		TestGenerator generator = createGenerator();
+		assertEquals("content#1", generate(generator));
+
+		// The last modified date changes but not the content
+		writeLinkedFile("content", 5000);
+		assertEquals("content#1", generate(generator));
+		assertEquals(1, generator.generationCount);
+
+		// The validation is persisted, a new generator reuses the cache
+		generator.afterBundlingProcess();
+		TestGenerator newGenerator = createGenerator();
+		assertEquals("content#1", generate(newGenerator));
+		assertEquals(0, newGenerator.generationCount);
+		assertEquals(1, newGenerator.getDiskHitCount());
+
+		// The content changes
+		writeLinkedFile("modified", 10000);
+		assertEquals("modified#1", generate(newGenerator));
+		assertEquals(1, newGenerator.getMissCount());
+	}
+
+	@Test
+	public void testCacheResetWhenValidationModeChanges() throws Exception {
+
+		TestGenerator generator = createGenerator();
+		generate(generator);
+		generator.afterBundlingProcess();
+
+		config.setGeneratorCacheValidation(JawrConstant.GENERATOR_CACHE_VALIDATION_TIMESTAMP);
+		TestGenerator newGenerator = createGenerator();
+		generate(newGenerator);
+		assertEquals(1, newGenerator.generationCount);
+	}
+
+	@Test
+	public void testMemoryCache() throws Exception {
+
+		TestGenerator generator = createGenerator();
+		generate(generator);
+		generate(generator);
+		generate(generator);
+		assertEquals(1, generator.generationCount);
+		assertEquals(2, generator.getMemoryHitCount());
+		assertEquals(0, generator.getDiskHitCount());
+
+		generator.afterBundlingProcess();
+		config.setGeneratorCacheMemoryMaxSize(0);
+		generator = createGenerator();
+		generate(generator);
+		generate(generator);
+		assertEquals(0, generator.generationCount);
+		assertEquals(0, generator.getMemoryHitCount());
+		assertEquals(2, generator.getDiskHitCount());
+	}
+
+	private TestGenerator createGenerator() {
+		TestGenerator generator = new TestGenerator();
+		generator.setWorkingDirectory(workDir.getAbsolutePath());
+		generator.setResourceReaderHandler(rsHandler);
+		generator.setConfig(config);
+		generator.afterPropertiesSet();
+		return generator;
+	}
+
+	private String generate(TestGenerator generator) throws IOException {
+		GeneratorContext ctx = new GeneratorContext(null, config, "/test.js");
+		ctx.setProcessingBundle(true);
+		try (Reader rd = generator.createResource(ctx)) {
+			return IOUtils.toString(rd);
+		}
+	}
+
+	private void writeLinkedFile(String content, long lastModified) throws IOException {
+		try (Writer wr = new FileWriter(linkedFile)) {
+			wr.write(content);
+		}
+		assertTrue(linkedFile.setLastModified(lastModified));
+		when(rsHandler.getLastModified(linkedFile.getAbsolutePath())).thenReturn(linkedFile.lastModified());
+	}
+
+	@CachedGenerator(name = "test", cacheDirectory = "test", mappingFileName = "testGeneratorCache.txt")
+	public class TestGenerator extends AbstractCachedGenerator {
+
+		private int generationCount;
+
+		@Override
+		public ResourceGeneratorResolver getResolver() {
+			return ResourceGeneratorResolverFactory.createPrefixResolver("test");
+		}
+
+		@Override
+		public String getDebugModeRequestPath() {
+			return null;
+		}
+
+		@Override
+		protected Reader generateResource(String path, GeneratorContext context) {
+			generationCount++;
+			FilePathMapping fMapping = new FilePathMapping(linkedFile);
+			addLinkedResources(path, context, fMapping);
+			try {
+				return new StringReader(FileUtils.readFile(linkedFile) + "#" + generationCount);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
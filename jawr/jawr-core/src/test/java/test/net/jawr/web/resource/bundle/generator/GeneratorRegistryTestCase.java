@@ -0,0 +1,145 @@
+package test.net.jawr.web.resource.bundle.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.generator.ResourceGenerator;
+import net.jawr.web.resource.bundle.generator.resolver.PrefixedPathResolver;
+import net.jawr.web.resource.bundle.generator.resolver.ResourceGeneratorResolver;
+import net.jawr.web.resource.bundle.generator.resolver.SuffixedPathResolver;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GeneratorRegistryTestCase {
+
+	@Mock
+	private ResourceReaderHandler rsHandler;
+
+	private GeneratorRegistry registry;
+
+	@Before
+	public void setUp() throws Exception {
+		registry = new GeneratorRegistry(JawrConstant.JS_TYPE);
+		registry.setConfig(new JawrConfig(JawrConstant.JS_TYPE, new Properties()));
+		registry.setResourceReaderHandler(rsHandler);
+		CountingGenerator.matchCount = 0;
+	}
+
+	@Test
+	public void testResolutionOrder() {
+
+		registry.registerGenerator(PrefixGenerator.class.getName());
+		registry.registerGenerator(SuffixGenerator.class.getName());
+
+		assertTrue(registry.isPathGenerated("pfx:/a.js"));
+		assertTrue(registry.isPathGenerated("/a.sfx"));
+		assertFalse(registry.isPathGenerated("/a.js"));
+		assertFalse(registry.isPathGenerated("/pfx:a.js"));
+
+		// The suffixed resolvers have the priority
+		assertTrue(registry.getResourceGenerator("pfx:/a.sfx") instanceof SuffixGenerator);
+		assertTrue(registry.getResourceGenerator("pfx:/a.js") instanceof PrefixGenerator);
+	}
+
+	@Test
+	public void testResolvedGeneratorIsCached() {
+
+		registry.registerGenerator(CountingGenerator.class.getName());
+
+		ResourceGenerator generator = registry.getResourceGenerator("count:/a.js");
+		assertFalse(registry.isPathGenerated("/a.js"));
+		int matchCount = CountingGenerator.matchCount;
+
+		// The custom resolver is not called again for the resolved paths
+		assertSame(generator, registry.getResourceGenerator("count:/a.js"));
+		assertTrue(registry.isPathGenerated("count:/a.js"));
+		assertFalse(registry.isPathGenerated("/a.js"));
+		assertEquals(matchCount, CountingGenerator.matchCount);
+	}
+
+	@Test
+	public void testCacheIsClearedWhenGeneratorIsRegistered() {
+
+		registry.registerGenerator(PrefixGenerator.class.getName());
+		assertTrue(registry.getResourceGenerator("pfx:/a.sfx") instanceof PrefixGenerator);
+		assertFalse(registry.isPathGenerated("/a.sfx"));
+
+		registry.registerGenerator(SuffixGenerator.class.getName());
+		assertTrue(registry.getResourceGenerator("pfx:/a.sfx") instanceof SuffixGenerator);
+		assertTrue(registry.isPathGenerated("/a.sfx"));
+	}
+
+	@Test
+	public void testUnknownGenerator() {
+
+		try {
+			registry.getResourceGenerator("/a.js");
+			fail("No generator should be found");
+		} catch (BundlingProcessException e) {
+			// Expected
+		}
+	}
+
+	public static class PrefixGenerator implements ResourceGenerator {
+
+		@Override
+		public ResourceGeneratorResolver getResolver() {
+			return new PrefixedPathResolver("pfx");
+		}
+
+		@Override
+		public String getDebugModeRequestPath() {
+			return null;
+		}
+	}
+
+	public static class SuffixGenerator implements ResourceGenerator {
+
+		@Override
+		public ResourceGeneratorResolver getResolver() {
+			return new SuffixedPathResolver("sfx");
+		}
+
+		@Override
+		public String getDebugModeRequestPath() {
+			return null;
+		}
+	}
+
+	public static class CountingGenerator implements ResourceGenerator {
+
+		private static int matchCount;
+
+		@Override
+		public ResourceGeneratorResolver getResolver() {
+			return new PrefixedPathResolver("count") {
+
+				@Override
+				public boolean matchPath(String path) {
+					matchCount++;
+					return super.matchPath(path);
+				}
+			};
+		}
+
+		@Override
+		public String getDebugModeRequestPath() {
+			return null;
+		}
+	}
+}
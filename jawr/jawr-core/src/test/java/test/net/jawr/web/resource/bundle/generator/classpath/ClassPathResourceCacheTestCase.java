@@ -0,0 +1,87 @@
+package test.net.jawr.web.resource.bundle.generator.classpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.generator.classpath.ClassPathResourceCache;
+
+public class ClassPathResourceCacheTestCase {
+
+	private static final String JAR_RESOURCE = "/META-INF/resources/webjars/bootstrap/3.2.0/webjars-requirejs.js";
+
+	@Test
+	public void testJarEntryContentIsCached() throws Exception {
+
+		ClassPathResourceCache cache = new ClassPathResourceCache(1024 * 1024);
+		String content = read(cache, JAR_RESOURCE);
+		assertTrue(content.contains("requirejs"));
+		assertEquals(1, cache.getMissCount());
+		assertTrue(cache.getSize() > 0);
+
+		assertEquals(content, read(cache, JAR_RESOURCE));
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testFileSystemResourceIsNotCached() throws Exception {
+
+		ClassPathResourceCache cache = new ClassPathResourceCache(1024 * 1024);
+		read(cache, "/generator/classpath/temp.css");
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testContentLargerThanCacheIsNotStored() throws Exception {
+
+		ClassPathResourceCache cache = new ClassPathResourceCache(0);
+		read(cache, JAR_RESOURCE);
+		read(cache, JAR_RESOURCE);
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testClear() throws Exception {
+
+		ClassPathResourceCache cache = new ClassPathResourceCache(1024 * 1024);
+		read(cache, JAR_RESOURCE);
+
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		read(cache, JAR_RESOURCE);
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testJarDirectoryListing() throws Exception {
+
+		ClassPathResourceCache cache = new ClassPathResourceCache(1024 * 1024);
+		URL url = cache.getResourceURL("/META-INF/resources/webjars/bootstrap/3.2.0", this);
+		Set<String> resources = cache.getResourceNames(url);
+		assertEquals(5, resources.size());
+		assertTrue(resources.contains("css/"));
+		assertTrue(resources.contains("webjars-requirejs.js"));
+
+		url = cache.getResourceURL("/generator/classpath/", this);
+		assertNull(cache.getResourceNames(url));
+	}
+
+	private String read(ClassPathResourceCache cache, String path) throws Exception {
+		try (InputStream is = cache.getResourceAsStream(path, this);
+				Reader rd = new InputStreamReader(is, "UTF-8")) {
+			return IOUtils.toString(rd);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package test.net.jawr.web.resource.bundle.generator.classpath.webjars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.webjars.WebJarAssetLocator;
+
+import net.jawr.web.resource.bundle.generator.classpath.webjars.WebJarsAssetIndex;
+import test.net.jawr.web.FileUtils;
+
+public class WebJarsAssetIndexTestCase {
+
+	private static final String WORK_DIR = "workDirWebJarsAssetIndex";
+
+	private static final String FAKE_ASSET = "META-INF/resources/webjars/fake/1.0/fake.js";
+
+	private File workDir;
+
+	private File indexFile;
+
+	private String classpathKey;
+
+	@Before
+	public void setUp() throws Exception {
+		workDir = new File(FileUtils.getClasspathRootDir(), WORK_DIR);
+		FileUtils.clearDirectory(workDir.getAbsolutePath());
+		indexFile = new File(workDir, WebJarsAssetIndex.INDEX_FILE_NAME);
+		classpathKey = WebJarsAssetIndex.getClasspathKey(WebJarAssetLocator.class.getClassLoader());
+		WebJarsAssetIndex.clear();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(workDir.getAbsolutePath());
+		WebJarsAssetIndex.clear();
+	}
+
+	@Test
+	public void testIndexIsStored() throws Exception {
+
+		// The webjars used for the tests are packaged in jar files
+		assertNotNull(classpathKey);
+
+		WebJarAssetLocator locator = WebJarsAssetIndex.getLocator(workDir.getAbsolutePath());
+		assertEquals("META-INF/resources/webjars/bootstrap/3.2.0/css/bootstrap.css",
+				locator.getFullPath("css/bootstrap.css"));
+		assertTrue(indexFile.isFile());
+		String content = FileUtils.readFile(indexFile);
+		assertTrue(content.startsWith(classpathKey + "\n"));
+		assertTrue(content.contains("META-INF/resources/webjars/bootstrap/3.2.0/css/bootstrap.css\n"));
+	}
+
+	@Test
+	public void testIndexIsReused() throws Exception {
+
+		WebJarsAssetIndex.getLocator(workDir.getAbsolutePath());
+		appendToIndex(FAKE_ASSET);
+		WebJarsAssetIndex.clear();
+
+		WebJarAssetLocator locator = WebJarsAssetIndex.getLocator(workDir.getAbsolutePath());
+		assertEquals(FAKE_ASSET, locator.getFullPath("fake.js"));
+		assertEquals("META-INF/resources/webjars/bootstrap/3.2.0/css/bootstrap.css",
+				locator.getFullPath("css/bootstrap.css"));
+	}
+
+	@Test
+	public void testObsoleteIndexIsReplaced() throws Exception {
+
+		workDir.mkdirs();
+		try (Writer wr = new FileWriter(indexFile)) {
+			wr.write("obsoleteKey\n" + FAKE_ASSET + "\n");
+		}
+
+		WebJarAssetLocator locator = WebJarsAssetIndex.getLocator(workDir.getAbsolutePath());
+		assertFalse(locator.getFullPathIndex().containsValue(FAKE_ASSET));
+		assertTrue(FileUtils.readFile(indexFile).startsWith(classpathKey + "\n"));
+	}
+
+	private void appendToIndex(String asset) throws IOException {
+		try (Writer wr = new FileWriter(indexFile, true)) {
+			wr.write(asset + "\n");
+		}
+	}
+}
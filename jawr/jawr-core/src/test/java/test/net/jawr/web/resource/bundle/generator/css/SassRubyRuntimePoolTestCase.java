@@ -0,0 +1,98 @@
+package test.net.jawr.web.resource.bundle.generator.css;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.jawr.web.exception.BundlingProcessException;
+import net.jawr.web.resource.bundle.generator.css.sass.ruby.SassRubyRuntime;
+import net.jawr.web.resource.bundle.generator.css.sass.ruby.SassRubyRuntimePool;
+
+/**
+ * The JRuby runtimes are mocked, so the pool is tested without starting
+ * JRuby.
+ */
+public class SassRubyRuntimePoolTestCase {
+
+	@Test
+	public void testRuntimeIsReused() {
+
+		MockRuntimePool pool = new MockRuntimePool(2);
+		SassRubyRuntime runtime = pool.acquire();
+		pool.release(runtime);
+
+		assertSame(runtime, pool.acquire());
+		assertEquals(1, pool.getRuntimeCount());
+		assertEquals(1, pool.createdRuntimes.size());
+
+		// A second runtime is only created for a concurrent compilation
+		SassRubyRuntime other = pool.acquire();
+		assertEquals(2, pool.getRuntimeCount());
+		pool.release(runtime);
+		pool.release(other);
+		assertEquals(2, pool.createdRuntimes.size());
+	}
+
+	@Test
+	public void testClearCache() {
+
+		MockRuntimePool pool = new MockRuntimePool(2);
+		SassRubyRuntime runtime1 = pool.acquire();
+		SassRubyRuntime runtime2 = pool.acquire();
+		pool.release(runtime1);
+		pool.release(runtime2);
+
+		pool.clearCache();
+		verify(runtime1).clearCache();
+		verify(runtime2).clearCache();
+		verify(runtime1, never()).terminate();
+	}
+
+	@Test
+	public void testTerminate() {
+
+		MockRuntimePool pool = new MockRuntimePool(2);
+		SassRubyRuntime idle = pool.acquire();
+		SassRubyRuntime inUse = pool.acquire();
+		pool.release(idle);
+
+		pool.terminate();
+		verify(idle).terminate();
+		verify(inUse, never()).terminate();
+
+		// The runtime in use is terminated when it is released
+		pool.release(inUse);
+		verify(inUse).terminate();
+
+		try {
+			pool.acquire();
+			fail("The pool has been terminated");
+		} catch (BundlingProcessException e) {
+			// Expected
+		}
+	}
+
+	private static class MockRuntimePool extends SassRubyRuntimePool {
+
+		private final List<SassRubyRuntime> createdRuntimes = new ArrayList<>();
+
+		public MockRuntimePool(int maxSize) {
+			super("", maxSize);
+		}
+
+		@Override
+		protected SassRubyRuntime createRuntime(String script) {
+			SassRubyRuntime runtime = mock(SassRubyRuntime.class);
+			createdRuntimes.add(runtime);
+			return runtime;
+		}
+	}
+}
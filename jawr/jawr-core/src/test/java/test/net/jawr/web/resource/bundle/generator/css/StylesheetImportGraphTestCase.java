@@ -0,0 +1,125 @@
+package test.net.jawr.web.resource.bundle.generator.css;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.generator.css.StylesheetImportGraph;
+import net.jawr.web.resource.bundle.generator.css.less.ILessCssResourceGenerator;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StylesheetImportGraphTestCase {
+
+	@Mock
+	private ResourceReaderHandler rsHandler;
+
+	@Mock
+	private JoinableResourceBundle bundle;
+
+	private StylesheetImportGraph graph;
+
+	private final Map<String, String> contents = new HashMap<>();
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+
+		graph = new StylesheetImportGraph(ILessCssResourceGenerator.class);
+		Mockito.doAnswer(new Answer<Reader>() {
+
+			@Override
+			public Reader answer(InvocationOnMock invocation) throws Throwable {
+				String content = contents.get(invocation.getArguments()[1]);
+				return content == null ? null : new StringReader(content);
+			}
+		}).when(rsHandler).getResource(Matchers.any(JoinableResourceBundle.class), Matchers.anyString(),
+				Matchers.anyBoolean(), (List<Class<?>>) Matchers.any());
+
+		addPartial("/vars.less", "@color: red;", 1);
+		addPartial("/mixins.less", ".m { color: blue; }", 1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testPartialReadOnceDuringBundlingProcess() throws Exception {
+
+		graph.startBundlingProcess();
+		assertEquals("@color: red;", graph.getContent(bundle, "/vars.less", rsHandler));
+		assertEquals("@color: red;", graph.getContent(bundle, "/vars.less", rsHandler));
+		graph.endBundlingProcess();
+
+		verify(rsHandler, times(1)).getResource(Matchers.any(JoinableResourceBundle.class),
+				Matchers.eq("/vars.less"), Matchers.anyBoolean(), (List<Class<?>>) Matchers.any());
+		verify(rsHandler, times(1)).getLastModified("/file/vars.less");
+	}
+
+	@Test
+	public void testUnknownPartial() {
+		assertNull(graph.getContent(bundle, "/unknown.less", rsHandler));
+	}
+
+	@Test
+	public void testOnlyDependentStylesheetsAreInvalidated() throws Exception {
+
+		compile("/a.less", "a", "/vars.less");
+		compile("/b.less", "b", "/vars.less", "/mixins.less");
+		compile("/c.less", "c", "/mixins.less");
+
+		assertEquals(2, graph.getDependents("/vars.less").size());
+		assertNotNull(graph.getCompiledStylesheet(bundle, "/a.less", "a", rsHandler));
+		assertNotNull(graph.getCompiledStylesheet(bundle, "/b.less", "b", rsHandler));
+		assertNotNull(graph.getCompiledStylesheet(bundle, "/c.less", "c", rsHandler));
+
+		// The root content is part of the key
+		assertNull(graph.getCompiledStylesheet(bundle, "/c.less", "c2", rsHandler));
+		compile("/c.less", "c", "/mixins.less");
+
+		// A touched partial with the same content doesn't invalidate anything
+		addPartial("/vars.less", "@color: red;", 2);
+		assertNotNull(graph.getCompiledStylesheet(bundle, "/a.less", "a", rsHandler));
+
+		// A modified partial only invalidates its dependents
+		addPartial("/vars.less", "@color: green;", 3);
+		assertNull(graph.getCompiledStylesheet(bundle, "/b.less", "b", rsHandler));
+		assertEquals(Collections.emptySet(), graph.getDependents("/vars.less"));
+		assertNull(graph.getCompiledStylesheet(bundle, "/a.less", "a", rsHandler));
+		assertNotNull(graph.getCompiledStylesheet(bundle, "/c.less", "c", rsHandler));
+	}
+
+	private void compile(String path, String content, String... imports) {
+		for (String importPath : imports) {
+			graph.getContent(bundle, importPath, rsHandler);
+		}
+		graph.putCompiledStylesheet(path, content, Arrays.asList(imports), content + ".css");
+	}
+
+	private void addPartial(String path, String content, long lastModified) {
+		contents.put(path, content);
+		String filePath = "/file" + path;
+		when(rsHandler.getFilePath(path)).thenReturn(filePath);
+		when(rsHandler.getLastModified(filePath)).thenReturn(lastModified);
+	}
+}
@@ -1,10 +1,17 @@
 package test.net.jawr.web.resource.bundle.global.postprocessor.google.closure;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -13,12 +20,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.zip.GZIPInputStream;
 
 import javax.servlet.ServletContext;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.exception.ResourceNotFoundException;
+import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.InclusionPattern;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.factory.global.postprocessor.GlobalPostProcessingContext;
@@ -285,6 +294,201 @@ public class ClosureGlobalPostProcessorTestCase {
 		compareResult("msgBundle@fr", false);
 	}
 
+	@Test
+	public void testIncrementalPostProcessing() throws Exception {
+
+		Properties props = new Properties();
+		props.put("jawr.js.closure.externs", "extern.js");
+		props.put("jawr.js.closure.incremental", "true");
+		initProcessingContext(props);
+		String incrementalDir = initIncrementalBundleDirs();
+		CountingClosureGlobalPostProcessor processor = new CountingClosureGlobalPostProcessor();
+
+		List<JoinableResourceBundle> bundles = new ArrayList<JoinableResourceBundle>();
+		bundles.add(bundle01);
+		bundles.add(bundle02);
+		processor.processBundles(ctx, bundles);
+		assertEquals(2, processor.nbCompilations);
+		compareIncrementalResult(incrementalDir, "bundle01");
+		compareIncrementalResult(incrementalDir, "bundle02");
+
+		// Nothing has changed
+		processor.processBundles(ctx, bundles);
+		assertEquals(2, processor.nbCompilations);
+		compareIncrementalResult(incrementalDir, "bundle01");
+		compareIncrementalResult(incrementalDir, "bundle02");
+
+		// Only bundle02 has changed
+		String bundle02Path = incrementalDir + "text/myBundle/bundle02.js";
+		String bundle02Content = FileUtils.readFile(bundle02Path) + "\nvar  added = 1;\n";
+		writeFile(bundle02Path, bundle02Content);
+		processor.processBundles(ctx, bundles);
+		assertEquals(3, processor.nbCompilations);
+		compareIncrementalResult(incrementalDir, "bundle01");
+		assertTrue(FileUtils.readFile(bundle02Path).endsWith("var added=1;\n"));
+		assertEquals(FileUtils.readFile(bundle02Path), readZipFile(incrementalDir + "gzip/myBundle/bundle02.js"));
+	}
+
+	@Test
+	public void testIncrementalPostProcessingWithDependenciesInParallel() throws Exception {
+
+		Properties props = new Properties();
+		props.put("jawr.js.closure.modules", "bundle01:bundle02,msgBundle");
+		props.put("jawr.js.closure.externs", "extern.js");
+		props.put("jawr.js.closure.incremental", "true");
+		props.put("jawr.js.closure.incremental.threads", "4");
+		initProcessingContext(props);
+		String incrementalDir = initIncrementalBundleDirs();
+		CountingClosureGlobalPostProcessor processor = new CountingClosureGlobalPostProcessor();
+
+		List<JoinableResourceBundle> bundles = new ArrayList<JoinableResourceBundle>();
+		bundles.add(bundle01);
+		bundles.add(bundle02);
+		bundles.add(bundle03);
+		bundles.add(msgBundle);
+		processor.processBundles(ctx, bundles);
+		assertEquals(6, processor.nbCompilations);
+		for (String bundle : Arrays.asList("bundle01", "bundle02", "bundle03", "msgBundle", "msgBundle@en",
+				"msgBundle@fr")) {
+			compareIncrementalResult(incrementalDir, bundle);
+		}
+
+		// bundle02 and bundle01, which depends on bundle02, are compiled
+		String bundle02Path = incrementalDir + "text/myBundle/bundle02.js";
+		writeFile(bundle02Path, FileUtils.readFile(bundle02Path) + "\nvar  added = 1;\n");
+		processor.processBundles(ctx, bundles);
+		assertEquals(8, processor.nbCompilations);
+		compareIncrementalResult(incrementalDir, "bundle01");
+		compareIncrementalResult(incrementalDir, "msgBundle");
+	}
+
+	@Test
+	public void testIncrementalPostProcessingWithAdvancedOptimizations() throws Exception {
+
+		Properties props = new Properties();
+		props.put("jawr.js.closure.externs", "extern.js");
+		props.put("jawr.js.closure.compilation_level", "ADVANCED_OPTIMIZATIONS");
+		props.put("jawr.js.closure.incremental", "true");
+		initProcessingContext(props);
+		String incrementalDir = initIncrementalBundleDirs();
+		writeFile(incrementalDir + "text/myBundle/bundle01.js",
+				"function hello(name) {\n\talert('hello ' + name);\n}\nwindow['hello'] = hello;\n");
+		writeFile(incrementalDir + "text/myBundle/bundle02.js",
+				"function add(c1, c2) {\n\treturn c1 + c2;\n}\nwindow['add'] = add;\n");
+		CountingClosureGlobalPostProcessor processor = new CountingClosureGlobalPostProcessor();
+
+		List<JoinableResourceBundle> bundles = new ArrayList<JoinableResourceBundle>();
+		bundles.add(bundle01);
+		bundles.add(bundle02);
+
+		// All the modules are compiled together
+		processor.processBundles(ctx, bundles);
+		assertEquals(1, processor.nbUnits);
+		assertEquals(2, processor.nbCompilations);
+		processor.processBundles(ctx, bundles);
+		assertEquals(1, processor.nbUnits);
+	}
+
+	@Test
+	public void testIncrementalPostProcessingMatchesFullPostProcessing() throws Exception {
+
+		Properties props = new Properties();
+		props.put("jawr.js.closure.modules", "bundle01:bundle02,msgBundle");
+		props.put("jawr.js.closure.externs", "extern.js");
+		initProcessingContext(props);
+		when(bundle01.getDependencies()).thenReturn(Arrays.asList(bundle03));
+
+		List<JoinableResourceBundle> bundles = new ArrayList<JoinableResourceBundle>();
+		bundles.add(bundle01);
+		bundles.add(bundle02);
+		bundles.add(bundle03);
+		bundles.add(msgBundle);
+
+		// Compiles all the modules together
+		String fullDir = initBundleDirs("full");
+		new ClosureGlobalPostProcessor().processBundles(ctx, bundles);
+
+		// Compiles each module independently
+		props.put("jawr.js.closure.incremental", "true");
+		props.put("jawr.js.closure.incremental.threads", "2");
+		initProcessingContext(props);
+		String incrementalDir = initIncrementalBundleDirs();
+		new ClosureGlobalPostProcessor().processBundles(ctx, bundles);
+
+		for (String bundle : Arrays.asList("bundle01", "bundle02", "bundle03", "msgBundle", "msgBundle@en",
+				"msgBundle@fr")) {
+			String path = "myBundle/" + bundle + ".js";
+			assertEquals(FileUtils.readFile(fullDir + "text/" + path),
+					FileUtils.readFile(incrementalDir + "text/" + path));
+			assertEquals(readZipFile(fullDir + "gzip/" + path), readZipFile(incrementalDir + "gzip/" + path));
+		}
+	}
+
+	/**
+	 * Copies the text bundle directory in a temporary directory, which is used
+	 * by the incremental compilation, and returns its path.
+	 */
+	private String initIncrementalBundleDirs() throws Exception {
+		return initBundleDirs("incremental");
+	}
+
+	/**
+	 * Copies the text bundle directory in a temporary directory, where the
+	 * compiled bundles are written, and returns its path. The gzip bundle
+	 * directory is created empty, as it is only generated by the other tests.
+	 */
+	private String initBundleDirs(String name) throws Exception {
+
+		String bundleDir = FileUtils.getClasspathRootDir() + "/global/postprocessor/google/closure/" + name + "/";
+		FileUtils.deleteDirectory(bundleDir);
+		net.jawr.web.util.FileUtils.copyDirectory(new File(srcDir), new File(bundleDir + "text/"));
+		new File(bundleDir + "gzip/").mkdirs();
+		when(rsBundlesHandler.getBundleTextDirPath()).thenReturn(bundleDir + "text/");
+		when(rsBundlesHandler.getBundleZipDirPath()).thenReturn(bundleDir + "gzip/");
+		return bundleDir;
+	}
+
+	private void compareIncrementalResult(String incrementalDir, String bundle) throws Exception {
+		String expected = FileUtils.readClassPathFile(
+				"global/postprocessor/google/closure/expectedResult/" + bundle + "_whitespace_compression.js");
+		assertEquals(expected, FileUtils.readFile(incrementalDir + "text/myBundle/" + bundle + ".js"));
+		assertEquals(expected, readZipFile(incrementalDir + "gzip/myBundle/" + bundle + ".js"));
+	}
+
+	private String readZipFile(String path) throws Exception {
+		Reader rd = new InputStreamReader(new GZIPInputStream(new FileInputStream(path)), "UTF-8");
+		return IOUtils.toString(rd);
+	}
+
+	private void writeFile(String path, String content) throws Exception {
+		FileOutputStream out = new FileOutputStream(path);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * The closure post processor which counts the module compilations
+	 */
+	private static class CountingClosureGlobalPostProcessor extends ClosureGlobalPostProcessor {
+
+		private int nbUnits;
+
+		private int nbCompilations;
+
+		@Override
+		protected int compileModules(GlobalPostProcessingContext ctx, String[] args, Map<String, String> inputs,
+				Map<String, ByteArrayOutputStream> outputs) throws IOException {
+			synchronized (this) {
+				nbUnits++;
+				nbCompilations += inputs.size();
+			}
+			return super.compileModules(ctx, args, inputs, outputs);
+		}
+	}
+
 	private void compareResult(String bundle) throws Exception {
 		compareResult(bundle, true);
 	}
@@ -0,0 +1,116 @@
+package test.net.jawr.web.resource.bundle.handler;
+
+import java.io.BufferedWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import org.mockito.Mockito;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor;
+import net.jawr.web.resource.bundle.postprocess.impl.CSSMinPostProcessor;
+import net.jawr.web.util.ChunkedCharSequence;
+import net.jawr.web.util.StringUtils;
+
+/**
+ * Compares the memory allocated by the previous join loop of the bundle
+ * handler, and by the current one, which joins the members in a
+ * {@link ChunkedCharSequence} and passes it to the bundle post processor
+ * without copying it. The unitary post processor returns its input, and the
+ * bundle post processor is the CSS minifier.
+ *
+ * This benchmark is not run by the tests. Launch it from the test classpath
+ * with an optional number of members and member size in chars (default 200
+ * members of 20000 chars) :
+ * <code>java test.net.jawr.web.resource.bundle.handler.BundleJoinBenchmark 200 20000</code>
+ */
+public class BundleJoinBenchmark {
+
+	private static final int ITERATIONS = 10;
+
+	private static final ResourceBundlePostProcessor IDENTITY = new ResourceBundlePostProcessor() {
+
+		@Override
+		public StringBuffer postProcessBundle(BundleProcessingStatus status, StringBuffer bundleString) {
+			return bundleString;
+		}
+	};
+
+	private static final BundleProcessingStatus STATUS = new BundleProcessingStatus(
+			BundleProcessingStatus.BUNDLE_PROCESSING_TYPE, Mockito.mock(JoinableResourceBundle.class), null,
+			new JawrConfig("css", new Properties()));
+
+	public static void main(String[] args) throws Exception {
+
+		int memberCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int memberSize = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		StringBuilder sb = new StringBuilder(memberSize);
+		while (sb.length() < memberSize) {
+			sb.append("a { background : url(img/logo.png) }");
+		}
+		String member = sb.toString();
+		System.out.println("Bundle size : " + (memberCount * (member.length() + 1)) + " chars");
+
+		for (int i = 0; i < 2; i++) {
+			run("previous", member, memberCount, true);
+			run("chunked ", member, memberCount, false);
+		}
+	}
+
+	private static void run(String name, String member, int memberCount, boolean previous) throws Exception {
+
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		join(member, memberCount, previous);
+
+		long allocated = bean.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		int length = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			length += join(member, memberCount, previous).length();
+		}
+		long elapsed = System.nanoTime() - start;
+		allocated = bean.getThreadAllocatedBytes(threadId) - allocated;
+		System.out.println(name + " : " + (elapsed / ITERATIONS / 1000000) + " ms/op, "
+				+ (allocated / ITERATIONS / 1024) + " KB allocated/op, output " + (length / ITERATIONS) + " chars");
+	}
+
+	private static CharSequence join(String member, int memberCount, boolean previous) throws Exception {
+
+		CSSMinPostProcessor minifier = new CSSMinPostProcessor();
+		if (previous) {
+			StringBuffer bundleData = new StringBuffer();
+			for (int i = 0; i < memberCount; i++) {
+				StringWriter writer = new StringWriter();
+				BufferedWriter bwriter = new BufferedWriter(writer);
+				IOUtils.copy(new StringReader(member), bwriter, true);
+				StringBuffer buffer = writer.getBuffer();
+				if (!buffer.toString().endsWith(StringUtils.STR_LINE_FEED)) {
+					buffer.append(StringUtils.STR_LINE_FEED);
+				}
+				StringBuffer unitData = new StringBuffer();
+				unitData.append(IDENTITY.postProcessBundle(null, buffer));
+				bundleData.append(unitData);
+			}
+			return minifier.postProcessBundle(STATUS, bundleData);
+		}
+
+		ChunkedCharSequence bundleData = new ChunkedCharSequence();
+		for (int i = 0; i < memberCount; i++) {
+			StringWriter writer = new StringWriter();
+			IOUtils.copy(new StringReader(member), writer, true);
+			StringBuffer buffer = writer.getBuffer();
+			if (!StringUtils.endsWith(buffer, StringUtils.STR_LINE_FEED)) {
+				buffer.append(StringUtils.STR_LINE_FEED);
+			}
+			bundleData.append(IDENTITY.postProcessBundle(null, buffer));
+		}
+		return minifier.postProcess(STATUS, bundleData);
+	}
+}
@@ -0,0 +1,175 @@
+package test.net.jawr.web.resource.bundle.handler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.handler.DisposableResourceBundlesHandler;
+import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
+import net.jawr.web.resource.bundle.handler.ResourceBundlesHandlerImpl;
+import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+import test.net.jawr.web.resource.bundle.PredefinedBundlesHandlerUtil;
+import test.net.jawr.web.servlet.mock.MockServletContext;
+
+public class LazySkinVariantTestCase extends ResourceHandlerBasedTest {
+
+	private static final String ROOT_TESTDIR = "/bundleLinkRenderer/";
+	private static final String CSS_BASEDIR = "css/";
+	private static final String THEME_BUNDLE = "/theme.css";
+
+	private File accessFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		ResourceBundleHandler rsBundleHandler = createResourceBundleHandler(ROOT_TESTDIR, Charset.forName("UTF-8"),
+				"css");
+		accessFile = new File(new File(rsBundleHandler.getBundleTextDirPath()).getParentFile(),
+				ResourceBundlesHandlerImpl.LAZY_VARIANT_ACCESS_FILE_NAME);
+		accessFile.delete();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		accessFile.delete();
+	}
+
+	private ResourceBundlesHandler createBundlesHandler(boolean lazy, boolean prewarm) throws Exception {
+
+		Charset charsetUtf = Charset.forName("UTF-8");
+		Properties props = new Properties();
+		props.setProperty("jawr.css.skin.default.root.dirs", "/css/themes/default");
+		props.setProperty(JawrConstant.JAWR_CSS_SKIN_LAZY_VARIANTS, Boolean.toString(lazy));
+		props.setProperty(JawrConstant.JAWR_CSS_SKIN_LAZY_VARIANTS_PREWARM, Boolean.toString(prewarm));
+		JawrConfig jawrConfig = new JawrConfig("css", props);
+		jawrConfig.setCharsetName("UTF-8");
+		jawrConfig.setServletMapping("/srvMapping");
+		jawrConfig.setGzipResourcesModeOn(false);
+		jawrConfig.setContext(new MockServletContext());
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry("css");
+		jawrConfig.setGeneratorRegistry(generatorRegistry);
+
+		ResourceReaderHandler rsHandler = createResourceReaderHandler(ROOT_TESTDIR, "css", charsetUtf, jawrConfig);
+		ResourceBundleHandler rsBundleHandler = createResourceBundleHandler(ROOT_TESTDIR, charsetUtf, "css");
+		return PredefinedBundlesHandlerUtil.buildSimpleVariantBundles(rsHandler, rsBundleHandler, CSS_BASEDIR, "css",
+				jawrConfig);
+	}
+
+	private Map<String, String> getSkinVariant(String skin) {
+		Map<String, String> variants = new HashMap<String, String>();
+		variants.put(JawrConstant.SKIN_VARIANT_TYPE, skin);
+		return variants;
+	}
+
+	private String writeBundle(ResourceBundlesHandler handler, String path) throws Exception {
+		StringWriter writer = new StringWriter();
+		handler.writeBundleTo(path, writer);
+		return writer.toString();
+	}
+
+	private int getAccessCount(String variantBundleName) throws Exception {
+		Properties accessCounts = new Properties();
+		try (InputStream is = new FileInputStream(accessFile)) {
+			accessCounts.load(is);
+		}
+		return Integer.parseInt(accessCounts.getProperty(variantBundleName, "0"));
+	}
+
+	public void testOnlyDefaultVariantIsGeneratedAtStartup() throws Exception {
+
+		JoinableResourceBundle bundle = createBundlesHandler(true, false).resolveBundleForPath(THEME_BUNDLE);
+		assertNotNull(bundle.getBundleDataHashCode(null));
+		assertNotNull(bundle.getBundleDataHashCode("default"));
+		assertNull(bundle.getBundleDataHashCode("winter"));
+		assertNull(bundle.getBundleDataHashCode("summer"));
+	}
+
+	public void testVariantIsGeneratedWhenRendered() throws Exception {
+
+		JoinableResourceBundle eagerBundle = createBundlesHandler(false, false).resolveBundleForPath(THEME_BUNDLE);
+		ResourceBundlesHandler handler = createBundlesHandler(true, false);
+		JoinableResourceBundle bundle = handler.resolveBundleForPath(THEME_BUNDLE);
+
+		String path = handler.getBundlePaths(THEME_BUNDLE, null, getSkinVariant("winter")).next().getPath();
+		assertEquals("/" + eagerBundle.getBundleDataHashCode("winter") + ".winter/theme.css", path);
+		assertEquals(eagerBundle.getBundleDataHashCode("winter"), bundle.getBundleDataHashCode("winter"));
+		assertNull(bundle.getBundleDataHashCode("summer"));
+		assertEquals(1, getAccessCount("/theme@winter.css"));
+	}
+
+	public void testVariantIsGeneratedWhenRequested() throws Exception {
+
+		ResourceBundlesHandler eagerHandler = createBundlesHandler(false, false);
+		String expected = writeBundle(eagerHandler, "/N1.summer/theme.css");
+
+		ResourceBundlesHandler handler = createBundlesHandler(true, false);
+		assertEquals(expected, writeBundle(handler, "/N1.summer/theme.css"));
+		assertNotNull(handler.resolveBundleForPath(THEME_BUNDLE).getBundleDataHashCode("summer"));
+	}
+
+	public void testVariantIsGeneratedOnce() throws Exception {
+
+		final ResourceBundlesHandler handler = createBundlesHandler(true, false);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<String>() {
+
+					@Override
+					public String call() throws Exception {
+						return writeBundle(handler, "/N1.winter/theme.css");
+					}
+				}));
+			}
+			String content = results.get(0).get();
+			assertTrue(content.length() > 0);
+			for (Future<String> result : results) {
+				assertEquals(content, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, getAccessCount("/theme@winter.css"));
+	}
+
+	public void testRequestedVariantsArePrewarmed() throws Exception {
+
+		ResourceBundlesHandler handler = createBundlesHandler(true, false);
+		handler.getBundlePaths(THEME_BUNDLE, null, getSkinVariant("winter"));
+
+		JoinableResourceBundle bundle = createBundlesHandler(true, true).resolveBundleForPath(THEME_BUNDLE);
+		for (int i = 0; i < 100 && bundle.getBundleDataHashCode("winter") == null; i++) {
+			Thread.sleep(50);
+		}
+		assertNotNull(bundle.getBundleDataHashCode("winter"));
+		assertNull(bundle.getBundleDataHashCode("summer"));
+
+		// The prewarmed variants are not counted as requested
+		assertEquals(1, getAccessCount("/theme@winter.css"));
+	}
+
+	public void testDisposedHandlerDoesNotGenerateVariants() throws Exception {
+
+		ResourceBundlesHandler handler = createBundlesHandler(true, false);
+		((DisposableResourceBundlesHandler) handler).dispose();
+
+		handler.getBundlePaths(THEME_BUNDLE, null, getSkinVariant("winter"));
+		assertNull(handler.resolveBundleForPath(THEME_BUNDLE).getBundleDataHashCode("winter"));
+	}
+}
@@ -11,7 +11,10 @@ import net.jawr.web.exception.BundleDependencyException;
 import net.jawr.web.exception.DuplicateBundlePathException;
 import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.factory.PropertiesBasedBundlesHandlerFactory;
+import net.jawr.web.resource.bundle.factory.util.BundleConfigDependencyHelper;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.handler.ReloadableResourceBundlesHandler;
 import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
 import net.jawr.web.resource.bundle.iterator.ResourceBundlePathsIterator;
 import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
@@ -164,4 +167,60 @@ public class ResourceBundlesHandlerImplTest  extends  ResourceHandlerBasedTest {
 			}
 		}
 	}
+
+	public void testUpdateBundlesKeepsUnchangedBundles() throws Exception {
+
+		Charset charsetUtf = Charset.forName("UTF-8");
+		Properties props = new Properties();
+		props.put("jawr.js.bundle.library.id", "/library.js");
+		props.put("jawr.js.bundle.library.mappings", "/js/lib/**");
+		props.put("jawr.js.bundle.global.id", "/global.js");
+		props.put("jawr.js.bundle.global.mappings", "/js/global/**");
+		props.put("jawr.js.bundle.global.dependencies", "library");
+		props.put("jawr.js.bundle.one.id", "/one.js");
+		props.put("jawr.js.bundle.one.mappings", "/js/one/**");
+		props.put("jawr.js.bundle.factory.bundlepostprocessors", "none");
+		props.put("jawr.js.bundle.factory.filepostprocessors", "none");
+		props.put("jawr.use.smart.bundling", "true");
+		props.put("jawr.js.factory.process.orphans", "false");
+
+		JawrConfig jawrConfig = new JawrConfig("js", props);
+		jawrConfig.setCharsetName("UTF-8");
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry("js");
+		jawrConfig.setGeneratorRegistry(generatorRegistry);
+		jawrConfig.setContext(new MockServletContext());
+		generatorRegistry.setConfig(jawrConfig);
+
+		ResourceReaderHandler rsHandler = createResourceReaderHandler(ROOT_SIMPLE_FOLDER, "js", charsetUtf);
+		generatorRegistry.setResourceReaderHandler(rsHandler);
+		ResourceBundleHandler rsBundleHandler = createResourceBundleHandler(ROOT_SIMPLE_FOLDER, charsetUtf);
+		ResourceBundlesHandler bundlesHandler = new PropertiesBasedBundlesHandlerFactory(props, "js", rsHandler,
+				rsBundleHandler, jawrConfig).buildResourceBundlesHandler();
+
+		JoinableResourceBundle library = bundlesHandler.resolveBundleForPath("/library.js");
+		JoinableResourceBundle global = bundlesHandler.resolveBundleForPath("/global.js");
+		JoinableResourceBundle one = bundlesHandler.resolveBundleForPath("/one.js");
+
+		BundleConfigDependencyHelper previousConfigHelper = new BundleConfigDependencyHelper(props, "js");
+		Properties newProps = new Properties();
+		newProps.putAll(props);
+		newProps.put("jawr.js.bundle.library.mappings", "/js/lib/**,/js/two/**");
+		jawrConfig.updateConfigProperties(newProps);
+
+		List<JoinableResourceBundle> newBundles = new PropertiesBasedBundlesHandlerFactory(newProps, "js", rsHandler,
+				rsBundleHandler, jawrConfig, false).buildResourceBundles();
+		assertTrue(((ReloadableResourceBundlesHandler) bundlesHandler).updateBundles(newBundles,
+				previousConfigHelper));
+
+		// The unaffected bundle is kept, while the modified bundle and the
+		// bundle which depends on it are replaced
+		assertSame(one, bundlesHandler.resolveBundleForPath("/one.js"));
+		JoinableResourceBundle newLibrary = bundlesHandler.resolveBundleForPath("/library.js");
+		assertNotSame(library, newLibrary);
+		assertEquals(2, newLibrary.getItemPathList().size());
+		JoinableResourceBundle newGlobal = bundlesHandler.resolveBundleForPath("/global.js");
+		assertNotSame(global, newGlobal);
+		assertSame(newLibrary, newGlobal.getDependencies().get(0));
+		assertTrue(bundlesHandler.getDirtyBundleNames().isEmpty());
+	}
 }
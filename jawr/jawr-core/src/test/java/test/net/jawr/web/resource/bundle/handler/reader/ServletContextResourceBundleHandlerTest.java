@@ -2,15 +2,18 @@ package test.net.jawr.web.resource.bundle.handler.reader;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Properties;
 
 import net.jawr.web.JawrConstant;
 import net.jawr.web.config.JawrConfig;
 import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import net.jawr.web.resource.handler.reader.ServletContextResourceReaderHandler;
+import net.jawr.web.resource.handler.reader.TextResourceReader;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -81,6 +84,73 @@ public class ServletContextResourceBundleHandlerTest {
 	    checkReadResource("/folder/temp1.js", "/resourcehandler/otherDir/");
 	}
 
+	@Test
+	public void testReaderAddedDuringBundlingProcessHasPriority() throws Exception {
+
+		Properties prop = new Properties();
+		prop.setProperty(JawrConstant.JAWR_RESOURCE_DECODED_CONTENT_CACHE_MAX_SIZE, "0");
+		initRsReader(prop);
+		ServletContextResourceReaderHandler handler = (ServletContextResourceReaderHandler) rsHandler;
+		handler.beforeBundlingProcess();
+
+		checkReadBundleResource("temp.js", FileUtils.readClassPathFile("resourcehandler/work/temp.js"));
+
+		// The new reader has the highest priority
+		rsHandler.addResourceReader(new OverridingResourceReader("temp.js", "var overridden = true;"));
+		checkReadBundleResource("temp.js", "var overridden = true;");
+		handler.afterBundlingProcess();
+	}
+
+	@Test
+	public void testDecodedContentIsDiscardedWhenReaderIsAdded() throws Exception {
+
+		initRsReader(new Properties());
+		ServletContextResourceReaderHandler handler = (ServletContextResourceReaderHandler) rsHandler;
+		handler.beforeBundlingProcess();
+
+		// The content is stored in the decoded content cache
+		String content = FileUtils.readClassPathFile("resourcehandler/work/temp.js");
+		checkReadBundleResource("temp.js", content);
+		checkReadBundleResource("temp.js", content);
+
+		rsHandler.addResourceReader(new OverridingResourceReader("temp.js", "var overridden = true;"));
+		checkReadBundleResource("temp.js", "var overridden = true;");
+		handler.afterBundlingProcess();
+	}
+
+	private void checkReadBundleResource(String resourcePath, String expectedContent) throws Exception {
+
+		Reader rd = rsHandler.getResource(null, resourcePath, true);
+		StringWriter swr = new StringWriter();
+		IOUtils.copy(rd, swr);
+		Assert.assertEquals(expectedContent, FileUtils.removeCarriageReturn(swr.getBuffer().toString()));
+	}
+
+	/**
+	 * The reader which returns a fixed content for a resource
+	 */
+	private static class OverridingResourceReader implements TextResourceReader {
+
+		private final String resourceName;
+
+		private final String content;
+
+		private OverridingResourceReader(String resourceName, String content) {
+			this.resourceName = resourceName;
+			this.content = content;
+		}
+
+		@Override
+		public Reader getResource(JoinableResourceBundle bundle, String resourceName) {
+			return getResource(bundle, resourceName, false);
+		}
+
+		@Override
+		public Reader getResource(JoinableResourceBundle bundle, String resourceName, boolean processingBundle) {
+			return this.resourceName.equals(resourceName) ? new StringReader(content) : null;
+		}
+	}
+
 	private void initRsReader(Properties properties) throws IOException {
 		MockServletContext ctx = new MockServletContext(workDir, tmpDir);
 	    GeneratorRegistry generatorRegistry = new GeneratorRegistry();
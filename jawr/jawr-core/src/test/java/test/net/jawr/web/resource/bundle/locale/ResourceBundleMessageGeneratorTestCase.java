@@ -2,17 +2,21 @@ package test.net.jawr.web.resource.bundle.locale;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.ResourceBundle;
 
 import org.junit.After;
 import org.junit.Before;
@@ -31,6 +35,7 @@ import net.jawr.web.config.JawrConfig;
 import net.jawr.web.resource.bundle.IOUtils;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.generator.GeneratorContext;
+import net.jawr.web.resource.bundle.locale.MessageBundleControl;
 import net.jawr.web.resource.bundle.locale.ResourceBundleMessagesGenerator;
 import net.jawr.web.resource.bundle.mappings.FilePathMapping;
 import net.jawr.web.resource.bundle.mappings.PathMapping;
@@ -203,6 +208,75 @@ public class ResourceBundleMessageGeneratorTestCase {
 
 	}
 
+	@Test
+	public void testGenerateMessageBundleDuringBundlingProcess() throws Exception {
+
+		// Force default locale
+		Locale.setDefault(Locale.FRENCH);
+
+		Properties prop = new Properties();
+		prop.put(JawrConstant.JAWR_LOCALE_GENERATOR_ADD_QUOTE_TO_MSG_KEY, "false");
+		prop.put(JawrConstant.JAWR_LOCALE_GENERATOR_THREADS, "4");
+		JawrConfig config = new JawrConfig("js", prop);
+		generator.setConfig(config);
+		generator.afterPropertiesSet();
+
+		String[] paths = { "bundleLocale.messages", "bundleLocale.messages(myMessages)",
+				"bundleLocale.messages[ui|error]" };
+		Locale[] locales = { null, Locale.FRENCH, new Locale("es"), Locale.US };
+		Map<String, String> expected = new HashMap<>();
+		for (String path : paths) {
+			for (Locale locale : locales) {
+				expected.put(path + "@" + locale, generate(config, path, locale, false));
+			}
+		}
+
+		assertTrue(generator.getAvailableLocales("bundleLocale.messages").size() > 1);
+		generator.beforeBundlingProcess();
+		for (String path : paths) {
+			for (Locale locale : locales) {
+				assertEquals(expected.get(path + "@" + locale), generate(config, path, locale, true));
+			}
+		}
+		generator.afterBundlingProcess();
+	}
+
+	@Test
+	public void testMessageBundleControlSharesParentBundles() throws Exception {
+
+		MessageBundleControl control = new MessageBundleControl(false, Charset.forName("ISO-8859-1"));
+		ClassLoader loader = getClass().getClassLoader();
+		ResourceBundle bundle = control.newBundle("bundleLocale.messages", Locale.ROOT, "java.properties", loader,
+				false);
+		assertNotSame(bundle,
+				control.newBundle("bundleLocale.messages", Locale.ROOT, "java.properties", loader, false));
+
+		control.startCaching();
+		bundle = control.newBundle("bundleLocale.messages", Locale.ROOT, "java.properties", loader, false);
+		assertSame(bundle, control.newBundle("bundleLocale.messages", Locale.ROOT, "java.properties", loader, false));
+		ResourceBundle frBundle = ResourceBundle.getBundle("bundleLocale.messages", Locale.FRENCH, loader, control);
+		ResourceBundle esBundle = ResourceBundle.getBundle("bundleLocale.messages", new Locale("es"), loader,
+				control);
+		assertNotSame(frBundle, esBundle);
+		assertEquals(bundle.getString("ui.msg.salut"), frBundle.getString("ui.msg.salut"));
+		assertEquals(bundle.getString("ui.msg.salut"), esBundle.getString("ui.msg.salut"));
+		control.stopCaching();
+
+		assertNotSame(bundle,
+				control.newBundle("bundleLocale.messages", Locale.ROOT, "java.properties", loader, false));
+	}
+
+	private String generate(JawrConfig config, String path, Locale locale, boolean processingBundle)
+			throws Exception {
+
+		GeneratorContext ctx = new GeneratorContext(bundle, config, path);
+		ctx.setLocale(locale);
+		ctx.setProcessingBundle(processingBundle);
+		try (Reader rd = generator.createResource(ctx)) {
+			return IOUtils.toString(rd);
+		}
+	}
+
 	private String readFile(String path) throws Exception {
 
 		return readFile(path, "UTF-8");
@@ -0,0 +1,119 @@
+package test.net.jawr.web.resource.bundle.postprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.impl.CSSMinPostProcessor;
+import net.jawr.web.resource.bundle.postprocess.impl.JSMinPostProcessor;
+import net.jawr.web.resource.bundle.postprocess.impl.LicensesIncluderPostProcessor;
+import net.jawr.web.util.ChunkedCharSequence;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChainedCharSequencePostProcessingTest {
+
+	/** The joined content, which fails if it is copied as a whole */
+	private static class NonCopyableSequence extends ChunkedCharSequence {
+
+		@Override
+		public StringBuffer toStringBuffer() {
+			fail("The content should not be copied");
+			return null;
+		}
+
+		@Override
+		public String toString() {
+			fail("The content should not be copied");
+			return null;
+		}
+	}
+
+	/** The JSMin post processor which adds a comment to the bundle */
+	private static class CommentingJSMinPostProcessor extends JSMinPostProcessor {
+
+		@Override
+		protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleString)
+				throws IOException {
+			return super.doPostProcessBundle(status, bundleString).append("/*x*/");
+		}
+	}
+
+	@Mock
+	private JoinableResourceBundle bundle;
+
+	@Before
+	public void setup() {
+
+		when(bundle.getId()).thenReturn("/bundle.js");
+		when(bundle.getLicensesPathList()).thenReturn(Collections.<String> emptySet());
+	}
+
+	private BundleProcessingStatus createStatus(String type) {
+		return new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE, bundle, null,
+				new JawrConfig(type, new Properties()));
+	}
+
+	private static <T extends CharSequence> T join(T content, String... members) {
+
+		for (String member : members) {
+			if (content instanceof ChunkedCharSequence) {
+				((ChunkedCharSequence) content).append(new StringBuffer(member));
+			} else {
+				((StringBuffer) content).append(member);
+			}
+		}
+		return content;
+	}
+
+	private static AbstractChainedResourceBundlePostProcessor chain(AbstractChainedResourceBundlePostProcessor first) {
+		first.addNextProcessor(new LicensesIncluderPostProcessor());
+		return first;
+	}
+
+	@Test
+	public void testJsChainProcessesJoinedMembers() {
+
+		String[] members = { "var a = 1; // comment\n", "\n", "f( a )\n" };
+		CharSequence result = chain(new JSMinPostProcessor()).postProcess(createStatus("js"),
+				join(new NonCopyableSequence(), members));
+		StringBuffer expected = chain(new JSMinPostProcessor()).postProcessBundle(createStatus("js"),
+				join(new StringBuffer(), members));
+
+		assertEquals("var a=1;f(a);", expected.toString());
+		assertEquals(expected.toString(), result.toString());
+	}
+
+	@Test
+	public void testCssChainProcessesJoinedMembers() {
+
+		String[] members = { "/* comment */\na {\n  color : red;\n}\n", "b { margin: 0 }\n" };
+		CharSequence result = chain(new CSSMinPostProcessor()).postProcess(createStatus("css"),
+				join(new NonCopyableSequence(), members));
+		StringBuffer expected = chain(new CSSMinPostProcessor()).postProcessBundle(createStatus("css"),
+				join(new StringBuffer(), members));
+
+		assertEquals(expected.toString(), result.toString());
+	}
+
+	@Test
+	public void testOverriddenProcessingIsApplied() {
+
+		CharSequence result = new CommentingJSMinPostProcessor().postProcess(createStatus("js"),
+				join(new ChunkedCharSequence(), "f( a )\n"));
+		assertEquals("f(a)/*x*/", result.toString());
+	}
+}
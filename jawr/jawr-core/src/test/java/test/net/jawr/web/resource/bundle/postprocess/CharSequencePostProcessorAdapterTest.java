@@ -0,0 +1,72 @@
+package test.net.jawr.web.resource.bundle.postprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CharSequencePostProcessor;
+import net.jawr.web.resource.bundle.postprocess.CharSequencePostProcessorAdapter;
+import net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor;
+import net.jawr.web.util.ChunkedCharSequence;
+
+public class CharSequencePostProcessorAdapterTest {
+
+	/** The post processor which wraps the content and records its input */
+	private static class WrapperPostProcessor implements ResourceBundlePostProcessor {
+
+		private StringBuffer input;
+
+		@Override
+		public StringBuffer postProcessBundle(BundleProcessingStatus status, StringBuffer bundleString) {
+			input = bundleString;
+			return new StringBuffer("(").append(bundleString).append(")");
+		}
+	}
+
+	/** The post processor which implements both contracts */
+	private static class NativePostProcessor extends WrapperPostProcessor implements CharSequencePostProcessor {
+
+		@Override
+		public CharSequence postProcess(BundleProcessingStatus status, CharSequence content) {
+			return content;
+		}
+	}
+
+	@Test
+	public void testStringBufferIsPassedThrough() {
+
+		WrapperPostProcessor processor = new WrapperPostProcessor();
+		StringBuffer content = new StringBuffer("a");
+		CharSequence result = CharSequencePostProcessorAdapter.adapt(processor).postProcess(null, content);
+		assertSame(content, processor.input);
+		assertEquals("(a)", result.toString());
+	}
+
+	@Test
+	public void testCharSequenceIsConverted() {
+
+		WrapperPostProcessor processor = new WrapperPostProcessor();
+		ChunkedCharSequence content = new ChunkedCharSequence().append("a").append(new StringBuilder("b"));
+		CharSequence result = new CharSequencePostProcessorAdapter(processor).postProcess(null, content);
+		assertEquals("ab", processor.input.toString());
+		assertEquals("(ab)", result.toString());
+		assertEquals("(c)", new CharSequencePostProcessorAdapter(processor).postProcess(null, "c").toString());
+	}
+
+	@Test
+	public void testAdapt() {
+
+		assertNull(CharSequencePostProcessorAdapter.adapt(null));
+		NativePostProcessor nativeProcessor = new NativePostProcessor();
+		assertSame(nativeProcessor, CharSequencePostProcessorAdapter.adapt(nativeProcessor));
+
+		WrapperPostProcessor processor = new WrapperPostProcessor();
+		CharSequencePostProcessor adapter = CharSequencePostProcessorAdapter.adapt(processor);
+		assertTrue(adapter instanceof CharSequencePostProcessorAdapter);
+		assertSame(processor, ((CharSequencePostProcessorAdapter) adapter).getPostProcessor());
+	}
+}
@@ -0,0 +1,181 @@
+package test.net.jawr.web.resource.bundle.postprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.servlet.ServletContext;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CssToken;
+import net.jawr.web.resource.bundle.postprocess.CssTokenStream;
+import net.jawr.web.resource.bundle.postprocess.CssTokenType;
+import net.jawr.web.resource.bundle.postprocess.impl.CSSCombineMediaPostProcessor;
+import net.jawr.web.resource.bundle.postprocess.impl.CSSURLPathRewriterPostProcessor;
+import net.jawr.web.resource.bundle.postprocess.impl.CssCharsetFilterPostProcessor;
+import test.net.jawr.web.FileUtils;
+import test.net.jawr.web.servlet.mock.MockServletContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CssTokenStreamTest {
+
+	private static final String CSS = "@charset \"utf-8\";\n.a { background : URL( '../img/a.png' ) }\n"
+			+ "@charset \"utf-8\";\n.b { background : url(\"b.png\") }";
+
+	@Mock
+	private JoinableResourceBundle bundle;
+
+	private JawrConfig config;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setUp() throws Exception {
+
+		when(bundle.getId()).thenReturn("/css/bundle.css");
+		when(bundle.getName()).thenReturn("myBundle");
+		when(bundle.getURLPrefix(Matchers.any(Map.class))).thenReturn("/v00");
+
+		config = new JawrConfig("css", new Properties());
+		ServletContext servletContext = new MockServletContext();
+		config.setContext(servletContext);
+		config.setServletMapping("/css");
+		config.setCharsetName("UTF-8");
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry("css");
+		generatorRegistry.setConfig(config);
+		config.setGeneratorRegistry(generatorRegistry);
+		config.getConfigProperties().put("jawr.css.bundle.myBundle.media", "print");
+	}
+
+	private BundleProcessingStatus createStatus(String lastPathAdded) {
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE,
+				bundle, null, config);
+		status.setLastPathAdded(lastPathAdded);
+		return status;
+	}
+
+	@Test
+	public void testTokenize() {
+
+		List<CssToken> tokens = new CssTokenStream(CSS).getTokens();
+		assertEquals(8, tokens.size());
+		assertEquals(CssTokenType.CHARSET, tokens.get(0).getType());
+		assertEquals("@charset \"utf-8\";", tokens.get(0).getValue());
+		assertEquals(CssTokenType.TEXT, tokens.get(1).getType());
+		assertEquals(CssTokenType.URL, tokens.get(2).getType());
+		assertEquals("URL( '../img/a.png' )", tokens.get(2).getValue());
+		assertEquals(CssTokenType.CHARSET, tokens.get(4).getType());
+		assertEquals(CssTokenType.URL, tokens.get(6).getType());
+		assertEquals("url(\"b.png\")", tokens.get(6).getValue());
+		assertEquals(" }", tokens.get(7).getValue());
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+
+		assertEquals("", new CssTokenStream("").toString());
+		assertEquals(CSS, new CssTokenStream(CSS).toString());
+
+		String content = FileUtils
+				.readClassPathFile("postprocessor/cssbundlecharset/charset-decl-not-at-the-top-bundle.css");
+		assertEquals(content, new CssTokenStream(content).toStringBuffer().toString());
+	}
+
+	@Test
+	public void testUpdateTokens() {
+
+		CssTokenStream tokens = new CssTokenStream(CSS);
+		tokens.getTokens().get(0).remove();
+		tokens.getTokens().get(2).setValue("url(c.png)");
+		tokens.prepend("/* start */");
+		tokens.append("/* end */");
+		assertEquals("/* start */\n.a { background : url(c.png) }\n"
+				+ "@charset \"utf-8\";\n.b { background : url(\"b.png\") }/* end */", tokens.toString());
+	}
+
+	@Test
+	public void testTextAddedBeforeTokenization() {
+
+		CssTokenStream tokens = new CssTokenStream(CSS);
+		tokens.prepend("/* second */");
+		tokens.prepend("/* first */");
+		tokens.append("/* end */");
+		assertEquals("/* first *//* second */" + CSS + "/* end */", tokens.toString());
+
+		List<CssToken> tokenList = tokens.getTokens();
+		assertEquals(11, tokenList.size());
+		assertEquals("/* first */", tokenList.get(0).getValue());
+		assertEquals("/* second */", tokenList.get(1).getValue());
+		assertEquals(CssTokenType.CHARSET, tokenList.get(2).getType());
+		assertEquals("/* end */", tokenList.get(10).getValue());
+
+		tokens.prepend("/* start */");
+		tokens.append("/* last */");
+		assertEquals("/* start *//* first *//* second */" + CSS + "/* end *//* last */", tokens.toString());
+	}
+
+	@Test
+	public void testFusedChainHasSameResultAsSeparatePostProcessors() throws Exception {
+
+		String content = FileUtils
+				.readClassPathFile("postprocessor/cssbundlecharset/charset-decl-not-at-the-top-bundle.css") + CSS;
+		String path = "/css/folder/someCSS.css";
+
+		// Each post processor applied on the serialized result of the
+		// previous one
+		StringBuffer expected = new StringBuffer(content);
+		expected = new CssCharsetFilterPostProcessor().postProcessBundle(createStatus(path), expected);
+		expected = new CSSURLPathRewriterPostProcessor().postProcessBundle(createStatus(path), expected);
+		expected = new CSSCombineMediaPostProcessor().postProcessBundle(createStatus(path), expected);
+
+		AbstractChainedResourceBundlePostProcessor chain = new CssCharsetFilterPostProcessor();
+		chain.addNextProcessor(new CSSURLPathRewriterPostProcessor());
+		chain.addNextProcessor(new CSSCombineMediaPostProcessor());
+		StringBuffer result = chain.postProcessBundle(createStatus(path), new StringBuffer(content));
+
+		assertEquals(expected.toString(), result.toString());
+		assertTrue(result.toString().replace("\r", "").startsWith("@media print {\n@charset \"utf-8\";\nbody {\n\tbackground-image: url(\"../../img/logo.png\");"));
+	}
+
+	@Test
+	public void testOverriddenPostProcessorIsNotFused() throws Exception {
+
+		String path = "/css/folder/someCSS.css";
+		CSSURLPathRewriterPostProcessor urlRewriter = new CSSURLPathRewriterPostProcessor() {
+
+			@Override
+			protected StringBuffer doPostProcessBundle(BundleProcessingStatus status, StringBuffer bundleData)
+					throws IOException {
+				return super.doPostProcessBundle(status, bundleData).append("/* rewritten */");
+			}
+		};
+
+		StringBuffer expected = new StringBuffer(CSS);
+		expected = new CssCharsetFilterPostProcessor().postProcessBundle(createStatus(path), expected);
+		expected = new CSSURLPathRewriterPostProcessor().postProcessBundle(createStatus(path), expected);
+		expected = new CSSCombineMediaPostProcessor().postProcessBundle(createStatus(path), expected);
+
+		AbstractChainedResourceBundlePostProcessor chain = new CssCharsetFilterPostProcessor();
+		chain.addNextProcessor(urlRewriter);
+		chain.addNextProcessor(new CSSCombineMediaPostProcessor());
+		StringBuffer result = chain.postProcessBundle(createStatus(path), new StringBuffer(CSS));
+
+		assertTrue(result.toString().contains("/* rewritten */"));
+		assertEquals(expected.toString(), result.toString().replace("/* rewritten */", ""));
+	}
+}
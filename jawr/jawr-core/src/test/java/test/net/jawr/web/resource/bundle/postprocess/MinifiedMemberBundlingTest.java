@@ -0,0 +1,53 @@
+package test.net.jawr.web.resource.bundle.postprocess;
+
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.jawr.web.resource.bundle.InclusionPattern;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.JoinableResourceBundleImpl;
+import net.jawr.web.resource.bundle.handler.ResourceBundlesHandler;
+import net.jawr.web.resource.bundle.handler.ResourceBundlesHandlerImpl;
+import net.jawr.web.resource.bundle.postprocess.impl.JSMinPostProcessor;
+import net.jawr.web.resource.handler.bundle.ResourceBundleHandler;
+import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
+import test.net.jawr.web.resource.bundle.handler.ResourceHandlerBasedTest;
+
+public class MinifiedMemberBundlingTest extends ResourceHandlerBasedTest {
+
+	private static final String ROOT_TESTDIR = "/minifiedmembers/";
+
+	private ResourceReaderHandler rsHandler;
+
+	private ResourceBundleHandler rsBundleHandler;
+
+	@Override
+	protected void setUp() throws Exception {
+		Charset charset = Charset.forName("UTF-8");
+		rsHandler = createResourceReaderHandler(ROOT_TESTDIR, "js", charset);
+		rsBundleHandler = createResourceBundleHandler(ROOT_TESTDIR, charset);
+	}
+
+	/**
+	 * The bundle minifier doesn't minify again the members already minified
+	 */
+	public void testBundleMinifierSkipsMinifiedMember() throws Exception {
+
+		JoinableResourceBundle bundle = new JoinableResourceBundleImpl("/js/script.js", "script", null, "js",
+				new InclusionPattern(), Arrays.asList("/js/app.js", "/js/lib.min.js"), rsHandler,
+				config.getGeneratorRegistry());
+		List<JoinableResourceBundle> bundles = new ArrayList<>();
+		bundles.add(bundle);
+
+		ResourceBundlesHandler handler = new ResourceBundlesHandlerImpl(bundles, rsHandler, rsBundleHandler, config,
+				new JSMinPostProcessor(), null, null, null, null, null);
+		handler.initAllBundles();
+
+		StringWriter writer = new StringWriter();
+		handler.writeBundleTo("/N1234/js/script.js", writer);
+		assertEquals("var app={name:\"app\"};\n/*! lib */\nvar  lib = {   version : 1 };\n", writer.toString());
+	}
+}
@@ -0,0 +1,162 @@
+package test.net.jawr.web.resource.bundle.postprocess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Properties;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.MinifiedResourcePolicy;
+import net.jawr.web.resource.bundle.postprocess.impl.JSMinPostProcessor;
+import net.jawr.web.util.ChunkedCharSequence;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MinifiedResourcePolicyTest {
+
+	private static final String SCRIPT = "// comment\nvar a = 1;\n\nalert( a );";
+
+	@Mock
+	private JoinableResourceBundle bundle;
+
+	@Before
+	public void setUp() {
+		when(bundle.getId()).thenReturn("/myJsBundle.js");
+	}
+
+	@Test
+	public void testMinifiedPath() {
+		MinifiedResourcePolicy policy = MinifiedResourcePolicy.create(null);
+		assertTrue(policy.isMinified("/js/lib/jquery.min.js", SCRIPT));
+		assertTrue(policy.isMinified("/css/bootstrap-min.css", SCRIPT));
+		assertFalse(policy.isMinified("/js/lib/jquery.js", SCRIPT));
+		assertFalse(policy.isMinified("/js/admin.js", SCRIPT));
+	}
+
+	@Test
+	public void testMinifiedContentDetection() {
+		MinifiedResourcePolicy policy = new MinifiedResourcePolicy(null, true);
+		assertTrue(policy.isMinified("/js/lib.js", getMinifiedContent()));
+		assertFalse(policy.isMinified("/js/lib.js", getFormattedContent()));
+		assertFalse(policy.isMinified("/js/lib.js", "var a=1;"));
+
+		policy = new MinifiedResourcePolicy(null, false);
+		assertFalse(policy.isMinified("/js/lib.js", getMinifiedContent()));
+	}
+
+	@Test
+	public void testMinifiedContentDetectionDisabledByDefault() {
+		assertFalse(MinifiedResourcePolicy.create(null).isMinified("/js/lib.js", getMinifiedContent()));
+
+		Properties props = new Properties();
+		props.put(JawrConstant.JAWR_MINIFIED_RESOURCES_DETECTION, "true");
+		MinifiedResourcePolicy policy = MinifiedResourcePolicy.create(new JawrConfig("js", props));
+		assertTrue(policy.isMinified("/js/lib.js", getMinifiedContent()));
+	}
+
+	@Test
+	public void testSavedTime() {
+		MinifiedResourcePolicy policy = new MinifiedResourcePolicy(null, true);
+		assertEquals(0, policy.addSkippedContent(1000));
+		policy.addMinifiedContent(1000, 5000);
+		assertEquals(10000, policy.addSkippedContent(2000));
+		assertEquals(10000, policy.getSavedTime());
+	}
+
+	@Test
+	public void testMinifierSkipsMinifiedMember() {
+		JawrConfig config = new JawrConfig("js", new Properties());
+		JSMinPostProcessor processor = new JSMinPostProcessor();
+
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
+				bundle, null, config);
+		status.setLastPathAdded("/js/lib.min.js");
+		status.setMemberPath("/js/lib.min.js");
+		assertEquals(SCRIPT, processor.postProcessBundle(status, new StringBuffer(SCRIPT)).toString());
+
+		status.setLastPathAdded("/js/lib.js");
+		status.setMemberPath("/js/lib.js");
+		assertEquals("var a=1;alert(a);", processor.postProcessBundle(status, new StringBuffer(SCRIPT)).toString());
+
+		// The whole bundle is always minified
+		status = new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE, bundle, null, config);
+		status.setLastPathAdded("/js/lib.min.js");
+		assertEquals("var a=1;alert(a);", processor.postProcessBundle(status, new StringBuffer(SCRIPT)).toString());
+	}
+
+	@Test
+	public void testMinifierProcessesCompositeChildBundle() {
+		JawrConfig config = new JawrConfig("js", new Properties());
+		JSMinPostProcessor processor = new JSMinPostProcessor();
+
+		// The child bundles of a composite bundle are not members
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
+				bundle, null, config);
+		status.setLastPathAdded("/bundles/vendor.min.js");
+		assertEquals("var a=1;alert(a);", processor.postProcessBundle(status, new StringBuffer(SCRIPT)).toString());
+	}
+
+	@Test
+	public void testBundleMinifierSkipsMinifiedMembers() {
+		JawrConfig config = new JawrConfig("js", new Properties());
+		JSMinPostProcessor processor = new JSMinPostProcessor();
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE,
+				bundle, null, config);
+
+		StringBuffer first = new StringBuffer(SCRIPT + "\n");
+		StringBuffer lib = new StringBuffer("var  lib=2;\n");
+		StringBuffer last = new StringBuffer(SCRIPT + "\n");
+		status.addJoinedMember(first, "/js/first.js");
+		status.addJoinedMember(lib, "/js/lib.min.js");
+		status.addJoinedMember(last, "/js/last.js");
+		ChunkedCharSequence content = new ChunkedCharSequence().append(first).append(lib).append(last);
+
+		assertEquals("var a=1;alert(a);\nvar  lib=2;\nvar a=1;alert(a);",
+				processor.postProcess(status, content).toString());
+
+		// The content which is not made of the joined members is minified
+		status.clearJoinedMembers();
+		assertEquals("var a=1;alert(a);var lib=2;var a=1;alert(a);",
+				processor.postProcess(status, content).toString());
+	}
+
+	@Test
+	public void testMinifiedPathPatternDisabled() {
+		Properties props = new Properties();
+		props.put(JawrConstant.JAWR_MINIFIED_RESOURCES_PATTERN, "");
+		props.put(JawrConstant.JAWR_MINIFIED_RESOURCES_DETECTION, "false");
+		JawrConfig config = new JawrConfig("js", props);
+		JSMinPostProcessor processor = new JSMinPostProcessor();
+
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
+				bundle, null, config);
+		status.setLastPathAdded("/js/lib.min.js");
+		assertEquals("var a=1;alert(a);", processor.postProcessBundle(status, new StringBuffer(SCRIPT)).toString());
+	}
+
+	private String getMinifiedContent() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			sb.append("function f").append(i).append("(a,b){return a+b*").append(i).append("};");
+		}
+		return sb.toString();
+	}
+
+	private String getFormattedContent() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			sb.append("function f").append(i).append("(a, b) {\n    return a + b * ").append(i).append(";\n}\n\n");
+		}
+		return sb.toString();
+	}
+}
@@ -14,11 +14,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import static org.mockito.Mockito.when;
 
@@ -28,6 +30,7 @@ import net.jawr.web.resource.BinaryResourcesHandler;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.impl.css.base64.Base64EncodedImageCache;
 import net.jawr.web.resource.bundle.postprocess.impl.css.base64.Base64ImageEncoderPostProcessor;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
 import test.net.jawr.web.FileUtils;
@@ -649,4 +652,103 @@ public class CSSBase64ImageRewriterPostProcessorTest {
 		assertEquals("URL was not rewritten properly", expectedURL, FileUtils.removeCarriageReturn(result));
 	}
 
+	private BundleProcessingStatus createStatus(Properties props, JoinableResourceBundle bundle) {
+
+		props.setProperty(JawrConfig.JAWR_CSS_CLASSPATH_HANDLE_IMAGE, "true");
+		config = new JawrConfig("css", props);
+		ServletContext servletContext = new MockServletContext();
+		config.setContext(servletContext);
+		config.setServletMapping("/css");
+		config.setCharsetName("UTF-8");
+		addGeneratorRegistryToConfig(config, "css");
+
+		// Set up the Image servlet Jawr config
+		JawrConfig imgServletJawrConfig = new JawrConfig(JawrConstant.BINARY_TYPE, new Properties());
+		imgServletJawrConfig.setServletMapping("/cssImg/");
+		addGeneratorRegistryToConfig(imgServletJawrConfig, JawrConstant.BINARY_TYPE);
+		config.getGeneratorRegistry().setResourceReaderHandler(rsHandler);
+		BinaryResourcesHandler imgRsHandler = new BinaryResourcesHandler(imgServletJawrConfig, rsHandler, null);
+		imgServletJawrConfig.getGeneratorRegistry().setResourceReaderHandler(rsHandler);
+		servletContext.setAttribute(JawrConstant.BINARY_CONTEXT_ATTRIBUTE, imgRsHandler);
+
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
+				bundle, null, config);
+		status.setLastPathAdded("style/default/assets/someCSS.css");
+		return status;
+	}
+
+	@Test
+	public void testEncodedImageCacheSharedByBundles() {
+
+		JoinableResourceBundle otherBundle = Mockito.mock(JoinableResourceBundle.class);
+		when(otherBundle.getId()).thenReturn("/css/otherBundle.css");
+
+		String css = "background-image:url(../../images/logo.png);";
+		String expected = "background-image:url(data:image/png;base64,RmFrZSB2YWx1ZQ==);";
+		assertEquals(expected,
+				processor.postProcessBundle(createStatus(new Properties(), bundle), new StringBuffer(css)).toString());
+		assertEquals(expected, processor
+				.postProcessBundle(createStatus(new Properties(), otherBundle), new StringBuffer(css)).toString());
+		assertEquals(expected,
+				processor.postProcessBundle(createStatus(new Properties(), bundle), new StringBuffer(css)).toString());
+
+		Base64EncodedImageCache cache = processor.getEncodedImageCache();
+		assertEquals(1, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+		assertEquals("RmFrZSB2YWx1ZQ==".length(), cache.getSize());
+
+		int inlinedLength = "data:image/png;base64,RmFrZSB2YWx1ZQ==".length();
+		assertEquals(2 * inlinedLength, cache.getInlinedSize("/css/bundle.css"));
+		assertEquals(inlinedLength, cache.getInlinedSize("/css/otherBundle.css"));
+		assertEquals(2, cache.getInlinedSizes().size());
+	}
+
+	@Test
+	public void testEncodedImageCacheWithModifiedImage() throws Exception {
+
+		final String[] imageContent = new String[] { "Fake value" };
+		when(rsHandler.getResourceAsStream(Matchers.anyString())).thenAnswer(new Answer<InputStream>() {
+
+			@Override
+			public InputStream answer(InvocationOnMock invocation) throws Throwable {
+				return new ByteArrayInputStream(imageContent[0].getBytes());
+			}
+		});
+
+		String css = "background-image:url(../../images/logo.png);";
+		assertEquals("background-image:url(data:image/png;base64,RmFrZSB2YWx1ZQ==);",
+				processor.postProcessBundle(createStatus(new Properties(), bundle), new StringBuffer(css)).toString());
+
+		imageContent[0] = "Other value";
+		assertEquals("background-image:url(data:image/png;base64,T3RoZXIgdmFsdWU=);",
+				processor.postProcessBundle(createStatus(new Properties(), bundle), new StringBuffer(css)).toString());
+
+		Base64EncodedImageCache cache = processor.getEncodedImageCache();
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void testEncodedImageCacheSizeBudget() {
+
+		Properties props = new Properties();
+		props.setProperty(JawrConstant.BASE64_CACHE_MAX_SIZE, "20");
+		String css = "background-image:url(../../images/logo.png);background-image:url(../../images/logo2.png);";
+		processor.postProcessBundle(createStatus(props, bundle), new StringBuffer(css));
+
+		// Only the last encoded image fits in the cache
+		Base64EncodedImageCache cache = processor.getEncodedImageCache();
+		assertEquals("RmFrZSB2YWx1ZQ==".length(), cache.getSize());
+	}
+
+	@Test
+	public void testEncodedImageCacheDisabled() {
+
+		Properties props = new Properties();
+		props.setProperty(JawrConstant.BASE64_CACHE_MAX_SIZE, "0");
+		String css = "background-image:url(../../images/logo.png);";
+		assertEquals("background-image:url(data:image/png;base64,RmFrZSB2YWx1ZQ==);",
+				processor.postProcessBundle(createStatus(props, bundle), new StringBuffer(css)).toString());
+		assertNull(processor.getEncodedImageCache());
+	}
 }
@@ -4,11 +4,20 @@
 package test.net.jawr.web.resource.bundle.postprocess.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.Reader;
 import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import javax.servlet.ServletContext;
@@ -19,6 +28,7 @@ import net.jawr.web.exception.ResourceNotFoundException;
 import net.jawr.web.resource.BinaryResourcesHandler;
 import net.jawr.web.resource.bundle.JoinableResourceBundle;
 import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.mappings.FilePathMapping;
 import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
 import net.jawr.web.resource.bundle.postprocess.impl.CSSImportPostProcessor;
 import net.jawr.web.resource.handler.reader.ResourceReaderHandler;
@@ -28,7 +38,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import test.net.jawr.web.FileUtils;
 import test.net.jawr.web.servlet.mock.MockServletContext;
@@ -303,5 +315,120 @@ public class CSSImportPostProcessorTest {
 		status.setLastPathAdded(filePath);
 		return status;
 	}
-	
+
+	private File createCssFile(String name, String content) throws Exception {
+		File file = new File(FileUtils.getClasspathRootDir() + File.separator + WORK_DIR, name);
+		try (Writer writer = new FileWriter(file)) {
+			writer.write(content);
+		}
+		return file;
+	}
+
+	private BundleProcessingStatus getCssFileProcessingStatus(String filePath, final String... cssFileNames)
+			throws Exception {
+
+		for (String cssFileName : cssFileNames) {
+			final File file = new File(FileUtils.getClasspathRootDir() + File.separator + WORK_DIR, cssFileName);
+			String path = "/css/imports/" + cssFileName;
+			when(rsHandler.getFilePath(path)).thenReturn(file.getAbsolutePath());
+			when(rsHandler.getResource(bundle, path, true)).thenAnswer(new Answer<Reader>() {
+
+				@Override
+				public Reader answer(InvocationOnMock invocation) throws Throwable {
+					return new FileReader(file);
+				}
+			});
+		}
+		config.getGeneratorRegistry().setResourceReaderHandler(rsHandler);
+
+		BinaryResourcesHandler imgRsHandler = (BinaryResourcesHandler) config.getContext()
+				.getAttribute(JawrConstant.BINARY_CONTEXT_ATTRIBUTE);
+		imgRsHandler.getConfig().getGeneratorRegistry().setResourceReaderHandler(rsHandler);
+		imgRsHandler.getConfig().setContext(config.getContext());
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.FILE_PROCESSING_TYPE,
+				bundle, rsHandler, config);
+		status.setLastPathAdded(filePath);
+		return status;
+	}
+
+	@Test
+	public void testNestedImportWithCycleAndDuplicate() throws Exception {
+
+		createCssFile("a.css", "@import url(b.css);\n.a { background : url('img/a.png'); }");
+		createCssFile("b.css", "@import url(a.css);\n.b { color : red; }");
+		List<FilePathMapping> linkedMappings = new ArrayList<>();
+		when(bundle.getLinkedFilePathMappings()).thenReturn(linkedMappings);
+
+		StringBuffer data = new StringBuffer("@import url(imports/a.css);\n@import url(imports/a.css);\n.blue { color : #0000FF } ");
+		status = getCssFileProcessingStatus("/css/someCSS.css", "a.css", "b.css");
+		String result = processor.postProcessBundle(status, data).toString();
+		assertEquals("\n.b { color : red; }\n.a { background : url('imports/img/a.png'); }\n\n.blue { color : #0000FF } ",
+				result);
+		assertEquals(2, linkedMappings.size());
+	}
+
+	@Test
+	public void testImportedCssCache() throws Exception {
+
+		File file = createCssFile("cached.css", ".cached { background : url('img/a.png'); }");
+		List<FilePathMapping> linkedMappings = new ArrayList<>();
+		when(bundle.getLinkedFilePathMappings()).thenReturn(linkedMappings);
+
+		String expected = ".cached { background : url('imports/img/a.png'); }\n.blue { color : #0000FF } ";
+		status = getCssFileProcessingStatus("/css/someCSS.css", "cached.css");
+		assertEquals(expected, processor
+				.postProcessBundle(status, new StringBuffer("@import url(imports/cached.css);\n.blue { color : #0000FF } "))
+				.toString());
+		assertEquals(expected, processor
+				.postProcessBundle(status, new StringBuffer("@import url(imports/cached.css);\n.blue { color : #0000FF } "))
+				.toString());
+		verify(rsHandler, times(1)).getResource(bundle, "/css/imports/cached.css", true);
+
+		// The imported file is still a linked resource of the bundle
+		linkedMappings.clear();
+		processor.postProcessBundle(status, new StringBuffer("@import url(imports/cached.css);"));
+		assertEquals(1, linkedMappings.size());
+		assertEquals(file.getAbsolutePath(), linkedMappings.get(0).getPath());
+
+		// The imported file is read again when it has been modified
+		createCssFile("cached.css", ".modified { color : red; }");
+		assertTrue(file.setLastModified(file.lastModified() - 10000));
+		assertEquals(".modified { color : red; }",
+				processor.postProcessBundle(status, new StringBuffer("@import url(imports/cached.css);")).toString());
+		verify(rsHandler, times(2)).getResource(bundle, "/css/imports/cached.css", true);
+	}
+
+	@Test
+	public void testImportedCssCacheIsBounded() throws Exception {
+
+		createCssFile("first.css", ".first { color : red; }");
+		createCssFile("second.css", ".second { color : blue; }");
+		when(bundle.getLinkedFilePathMappings()).thenReturn(new ArrayList<FilePathMapping>());
+		config.getConfigProperties().put("jawr.css.postprocessor.cssimport.cache.max.size", "30");
+
+		// The cache holds only one of the imported files
+		status = getCssFileProcessingStatus("/css/someCSS.css", "first.css", "second.css");
+		processor.postProcessBundle(status, new StringBuffer("@import url(imports/first.css);"));
+		processor.postProcessBundle(status, new StringBuffer("@import url(imports/second.css);"));
+		assertEquals(".second { color : blue; }",
+				processor.postProcessBundle(status, new StringBuffer("@import url(imports/second.css);")).toString());
+		assertEquals(".first { color : red; }",
+				processor.postProcessBundle(status, new StringBuffer("@import url(imports/first.css);")).toString());
+		verify(rsHandler, times(1)).getResource(bundle, "/css/imports/second.css", true);
+		verify(rsHandler, times(2)).getResource(bundle, "/css/imports/first.css", true);
+	}
+
+	@Test
+	public void testImportedResourceWithoutFileIsNotCached() throws Exception {
+
+		createCssFile("nofile.css", ".nofile { color : red; }");
+		when(bundle.getLinkedFilePathMappings()).thenReturn(new ArrayList<FilePathMapping>());
+		status = getCssFileProcessingStatus("/css/someCSS.css", "nofile.css");
+		when(rsHandler.getFilePath("/css/imports/nofile.css")).thenReturn(null);
+
+		processor.postProcessBundle(status, new StringBuffer("@import url(imports/nofile.css);"));
+		assertEquals(".nofile { color : red; }",
+				processor.postProcessBundle(status, new StringBuffer("@import url(imports/nofile.css);")).toString());
+		verify(rsHandler, times(2)).getResource(bundle, "/css/imports/nofile.css", true);
+	}
 }
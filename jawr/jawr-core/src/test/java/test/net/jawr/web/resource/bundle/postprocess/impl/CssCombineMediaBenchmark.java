@@ -0,0 +1,103 @@
+package test.net.jawr.web.resource.bundle.postprocess.impl;
+
+import java.util.Properties;
+
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.InclusionPattern;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.JoinableResourceBundleImpl;
+import net.jawr.web.resource.bundle.generator.GeneratorRegistry;
+import net.jawr.web.resource.bundle.postprocess.AbstractChainedResourceBundlePostProcessor;
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.CssTokenStream;
+import net.jawr.web.resource.bundle.postprocess.impl.CSSCombineMediaPostProcessor;
+import net.jawr.web.resource.bundle.postprocess.impl.CSSURLPathRewriterPostProcessor;
+import test.net.jawr.web.servlet.mock.MockServletContext;
+
+/**
+ * Measures the media combining post processor on synthetic stylesheets of
+ * 10k to 100k rules, alone and fused with the URL path rewriter. The "eager"
+ * run tokenizes the content before visiting it, as the token stream did
+ * before it became lazy. The time per rule stays constant when the processing
+ * is linear.
+ *
+ * This benchmark is not run by the tests. Launch it from the test classpath :
+ * <code>java test.net.jawr.web.resource.bundle.postprocess.impl.CssCombineMediaBenchmark</code>
+ */
+public class CssCombineMediaBenchmark {
+
+	private static final int ITERATIONS = 10;
+
+	private static final int[] RULE_COUNTS = { 10000, 20000, 50000, 100000 };
+
+	public static void main(String[] args) throws Exception {
+
+		Properties props = new Properties();
+		props.put("jawr.css.bundle.bundle.media", "print");
+		JawrConfig config = new JawrConfig("css", props);
+		config.setContext(new MockServletContext());
+		config.setServletMapping("/css");
+		config.setCharsetName("UTF-8");
+		GeneratorRegistry generatorRegistry = new GeneratorRegistry("css");
+		generatorRegistry.setConfig(config);
+		config.setGeneratorRegistry(generatorRegistry);
+		JoinableResourceBundle bundle = new JoinableResourceBundleImpl("/css/bundle.css", "bundle", null, "css",
+				new InclusionPattern(), null, generatorRegistry);
+		BundleProcessingStatus status = new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE,
+				bundle, null, config);
+		status.setLastPathAdded("/css/folder/someCSS.css");
+
+		CSSCombineMediaPostProcessor combineMedia = new CSSCombineMediaPostProcessor();
+		for (int pass = 0; pass < 2; pass++) {
+			for (int ruleCount : RULE_COUNTS) {
+				String css = createStylesheet(ruleCount);
+				run("eager  ", ruleCount, css, status, combineMedia, true);
+				run("lazy   ", ruleCount, css, status, combineMedia, false);
+
+				AbstractChainedResourceBundlePostProcessor chain = new CSSURLPathRewriterPostProcessor();
+				chain.addNextProcessor(new CSSCombineMediaPostProcessor());
+				run("fused  ", ruleCount, css, status, chain, false);
+			}
+		}
+	}
+
+	private static String createStylesheet(int ruleCount) {
+
+		StringBuilder sb = new StringBuilder(ruleCount * 60);
+		for (int i = 0; i < ruleCount; i++) {
+			if (i % 10 == 0) {
+				sb.append(".rule").append(i).append(" { background : url(../img/img").append(i % 100)
+						.append(".png) }\n");
+			} else {
+				sb.append(".rule").append(i).append(" { margin : 0 ").append(i % 7).append("px; color : #fff }\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void run(String name, int ruleCount, String css, BundleProcessingStatus status,
+			AbstractChainedResourceBundlePostProcessor processor, boolean eager) throws Exception {
+
+		process(css, status, processor, eager);
+		long start = System.nanoTime();
+		int length = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			length += process(css, status, processor, eager).length();
+		}
+		long elapsed = (System.nanoTime() - start) / ITERATIONS;
+		System.out.println(name + ruleCount + " rules : " + (elapsed / 1000) + " us/op, " + (elapsed / ruleCount)
+				+ " ns/rule, output " + (length / ITERATIONS) + " chars");
+	}
+
+	private static StringBuffer process(String css, BundleProcessingStatus status,
+			AbstractChainedResourceBundlePostProcessor processor, boolean eager) throws Exception {
+
+		if (eager) {
+			CssTokenStream tokens = new CssTokenStream(css);
+			tokens.getTokens();
+			((CSSCombineMediaPostProcessor) processor).visitTokens(status, tokens);
+			return tokens.toStringBuffer();
+		}
+		return processor.postProcessBundle(status, new StringBuffer(css));
+	}
+}
@@ -0,0 +1,227 @@
+package test.net.jawr.web.resource.bundle.postprocess.impl.yui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.config.JawrConfig;
+import net.jawr.web.resource.bundle.JoinableResourceBundle;
+import net.jawr.web.resource.bundle.postprocess.BundleProcessingStatus;
+import net.jawr.web.resource.bundle.postprocess.ResourceBundlePostProcessor;
+import net.jawr.web.resource.bundle.postprocess.impl.yui.YUICSSCompressor;
+import net.jawr.web.resource.bundle.postprocess.impl.yui.YUICompressorCache;
+import net.jawr.web.resource.bundle.postprocess.impl.yui.YUIJSCompressor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.yahoo.platform.yui.compressor.JavaScriptCompressor;
+
+@RunWith(MockitoJUnitRunner.class)
+public class YUICompressorTest {
+
+	private static final String JS = "var total = function(count) {\n  // comment\n  return count + 1;\n};\nalert(total(1))\n";
+
+	private static final String CSS = "/* comment */\n.myClass {\n  color : #ffffff;\n  margin : 0px;\n}\n";
+
+	@Mock
+	private JoinableResourceBundle bundle;
+
+	private JawrConfig config;
+
+	@Before
+	public void setUp() {
+		when(bundle.getId()).thenReturn("/bundle.css");
+		when(bundle.getName()).thenReturn("bundle");
+		config = new JawrConfig("css", new Properties());
+		config.setCharsetName("UTF-8");
+	}
+
+	private BundleProcessingStatus getStatus() {
+		return new BundleProcessingStatus(BundleProcessingStatus.BUNDLE_PROCESSING_TYPE, bundle, null, config);
+	}
+
+	/**
+	 * The class loader of the YUI JS compressor. The test classpath carries a
+	 * Rhino version which is incompatible with the JavaScriptCompressor, so
+	 * the Rhino classes are loaded from the YUI jar, which embeds the Rhino
+	 * version it is built for.
+	 */
+	private static class YUIClassLoader extends URLClassLoader {
+
+		private YUIClassLoader() {
+			super(new URL[] { getLocation(JavaScriptCompressor.class), getLocation(YUIJSCompressor.class) },
+					YUICompressorTest.class.getClassLoader());
+		}
+
+		private static URL getLocation(Class<?> c) {
+			return c.getProtectionDomain().getCodeSource().getLocation();
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+
+			if (!name.startsWith("org.mozilla.") && !name.startsWith("com.yahoo.")
+					&& !name.startsWith(YUIJSCompressor.class.getPackage().getName() + ".")) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				if (c == null) {
+					c = findClass(name);
+				}
+				if (resolve) {
+					resolveClass(c);
+				}
+				return c;
+			}
+		}
+	}
+
+	private static ResourceBundlePostProcessor createJSCompressor(boolean obfuscate) throws Exception {
+		return (ResourceBundlePostProcessor) new YUIClassLoader().loadClass(YUIJSCompressor.class.getName())
+				.getConstructor(boolean.class).newInstance(obfuscate);
+	}
+
+	@Test
+	public void testCacheKey() {
+
+		String key = YUICompressorCache.getKey(CSS, "js:munge=true");
+		assertEquals(key, YUICompressorCache.getKey(new StringBuffer(CSS), "js:munge=true"));
+		assertFalse(key.equals(YUICompressorCache.getKey(CSS, "js:munge=false")));
+		assertFalse(key.equals(YUICompressorCache.getKey(CSS + " ", "js:munge=true")));
+	}
+
+	@Test
+	public void testCacheHitAndEviction() {
+
+		YUICompressorCache cache = new YUICompressorCache(10);
+		assertNull(cache.get("a"));
+		cache.put("a", "12345");
+		cache.put("b", "1234");
+		assertEquals("12345", cache.get("a"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(9, cache.getSize());
+
+		// "b" is the least recently used result
+		cache.put("c", "123");
+		assertNull(cache.get("b"));
+		assertEquals("12345", cache.get("a"));
+		assertEquals("123", cache.get("c"));
+		assertEquals(8, cache.getSize());
+
+		// Results larger than the cache are not stored
+		cache.put("d", "12345678901");
+		assertNull(cache.get("d"));
+		assertEquals(8, cache.getSize());
+	}
+
+	@Test
+	public void testCompressWithCache() {
+
+		YUICSSCompressor compressor = new YUICSSCompressor();
+		String expected = compressor.postProcessBundle(getStatus(), new StringBuffer(CSS)).toString();
+		assertEquals(".myClass{color:#fff;margin:0}", expected);
+		assertEquals(expected, compressor.postProcessBundle(getStatus(), new StringBuffer(CSS)).toString());
+		assertEquals(".myClass{color:#fff;margin:0}.other{padding:0}", compressor
+				.postProcessBundle(getStatus(), new StringBuffer(CSS + ".other { padding : 0px; }")).toString());
+	}
+
+	@Test
+	public void testCompressWithoutCache() {
+
+		config.setYuiCompressorCacheMaxSize(0);
+		YUICSSCompressor compressor = new YUICSSCompressor();
+		assertEquals(".myClass{color:#fff;margin:0}",
+				compressor.postProcessBundle(getStatus(), new StringBuffer(CSS)).toString());
+		assertEquals(".myClass{color:#fff;margin:0}",
+				compressor.postProcessBundle(getStatus(), new StringBuffer(CSS)).toString());
+	}
+
+	@Test
+	public void testCompressJs() throws Exception {
+
+		ResourceBundlePostProcessor compressor = createJSCompressor(false);
+		String expected = "var total=function(count){return count+1};alert(total(1));";
+		assertEquals(expected, compressor.postProcessBundle(getStatus(), new StringBuffer(JS)).toString());
+		assertEquals(expected, compressor.postProcessBundle(getStatus(), new StringBuffer(JS)).toString());
+
+		config.setYuiCompressorCacheMaxSize(0);
+		assertEquals(expected,
+				createJSCompressor(false).postProcessBundle(getStatus(), new StringBuffer(JS)).toString());
+	}
+
+	@Test
+	public void testCompressAndObfuscateJs() throws Exception {
+
+		ResourceBundlePostProcessor compressor = createJSCompressor(true);
+		String expected = "var total=function(a){return a+1};alert(total(1));";
+		assertEquals(expected, compressor.postProcessBundle(getStatus(), new StringBuffer(JS)).toString());
+		assertEquals(expected, compressor.postProcessBundle(getStatus(), new StringBuffer(JS)).toString());
+	}
+
+	@Test
+	public void testCompressJsError() throws Exception {
+
+		try {
+			createJSCompressor(false).postProcessBundle(getStatus(), new StringBuffer("var a = 1;\nvar b = ;\n"));
+			fail("The compression of an invalid script should fail");
+		} catch (RuntimeException e) {
+			assertTrue(e.getMessage().contains("YUI failed to minify the bundle with id: '/bundle.css'"));
+			assertTrue(e.getMessage().contains("var b = ; <-- ERROR"));
+		}
+	}
+
+	@Test
+	public void testDefaultCacheSize() {
+		assertEquals(JawrConstant.DEFAULT_YUI_COMPRESSOR_CACHE_MAX_SIZE, config.getYuiCompressorCacheMaxSize());
+		Properties props = new Properties();
+		props.put(JawrConstant.JAWR_YUI_COMPRESSOR_CACHE_MAX_SIZE, "1024");
+		assertEquals(1024, new JawrConfig("css", props).getYuiCompressorCacheMaxSize());
+	}
+
+	@Test
+	public void testParallelCompression() throws Exception {
+
+		final YUICSSCompressor compressor = new YUICSSCompressor();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				final String suffix = ".class" + (i % 5) + " { margin : " + (i % 5) + "px; }\n";
+				results.add(executor.submit(new Callable<String>() {
+
+					@Override
+					public String call() throws Exception {
+						return compressor.postProcessBundle(getStatus(), new StringBuffer(CSS + suffix)).toString();
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				String margin = i % 5 == 0 ? "0" : (i % 5) + "px";
+				assertEquals(".myClass{color:#fff;margin:0}.class" + (i % 5) + "{margin:" + margin + "}",
+						results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package test.net.jawr.web.util;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import net.jawr.web.util.ChunkedCharSequence;
+import net.jawr.web.util.StringUtils;
+
+public class ChunkedCharSequenceTest extends TestCase {
+
+	public void testEmptySequence() {
+
+		ChunkedCharSequence seq = new ChunkedCharSequence();
+		assertEquals(0, seq.length());
+		assertEquals("", seq.toString());
+		assertEquals("", seq.toStringBuffer().toString());
+		assertEquals("", seq.subSequence(0, 0).toString());
+		assertTrue(seq.endsWith(""));
+		assertFalse(seq.endsWith("\n"));
+	}
+
+	public void testAppendDoesNotCopyChunks() {
+
+		StringBuffer member = new StringBuffer("a { b : c }\n");
+		ChunkedCharSequence seq = new ChunkedCharSequence();
+		seq.append(member).append("");
+		assertEquals(1, seq.getChunkCount());
+		assertSame(member, seq.toStringBuffer());
+
+		seq.append(new StringBuilder("d")).append("ef\n");
+		assertEquals(3, seq.getChunkCount());
+		assertEquals("a { b : c }\ndef\n", seq.toString());
+		assertEquals("a { b : c }\ndef\n", seq.toStringBuffer().toString());
+		assertTrue(seq.endsWith("f\n"));
+		assertFalse(seq.endsWith("e\n"));
+	}
+
+	public void testCharAtAndSubSequence() {
+
+		String[] fragments = { "", "a", "bc", "\n", "defgh", "éà" };
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			ChunkedCharSequence seq = new ChunkedCharSequence();
+			StringBuilder expected = new StringBuilder();
+			int count = random.nextInt(40);
+			for (int j = 0; j < count; j++) {
+				String fragment = fragments[random.nextInt(fragments.length)];
+				seq.append(fragment);
+				expected.append(fragment);
+			}
+			assertEquals(expected.length(), seq.length());
+			for (int j = 0; j < expected.length(); j++) {
+				assertEquals(expected.charAt(j), seq.charAt(j));
+			}
+			int start = expected.length() == 0 ? 0 : random.nextInt(expected.length());
+			int end = start + random.nextInt(expected.length() - start + 1);
+			assertEquals(expected.substring(start, end), seq.subSequence(start, end).toString());
+			assertEquals(expected.toString(), seq.toString());
+		}
+	}
+
+	public void testIndexOutOfBounds() {
+
+		ChunkedCharSequence seq = new ChunkedCharSequence().append("ab");
+		try {
+			seq.charAt(2);
+			fail("An IndexOutOfBoundsException should have been thrown");
+		} catch (IndexOutOfBoundsException e) {
+			// Expected
+		}
+		try {
+			seq.subSequence(1, 3);
+			fail("An IndexOutOfBoundsException should have been thrown");
+		} catch (IndexOutOfBoundsException e) {
+			// Expected
+		}
+	}
+
+	public void testGetChars() {
+
+		ChunkedCharSequence nested = new ChunkedCharSequence().append("de").append(new StringBuilder("f"));
+		ChunkedCharSequence seq = new ChunkedCharSequence().append("a").append(new StringBuffer("bc")).append(nested)
+				.append(new StringBuilder("gh"));
+		String expected = "abcdefgh";
+		for (int start = 0; start <= expected.length(); start++) {
+			for (int end = start; end <= expected.length(); end++) {
+				char[] chars = new char[end - start + 1];
+				seq.getChars(start, end, chars, 1);
+				assertEquals(expected.substring(start, end), new String(chars, 1, end - start));
+			}
+		}
+		try {
+			seq.getChars(2, 9, new char[10], 0);
+			fail("An IndexOutOfBoundsException should have been thrown");
+		} catch (IndexOutOfBoundsException e) {
+			// Expected
+		}
+	}
+
+	public void testStringUtilsToCharArray() {
+
+		ChunkedCharSequence seq = new ChunkedCharSequence().append("ab").append(new StringBuffer("c"));
+		assertEquals("abc", new String(StringUtils.toCharArray(seq)));
+		assertEquals("abc", new String(StringUtils.toCharArray("abc")));
+		assertEquals("abc", new String(StringUtils.toCharArray(new StringBuilder("abc"))));
+		assertEquals("bc", new String(StringUtils.toCharArray(seq.subSequence(1, 3))));
+		assertEquals(0, StringUtils.toCharArray("").length);
+	}
+
+	public void testStringUtilsEndsWith() {
+
+		assertTrue(StringUtils.endsWith(new StringBuffer("abc\n"), "\n"));
+		assertTrue(StringUtils.endsWith("abc", ""));
+		assertFalse(StringUtils.endsWith("", "\n"));
+		assertFalse(StringUtils.endsWith("abc", "abcd"));
+		assertFalse(StringUtils.endsWith("abc\r", "\n"));
+	}
+}
@@ -0,0 +1,112 @@
+package test.net.jawr.web.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.jawr.web.resource.bundle.IOUtils;
+import net.jawr.web.resource.handler.reader.DecodedResourceReader;
+import net.jawr.web.resource.handler.reader.FileChannelDecoder;
+import net.jawr.web.util.bom.BOM;
+import net.jawr.web.util.bom.UnicodeBOMReader;
+
+public class FileChannelDecoderTestCase {
+
+	private static final String CONTENT = "var hello = 'héllo world';";
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("jawr", ".js");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testDecodeWithoutBom() throws IOException {
+
+		writeFile(BOM.NONE, "UTF-8");
+		DecodedResourceReader rd = FileChannelDecoder.decode(file, Charset.forName("UTF-8").newDecoder());
+		Assert.assertEquals(BOM.NONE, rd.getBOM());
+		Assert.assertEquals(CONTENT, rd.getContent());
+	}
+
+	@Test
+	public void testDecodeWithBom() throws IOException {
+
+		testDecodeWithBom(BOM.UTF_8);
+		testDecodeWithBom(BOM.UTF_16_LE);
+		testDecodeWithBom(BOM.UTF_16_BE);
+	}
+
+	@Test
+	public void testDecodeLargeFile() throws IOException {
+
+		// The content is larger than the buffers, and multi-byte characters
+		// are split between two reads
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 30000; i++) {
+			content.append(CONTENT).append('\n');
+		}
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(BOM.UTF_8.getBytes());
+			out.write(content.toString().getBytes("UTF-8"));
+		}
+
+		DecodedResourceReader rd = FileChannelDecoder.decode(file, Charset.forName("UTF-8").newDecoder());
+		Assert.assertEquals(BOM.UTF_8, rd.getBOM());
+		Assert.assertEquals("\uFEFF" + content, rd.getContent());
+
+		// The file is not locked anymore
+		Assert.assertTrue(file.delete());
+	}
+
+	@Test
+	public void testDecodeEmptyFile() throws IOException {
+
+		DecodedResourceReader rd = FileChannelDecoder.decode(file, Charset.forName("UTF-8").newDecoder());
+		Assert.assertEquals(BOM.NONE, rd.getBOM());
+		Assert.assertEquals("", rd.getContent());
+	}
+
+	@Test
+	public void testChannelReadThreshold() throws IOException {
+
+		writeFile(BOM.NONE, "UTF-8");
+		Assert.assertTrue(FileChannelDecoder.isDecodedFromChannel(file, 0));
+		Assert.assertFalse(FileChannelDecoder.isDecodedFromChannel(file, file.length()));
+		Assert.assertFalse(FileChannelDecoder.isDecodedFromChannel(file, -1));
+		Assert.assertFalse(FileChannelDecoder.isDecodedFromChannel(file.getParentFile(), 0));
+	}
+
+	private void testDecodeWithBom(BOM bom) throws IOException {
+
+		writeFile(bom, bom.getCharset());
+		Charset charset = Charset.forName(bom.getCharset());
+		DecodedResourceReader rd = FileChannelDecoder.decode(file, charset.newDecoder());
+		Assert.assertEquals(bom, rd.getBOM());
+
+		// The BOM is skipped as it would be for a bundle member
+		UnicodeBOMReader bomReader = new UnicodeBOMReader(rd, charset, rd.getBOM());
+		bomReader.skipBOM();
+		Assert.assertEquals(CONTENT, IOUtils.toString(bomReader));
+	}
+
+	private void writeFile(BOM bom, String charsetName) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(bom.getBytes());
+			out.write(CONTENT.getBytes(charsetName));
+		}
+	}
+}
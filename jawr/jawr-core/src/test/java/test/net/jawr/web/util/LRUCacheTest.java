@@ -0,0 +1,95 @@
+package test.net.jawr.web.util;
+
+import junit.framework.TestCase;
+import net.jawr.web.util.LRUCache;
+
+public class LRUCacheTest extends TestCase {
+
+	/**
+	 * Returns a cache bounded by the length of its values
+	 */
+	private static LRUCache<String, String> createSizedCache(long maxSize) {
+		return new LRUCache<String, String>(maxSize) {
+
+			@Override
+			protected long getWeight(String value) {
+				return value.length();
+			}
+		};
+	}
+
+	public void testEntryCountBound() {
+
+		LRUCache<String, String> cache = new LRUCache<>(2);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		assertEquals("1", cache.get("a"));
+		cache.put("c", "3");
+
+		// "b" is the least recently used entry
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.getWeight());
+		assertNull(cache.get("b"));
+		assertEquals("1", cache.get("a"));
+		assertEquals("3", cache.get("c"));
+		assertEquals(3, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	public void testWeightBound() {
+
+		LRUCache<String, String> cache = createSizedCache(10);
+		cache.put("a", "aaaa");
+		cache.put("b", "bbbb");
+		assertEquals(8, cache.getWeight());
+
+		cache.put("a", "aaaaa");
+		assertEquals(9, cache.getWeight());
+
+		cache.put("c", "cccc");
+		assertEquals(9, cache.getWeight());
+		assertNull(cache.get("b"));
+		assertEquals("aaaaa", cache.get("a"));
+	}
+
+	public void testValueHeavierThanCacheIsNotStored() {
+
+		LRUCache<String, String> cache = createSizedCache(4);
+		cache.put("a", "aa");
+		cache.put("a", "aaaaa");
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.getWeight());
+		assertEquals(0, cache.size());
+	}
+
+	public void testPutIfAbsent() {
+
+		LRUCache<String, String> cache = createSizedCache(10);
+		assertNull(cache.putIfAbsent("a", "aa"));
+		assertEquals("aa", cache.putIfAbsent("a", "bb"));
+		assertEquals("aa", cache.get("a"));
+		assertEquals(2, cache.getWeight());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	public void testRemoveAndClear() {
+
+		LRUCache<String, String> cache = createSizedCache(10);
+		cache.put("a", "aa");
+		cache.put("b", "bbb");
+		cache.remove("a");
+		assertEquals(3, cache.getWeight());
+		cache.get("a");
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+		assertEquals(1, cache.getMissCount());
+		assertNull(cache.get("b"));
+
+		cache.resetCounts();
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+}
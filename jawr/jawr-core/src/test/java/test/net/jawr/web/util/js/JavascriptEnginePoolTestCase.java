@@ -0,0 +1,86 @@
+package test.net.jawr.web.util.js;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEnginePool;
+
+public class JavascriptEnginePoolTestCase {
+
+	@Test
+	public void testScriptsAreEvaluatedOnce() throws Exception {
+
+		JavascriptEnginePool pool = new JavascriptEnginePool(JawrConstant.DEFAULT_JS_ENGINE, false, 2);
+		pool.putBinding("prefix", "Hello ");
+		pool.addScript("loader.js", "var loadCount = (typeof loadCount == 'undefined') ? 1 : loadCount + 1;");
+		pool.addScript("greet.js", "function greet(name){ return prefix + name; }");
+
+		JavascriptEngine engine1 = pool.acquire();
+		JavascriptEngine engine2 = pool.acquire();
+		assertNotSame(engine1, engine2);
+		assertEquals(2, pool.getEngineCount());
+
+		assertEquals("Hello John", engine1.invokeFunction("greet", "John"));
+		assertEquals("Hello Jane", engine2.invokeFunction("greet", "Jane"));
+		assertEquals(1, ((Number) engine2.getContext().getAttribute("loadCount")).intValue());
+
+		// The engines have their own scope
+		engine1.evaluate("var own = 'engine1';");
+		assertEquals("engine1", engine1.evaluate("own"));
+		assertEquals("undefined", engine2.evaluate("typeof own"));
+
+		// The standard objects are shared, so they can't be modified
+		assertEquals("InternalError", engine2.evaluate("try { Array.prototype.foo = 1; 'ok'; } catch(e) { e.name; }"));
+
+		pool.release(engine1);
+		assertSame(engine1, pool.acquire());
+		assertEquals(2, pool.getEngineCount());
+	}
+
+	@Test
+	public void testConcurrentUse() throws Exception {
+
+		final JavascriptEnginePool pool = new JavascriptEnginePool(JawrConstant.DEFAULT_JS_ENGINE, false, 2);
+		pool.addScript("join.js", "function join(a, b){ var r = []; for(var i = 0; i < 1000; i++){ r.push(a); } return r.join('').length + b; }");
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] results = new Future<?>[20];
+			for (int i = 0; i < results.length; i++) {
+				final int idx = i;
+				results[i] = executor.submit(new Callable<Object>() {
+
+					@Override
+					public Object call() throws Exception {
+						JavascriptEngine engine = pool.acquire();
+						try {
+							return engine.invokeFunction("join", "a", Integer.toString(idx));
+						} finally {
+							pool.release(engine);
+						}
+					}
+				});
+			}
+
+			for (int i = 0; i < results.length; i++) {
+				assertEquals("1000" + i, results[i].get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// The pool never creates more engines than its maximum size
+		assertTrue(pool.getEngineCount() <= 2);
+	}
+}
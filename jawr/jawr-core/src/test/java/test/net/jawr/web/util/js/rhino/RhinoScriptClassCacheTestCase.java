@@ -0,0 +1,131 @@
+package test.net.jawr.web.util.js.rhino;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.jawr.web.JawrConstant;
+import net.jawr.web.util.js.JavascriptEngine;
+import net.jawr.web.util.js.JavascriptEnginePool;
+
+public class RhinoScriptClassCacheTestCase {
+
+	private static final String SCRIPT = "function add(a, b){ return a + b; }";
+
+	private File workingDir;
+
+	@Before
+	public void setUp() throws IOException {
+		workingDir = File.createTempFile("jawr", "");
+		workingDir.delete();
+		workingDir.mkdirs();
+	}
+
+	@After
+	public void tearDown() {
+		deleteDirectory(workingDir);
+	}
+
+	@Test
+	public void testScriptClassesArePersisted() throws Exception {
+
+		assertEquals("3", add(createPool(1)));
+
+		File classDir = new File(workingDir, JawrConstant.JS_ENGINE_SCRIPT_CLASS_DIR);
+		File[] files = classDir.listFiles();
+		assertEquals(1, files.length);
+		long lastModified = files[0].lastModified();
+
+		// The classes are loaded by a new pool, without compiling the script
+		assertEquals("3", add(createPool(1)));
+		files = classDir.listFiles();
+		assertEquals(1, files.length);
+		assertEquals(lastModified, files[0].lastModified());
+	}
+
+	@Test
+	public void testCorruptedClassesAreGeneratedAgain() throws Exception {
+
+		assertEquals("3", add(createPool(1)));
+		File classFile = new File(workingDir, JawrConstant.JS_ENGINE_SCRIPT_CLASS_DIR).listFiles()[0];
+		try (OutputStream out = new FileOutputStream(classFile)) {
+			out.write(new byte[] { 0, 0, 0, 1, 0 });
+		}
+
+		assertEquals("3", add(createPool(1)));
+		assertTrue(classFile.length() > 5);
+	}
+
+	@Test
+	public void testInvalidClassLengthIsIgnored() throws Exception {
+
+		assertEquals("3", add(createPool(1)));
+		File classFile = new File(workingDir, JawrConstant.JS_ENGINE_SCRIPT_CLASS_DIR).listFiles()[0];
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(classFile))) {
+			out.writeInt(1);
+			out.writeUTF("Script");
+			out.writeInt(Integer.MAX_VALUE);
+		}
+
+		assertEquals("3", add(createPool(1)));
+		assertTrue(classFile.length() > 14);
+	}
+
+	@Test
+	public void testModifiedClassesAreGeneratedAgain() throws Exception {
+
+		assertEquals("3", add(createPool(1)));
+		File classFile = new File(workingDir, JawrConstant.JS_ENGINE_SCRIPT_CLASS_DIR).listFiles()[0];
+		byte[] content = Files.readAllBytes(classFile.toPath());
+		content[content.length / 2] ^= 1;
+		Files.write(classFile.toPath(), content);
+
+		assertEquals("3", add(createPool(1)));
+		assertFalse(Arrays.equals(content, Files.readAllBytes(classFile.toPath())));
+	}
+
+	@Test
+	public void testNoClassesForInterpretedScripts() throws Exception {
+
+		assertEquals("3", add(createPool(-1)));
+		assertEquals(0, workingDir.listFiles().length);
+	}
+
+	private JavascriptEnginePool createPool(int optimizationLevel) {
+		JavascriptEnginePool pool = new JavascriptEnginePool(JawrConstant.DEFAULT_JS_ENGINE, false, 1);
+		pool.setScriptClassCache(workingDir.getAbsolutePath(), optimizationLevel);
+		pool.addScript("add.js", SCRIPT);
+		return pool;
+	}
+
+	private String add(JavascriptEnginePool pool) throws Exception {
+		JavascriptEngine engine = pool.acquire();
+		try {
+			return String.valueOf(((Number) engine.invokeFunction("add", 1, 2)).intValue());
+		} finally {
+			pool.release(engine);
+		}
+	}
+
+	private void deleteDirectory(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				deleteDirectory(file);
+			}
+		}
+		dir.delete();
+	}
+}
@@ -0,0 +1,4 @@
+// The application
+var app = {
+    name : "app"
+};
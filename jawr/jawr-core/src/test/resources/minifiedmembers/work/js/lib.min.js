@@ -0,0 +1,2 @@
+/*! lib */
+var  lib = {   version : 1 };